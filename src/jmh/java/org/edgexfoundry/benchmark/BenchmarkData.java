@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+
+/**
+ * Builds the events and readings used by the benchmarks.
+ */
+public final class BenchmarkData {
+
+  public static final String DEVICE = "benchmark-device";
+
+  public static final String VALUE_DESCRIPTOR_PREFIX = "benchmark-value-";
+
+  // number of distinct value descriptor (reading) names in generated events
+  public static final int VALUE_DESCRIPTORS = 5;
+
+  private BenchmarkData() {}
+
+  /**
+   * Create an event for the benchmark device with the given number of readings, cycling through
+   * the benchmark value descriptor names.
+   * 
+   * @param readings - number of readings in the event
+   * @return new event
+   */
+  public static Event newEvent(int readings) {
+    List<Reading> list = new ArrayList<>(readings);
+    for (int i = 0; i < readings; i++)
+      list.add(new Reading(VALUE_DESCRIPTOR_PREFIX + (i % VALUE_DESCRIPTORS), String.valueOf(i)));
+    return new Event(DEVICE, list);
+  }
+
+  /**
+   * Create a list of events as returned by a device query.
+   * 
+   * @param events - number of events
+   * @param readings - number of readings per event
+   * @return new events
+   */
+  public static List<Event> newEvents(int events, int readings) {
+    List<Event> list = new ArrayList<>(events);
+    for (int i = 0; i < events; i++)
+      list.add(newEvent(readings));
+    return list;
+  }
+
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmarks the JSON deserialization of event and reading request bodies, using a Jackson object
+ * mapper built the way Spring MVC builds the one behind @RequestBody.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RequestBodyBenchmark {
+
+  @Param({"1", "10", "100"})
+  private int readings;
+
+  private ObjectMapper mapper;
+
+  private byte[] eventJson;
+
+  private byte[] readingJson;
+
+  @Setup
+  public void setup() throws IOException {
+    mapper = Jackson2ObjectMapperBuilder.json().build();
+    Event event = BenchmarkData.newEvent(readings);
+    eventJson = mapper.writeValueAsBytes(event);
+    readingJson = mapper.writeValueAsBytes(event.getReadings().get(0));
+  }
+
+  @Benchmark
+  public Event readEvent() throws IOException {
+    return mapper.readValue(eventJson, Event.class);
+  }
+
+  @Benchmark
+  public Reading readReading() throws IOException {
+    return mapper.readValue(readingJson, Reading.class);
+  }
+
+}
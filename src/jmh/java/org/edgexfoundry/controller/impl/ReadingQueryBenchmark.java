@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.benchmark.BenchmarkData;
+import org.edgexfoundry.cache.RecentReadingsCache;
+import org.edgexfoundry.dao.QueryDao;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Benchmarks the stream pipelines that assemble readings from the events of a device. The query DAO
+ * is a mock returning a fixed list of in-memory events, so the results measure the
+ * controller's processing (plus a small constant mock overhead) rather than the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadingQueryBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int limit;
+
+  @Param({"1", "10"})
+  private int readingsPerEvent;
+
+  private ReadingControllerImpl readingController;
+
+  private EventControllerImpl eventController;
+
+  @Setup
+  public void setup() {
+    List<Event> events = BenchmarkData.newEvents(limit, readingsPerEvent);
+    QueryDao queryDao = mock(QueryDao.class);
+    when(queryDao.eventsByDevice(eq(BenchmarkData.DEVICE), anyInt())).thenReturn(events);
+    readingController = new ReadingControllerImpl();
+    readingController.queryDao = queryDao;
+    // never a hit, so the assembly from events is what is measured
+    RecentReadingsCache recentReadings = mock(RecentReadingsCache.class);
+    when(recentReadings.readingsByDevice(anyString(), anyInt())).thenReturn(null);
+    readingController.recentReadings = recentReadings;
+    configure(readingController);
+    eventController = new EventControllerImpl();
+    eventController.queryDao = queryDao;
+    configure(eventController);
+  }
+
+  @Benchmark
+  public List<Reading> readingsForDevice() {
+    return readingController.readings(BenchmarkData.DEVICE, limit);
+  }
+
+  @Benchmark
+  public List<Reading> readingsForDeviceAndValueDescriptor() {
+    return eventController.readingsForDeviceAndValueDescriptor(BenchmarkData.DEVICE,
+        BenchmarkData.VALUE_DESCRIPTOR_PREFIX + 0, limit);
+  }
+
+  private void configure(Object controller) {
+    ReflectionTestUtils.setField(controller, "maxLimit", Integer.MAX_VALUE);
+    ReflectionTestUtils.setField(controller, "metaCheck", false);
+  }
+
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.domain.common.ValueDescriptor;
+import org.edgexfoundry.test.data.ValueDescriptorData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Benchmarks the validation of value descriptor format strings done on value descriptor add and
+ * update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValueDescriptorValidationBenchmark {
+
+  // formatSpecifier from application.properties
+  private static final String FORMAT_SPECIFIER =
+      "%(\\d+\\$)?([-#+ 0,(\\<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])";
+
+  @Param({"%s", "%.2f", "%1$-10d"})
+  private String formatting;
+
+  private ValueDescriptorControllerImpl controller;
+
+  private ValueDescriptor valueDescriptor;
+
+  @Setup
+  public void setup() {
+    controller = new ValueDescriptorControllerImpl();
+    ReflectionTestUtils.setField(controller, "formatSpecifier", FORMAT_SPECIFIER);
+    valueDescriptor = ValueDescriptorData.newTestInstance();
+    valueDescriptor.setFormatting(formatting);
+  }
+
+  @Benchmark
+  public boolean validateFormatString() {
+    return controller.validateFormatString(valueDescriptor);
+  }
+
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging.impl;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.benchmark.BenchmarkData;
+import org.edgexfoundry.domain.core.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the serialization of events put on the ZeroMQ export queue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ZeroMQSerializationBenchmark {
+
+  @Param({"1", "10", "100"})
+  private int readings;
+
+  private ZeroMQEventPublisherImpl publisher;
+
+  private Event event;
+
+  @Setup
+  public void setup() {
+    publisher = new ZeroMQEventPublisherImpl();
+    event = BenchmarkData.newEvent(readings);
+  }
+
+  @Benchmark
+  public byte[] toByteArray() throws IOException {
+    return publisher.toByteArray(event);
+  }
+
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.loadtest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.edgexfoundry.messaging.EventBatch;
+import org.zeromq.ZMQ;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+/**
+ * Subscribes to the events core data puts on the ZeroMQ export queue (like MessageTestClient) and
+ * records when each event, by id, was received.
+ */
+public class EventSubscriber implements Runnable {
+
+  private static final int RECEIVE_TIMEOUT = 100;
+
+  private final String address;
+
+  private final Map<String, Long> received = new ConcurrentHashMap<>();
+
+  private volatile boolean running = true;
+
+  private final JsonParser parser = new JsonParser();
+
+  /**
+   * @param address - ZeroMQ address to connect to (e.g. tcp://localhost:5563)
+   */
+  public EventSubscriber(String address) {
+    this.address = address;
+  }
+
+  @Override
+  public void run() {
+    ZMQ.Context context = ZMQ.context(1);
+    ZMQ.Socket subscriber = context.socket(ZMQ.SUB);
+    try {
+      subscriber.setReceiveTimeOut(RECEIVE_TIMEOUT);
+      subscriber.connect(address);
+      subscriber.subscribe("".getBytes());
+      while (running) {
+        byte[] message = subscriber.recv();
+        // skip the topic frame when core data publishes with topics
+        while (message != null && subscriber.hasReceiveMore())
+          message = subscriber.recv();
+        if (message != null) {
+          long now = System.nanoTime();
+          List<byte[]> events = EventBatch.isBatch(message) ? EventBatch.payloads(message)
+              : Collections.singletonList(message);
+          for (byte[] event : events) {
+            JsonElement id = parser.parse(new String(event)).getAsJsonObject().get("id");
+            if (id != null && !id.isJsonNull())
+              received.put(id.getAsString(), now);
+          }
+        }
+      }
+    } finally {
+      subscriber.close();
+      context.term();
+    }
+  }
+
+  public void stop() {
+    running = false;
+  }
+
+  /**
+   * @return System.nanoTime() of receipt by event id
+   */
+  public Map<String, Long> getReceived() {
+    return received;
+  }
+
+}
@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.edgexfoundry.Application;
+import org.edgexfoundry.dao.ValueDescriptorRepository;
+import org.edgexfoundry.domain.common.ValueDescriptor;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.edgexfoundry.test.data.ValueDescriptorData;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.google.gson.Gson;
+import com.mongodb.BasicDBObject;
+import com.mongodb.MongoClient;
+
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.IMongodConfig;
+import de.flapdoodle.embed.mongo.config.MongodConfigBuilder;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+
+/**
+ * This is not a test class!!
+ * 
+ * End to end ingest load generator. Starts an embedded Mongo DB, boots the core data service
+ * against it (metadata checks off, no other EdgeX services needed), subscribes to the ZeroMQ export
+ * queue and drives POST /api/v1/event. Reports ingest throughput, request latency percentiles and
+ * publish lag (POST start to receipt of the event on the export queue).
+ * 
+ * Configured by system properties (defaults in parentheses): loadtest.devices (10),
+ * loadtest.readings (5 readings per event), loadtest.concurrency (8 client threads),
+ * loadtest.events (20000), loadtest.warmup (2000 events not measured), loadtest.drain (5000 ms to
+ * wait for outstanding export messages). Any other system property (e.g. persist.data or
+ * request.async.enabled) is passed on to the service.
+ * 
+ * Run with: mvn -P loadtest -DskipTests verify -Dloadtest.args="-Dloadtest.concurrency=32"
+ */
+public class IngestLoadTest {
+
+  private static final String DATABASE = "coredata";
+
+  private static final String USERNAME = "core";
+
+  private static final String PASSWORD = "password";
+
+  private static final String DEVICE_PREFIX = "loadtest-device-";
+
+  private static final String VALUE_DESCRIPTOR_PREFIX = "loadtest-value-";
+
+  private static final String EMBEDDED_MONGO_AUTO_CONFIG =
+      "org.springframework.boot.autoconfigure.mongo.embedded.EmbeddedMongoAutoConfiguration";
+
+  private static final long FAILED = -1;
+
+  private final int devices = Integer.getInteger("loadtest.devices", 10);
+
+  private final int readings = Integer.getInteger("loadtest.readings", 5);
+
+  private final int concurrency = Integer.getInteger("loadtest.concurrency", 8);
+
+  private final int events = Integer.getInteger("loadtest.events", 20000);
+
+  private final int warmup = Integer.getInteger("loadtest.warmup", 2000);
+
+  private final long drain = Long.getLong("loadtest.drain", 5000);
+
+  private final Gson gson = new Gson();
+
+  private String eventUrl;
+
+  public static void main(String[] args) throws Exception {
+    new IngestLoadTest().run();
+    System.exit(0);
+  }
+
+  private void run() throws Exception {
+    int mongoPort = Network.getFreeServerPort();
+    int httpPort = Network.getFreeServerPort();
+    int zeromqPort = Network.getFreeServerPort();
+    MongodExecutable mongod = startMongo(mongoPort);
+    ConfigurableApplicationContext ctx = null;
+    EventSubscriber subscriber = new EventSubscriber("tcp://localhost:" + zeromqPort);
+    try {
+      ctx = new SpringApplicationBuilder(Application.class)
+          .properties("spring.data.mongodb.host=localhost",
+              "spring.data.mongodb.port=" + mongoPort, "server.port=" + httpPort,
+              "zeromq.addressport=tcp://*:" + zeromqPort, "metadata.check=false",
+              "spring.autoconfigure.exclude=" + EMBEDDED_MONGO_AUTO_CONFIG)
+          .run();
+      eventUrl = "http://localhost:" + httpPort + "/api/v1/event";
+      addValueDescriptors(ctx.getBean(ValueDescriptorRepository.class));
+      Thread subscriberThread = new Thread(subscriber, "loadtest-subscriber");
+      subscriberThread.start();
+
+      System.out.println(String.format(
+          "Load test: %d devices, %d readings per event, %d client threads, %d events (%d warmup)",
+          devices, readings, concurrency, events, warmup));
+      drive(warmup, null, null);
+      long[] latencies = new long[events];
+      Map<String, Long> sent = new ConcurrentHashMap<>();
+      long start = System.nanoTime();
+      int errors = drive(events, latencies, sent);
+      long elapsed = System.nanoTime() - start;
+      awaitPublished(subscriber, sent);
+      subscriber.stop();
+      subscriberThread.join();
+      report(elapsed, errors, latencies, sent, subscriber.getReceived());
+      System.out.println(fetch("http://localhost:" + httpPort + "/api/v1/metrics"));
+    } finally {
+      subscriber.stop();
+      if (ctx != null)
+        ctx.close();
+      mongod.stop();
+    }
+  }
+
+  private MongodExecutable startMongo(int port) throws IOException {
+    IMongodConfig config = new MongodConfigBuilder().version(Version.Main.PRODUCTION)
+        .net(new Net(port, Network.localhostIsIPv6())).build();
+    MongodExecutable mongod = MongodStarter.getDefaultInstance().prepare(config);
+    mongod.start();
+    // the service always authenticates, so create its user
+    MongoClient client = new MongoClient("localhost", port);
+    try {
+      client.getDB(DATABASE).command(new BasicDBObject("createUser", USERNAME)
+          .append("pwd", PASSWORD).append("roles", Arrays.asList("readWrite")));
+    } finally {
+      client.close();
+    }
+    return mongod;
+  }
+
+  private void addValueDescriptors(ValueDescriptorRepository repos) {
+    for (int i = 0; i < readings; i++) {
+      ValueDescriptor valueDescriptor = ValueDescriptorData.newTestInstance();
+      valueDescriptor.setName(VALUE_DESCRIPTOR_PREFIX + i);
+      repos.save(valueDescriptor);
+    }
+  }
+
+  /**
+   * Post count events from the configured number of client threads. Failed requests have a
+   * latency of FAILED.
+   * 
+   * @return number of failed requests
+   */
+  private int drive(int count, long[] latencies, Map<String, Long> sent)
+      throws InterruptedException {
+    AtomicInteger next = new AtomicInteger();
+    AtomicInteger errors = new AtomicInteger();
+    ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+    for (int t = 0; t < concurrency; t++) {
+      clients.execute(() -> {
+        for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+          byte[] body = gson.toJson(newEvent(i)).getBytes(StandardCharsets.UTF_8);
+          long start = System.nanoTime();
+          try {
+            String id = post(body);
+            if (latencies != null) {
+              latencies[i] = System.nanoTime() - start;
+              sent.put(id, start);
+            }
+          } catch (IOException e) {
+            if (latencies != null)
+              latencies[i] = FAILED;
+            errors.incrementAndGet();
+          }
+        }
+      });
+    }
+    clients.shutdown();
+    clients.awaitTermination(1, TimeUnit.DAYS);
+    return errors.get();
+  }
+
+  private Event newEvent(int sequence) {
+    List<Reading> eventReadings = new ArrayList<>(readings);
+    for (int i = 0; i < readings; i++)
+      eventReadings.add(new Reading(VALUE_DESCRIPTOR_PREFIX + i, String.valueOf(sequence)));
+    return new Event(DEVICE_PREFIX + (sequence % devices), eventReadings);
+  }
+
+  private String post(byte[] body) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(eventUrl).openConnection();
+    connection.setRequestMethod("POST");
+    connection.setRequestProperty("Content-Type", "application/json");
+    connection.setDoOutput(true);
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write(body);
+    }
+    if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+      drainQuietly(connection.getErrorStream());
+      throw new IOException("Event post failed with HTTP " + connection.getResponseCode());
+    }
+    try (InputStream in = connection.getInputStream()) {
+      return read(in);
+    }
+  }
+
+  private void awaitPublished(EventSubscriber subscriber, Map<String, Long> sent)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + drain;
+    while (System.currentTimeMillis() < deadline
+        && !subscriber.getReceived().keySet().containsAll(sent.keySet()))
+      Thread.sleep(100);
+  }
+
+  private void report(long elapsed, int errors, long[] latencies, Map<String, Long> sent,
+      Map<String, Long> received) {
+    double seconds = elapsed / 1e9;
+    int succeeded = events - errors;
+    long[] lags = sent.entrySet().stream().filter(e -> received.containsKey(e.getKey()))
+        .mapToLong(e -> received.get(e.getKey()) - e.getValue()).toArray();
+    System.out.println(String.format("Throughput: %.1f events/s, %.1f readings/s, %d errors",
+        succeeded / seconds, succeeded * (double) readings / seconds, errors));
+    long[] succeededLatencies =
+        Arrays.stream(latencies).filter(latency -> latency != FAILED).toArray();
+    System.out.println("Request latency: " + new LatencyStats(succeededLatencies) + ", " + errors
+        + " failed requests excluded");
+    System.out.println("Publish lag: " + new LatencyStats(lags) + ", "
+        + (sent.size() - lags.length) + " events not received");
+  }
+
+  private String fetch(String url) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    try (InputStream in = connection.getInputStream()) {
+      return read(in);
+    }
+  }
+
+  private static String read(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[1024];
+    for (int n = in.read(buffer); n != -1; n = in.read(buffer))
+      out.write(buffer, 0, n);
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static void drainQuietly(InputStream in) {
+    if (in == null)
+      return;
+    try {
+      read(in);
+      in.close();
+    } catch (IOException e) {
+      // connection is discarded anyway
+    }
+  }
+
+}
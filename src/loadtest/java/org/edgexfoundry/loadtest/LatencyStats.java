@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Summarizes a set of recorded durations (in nanoseconds) as percentiles in milliseconds.
+ */
+public class LatencyStats {
+
+  private final long[] sorted;
+
+  /**
+   * @param nanos - recorded durations, of successful operations only
+   */
+  public LatencyStats(long[] nanos) {
+    sorted = Arrays.stream(nanos).sorted().toArray();
+  }
+
+  public int getCount() {
+    return sorted.length;
+  }
+
+  /**
+   * Return the duration at the given percentile.
+   * 
+   * @param percentile - between 0 and 100
+   * @return duration in milliseconds
+   */
+  public double percentile(double percentile) {
+    if (sorted.length == 0)
+      return 0;
+    int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+    return toMillis(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+  }
+
+  public double max() {
+    return sorted.length == 0 ? 0 : toMillis(sorted[sorted.length - 1]);
+  }
+
+  public double mean() {
+    return sorted.length == 0 ? 0 : toMillis((long) Arrays.stream(sorted).average().getAsDouble());
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "count=%d mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms", getCount(),
+        mean(), percentile(50), percentile(90), percentile(99), percentile(99.9), max());
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1e6;
+  }
+
+}
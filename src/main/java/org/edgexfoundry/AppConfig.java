@@ -22,9 +22,16 @@ import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.List;
 
+import org.edgexfoundry.dao.Storage;
+import org.edgexfoundry.dao.mongo.EntityWriteConcernResolver;
+import org.edgexfoundry.domain.common.ValueDescriptor;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.mongodb.MongoDbFactory;
 import org.springframework.data.mongodb.config.AbstractMongoConfiguration;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
@@ -35,17 +42,29 @@ import com.mongodb.Mongo;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientOptions;
 import com.mongodb.MongoCredential;
+import com.mongodb.ReadPreference;
 import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
 
 /**
  * Configures Mongo DB. This configuration allows the MongoClientOptions to be used - thereby
- * allowing timeouts and wait times to override defaults.
+ * allowing timeouts, wait times, connection pool sizing and the default write concern to override
+ * defaults. Events, readings and value descriptors can each be written with their own write concern
+ * (see EntityWriteConcernResolver). Connection pool activity is published as metrics (see
+ * MongoPoolMetrics). Historical queries can be routed to replica set secondaries or the nearest
+ * member through a second template with its own read preference (see QueryDao); ingest and
+ * read-after-write paths always use the primary template. Only active with the Mongo DB storage
+ * backend (the default, see Storage).
  * 
  */
 @Configuration
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.MONGO,
+    matchIfMissing = true)
 @EnableMongoAuditing
 public class AppConfig extends AbstractMongoConfiguration {
 
+  public static final String QUERY_TEMPLATE = "queryMongoTemplate";
+
   @Value("${spring.data.mongodb.username}")
   private String username;
 
@@ -73,6 +92,39 @@ public class AppConfig extends AbstractMongoConfiguration {
   @Value("${spring.data.mongodb.socketKeepAlive}")
   private boolean socketKeepAlive;
 
+  @Value("${spring.data.mongodb.connectionsPerHost:100}")
+  private int connectionsPerHost;
+
+  @Value("${spring.data.mongodb.minConnectionsPerHost:0}")
+  private int minConnectionsPerHost;
+
+  @Value("${spring.data.mongodb.maxConnectionIdleTime:0}")
+  private int maxConnectionIdleTime;
+
+  @Value("${spring.data.mongodb.maxConnectionLifeTime:0}")
+  private int maxConnectionLifeTime;
+
+  @Value("${spring.data.mongodb.threadsAllowedToBlockForConnectionMultiplier:5}")
+  private int threadsAllowedToBlockForConnectionMultiplier;
+
+  @Value("${spring.data.mongodb.writeConcern:ACKNOWLEDGED}")
+  private String writeConcern;
+
+  @Value("${spring.data.mongodb.eventWriteConcern:}")
+  private String eventWriteConcern;
+
+  @Value("${spring.data.mongodb.readingWriteConcern:}")
+  private String readingWriteConcern;
+
+  @Value("${spring.data.mongodb.valueDescriptorWriteConcern:}")
+  private String valueDescriptorWriteConcern;
+
+  @Value("${spring.data.mongodb.replicaSet:}")
+  private String replicaSet;
+
+  @Value("${spring.data.mongodb.queryReadPreference:primary}")
+  private String queryReadPreference;
+
   private MongoClient client;
 
   @Override
@@ -90,8 +142,23 @@ public class AppConfig extends AbstractMongoConfiguration {
   }
 
   @Override
+  @Primary
   public @Bean MongoTemplate mongoTemplate() throws Exception {
-    return new MongoTemplate(mongoDbFactory());
+    MongoTemplate template = new MongoTemplate(mongoDbFactory());
+    template.setWriteConcernResolver(getWriteConcernResolver());
+    return template;
+  }
+
+  /**
+   * Template for the historical query endpoints. Reads use the configured query read preference
+   * (primary, primaryPreferred, secondary, secondaryPreferred or nearest) so that read heavy
+   * clients can be served by secondaries without competing with ingest writes on the primary.
+   */
+  @Bean(name = QUERY_TEMPLATE)
+  public MongoTemplate queryMongoTemplate() throws Exception {
+    MongoTemplate template = new MongoTemplate(mongoDbFactory(), mappingMongoConverter());
+    template.setReadPreference(ReadPreference.valueOf(queryReadPreference));
+    return template;
   }
 
   private MongoClient getClient() throws UnknownHostException {
@@ -113,7 +180,24 @@ public class AppConfig extends AbstractMongoConfiguration {
 
   private MongoClientOptions getMongoClientOptions() {
     return MongoClientOptions.builder().connectTimeout(connectTimeout).socketTimeout(socketTimeout)
-        .maxWaitTime(maxWaitTime).socketKeepAlive(socketKeepAlive).build();
+        .maxWaitTime(maxWaitTime).socketKeepAlive(socketKeepAlive)
+        .connectionsPerHost(connectionsPerHost).minConnectionsPerHost(minConnectionsPerHost)
+        .maxConnectionIdleTime(maxConnectionIdleTime).maxConnectionLifeTime(maxConnectionLifeTime)
+        .threadsAllowedToBlockForConnectionMultiplier(threadsAllowedToBlockForConnectionMultiplier)
+        .writeConcern(getWriteConcern())
+        .requiredReplicaSetName(replicaSet.isEmpty() ? null : replicaSet).build();
+  }
+
+  private WriteConcern getWriteConcern() {
+    WriteConcern concern = EntityWriteConcernResolver.parse(writeConcern);
+    return concern != null ? concern : WriteConcern.ACKNOWLEDGED;
+  }
+
+  private EntityWriteConcernResolver getWriteConcernResolver() {
+    return new EntityWriteConcernResolver()
+        .with(Event.class, EntityWriteConcernResolver.parse(eventWriteConcern))
+        .with(Reading.class, EntityWriteConcernResolver.parse(readingWriteConcern))
+        .with(ValueDescriptor.class, EntityWriteConcernResolver.parse(valueDescriptorWriteConcern));
   }
 
 }
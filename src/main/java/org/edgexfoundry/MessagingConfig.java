@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.edgexfoundry.messaging.CompositeEventPublisher;
+import org.edgexfoundry.messaging.EventPublisher;
+import org.edgexfoundry.messaging.JournaledEventPublisher;
+import org.edgexfoundry.messaging.OutboundJournal;
+import org.edgexfoundry.messaging.impl.ActiveMQEventPublisherImpl;
+import org.edgexfoundry.messaging.impl.MqttEventPublisherImpl;
+import org.edgexfoundry.messaging.impl.ZeroMQEventPublisherImpl;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.core.JmsTemplate;
+
+/**
+ * Configures the event publisher (see EventPublisher) selected by the msgpub.type property - zero
+ * for ZeroMQ (the default), mqtt for an MQTT broker or activemq for ActiveMQ (uncomment the
+ * ActiveMQ JMS template in spring-config.xml). Several comma separated types (e.g. zero,mqtt)
+ * publish each event on all of them, each transport with its own queue and worker (see
+ * CompositeEventPublisher). With msgpub.journal.enabled, events are journaled on disk and
+ * retried until published (see JournaledEventPublisher); this needs a single type whose publisher
+ * confirms delivery - mqtt with a QoS of 1 or 2, or activemq without batching, async send or
+ * non-persistent delivery. The publisher is closed with the application context, sending what it
+ * still has batched or queued.
+ */
+@Configuration
+public class MessagingConfig {
+
+  public static final String TYPE_PROPERTY = "msgpub.type";
+
+  public static final String ZEROMQ = "zero";
+
+  public static final String MQTT = "mqtt";
+
+  public static final String ACTIVEMQ = "activemq";
+
+  /**
+   * Name of the ActiveMQ JMS template bean of spring-config.xml.
+   */
+  public static final String ACTIVEMQ_TEMPLATE = "jmsMessagingTemplate";
+
+  @Autowired
+  BeanFactory beanFactory;
+
+  @Autowired
+  MetricsRegistry metrics;
+
+  @Value("${" + TYPE_PROPERTY + ":" + ZEROMQ + "}")
+  private String[] types;
+
+  @Value("${msgpub.queue.capacity:10000}")
+  private int queueCapacity;
+
+  @Value("${msgpub.batch.size:1}")
+  private int batchSize;
+
+  @Value("${msgpub.batch.linger:10}")
+  private long batchLinger;
+
+  @Value("${msgpub.compression:false}")
+  private boolean compression;
+
+  @Value("${msgpub.compression.threshold:1024}")
+  private int compressionThreshold;
+
+  @Value("${msgpub.journal.enabled:false}")
+  private boolean journalEnabled;
+
+  @Value("${msgpub.journal.dir:./data/outbound}")
+  private String journalDir;
+
+  @Value("${msgpub.journal.segment.size:16777216}")
+  private int journalSegmentSize;
+
+  @Value("${msgpub.journal.max.size:1073741824}")
+  private long journalMaxSize;
+
+  @Value("${msgpub.journal.sync:false}")
+  private boolean journalSync;
+
+  @Value("${msgpub.journal.retry.min:100}")
+  private long journalRetryMin;
+
+  @Value("${msgpub.journal.retry.max:30000}")
+  private long journalRetryMax;
+
+  @Value("${zeromq.addressport}")
+  private String zeromqAddressPort;
+
+  @Value("${zeromq.topic:}")
+  private String zeromqTopic;
+
+  @Value("${zeromq.shards:1}")
+  private int zeromqShards;
+
+  @Value("${zeromq.io.threads:1}")
+  private int zeromqIoThreads;
+
+  @Value("${zeromq.shard.queue.capacity:10000}")
+  private int zeromqShardQueueCapacity;
+
+  @Value("${activemq.async.send:true}")
+  private boolean activemqAsyncSend;
+
+  @Value("${activemq.persistent:true}")
+  private boolean activemqPersistent;
+
+  @Value("${activemq.object.message:false}")
+  private boolean activemqObjectMessage;
+
+  @Value("${mqtt.broker:tcp://localhost:1883}")
+  private String mqttBroker;
+
+  @Value("${mqtt.client.id:core-data}")
+  private String mqttClientId;
+
+  @Value("${mqtt.username:}")
+  private String mqttUsername;
+
+  @Value("${mqtt.password:}")
+  private String mqttPassword;
+
+  @Value("${mqtt.topic:edgex/events/{device}}")
+  private String mqttTopic;
+
+  @Value("${mqtt.qos:0}")
+  private int mqttQos;
+
+  @Value("${mqtt.max.inflight:100}")
+  private int mqttMaxInflight;
+
+  @Value("${mqtt.publish.timeout:1000}")
+  private long mqttPublishTimeout;
+
+  @Value("${mqtt.offline.buffer.size:10000}")
+  private int mqttOfflineBufferSize;
+
+  /**
+   * The event publisher of the configured type, or a publisher to all the configured types,
+   * behind the outbound journal if enabled.
+   */
+  @Bean(destroyMethod = "close")
+  public EventPublisher eventPublisher() throws MqttException, IOException {
+    EventPublisher publisher;
+    if (types.length == 1) {
+      publisher = transport(types[0].trim());
+    } else {
+      CompositeEventPublisher composite = new CompositeEventPublisher(metrics, queueCapacity);
+      for (String type : types)
+        composite.addTransport(type.trim(), transport(type.trim()));
+      publisher = composite;
+    }
+    if (!journalEnabled)
+      return publisher;
+    if (!publisher.confirmsDelivery())
+      throw new IllegalStateException("msgpub.journal.enabled needs a " + TYPE_PROPERTY
+          + " whose publisher confirms delivery - " + MQTT + " with mqtt.qos=1 or 2, or " + ACTIVEMQ
+          + " with activemq.async.send=false, activemq.persistent=true and msgpub.batch.size=1");
+    OutboundJournal journal = OutboundJournal.open(Paths.get(journalDir), journalSegmentSize,
+        journalMaxSize, journalSync);
+    return new JournaledEventPublisher(journal, publisher, metrics, journalRetryMin,
+        journalRetryMax);
+  }
+
+  private EventPublisher transport(String type) throws MqttException {
+    switch (type) {
+      case ZEROMQ:
+        return zeroMQEventProducer();
+      case MQTT:
+        return mqttEventProducer();
+      case ACTIVEMQ:
+        return activeMQEventProducer();
+      default:
+        throw new IllegalArgumentException("Unknown " + TYPE_PROPERTY + ":  " + type);
+    }
+  }
+
+  private EventPublisher zeroMQEventProducer() {
+    ZeroMQEventPublisherImpl publisher = new ZeroMQEventPublisherImpl();
+    publisher.setZeromqAddressPort(zeromqAddressPort);
+    publisher.setTopic(zeromqTopic);
+    publisher.setShards(zeromqShards);
+    publisher.setIoThreads(zeromqIoThreads);
+    publisher.setShardQueueCapacity(zeromqShardQueueCapacity);
+    publisher.setBatchSize(batchSize);
+    publisher.setBatchLinger(batchLinger);
+    publisher.setCompression(compression);
+    publisher.setCompressionThreshold(compressionThreshold);
+    return publisher;
+  }
+
+  private EventPublisher activeMQEventProducer() {
+    ActiveMQEventPublisherImpl publisher = new ActiveMQEventPublisherImpl();
+    publisher.setTemplate(beanFactory.getBean(ACTIVEMQ_TEMPLATE, JmsTemplate.class));
+    publisher.setObjectMessage(activemqObjectMessage);
+    publisher.setSynchronousSend(!activemqAsyncSend && activemqPersistent);
+    publisher.setBatchSize(batchSize);
+    publisher.setBatchLinger(batchLinger);
+    publisher.setCompression(compression);
+    publisher.setCompressionThreshold(compressionThreshold);
+    return publisher;
+  }
+
+  private EventPublisher mqttEventProducer() throws MqttException {
+    MqttEventPublisherImpl publisher = new MqttEventPublisherImpl();
+    publisher.setBrokerUrl(mqttBroker);
+    publisher.setClientId(mqttClientId);
+    publisher.setUsername(mqttUsername);
+    publisher.setPassword(mqttPassword);
+    publisher.setTopic(mqttTopic);
+    publisher.setQos(mqttQos);
+    publisher.setMaxInflight(mqttMaxInflight);
+    publisher.setPublishTimeout(mqttPublishTimeout);
+    publisher.setOfflineBufferSize(mqttOfflineBufferSize);
+    publisher.setCompression(compression);
+    publisher.setCompressionThreshold(compressionThreshold);
+    publisher.setConfirmDelivery(journalEnabled);
+    publisher.start();
+    return publisher;
+  }
+
+}
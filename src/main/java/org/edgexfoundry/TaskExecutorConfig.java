@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configures the bounded thread pools used by the stages of event post processing (see
+ * ThreadTasks). Each stage has its own concurrency limit so that a slow metadata service cannot
+ * hold up the message queue or vice versa. Also configures the pool used to run event and reading
+ * ingest requests when asynchronous request handling is enabled (see AsyncRequestRunner), and the
+ * pool sending events to event stream subscribers (see EventStream).
+ */
+@Configuration
+public class TaskExecutorConfig {
+
+  public static final String EVENT_PUBLISH_EXECUTOR = "eventPublishExecutor";
+
+  public static final String METADATA_UPDATE_EXECUTOR = "metadataUpdateExecutor";
+
+  public static final String REQUEST_EXECUTOR = "requestExecutor";
+
+  public static final String EVENT_STREAM_EXECUTOR = "eventStreamExecutor";
+
+  @Value("${task.publish.pool.size:1}")
+  private int publishPoolSize;
+
+  @Value("${task.publish.queue.capacity:10000}")
+  private int publishQueueCapacity;
+
+  @Value("${task.metadata.pool.size:2}")
+  private int metadataPoolSize;
+
+  @Value("${task.metadata.queue.capacity:1000}")
+  private int metadataQueueCapacity;
+
+  @Value("${request.async.pool.size:16}")
+  private int requestPoolSize;
+
+  @Value("${request.async.queue.capacity:5000}")
+  private int requestQueueCapacity;
+
+  @Value("${stream.pool.size:2}")
+  private int streamPoolSize;
+
+  @Value("${stream.max.subscribers:100}")
+  private int streamMaxSubscribers;
+
+  /**
+   * Executor for putting events on the message queue. A single thread (the default) keeps events
+   * on the queue in ingest order. When full, the submitting thread waits for room in the queue, so
+   * events are neither dropped nor published ahead of those already queued.
+   */
+  @Bean(name = EVENT_PUBLISH_EXECUTOR)
+  public ThreadPoolTaskExecutor eventPublishExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(publishPoolSize);
+    executor.setMaxPoolSize(publishPoolSize);
+    executor.setQueueCapacity(publishQueueCapacity);
+    executor.setThreadNamePrefix("event-publish-");
+    executor.setRejectedExecutionHandler(TaskExecutorConfig::waitForRoom);
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+
+  /**
+   * Executor for updating device and device service last connected/reported times in metadata.
+   * Updates for a device are merged while one is queued (see ThreadTasks), so the queue holds at
+   * most one update per device. When full, the new update is rejected, and ThreadTasks counts and
+   * logs it; no other device's update is dropped in its place.
+   */
+  @Bean(name = METADATA_UPDATE_EXECUTOR)
+  public ThreadPoolTaskExecutor metadataUpdateExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(metadataPoolSize);
+    executor.setMaxPoolSize(metadataPoolSize);
+    executor.setQueueCapacity(metadataQueueCapacity);
+    executor.setThreadNamePrefix("metadata-update-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    return executor;
+  }
+
+  /**
+   * Executor for asynchronously handled ingest requests. Its size bounds the number of requests
+   * concurrently blocked on the database, independent of the number of open client connections.
+   * When full, requests are rejected (HTTP 503) rather than queued without bound.
+   */
+  @Bean(name = REQUEST_EXECUTOR)
+  public ThreadPoolTaskExecutor requestExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(requestPoolSize);
+    executor.setMaxPoolSize(requestPoolSize);
+    executor.setQueueCapacity(requestQueueCapacity);
+    executor.setThreadNamePrefix("request-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+
+  /**
+   * Executor for sending events to event stream subscribers. Each subscriber has at most one task
+   * queued or running, so the queue is sized by the maximum number of subscribers.
+   */
+  @Bean(name = EVENT_STREAM_EXECUTOR)
+  public ThreadPoolTaskExecutor eventStreamExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(streamPoolSize);
+    executor.setMaxPoolSize(streamPoolSize);
+    executor.setQueueCapacity(streamMaxSubscribers);
+    executor.setThreadNamePrefix("event-stream-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    return executor;
+  }
+
+  // rejection policy blocking the submitting thread until the task can be queued
+  private static void waitForRoom(Runnable task, ThreadPoolExecutor pool) {
+    if (pool.isShutdown())
+      throw new RejectedExecutionException("Executor shut down");
+    try {
+      pool.getQueue().put(task);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted waiting to queue task", e);
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.edgexfoundry.domain.common.ValueDescriptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches the value descriptors associated to a device (by device name or by device id). Entries
+ * expire after a configurable time to live since device profiles are owned by metadata, and the
+ * whole cache is invalidated whenever a value descriptor is added, updated or removed.
+ */
+@Component
+public class DeviceValueDescriptorCache {
+
+  @Value("${valuedescriptor.device.cache.ttl:60000}")
+  private long ttl;
+
+  @Value("${valuedescriptor.device.cache.size:1000}")
+  private int maxEntries;
+
+  private final Map<String, Entry> byName = new ConcurrentHashMap<>();
+
+  private final Map<String, Entry> byId = new ConcurrentHashMap<>();
+
+  // bumped on every invalidation so that loads racing an invalidation are not cached
+  private final AtomicLong generation = new AtomicLong();
+
+  /**
+   * Return the value descriptors for the device name, loading and caching them on a miss.
+   *
+   * @param name - device name
+   * @param loader - resolves the value descriptors for the device name on a cache miss
+   * @return unmodifiable list of value descriptors associated to the device
+   */
+  public List<ValueDescriptor> forDeviceName(String name,
+      Function<String, List<ValueDescriptor>> loader) {
+    return get(byName, name, loader);
+  }
+
+  /**
+   * Return the value descriptors for the device id, loading and caching them on a miss.
+   *
+   * @param id - device database generated id
+   * @param loader - resolves the value descriptors for the device id on a cache miss
+   * @return unmodifiable list of value descriptors associated to the device
+   */
+  public List<ValueDescriptor> forDeviceId(String id,
+      Function<String, List<ValueDescriptor>> loader) {
+    return get(byId, id, loader);
+  }
+
+  /**
+   * Drop all cached entries.
+   */
+  public void invalidate() {
+    generation.incrementAndGet();
+    byName.clear();
+    byId.clear();
+  }
+
+  private List<ValueDescriptor> get(Map<String, Entry> entries, String key,
+      Function<String, List<ValueDescriptor>> loader) {
+    long now = System.currentTimeMillis();
+    Entry entry = entries.get(key);
+    if (entry != null && entry.expires > now)
+      return entry.valueDescriptors;
+    long loadGeneration = generation.get();
+    List<ValueDescriptor> valueDescriptors = Collections.unmodifiableList(loader.apply(key));
+    if (ttl > 0) {
+      if (entries.size() >= maxEntries)
+        entries.values().removeIf(e -> e.expires <= now);
+      // checked under the entry's lock, so an invalidation either sees the entry and clears it,
+      // or has bumped the generation before the check and the load is not cached
+      if (entries.size() < maxEntries)
+        entries.compute(key, (k, cached) -> loadGeneration == generation.get()
+            ? new Entry(valueDescriptors, now + ttl) : cached);
+    }
+    return valueDescriptors;
+  }
+
+  private static class Entry {
+    private final List<ValueDescriptor> valueDescriptors;
+    private final long expires;
+
+    Entry(List<ValueDescriptor> valueDescriptors, long expires) {
+      this.valueDescriptors = valueDescriptors;
+      this.expires = expires;
+    }
+  }
+
+}
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.edgexfoundry.dao.QueryDao;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the newest reading of each device and value descriptor, so that the current state of a
+ * device is answered from memory. Kept up to date on ingest; optionally loaded from the database
+ * at startup, otherwise a device shows up once it sends its next reading. When the latest reading
+ * of a device and name is deleted, the next newest one is looked up again (on the primary, so that
+ * a lagging replica cannot bring back the deleted reading).
+ */
+@Component
+public class LatestReadingCache {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(LatestReadingCache.class);
+
+  @Value("${readings.latest.load:false}")
+  private boolean load;
+
+  @Autowired
+  QueryDao queryDao;
+
+  // device -> value descriptor name -> newest reading
+  private final Map<String, Map<String, Reading>> byDevice = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void init() {
+    if (load)
+      reload();
+  }
+
+  /**
+   * Record a newly persisted reading. Kept only if it is the newest of its device and name.
+   */
+  public void add(Reading reading) {
+    if (reading == null || reading.getName() == null)
+      return;
+    byDevice.computeIfAbsent(String.valueOf(reading.getDevice()), k -> new ConcurrentHashMap<>())
+        .merge(reading.getName(), reading,
+            (current, added) -> added.getCreated() >= current.getCreated() ? added : current);
+  }
+
+  /**
+   * Record the readings of a newly persisted event.
+   */
+  public void add(Event event) {
+    if (event.getReadings() != null)
+      event.getReadings().forEach(this::add);
+  }
+
+  /**
+   * Record that readings were pushed. Replaces the held copies of the same readings.
+   */
+  public void pushed(List<Reading> readings) {
+    if (readings == null)
+      return;
+    for (Reading reading : readings) {
+      Map<String, Reading> latest = byDevice.get(String.valueOf(reading.getDevice()));
+      if (latest != null && reading.getName() != null)
+        latest.computeIfPresent(reading.getName(), (name, current) -> Objects
+            .equals(current.getId(), reading.getId()) ? reading : current);
+    }
+  }
+
+  /**
+   * Record an updated reading.
+   * 
+   * @param reading - the reading as saved
+   * @param previousName - the reading's value descriptor name before the update
+   */
+  public void update(Reading reading, String previousName) {
+    if (!Objects.equals(previousName, reading.getName()))
+      remove(reading.getId(), reading.getDevice(), previousName);
+    add(reading);
+  }
+
+  /**
+   * Record that a reading was deleted. If it was the newest of its device and name, the next
+   * newest one is looked up.
+   */
+  public void remove(Reading reading) {
+    remove(reading.getId(), reading.getDevice(), reading.getName());
+  }
+
+  /**
+   * Record that the readings of an event were deleted.
+   */
+  public void remove(Event event) {
+    if (event.getReadings() != null)
+      event.getReadings().forEach(this::remove);
+  }
+
+  /**
+   * Record that all readings of a device were deleted.
+   */
+  public void removeDevice(String device) {
+    byDevice.remove(String.valueOf(device));
+  }
+
+  /**
+   * Record that the readings matching a condition were deleted in bulk (e.g. scrubbed). Each held
+   * reading that matches is removed and the next newest one of its device and name looked up.
+   */
+  public void removeIf(Predicate<Reading> deleted) {
+    for (Map<String, Reading> latest : byDevice.values()) {
+      for (Reading reading : latest.values()) {
+        if (deleted.test(reading))
+          remove(reading);
+      }
+    }
+  }
+
+  /**
+   * Replace everything held with the newest readings in the database. Readings added while loading
+   * are kept if newer.
+   */
+  public void reload() {
+    byDevice.clear();
+    try {
+      List<Reading> latest = queryDao.latestReadings();
+      latest.forEach(this::add);
+      logger.info("Loaded the latest readings of " + byDevice.size() + " devices");
+    } catch (Exception e) {
+      logger.error("Error loading latest readings:  " + e.getMessage());
+    }
+  }
+
+  /**
+   * Drop everything held.
+   */
+  public void clear() {
+    byDevice.clear();
+  }
+
+  /**
+   * @return the newest reading of each value descriptor of a device, sorted by name, or null if
+   *         none are held for the device
+   */
+  public List<Reading> readings(String device) {
+    Map<String, Reading> latest = byDevice.get(String.valueOf(device));
+    if (latest == null || latest.isEmpty())
+      return null;
+    return latest.values().stream().sorted(Comparator.comparing(Reading::getName))
+        .collect(Collectors.toList());
+  }
+
+  private void remove(String id, String device, String name) {
+    Map<String, Reading> latest = byDevice.get(String.valueOf(device));
+    if (latest == null || name == null)
+      return;
+    Reading current = latest.get(name);
+    if (current != null && Objects.equals(current.getId(), id) && latest.remove(name, current)) {
+      try {
+        add(queryDao.latestReading(name, device));
+      } catch (Exception e) {
+        logger.error("Error looking up latest reading:  " + e.getMessage());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the readings referencing each value descriptor (by reading name). Counts are maintained on
+ * ingest and delete and are only ever a lower bound of the readings in the database: a name with
+ * no count is "unknown" rather than "unreferenced". Bulk removals (scrubs) reset all counts. This
+ * allows the value descriptor reference check to be answered in O(1) in the common case, and to
+ * fall back to a single document existence query otherwise.
+ */
+@Component
+public class ReadingReferenceCounter {
+
+  private final Map<String, Long> counts = new ConcurrentHashMap<>();
+
+  /**
+   * Record a newly persisted reading.
+   *
+   * @param name - name (value descriptor name) of the reading
+   */
+  public void increment(String name) {
+    if (name != null)
+      counts.merge(name, 1L, Long::sum);
+  }
+
+  /**
+   * Record a deleted reading. When the count for the name drops to zero it becomes unknown.
+   *
+   * @param name - name (value descriptor name) of the reading
+   */
+  public void decrement(String name) {
+    if (name != null)
+      counts.computeIfPresent(name, (key, count) -> count > 1 ? count - 1 : null);
+  }
+
+  /**
+   * Record that at least one reading with the name is known to exist (from a database check).
+   *
+   * @param name - name (value descriptor name) of the reading
+   */
+  public void seed(String name) {
+    if (name != null)
+      counts.merge(name, 1L, Math::max);
+  }
+
+  /**
+   * Forget all counts. Used after bulk removal of readings where the names removed are unknown.
+   */
+  public void clear() {
+    counts.clear();
+  }
+
+  /**
+   * @param name - name (value descriptor name) of the reading
+   * @return true if readings with the name are known to exist, false if unknown
+   */
+  public boolean isReferenced(String name) {
+    return name != null && counts.containsKey(name);
+  }
+
+}
@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import javax.annotation.PostConstruct;
+
+import org.edgexfoundry.domain.common.BaseObject;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.edgexfoundry.metrics.Counter;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hot tier of the most recent readings, filled on ingest. Holds a bounded buffer of the newest
+ * readings per device and reading name, per reading name, and of the newest events per device.
+ * A query is answered from a buffer only when the buffer provably holds the complete answer (at
+ * least as many entries as the limit asked for); otherwise the caller falls back to the database.
+ * The capacity of every buffer is reserved against a global maximum number of readings, and no
+ * new buffers are created once it is reached. A buffer that would then miss a newer entry (one
+ * without a buffer of its own) is dropped, so its queries fall back to the database until it is
+ * created again. Any change other than an ingest or a push invalidates the whole cache.
+ */
+@Component
+public class RecentReadingsCache {
+
+  public static final String REQUESTS_METRIC = "core_data_recent_readings_requests_total";
+
+  private static final String QUERY_LABEL = "query";
+
+  private static final String RESULT_LABEL = "result";
+
+  @Value("${readings.recent.enabled:true}")
+  private boolean enabled;
+
+  @Value("${readings.recent.size:100}")
+  private int size;
+
+  @Value("${readings.recent.max:100000}")
+  private long max;
+
+  @Autowired
+  MetricsRegistry metrics;
+
+  // the device and name buffer of a reading holds it for as long as any other buffer does
+  private final Map<String, Ring<Reading>> bySeries = new ConcurrentHashMap<>();
+
+  private final Map<String, Ring<Reading>> byName = new ConcurrentHashMap<>();
+
+  private final Map<String, Ring<Event>> byDevice = new ConcurrentHashMap<>();
+
+  private final AtomicLong reserved = new AtomicLong();
+
+  private Query series;
+
+  private Query name;
+
+  private Query device;
+
+  @PostConstruct
+  public void registerMetrics() {
+    series = new Query("name_device");
+    name = new Query("name");
+    device = new Query("device");
+    metrics.gauge("core_data_recent_readings_reserved", reserved::get);
+    metrics.gauge("core_data_recent_readings_buffers",
+        () -> bySeries.size() + byName.size() + byDevice.size());
+  }
+
+  /**
+   * Record a newly persisted reading.
+   */
+  public void add(Reading reading) {
+    if (enabled)
+      addReading(reading);
+  }
+
+  /**
+   * Record a newly persisted event and its readings.
+   */
+  public void add(Event event) {
+    if (!enabled)
+      return;
+    List<Reading> readings = event.getReadings() == null ? new ArrayList<>() : event.getReadings();
+    boolean buffered = true;
+    for (Reading reading : readings)
+      buffered &= addReading(reading);
+    // only buffer the event when all its readings are held by their device and name buffers
+    String key = String.valueOf(event.getDevice());
+    if (buffered) {
+      Ring<Event> ring = ring(byDevice, key,
+          (Event e) -> e.getReadings() == null ? 0 : e.getReadings().size());
+      if (ring != null)
+        ring.add(event);
+    } else
+      evict(byDevice, key);
+  }
+
+  /**
+   * Record that readings were pushed. Updates the buffered copies in place.
+   */
+  public void pushed(List<Reading> readings) {
+    if (readings == null)
+      return;
+    for (Reading reading : readings) {
+      Ring<Reading> ring = bySeries.get(seriesKey(reading.getDevice(), reading.getName()));
+      if (ring != null)
+        ring.update(r -> Objects.equals(reading.getId(), r.getId()), r -> {
+          r.setPushed(reading.getPushed());
+          r.setModified(reading.getModified());
+        });
+    }
+  }
+
+  /**
+   * Drop everything buffered.
+   */
+  public synchronized void invalidate() {
+    bySeries.clear();
+    byName.clear();
+    byDevice.clear();
+    reserved.set(0);
+  }
+
+  /**
+   * @return the newest readings of a device and name, or null if not buffered
+   */
+  public List<Reading> readingsByNameAndDevice(String readingName, String deviceName, int limit) {
+    return series.record(newest(bySeries.get(seriesKey(deviceName, readingName)), limit));
+  }
+
+  /**
+   * @return the newest readings of a name, or null if not buffered
+   */
+  public List<Reading> readingsByName(String readingName, int limit) {
+    return name.record(newest(byName.get(readingName), limit));
+  }
+
+  /**
+   * Return the readings of the newest events of a device, in event order, up to the limit (the
+   * readings the device's newest events query would assemble).
+   * 
+   * @return the readings, or null if not buffered
+   */
+  public List<Reading> readingsByDevice(String deviceName, int limit) {
+    Ring<Event> ring = byDevice.get(String.valueOf(deviceName));
+    List<Reading> found = null;
+    if (ring != null && limit > 0) {
+      List<Event> events = ring.newest(limit);
+      List<Reading> readings = new ArrayList<>();
+      for (Event event : events) {
+        if (readings.size() >= limit)
+          break;
+        if (event.getReadings() != null)
+          readings.addAll(event.getReadings());
+      }
+      // complete if it has all the events asked for or enough readings from the newest ones
+      if (events.size() == limit || readings.size() >= limit)
+        found = readings.size() > limit ? new ArrayList<>(readings.subList(0, limit)) : readings;
+    }
+    return device.record(found);
+  }
+
+  private boolean addReading(Reading reading) {
+    Ring<Reading> seriesRing =
+        ring(bySeries, seriesKey(reading.getDevice(), reading.getName()), r -> 1);
+    String name = String.valueOf(reading.getName());
+    if (seriesRing == null) {
+      // a buffer of the name would no longer hold its newest readings
+      evict(byName, name);
+      return false;
+    }
+    seriesRing.add(reading);
+    Ring<Reading> nameRing = ring(byName, name, r -> 1);
+    if (nameRing != null)
+      nameRing.add(reading);
+    return true;
+  }
+
+  private <T extends BaseObject> Ring<T> ring(Map<String, Ring<T>> rings, String key,
+      ToIntFunction<T> weight) {
+    Ring<T> ring = rings.get(key);
+    return ring != null ? ring : createRing(rings, key, weight);
+  }
+
+  private synchronized <T extends BaseObject> Ring<T> createRing(Map<String, Ring<T>> rings,
+      String key, ToIntFunction<T> weight) {
+    Ring<T> ring = rings.get(key);
+    if (ring != null || reserved.get() + size > max)
+      return ring;
+    ring = new Ring<>(size, weight, T::getCreated);
+    rings.put(key, ring);
+    reserved.addAndGet(size);
+    return ring;
+  }
+
+  private synchronized <T> void evict(Map<String, Ring<T>> rings, String key) {
+    if (rings.remove(key) != null)
+      reserved.addAndGet(-size);
+  }
+
+  private static <T> List<T> newest(Ring<T> ring, int limit) {
+    if (ring == null || limit < 1)
+      return null;
+    List<T> found = ring.newest(limit);
+    return found.size() == limit ? found : null;
+  }
+
+  private static String seriesKey(String deviceName, String readingName) {
+    return deviceName + '\u0000' + readingName;
+  }
+
+  /**
+   * Hit and miss counters of one kind of query.
+   */
+  private class Query {
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    Query(String query) {
+      hits = metrics.counter(REQUESTS_METRIC, QUERY_LABEL, query, RESULT_LABEL, "hit");
+      misses = metrics.counter(REQUESTS_METRIC, QUERY_LABEL, query, RESULT_LABEL, "miss");
+    }
+
+    <T> List<T> record(List<T> found) {
+      if (found != null)
+        hits.increment();
+      else if (enabled)
+        misses.increment();
+      return found;
+    }
+
+  }
+
+  /**
+   * Bounded buffer kept newest first by creation time. Entries are weighted (readings per event)
+   * and the oldest are evicted once the total weight exceeds the capacity.
+   */
+  private static class Ring<T> {
+
+    private final int capacity;
+
+    private final ToIntFunction<T> weight;
+
+    private final ToLongFunction<T> created;
+
+    private Object[] entries;
+
+    // index of the oldest entry, and the number of entries
+    private int head;
+
+    private int count;
+
+    private int held;
+
+    Ring(int capacity, ToIntFunction<T> weight, ToLongFunction<T> created) {
+      this.capacity = capacity;
+      this.weight = weight;
+      this.created = created;
+      this.entries = new Object[Math.min(capacity, 16)];
+    }
+
+    synchronized void add(T entry) {
+      if (count == entries.length)
+        grow();
+      // entries normally arrive in creation order, so this rarely moves any
+      int pos = count;
+      long time = created.applyAsLong(entry);
+      while (pos > 0 && created.applyAsLong(get(pos - 1)) > time) {
+        set(pos, get(pos - 1));
+        pos--;
+      }
+      set(pos, entry);
+      count++;
+      held += weightOf(entry);
+      while (held > capacity && count > 1) {
+        held -= weightOf(get(0));
+        set(0, null);
+        head = (head + 1) % entries.length;
+        count--;
+      }
+    }
+
+    synchronized List<T> newest(int limit) {
+      List<T> found = new ArrayList<>(Math.min(limit, count));
+      for (int i = count - 1; i >= 0 && found.size() < limit; i--)
+        found.add(get(i));
+      return found;
+    }
+
+    synchronized void update(Predicate<T> match, Consumer<T> change) {
+      for (int i = count - 1; i >= 0; i--) {
+        T entry = get(i);
+        if (match.test(entry)) {
+          change.accept(entry);
+          return;
+        }
+      }
+    }
+
+    // every entry counts, so that events without readings are evicted too
+    private int weightOf(T entry) {
+      return Math.max(1, weight.applyAsInt(entry));
+    }
+
+    @SuppressWarnings("unchecked")
+    private T get(int index) {
+      return (T) entries[(head + index) % entries.length];
+    }
+
+    private void set(int index, T entry) {
+      entries[(head + index) % entries.length] = entry;
+    }
+
+    private void grow() {
+      Object[] grown = new Object[entries.length * 2];
+      for (int i = 0; i < count; i++)
+        grown[i] = entries[(head + i) % entries.length];
+      entries = grown;
+      head = 0;
+    }
+
+  }
+
+}
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.edgexfoundry.dao.ValueDescriptorRepository;
+import org.edgexfoundry.domain.common.IoTType;
+import org.edgexfoundry.domain.common.ValueDescriptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In memory index from value descriptor label, UoM label and type to the names of the value
+ * descriptors carrying them. Allows reading queries by label, UoM label or type to go straight to
+ * the readings collection without first querying value descriptors. The index is loaded lazily
+ * from the repository, kept current by the value descriptor controller and periodically rebuilt to
+ * pick up any changes made outside of this service. A rebuild is published as a whole, so queries
+ * see either the previous or the new index, never a partly built one.
+ */
+@Component
+public class ValueDescriptorIndex {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(ValueDescriptorIndex.class);
+
+  @Autowired
+  ValueDescriptorRepository valDescRepos;
+
+  // replaced by reload, changed in place (under the lock) by put and remove
+  private volatile Index current = new Index();
+
+  private volatile boolean loaded;
+
+  /**
+   * Return the names of all value descriptors having the label in their label array.
+   *
+   * @param label - label to match
+   * @return immutable set of value descriptor names, empty if none match
+   */
+  public Set<String> namesForLabel(String label) {
+    ensureLoaded();
+    return lookup(current.byLabel, label);
+  }
+
+  /**
+   * Return the names of all value descriptors with the UoM label provided.
+   *
+   * @param uomLabel - Unit of Measure label to match
+   * @return immutable set of value descriptor names, empty if none match
+   */
+  public Set<String> namesForUomLabel(String uomLabel) {
+    ensureLoaded();
+    return lookup(current.byUomLabel, uomLabel);
+  }
+
+  /**
+   * Return the names of all value descriptors of the IoTType provided.
+   *
+   * @param type - IoTType to match
+   * @return immutable set of value descriptor names, empty if none match
+   */
+  public Set<String> namesForType(IoTType type) {
+    ensureLoaded();
+    return lookup(current.byType, type);
+  }
+
+  /**
+   * Add (or re-index) a value descriptor. Called after the value descriptor has been persisted.
+   *
+   * @param valueDescriptor - the new or updated value descriptor
+   */
+  public synchronized void put(ValueDescriptor valueDescriptor) {
+    if (!loaded || valueDescriptor == null || valueDescriptor.getName() == null)
+      return;
+    current.unindex(valueDescriptor.getName());
+    current.index(valueDescriptor);
+  }
+
+  /**
+   * Remove a value descriptor from the index. Called after the value descriptor has been deleted or
+   * renamed.
+   *
+   * @param name - name of the value descriptor removed
+   */
+  public synchronized void remove(String name) {
+    if (!loaded || name == null)
+      return;
+    current.unindex(name);
+  }
+
+  /**
+   * Rebuild the index from the value descriptor repository.
+   */
+  @Scheduled(fixedRateString = "${valuedescriptor.index.refresh:300000}")
+  public synchronized void reload() {
+    try {
+      List<ValueDescriptor> valDescs = valDescRepos.findAll();
+      Index rebuilt = new Index();
+      if (valDescs != null)
+        valDescs.forEach(rebuilt::index);
+      current = rebuilt;
+      loaded = true;
+    } catch (Exception e) {
+      logger.error("Unable to load the value descriptor index:  " + e.getMessage());
+      if (!loaded)
+        throw e;
+    }
+  }
+
+  private void ensureLoaded() {
+    if (!loaded)
+      reload();
+  }
+
+  private static class Index {
+
+    private final Map<String, Set<String>> byLabel = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<String>> byUomLabel = new ConcurrentHashMap<>();
+
+    private final Map<IoTType, Set<String>> byType = new ConcurrentHashMap<>();
+
+    // indexed attributes by value descriptor name - needed to unindex on update/delete
+    private final Map<String, ValueDescriptor> indexed = new HashMap<>();
+
+    void index(ValueDescriptor valueDescriptor) {
+      String name = valueDescriptor.getName();
+      if (name == null)
+        return;
+      ValueDescriptor entry = new ValueDescriptor();
+      entry.setName(name);
+      entry.setLabels(valueDescriptor.getLabels());
+      entry.setUomLabel(valueDescriptor.getUomLabel());
+      entry.setType(valueDescriptor.getType());
+      indexed.put(name, entry);
+      if (entry.getLabels() != null) {
+        for (String label : entry.getLabels())
+          add(byLabel, label, name);
+      }
+      add(byUomLabel, entry.getUomLabel(), name);
+      add(byType, entry.getType(), name);
+    }
+
+    void unindex(String name) {
+      ValueDescriptor entry = indexed.remove(name);
+      if (entry == null)
+        return;
+      if (entry.getLabels() != null) {
+        for (String label : entry.getLabels())
+          drop(byLabel, label, name);
+      }
+      drop(byUomLabel, entry.getUomLabel(), name);
+      drop(byType, entry.getType(), name);
+    }
+
+  }
+
+  // sets are copied on write so readers never see a set that is being changed
+  private static <K> void add(Map<K, Set<String>> map, K key, String name) {
+    if (key == null)
+      return;
+    Set<String> names = new HashSet<>(lookup(map, key));
+    names.add(name);
+    map.put(key, Collections.unmodifiableSet(names));
+  }
+
+  private static <K> void drop(Map<K, Set<String>> map, K key, String name) {
+    if (key == null)
+      return;
+    Set<String> names = new HashSet<>(lookup(map, key));
+    names.remove(name);
+    if (names.isEmpty())
+      map.remove(key);
+    else
+      map.put(key, Collections.unmodifiableSet(names));
+  }
+
+  private static <K> Set<String> lookup(Map<K, Set<String>> map, K key) {
+    if (key == null)
+      return Collections.emptySet();
+    Set<String> names = map.get(key);
+    return names == null ? Collections.emptySet() : names;
+  }
+
+}
@@ -28,6 +28,8 @@ import org.edgexfoundry.exception.controller.NotFoundException;
 import org.edgexfoundry.exception.controller.ServiceException;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface EventController {
 
@@ -103,6 +105,19 @@ public interface EventController {
   List<Reading> readingsForDeviceAndValueDescriptor(@PathVariable String deviceId,
       @PathVariable String valuedescriptor, @PathVariable int limit);
 
+  /**
+   * Stream newly added events as Server-Sent Events (one JSON encoded event per message).
+   * Subscribers that cannot keep up are disconnected. ServiceException (HTTP 503) if the maximum
+   * number of subscribers is reached.
+   * 
+   * @param device - only stream events of this device (id or name as sent by the device service)
+   * @param name - only stream readings of this value descriptor
+   * @return the event stream
+   * @throws ServiceException (HTTP 503) if the maximum number of subscribers is reached
+   */
+  SseEmitter stream(@RequestParam(required = false) String device,
+      @RequestParam(required = false) String name);
+
   /**
    * Add a new event (with its associated readings). Prefers the event device is a device name but
    * can also be a device id (database generated). DataValidationException (HTTP 409) if the a
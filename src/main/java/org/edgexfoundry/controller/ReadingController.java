@@ -68,6 +68,19 @@ public interface ReadingController {
    */
   List<Reading> readings(@PathVariable String deviceId, @PathVariable int limit);
 
+  /**
+   * Return the latest reading of each value descriptor of a device (the current state of the
+   * device), sorted by value descriptor name. Served from memory. NotFoundException (HTTP 404) if
+   * meta checks are in place and if the device id or name does not match any existing devices.
+   * ServiceException (HTTP 503) for unknown or unanticipated issues.
+   * 
+   * @param deviceId - database generated identifier or device name
+   * @return list of the latest readings of the device, could be an empty list if there are none
+   * @throws ServiceException (HTTP 503) for unknown or unanticipated issues
+   * @throws NotFoundException (HTTP 404) if meta checks are in place and the device cannot be found
+   */
+  List<Reading> latestReadings(@PathVariable String deviceId);
+
   /**
    * Return a list of readings between two timestamps - limited by the number specified in the limit
    * parameter. LimitExceededException (HTTP 413) if the number of readings exceeds the current max
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import org.edgexfoundry.controller.EventController;
+import org.edgexfoundry.controller.ReadingController;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * HTTP entry points for adding events and readings, offloaded to the request executor (see
+ * AsyncRequestRunner) when request.async.enabled is set. Replaces IngestController; the responses
+ * and the HTTP status mapping of errors are the same, plus ServiceException (HTTP 503) when the
+ * request executor is full.
+ */
+@RestController
+@ConditionalOnProperty(name = AsyncRequestRunner.ENABLED_PROPERTY, havingValue = "true")
+public class AsyncIngestController {
+
+  @Autowired
+  EventController eventController;
+
+  @Autowired
+  ReadingController readingController;
+
+  @Autowired
+  AsyncRequestRunner requestRunner;
+
+  /**
+   * Add a new event on the request executor, see EventController.add(Event).
+   * 
+   * @param event - event object with associated readings
+   * @return deferred result completed with the new event database generated id
+   */
+  @RequestMapping(value = "/api/v1/event", method = RequestMethod.POST)
+  public DeferredResult<String> addEvent(@RequestBody Event event) {
+    return requestRunner.run(() -> eventController.add(event));
+  }
+
+  /**
+   * Add a new reading on the request executor, see ReadingController.add(Reading).
+   * 
+   * @param reading - Reading object
+   * @return deferred result completed with the new reading database generated id
+   */
+  @RequestMapping(value = "/api/v1/reading", method = RequestMethod.POST)
+  public DeferredResult<String> addReading(@RequestBody Reading reading) {
+    return requestRunner.run(() -> readingController.add(reading));
+  }
+
+}
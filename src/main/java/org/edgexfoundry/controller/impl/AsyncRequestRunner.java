@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.function.Supplier;
+
+import org.edgexfoundry.TaskExecutorConfig;
+import org.edgexfoundry.exception.controller.ServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Offloads request handling work to the bounded request executor using Servlet 3 asynchronous
+ * processing, when request.async.enabled is set. This is not non-blocking I/O: the work still
+ * blocks a pool thread on the database and metadata calls. What changes is that the servlet
+ * container thread is released as soon as the work is submitted, so the number of client
+ * connections (e.g. device services posting events) is bounded by the pool and its queue rather
+ * than the container's thread pool, and a full pool answers HTTP 503 at once. Exceptions thrown by
+ * the work are handed back to Spring MVC as the request's error result, so the usual HTTP status
+ * mapping of controller exceptions applies.
+ */
+@Component
+@ConditionalOnProperty(name = AsyncRequestRunner.ENABLED_PROPERTY, havingValue = "true")
+public class AsyncRequestRunner {
+
+  public static final String ENABLED_PROPERTY = "request.async.enabled";
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(AsyncRequestRunner.class);
+
+  @Value("${request.async.timeout:60000}")
+  private long timeout;
+
+  @Autowired
+  @Qualifier(TaskExecutorConfig.REQUEST_EXECUTOR)
+  TaskExecutor requestExecutor;
+
+  /**
+   * Run the request handling work on the request executor.
+   *
+   * @param work - the request handling (typically a controller method)
+   * @return deferred result completed with the work's result or exception
+   */
+  public <T> DeferredResult<T> run(Supplier<T> work) {
+    DeferredResult<T> result = new DeferredResult<>(timeout);
+    try {
+      requestExecutor.execute(() -> complete(result, work));
+    } catch (TaskRejectedException tE) {
+      logger.error("Request rejected, request executor is saturated");
+      result.setErrorResult(new ServiceException(tE));
+    }
+    return result;
+  }
+
+  private <T> void complete(DeferredResult<T> result, Supplier<T> work) {
+    try {
+      result.setResult(work.get());
+    } catch (RuntimeException e) {
+      result.setErrorResult(e);
+    }
+  }
+
+}
@@ -22,9 +22,13 @@ import java.util.Calendar;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.edgexfoundry.cache.LatestReadingCache;
+import org.edgexfoundry.cache.ReadingReferenceCounter;
+import org.edgexfoundry.cache.RecentReadingsCache;
 import org.edgexfoundry.controller.DeviceClient;
 import org.edgexfoundry.controller.EventController;
 import org.edgexfoundry.dao.EventRepository;
+import org.edgexfoundry.dao.QueryDao;
 import org.edgexfoundry.dao.ReadingRepository;
 import org.edgexfoundry.dao.ScrubDao;
 import org.edgexfoundry.dao.ValueDescriptorRepository;
@@ -35,15 +39,20 @@ import org.edgexfoundry.exception.controller.DataValidationException;
 import org.edgexfoundry.exception.controller.LimitExceededException;
 import org.edgexfoundry.exception.controller.NotFoundException;
 import org.edgexfoundry.exception.controller.ServiceException;
+import org.edgexfoundry.messaging.EventStream;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.edgexfoundry.metrics.Trace;
+import org.edgexfoundry.metrics.Tracer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/v1/event")
@@ -55,7 +64,27 @@ public class EventControllerImpl implements EventController {
 
   private static final String LIMIT_ON_EVENT = "Event";
 
-  private static final String SORT_CREATED = "created";
+  public static final String ADD_METRIC = "core_data_event_add_seconds";
+
+  private static final String STAGE_LABEL = "stage";
+
+  private static final String VALIDATION_STAGE = "validation";
+
+  private static final String PERSISTENCE_STAGE = "persistence";
+
+  private static final String ENQUEUE_STAGE = "enqueue";
+
+  private static final String TOTAL_STAGE = "total";
+
+  private static final String ADD_TRACE = "event_add";
+
+  private static final String CHECK_DEVICE_SPAN = "checkDevice";
+
+  private static final String VALUE_DESCRIPTORS_SPAN = "valueDescriptors";
+
+  private static final String READING_SAVE_SPAN = "readingSave";
+
+  private static final String EVENT_SAVE_SPAN = "eventSave";
 
   private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
       org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
@@ -73,12 +102,33 @@ public class EventControllerImpl implements EventController {
   @Autowired
   ScrubDao scrubDao;
 
+  @Autowired
+  QueryDao queryDao;
+
   @Autowired
   ThreadTasks tasker;
 
   @Autowired
   DeviceClient deviceClient;
 
+  @Autowired
+  MetricsRegistry metrics;
+
+  @Autowired
+  Tracer tracer;
+
+  @Autowired
+  ReadingReferenceCounter readingRefCounter;
+
+  @Autowired
+  RecentReadingsCache recentReadings;
+
+  @Autowired
+  LatestReadingCache latestReadingCache;
+
+  @Autowired
+  EventStream eventStream;
+
   @Value("${read.max.limit}")
   private int maxLimit;
 
@@ -158,9 +208,7 @@ public class EventControllerImpl implements EventController {
     if (limit > maxLimit)
       throw new LimitExceededException(LIMIT_ON_EVENT);
     try {
-      PageRequest request;
-      request = new PageRequest(0, limit, new Sort(Sort.Direction.DESC, SORT_CREATED));
-      return eventRepos.findByCreatedBetween(start, end, request).getContent();
+      return queryDao.eventsByCreated(start, end, limit);
     } catch (Exception e) {
       logger.error(ERR_GETTING + e.getMessage());
       throw new ServiceException(e);
@@ -179,7 +227,7 @@ public class EventControllerImpl implements EventController {
   @Override
   public long eventCountForDevice(@PathVariable String deviceId) {
     try {
-      return eventRepos.findByDevice(deviceId).size();
+      return queryDao.eventCountByDevice(deviceId);
     } catch (Exception e) {
       logger.error("Error getting event count:  " + e.getMessage());
       throw new ServiceException(e);
@@ -222,9 +270,7 @@ public class EventControllerImpl implements EventController {
     if (limit > maxLimit)
       throw new LimitExceededException(LIMIT_ON_EVENT);
     try {
-      PageRequest request;
-      request = new PageRequest(0, limit, new Sort(Sort.Direction.DESC, SORT_CREATED));
-      return eventRepos.findByDevice(deviceId, request).getContent();
+      return queryDao.eventsByDevice(deviceId, limit);
     } catch (Exception e) {
       logger.error(ERR_GETTING + e.getMessage());
       throw new ServiceException(e);
@@ -239,8 +285,7 @@ public class EventControllerImpl implements EventController {
     if (limit > maxLimit)
       throw new LimitExceededException(LIMIT_ON_EVENT);
     try {
-      PageRequest request = new PageRequest(0, limit, new Sort(Sort.Direction.DESC, SORT_CREATED));
-      List<Event> events = eventRepos.findByDevice(deviceId, request).getContent();
+      List<Event> events = queryDao.eventsByDevice(deviceId, limit);
       return events.stream().flatMap(e -> e.getReadings().stream())
           .filter(r -> r.getName().equals(valuedescriptor)).collect(Collectors.toList());
     } catch (Exception e) {
@@ -249,6 +294,28 @@ public class EventControllerImpl implements EventController {
     }
   }
 
+  /**
+   * Stream newly added events as Server-Sent Events (one JSON encoded event per message).
+   * Subscribers that cannot keep up are disconnected. ServiceException (HTTP 503) if the maximum
+   * number of subscribers is reached.
+   * 
+   * @param device - only stream events of this device (id or name as sent by the device service)
+   * @param name - only stream readings of this value descriptor
+   * @return the event stream
+   * @throws ServiceException (HTTP 503) if the maximum number of subscribers is reached
+   */
+  @RequestMapping(value = "/stream", method = RequestMethod.GET)
+  @Override
+  public SseEmitter stream(@RequestParam(required = false) String device,
+      @RequestParam(required = false) String name) {
+    try {
+      return eventStream.subscribe(device, name);
+    } catch (Exception e) {
+      logger.error("Error subscribing to the event stream:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
   /**
    * Add a new event (with its associated readings). Prefers the event device is a device name but
    * can also be a device id (database generated). DataValidationException (HTTP 409) if the a
@@ -261,33 +328,50 @@ public class EventControllerImpl implements EventController {
    * @throws DataValidationException (HTTP 409) if one of the readings associated to the new event
    *         contains a non-existent value descriptor.
    */
-  @RequestMapping(method = RequestMethod.POST)
   @Override
   public String add(@RequestBody Event event) {
-    checkDevice(event.getDevice());
+    long start = System.nanoTime();
+    Trace trace = null;
+    boolean handedOff = false;
     try {
+      trace = tracer.start(ADD_TRACE);
+      Device device = checkDevice(event.getDevice());
+      trace.mark(CHECK_DEVICE_SPAN);
+      if (persistData)
+        checkValueDescriptors(event.getReadings());
+      trace.mark(VALUE_DESCRIPTORS_SPAN);
+      long validated = recordAddStage(VALIDATION_STAGE, start);
       if (persistData) {
         if (event.getReadings() != null) {
           for (Reading reading : event.getReadings()) {
-            if (valDescRepos.findByName(reading.getName()) == null)
-              throw new DataValidationException(
-                  "Non-existent value descriptor specified in reading");
             readingRepos.save(reading);
+            readingRefCounter.increment(reading.getName());
           }
         }
+        trace.mark(READING_SAVE_SPAN);
         eventRepos.save(event);
+        recentReadings.add(event);
+        latestReadingCache.add(event);
+        trace.mark(EVENT_SAVE_SPAN);
       } else {
         event.setId("unsaved");
       }
-      tasker.putEventOnQueue(event);
-      tasker.updateDeviceLastReportedConnected(event.getDevice());
-      tasker.updateDeviceServiceLastReportedConnected(event.getDevice());
+      long persisted = recordAddStage(PERSISTENCE_STAGE, validated);
+      // the trace is completed by post processing (after publishing)
+      handedOff = true;
+      tasker.postProcess(event, device, trace);
+      recordAddStage(ENQUEUE_STAGE, persisted);
+      recordAddStage(TOTAL_STAGE, start);
       return event.getId();
-    } catch (DataValidationException dE) {
+    } catch (DataValidationException | NotFoundException dE) {
       throw dE;
     } catch (Exception e) {
       logger.error("Error adding event:  " + e.getMessage());
       throw new ServiceException(e);
+    } finally {
+      // failed requests are traced too
+      if (trace != null && !handedOff)
+        tracer.finish(trace);
     }
 
   }
@@ -309,6 +393,8 @@ public class EventControllerImpl implements EventController {
       Event event = eventRepos.findOne(id);
       if (event != null) {
         deleteEvent(event);
+        recentReadings.invalidate();
+        latestReadingCache.remove(event);
         return true;
       } else {
         logger.error("Request to delete with non-existent event:  " + id);
@@ -338,6 +424,8 @@ public class EventControllerImpl implements EventController {
     try {
       List<Event> events = eventRepos.findByDevice(deviceId);
       events.stream().parallel().forEach(e -> deleteEvent(e));
+      recentReadings.invalidate();
+      latestReadingCache.removeDevice(deviceId);
       return events.size();
     } catch (Exception e) {
       logger.error("Error removing an event by device identifier:  " + e.getMessage());
@@ -372,6 +460,7 @@ public class EventControllerImpl implements EventController {
         if (event2.getOrigin() != 0)
           event.setOrigin(event2.getOrigin());
         eventRepos.save(event);
+        recentReadings.invalidate();
         return true;
       } else {
         logger.error("Request to update with non-existent event:  " + event2.getId());
@@ -412,6 +501,8 @@ public class EventControllerImpl implements EventController {
           }
         }
         eventRepos.save(event);
+        recentReadings.pushed(event.getReadings());
+        latestReadingCache.pushed(event.getReadings());
         return true;
       } else {
         logger.error("Request to update with non-existent event:  " + id);
@@ -437,7 +528,10 @@ public class EventControllerImpl implements EventController {
   @Override
   public long scrubPushedEvents() {
     try {
-      return scrubDao.scrubPushedEvents();
+      int scrubbed = scrubDao.scrubPushedEvents();
+      recentReadings.invalidate();
+      latestReadingCache.removeIf(reading -> reading.getPushed() != 0);
+      return scrubbed;
     } catch (Exception e) {
       logger.error("Error scrubbing pushed events:  " + e.getMessage());
       throw new ServiceException(e);
@@ -455,7 +549,10 @@ public class EventControllerImpl implements EventController {
   public boolean scrubAllEventsReadings() {
     try {
       readingRepos.deleteAll();
+      readingRefCounter.clear();
       eventRepos.deleteAll();
+      recentReadings.invalidate();
+      latestReadingCache.clear();
       return true;
     } catch (Exception e) {
       logger.error("Error scrubbing all events/readings:  " + e.getMessage());
@@ -476,7 +573,11 @@ public class EventControllerImpl implements EventController {
   @Override
   public long scrubOldEvents(@PathVariable long age) {
     try {
-      return scrubDao.scrubOldEvents(age);
+      long cutoff = Calendar.getInstance().getTimeInMillis() - age;
+      int scrubbed = scrubDao.scrubOldEvents(age);
+      recentReadings.invalidate();
+      latestReadingCache.removeIf(reading -> reading.getCreated() < cutoff);
+      return scrubbed;
     } catch (Exception e) {
       logger.error("Error scrubbing old events:  " + e.getMessage());
       throw new ServiceException(e);
@@ -491,21 +592,43 @@ public class EventControllerImpl implements EventController {
   private void deleteAssociatedReadings(Event event) {
     List<Reading> readings = event.getReadings();
     if (readings != null) {
-      readings.stream().parallel().forEach(r -> readingRepos.delete(r));
+      readings.stream().parallel().forEach(r -> {
+        readingRepos.delete(r);
+        readingRefCounter.decrement(r.getName());
+      });
     }
   }
 
-  private void checkDevice(String deviceId) {
+  private void checkValueDescriptors(List<Reading> readings) {
+    if (readings == null)
+      return;
+    for (Reading reading : readings) {
+      if (valDescRepos.findByName(reading.getName()) == null)
+        throw new DataValidationException("Non-existent value descriptor specified in reading");
+    }
+  }
+
+  private long recordAddStage(String stage, long startNanos) {
+    return metrics.timer(ADD_METRIC, STAGE_LABEL, stage).stop(startNanos);
+  }
+
+  // returns the device when metadata checks are on (so it can be reused), otherwise null
+  private Device checkDevice(String deviceId) {
     if (deviceId == null) {
       logger.error("Event must be associated to a device");
       throw new DataValidationException("Event must be associated to a device");
     }
     try {
-      if (metaCheck && (deviceClient.deviceForName(deviceId) == null
-          && deviceClient.device(deviceId) == null)) {
+      if (!metaCheck)
+        return null;
+      Device device = deviceClient.deviceForName(deviceId);
+      if (device == null)
+        device = deviceClient.device(deviceId);
+      if (device == null) {
         logger.error("No device found for associated device id");
         throw new NotFoundException(Device.class.toString(), deviceId);
       }
+      return device;
     } catch (NotFoundException nE) {
       throw nE;
     } catch (Exception e) {
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import org.edgexfoundry.controller.EventController;
+import org.edgexfoundry.controller.ReadingController;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * HTTP entry points for adding events and readings, handled on the servlet container thread. Used
+ * unless request handling is offloaded to the request executor (see AsyncIngestController).
+ */
+@RestController
+@ConditionalOnProperty(name = AsyncRequestRunner.ENABLED_PROPERTY, havingValue = "false",
+    matchIfMissing = true)
+public class IngestController {
+
+  @Autowired
+  EventController eventController;
+
+  @Autowired
+  ReadingController readingController;
+
+  /**
+   * Add a new event, see EventController.add(Event).
+   * 
+   * @param event - event object with associated readings
+   * @return new event database generated id
+   */
+  @RequestMapping(value = "/api/v1/event", method = RequestMethod.POST)
+  public String addEvent(@RequestBody Event event) {
+    return eventController.add(event);
+  }
+
+  /**
+   * Add a new reading, see ReadingController.add(Reading).
+   * 
+   * @param reading - Reading object
+   * @return new reading database generated id
+   */
+  @RequestMapping(value = "/api/v1/reading", method = RequestMethod.POST)
+  public String addReading(@RequestBody Reading reading) {
+    return readingController.add(reading);
+  }
+
+}
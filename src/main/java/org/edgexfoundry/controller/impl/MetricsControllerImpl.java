@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import org.edgexfoundry.controller.MetricsController;
+import org.edgexfoundry.exception.controller.ServiceException;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/metrics")
+public class MetricsControllerImpl implements MetricsController {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(MetricsControllerImpl.class);
+
+  private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4";
+
+  @Autowired
+  MetricsRegistry metrics;
+
+  /**
+   * Return the service's timers, counters and gauges in the Prometheus text exposition format.
+   * 
+   * @return metrics text
+   * @throws ServiceException (HTTP 503) for unknown or unanticipated issues
+   */
+  @RequestMapping(method = RequestMethod.GET, produces = PROMETHEUS_CONTENT_TYPE)
+  @Override
+  public String metrics() {
+    try {
+      return metrics.scrape();
+    } catch (Exception e) {
+      logger.error("Error getting metrics:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+}
@@ -19,16 +19,21 @@
 package org.edgexfoundry.controller.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.edgexfoundry.cache.LatestReadingCache;
+import org.edgexfoundry.cache.ReadingReferenceCounter;
+import org.edgexfoundry.cache.RecentReadingsCache;
+import org.edgexfoundry.cache.ValueDescriptorIndex;
 import org.edgexfoundry.controller.DeviceClient;
 import org.edgexfoundry.controller.ReadingController;
-import org.edgexfoundry.dao.EventRepository;
+import org.edgexfoundry.dao.QueryDao;
 import org.edgexfoundry.dao.ReadingRepository;
 import org.edgexfoundry.dao.ValueDescriptorRepository;
 import org.edgexfoundry.domain.common.IoTType;
-import org.edgexfoundry.domain.common.ValueDescriptor;
 import org.edgexfoundry.domain.core.Event;
 import org.edgexfoundry.domain.core.Reading;
 import org.edgexfoundry.domain.meta.Device;
@@ -38,11 +43,6 @@ import org.edgexfoundry.exception.controller.NotFoundException;
 import org.edgexfoundry.exception.controller.ServiceException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -59,8 +59,6 @@ public class ReadingControllerImpl implements ReadingController {
 
   private static final String LIMIT_ON_READING = "Reading";
 
-  private static final String SORT_CREATED = "created";
-
   private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
       org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
           .getEdgeXLogger(ReadingControllerImpl.class);
@@ -69,13 +67,22 @@ public class ReadingControllerImpl implements ReadingController {
   ReadingRepository readingRepos;
 
   @Autowired
-  EventRepository eventRepos;
+  ValueDescriptorRepository valDescRepos;
 
   @Autowired
-  ValueDescriptorRepository valDescRepos;
+  ValueDescriptorIndex valDescIndex;
+
+  @Autowired
+  ReadingReferenceCounter readingRefCounter;
 
   @Autowired
-  MongoTemplate template;
+  QueryDao queryDao;
+
+  @Autowired
+  RecentReadingsCache recentReadings;
+
+  @Autowired
+  LatestReadingCache latestReadingCache;
 
   @Autowired
   DeviceClient deviceClient;
@@ -161,8 +168,10 @@ public class ReadingControllerImpl implements ReadingController {
         && (deviceClient.deviceForName(deviceId) == null && deviceClient.device(deviceId) == null))
       throw new NotFoundException(Device.class.toString(), deviceId);
     try {
-      PageRequest request = new PageRequest(0, limit, new Sort(Sort.Direction.DESC, SORT_CREATED));
-      List<Event> events = eventRepos.findByDevice(deviceId, request).getContent();
+      List<Reading> recent = recentReadings.readingsByDevice(deviceId, limit);
+      if (recent != null)
+        return recent.stream().sorted().collect(Collectors.toList());
+      List<Event> events = queryDao.eventsByDevice(deviceId, limit);
       if (events == null || events.isEmpty())
         return new ArrayList<>();
       return events.stream().map((Event e) -> e.getReadings()).flatMap(l -> l.stream()).limit(limit)
@@ -173,6 +182,37 @@ public class ReadingControllerImpl implements ReadingController {
     }
   }
 
+  /**
+   * Return the latest reading of each value descriptor of a device (the current state of the
+   * device), sorted by value descriptor name. Served from memory. NotFoundException (HTTP 404) if
+   * meta checks are in place and if the device id or name does not match any existing devices.
+   * ServiceException (HTTP 503) for unknown or unanticipated issues.
+   * 
+   * @param deviceId - database generated identifier or device name
+   * @return list of the latest readings of the device, could be an empty list if there are none
+   * @throws ServiceException (HTTP 503) for unknown or unanticipated issues
+   * @throws NotFoundException (HTTP 404) if meta checks are in place and the device cannot be found
+   */
+  @RequestMapping(value = "/latest/device/{deviceId:.+}", method = RequestMethod.GET)
+  @Override
+  public List<Reading> latestReadings(@PathVariable String deviceId) {
+    List<Reading> latest = latestReadingCache.readings(deviceId);
+    if (latest != null)
+      return latest;
+    // only an unknown device (or one without readings) needs metadata
+    if (metaCheck) {
+      Device device = deviceClient.deviceForName(deviceId);
+      if (device == null)
+        device = deviceClient.device(deviceId);
+      if (device == null)
+        throw new NotFoundException(Device.class.toString(), deviceId);
+      // readings may have been sent with the device's other identifier
+      latest = latestReadingCache
+          .readings(deviceId.equals(device.getName()) ? device.getId() : device.getName());
+    }
+    return latest == null ? new ArrayList<>() : latest;
+  }
+
   /**
    * Return a list of readings between two timestamps - limited by the number specified in the limit
    * parameter. LimitExceededException (HTTP 413) if the number of readings exceeds the current max
@@ -193,9 +233,7 @@ public class ReadingControllerImpl implements ReadingController {
     if (limit > maxLimit)
       throw new LimitExceededException(LIMIT_ON_READING);
     try {
-      PageRequest request;
-      request = new PageRequest(0, limit, new Sort(Sort.Direction.DESC, SORT_CREATED));
-      return readingRepos.findByCreatedBetween(start, end, request).getContent();
+      return queryDao.readingsByCreated(start, end, limit);
     } catch (Exception e) {
       logger.error(ERR_GETTING + e.getMessage());
       throw new ServiceException(e);
@@ -236,9 +274,10 @@ public class ReadingControllerImpl implements ReadingController {
     if (limit > maxLimit)
       throw new LimitExceededException(LIMIT_ON_READING);
     try {
-      PageRequest request =
-          new PageRequest(0, determineLimit(limit), new Sort(Sort.Direction.DESC, SORT_CREATED));
-      return readingRepos.findByName(name, request).getContent();
+      List<Reading> recent = recentReadings.readingsByName(name, determineLimit(limit));
+      if (recent != null)
+        return recent;
+      return queryDao.readingsByName(name, determineLimit(limit));
     } catch (Exception e) {
       logger.error(ERR_GETTING + e.getMessage());
       throw new ServiceException(e);
@@ -265,9 +304,11 @@ public class ReadingControllerImpl implements ReadingController {
     if (limit > maxLimit)
       throw new LimitExceededException(LIMIT_ON_READING);
     try {
-      PageRequest request =
-          new PageRequest(0, determineLimit(limit), new Sort(Sort.Direction.DESC, SORT_CREATED));
-      return readingRepos.findByNameAndDevice(name, device, request).getContent();
+      List<Reading> recent =
+          recentReadings.readingsByNameAndDevice(name, device, determineLimit(limit));
+      if (recent != null)
+        return recent;
+      return queryDao.readingsByNameAndDevice(name, device, determineLimit(limit));
     } catch (Exception e) {
       logger.error(ERR_GETTING + e.getMessage());
       throw new ServiceException(e);
@@ -293,10 +334,10 @@ public class ReadingControllerImpl implements ReadingController {
     if (limit > maxLimit)
       throw new LimitExceededException(LIMIT_ON_READING);
     try {
-      List<ValueDescriptor> valDescs = valDescRepos.findByUomLabel(uomLabel);
-      if (valDescs.isEmpty())
+      Set<String> valDescNames = valDescIndex.namesForUomLabel(uomLabel);
+      if (valDescNames.isEmpty())
         return new ArrayList<>();
-      return filterReadings(valDescs, determineLimit(limit));
+      return filterReadings(valDescNames, determineLimit(limit));
     } catch (Exception e) {
       logger.error(ERR_GETTING + e.getMessage());
       throw new ServiceException(e);
@@ -322,10 +363,10 @@ public class ReadingControllerImpl implements ReadingController {
     if (limit > maxLimit)
       throw new LimitExceededException(LIMIT_ON_READING);
     try {
-      List<ValueDescriptor> valDescs = valDescRepos.findByLabelsIn(label);
-      if (valDescs.isEmpty())
+      Set<String> valDescNames = valDescIndex.namesForLabel(label);
+      if (valDescNames.isEmpty())
         return new ArrayList<>();
-      return filterReadings(valDescs, determineLimit(limit));
+      return filterReadings(valDescNames, determineLimit(limit));
     } catch (Exception e) {
       logger.error(ERR_GETTING + e.getMessage());
       throw new ServiceException(e);
@@ -352,10 +393,10 @@ public class ReadingControllerImpl implements ReadingController {
     if (limit > maxLimit)
       throw new LimitExceededException(LIMIT_ON_READING);
     try {
-      List<ValueDescriptor> valDescs = valDescRepos.findByType(IoTType.valueOf(type));
-      if (valDescs.isEmpty())
+      Set<String> valDescNames = valDescIndex.namesForType(IoTType.valueOf(type));
+      if (valDescNames.isEmpty())
         return new ArrayList<>();
-      return filterReadings(valDescs, determineLimit(limit));
+      return filterReadings(valDescNames, determineLimit(limit));
     } catch (Exception e) {
       logger.error(ERR_GETTING + e.getMessage());
       throw new ServiceException(e);
@@ -372,7 +413,6 @@ public class ReadingControllerImpl implements ReadingController {
    * @throws DataValidationException (HTTP 409) if one of the readings associated to the new event
    *         contains a non-existent value descriptor.
    */
-  @RequestMapping(method = RequestMethod.POST)
   @Override
   public String add(@RequestBody Reading reading) {
     if (valDescRepos.findByName(reading.getName()) == null)
@@ -380,6 +420,9 @@ public class ReadingControllerImpl implements ReadingController {
     try {
       if (persistData) {
         readingRepos.save(reading);
+        readingRefCounter.increment(reading.getName());
+        recentReadings.add(reading);
+        latestReadingCache.add(reading);
       } else
         reading.setId("unsaved");
       return reading.getId();
@@ -408,6 +451,7 @@ public class ReadingControllerImpl implements ReadingController {
     try {
       Reading reading = readingRepos.findOne(reading2.getId());
       if (reading != null) {
+        String oldName = reading.getName();
         if (reading2.getValue() != null) {
           reading.setValue(reading2.getValue());
         }
@@ -420,6 +464,12 @@ public class ReadingControllerImpl implements ReadingController {
           reading.setOrigin(reading2.getOrigin());
         }
         readingRepos.save(reading);
+        recentReadings.invalidate();
+        latestReadingCache.update(reading, oldName);
+        if (oldName == null || !oldName.equals(reading.getName())) {
+          readingRefCounter.decrement(oldName);
+          readingRefCounter.increment(reading.getName());
+        }
         return true;
       } else {
         logger.error("Request to update with non-existent reading:  " + reading2.getId());
@@ -452,6 +502,9 @@ public class ReadingControllerImpl implements ReadingController {
       Reading reading = readingRepos.findOne(id);
       if (reading != null) {
         readingRepos.delete(reading);
+        readingRefCounter.decrement(reading.getName());
+        recentReadings.invalidate();
+        latestReadingCache.remove(reading);
         return true;
       } else {
         logger.error("Request to delete with non-existent reading:  " + id);
@@ -465,11 +518,9 @@ public class ReadingControllerImpl implements ReadingController {
     }
   }
 
-  private List<Reading> filterReadings(List<ValueDescriptor> valDescs, int aLimit) {
-    List<String> matchingValDesc = ValueDescriptor.getNames(valDescs);
-    Query readingsMatchingValDesName = new Query().limit(aLimit);
-    readingsMatchingValDesName.addCriteria(Criteria.where("name").in(matchingValDesc));
-    return template.find(readingsMatchingValDesName, Reading.class);
+  // newest readings first so that the limit always returns the most recent matches
+  private List<Reading> filterReadings(Collection<String> valDescNames, int aLimit) {
+    return queryDao.readingsByNames(valDescNames, aLimit);
   }
 
   private int determineLimit(int limit) {
@@ -19,20 +19,32 @@
 package org.edgexfoundry.controller.impl;
 
 import java.util.Calendar;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.edgexfoundry.TaskExecutorConfig;
 import org.edgexfoundry.controller.DeviceClient;
 import org.edgexfoundry.controller.DeviceServiceClient;
 import org.edgexfoundry.domain.core.Event;
 import org.edgexfoundry.domain.meta.Device;
 import org.edgexfoundry.domain.meta.DeviceService;
 import org.edgexfoundry.messaging.EventPublisher;
+import org.edgexfoundry.messaging.EventStream;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.edgexfoundry.metrics.Trace;
+import org.edgexfoundry.metrics.Tracer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 /**
- * Separate class to allow Spring async methods to start a separate thread to complete.
+ * Separate class to allow Spring async methods to start a separate thread to complete. Also hosts
+ * the per event post processing pipeline (see postProcess).
  * 
  */
 @Component
@@ -41,6 +53,12 @@ public class ThreadTasks {
   private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
       org.edgexfoundry.support.logging.client.EdgeXLoggerFactory.getEdgeXLogger(ThreadTasks.class);
 
+  private static final String QUEUE_WAIT_SPAN = "queueWait";
+
+  private static final String PUBLISH_SPAN = "publish";
+
+  public static final String METADATA_DROPPED_METRIC = "core_data_metadata_updates_dropped_total";
+
   @Value("${addto.event.queue}")
   private boolean addToEventQ;
 
@@ -53,12 +71,71 @@ public class ThreadTasks {
   @Autowired
   EventPublisher eventProducer;
 
+  @Autowired
+  EventStream eventStream;
+
   @Autowired
   DeviceClient deviceClient;
 
   @Autowired
   DeviceServiceClient serviceClient;
 
+  @Autowired
+  Tracer tracer;
+
+  @Autowired
+  MetricsRegistry metrics;
+
+  @Autowired
+  @Qualifier(TaskExecutorConfig.EVENT_PUBLISH_EXECUTOR)
+  TaskExecutor eventPublishExecutor;
+
+  @Autowired
+  @Qualifier(TaskExecutorConfig.METADATA_UPDATE_EXECUTOR)
+  TaskExecutor metadataUpdateExecutor;
+
+  // devices with a metadata update queued, and their device if already resolved
+  private final ConcurrentMap<String, Optional<Device>> pendingUpdates = new ConcurrentHashMap<>();
+
+  /**
+   * Post process a newly added event. Runs the message queue stage and the metadata last
+   * connected/reported stage on their own bounded executors, except that a durable publisher (see
+   * EventPublisher.isDurable) is called right away so that the event is not held in memory. Stages
+   * that are switched off are not submitted at all, and the device is resolved from metadata at
+   * most once and shared by the device and device service updates. Metadata updates for a device
+   * are merged while one is queued, so a busy device takes one place in the queue; when the queue
+   * is full anyway the update is dropped and counted. The event is also offered to
+   * event stream subscribers, which never blocks.
+   * 
+   * @param event - the new event
+   * @param device - the event's device if already resolved by the caller, otherwise null
+   */
+  public void postProcess(Event event, Device device) {
+    postProcess(event, device, Trace.NONE);
+  }
+
+  /**
+   * Post process a newly added event as part of a trace. The message queue stage records its
+   * queue wait and publish times in the trace and completes it; when the event is not put on the
+   * message queue the trace is completed right away.
+   * 
+   * @param event - the new event
+   * @param device - the event's device if already resolved by the caller, otherwise null
+   * @param trace - trace of the event's add request
+   */
+  public void postProcess(Event event, Device device, Trace trace) {
+    if (eventStream.hasSubscribers())
+      eventStream.publish(event);
+    if (addToEventQ && eventProducer.isDurable())
+      publish(event, trace);
+    else if (addToEventQ)
+      eventPublishExecutor.execute(() -> publish(event, trace));
+    else
+      tracer.finish(trace);
+    if (updateDeviceLastReported || updateServiceLastReported)
+      queueMetadataUpdate(event.getDevice(), device);
+  }
+
   @Async()
   public void updateDeviceLastReportedConnected(String deviceid) {
     if (!updateDeviceLastReported) {
@@ -66,15 +143,9 @@ public class ThreadTasks {
       return;
     }
     try {
-      Device device = deviceClient.deviceForName(deviceid);
-      if (device == null) {
-        device = deviceClient.device(deviceid);
-      }
+      Device device = findDevice(deviceid);
       if (device != null) {
-        Calendar calendar = Calendar.getInstance();
-        long time = calendar.getTimeInMillis();
-        deviceClient.updateLastConnected(device.getId(), time);
-        deviceClient.updateLastReported(device.getId(), time);
+        updateDevice(device, Calendar.getInstance().getTimeInMillis());
       } else
         logger.error(
             "Error updating device connected/reported times.  Unknown device with identifier of:  "
@@ -92,21 +163,9 @@ public class ThreadTasks {
       return;
     }
     try {
-      Device device = deviceClient.deviceForName(deviceid);
-      if (device == null) {
-        device = deviceClient.device(deviceid);
-      }
+      Device device = findDevice(deviceid);
       if (device != null) {
-        Calendar calendar = Calendar.getInstance();
-        long time = calendar.getTimeInMillis();
-        DeviceService service = device.getService();
-        if (service != null) {
-          serviceClient.updateLastConnected(service.getId(), time);
-          serviceClient.updateLastReported(service.getId(), time);
-        } else
-          logger.error(
-              "Error updating device service connected/reported times.  Unknown device service in device:  "
-                  + device.getId());
+        updateDeviceService(device, Calendar.getInstance().getTimeInMillis());
       } else
         logger.error(
             "Error updating device connected/reported times.  Unknown device with identifier of:  "
@@ -126,9 +185,81 @@ public class ThreadTasks {
       try {
         eventProducer.sendEventMessage(event);
       } catch (Exception e) {
-        logger.error("Event not queued!!  Check message queue.  Problem queueing event:  " + event);
+        logger.error("Event not queued!!  Check message queue.  Problem queueing event:  " + event
+            + "  (" + e.getMessage() + ")");
+      }
+    }
+  }
+
+  // message queue stage of postProcess
+  private void publish(Event event, Trace trace) {
+    trace.mark(QUEUE_WAIT_SPAN);
+    tracer.runInScope(trace, () -> putEventOnQueue(event));
+    trace.mark(PUBLISH_SPAN);
+    tracer.finish(trace);
+  }
+
+  // metadata stage of postProcess, merged with any update already queued for the device
+  private void queueMetadataUpdate(String deviceid, Device device) {
+    if (deviceid == null || pendingUpdates.put(deviceid, Optional.ofNullable(device)) != null)
+      return;
+    try {
+      metadataUpdateExecutor.execute(() -> {
+        Optional<Device> pending = pendingUpdates.remove(deviceid);
+        updateLastReportedConnected(deviceid, pending == null ? null : pending.orElse(null));
+      });
+    } catch (RejectedExecutionException e) {
+      pendingUpdates.remove(deviceid);
+      metrics.counter(METADATA_DROPPED_METRIC).increment();
+      logger.error("Metadata update queue full, connected/reported times not updated for:  "
+          + deviceid);
+    }
+  }
+
+  // one device lookup shared by the device and service updates
+  private void updateLastReportedConnected(String deviceid, Device device) {
+    try {
+      if (device == null)
+        device = findDevice(deviceid);
+      if (device == null) {
+        logger.error(
+            "Error updating device connected/reported times.  Unknown device with identifier of:  "
+                + deviceid);
+        return;
       }
+      long time = Calendar.getInstance().getTimeInMillis();
+      if (updateDeviceLastReported)
+        updateDevice(device, time);
+      if (updateServiceLastReported)
+        updateDeviceService(device, time);
+    } catch (Exception e) {
+      logger.error("Error updating device/device service reported/connected times for: " + deviceid
+          + "  (" + e.getMessage() + ")");
     }
   }
 
+  private Device findDevice(String deviceid) {
+    Device device = deviceClient.deviceForName(deviceid);
+    if (device == null) {
+      device = deviceClient.device(deviceid);
+    }
+    return device;
+  }
+
+  private void updateDevice(Device device, long time) {
+    deviceClient.updateLastConnected(device.getId(), time);
+    deviceClient.updateLastReported(device.getId(), time);
+  }
+
+  private void updateDeviceService(Device device, long time) {
+    DeviceService service = device.getService();
+    if (service != null) {
+      serviceClient.updateLastConnected(service.getId(), time);
+      serviceClient.updateLastReported(service.getId(), time);
+    } else
+      logger.error(
+          "Error updating device service connected/reported times.  Unknown device service in device:  "
+              + device.getId());
+  }
+
 }
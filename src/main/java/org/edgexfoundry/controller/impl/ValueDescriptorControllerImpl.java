@@ -18,10 +18,16 @@
 
 package org.edgexfoundry.controller.impl;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.edgexfoundry.cache.DeviceValueDescriptorCache;
+import org.edgexfoundry.cache.ReadingReferenceCounter;
+import org.edgexfoundry.cache.ValueDescriptorIndex;
 import org.edgexfoundry.controller.DeviceClient;
 import org.edgexfoundry.controller.ValueDescriptorController;
 import org.edgexfoundry.dao.ReadingRepository;
@@ -36,9 +42,6 @@ import org.edgexfoundry.exception.controller.ServiceException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DuplicateKeyException;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -69,7 +72,13 @@ public class ValueDescriptorControllerImpl implements ValueDescriptorController
   DeviceClient deviceClient;
 
   @Autowired
-  MongoTemplate template;
+  ValueDescriptorIndex valDescIndex;
+
+  @Autowired
+  ReadingReferenceCounter readingRefCounter;
+
+  @Autowired
+  DeviceValueDescriptorCache deviceValDescCache;
 
   @Value("${read.max.limit}")
   private int maxLimit;
@@ -185,8 +194,7 @@ public class ValueDescriptorControllerImpl implements ValueDescriptorController
   @Override
   public List<ValueDescriptor> valueDescriptorByLabel(@PathVariable String label) {
     try {
-      Query query = new Query(Criteria.where("labels").all(label));
-      return template.find(query, ValueDescriptor.class);
+      return valDescRepos.findByLabelsIn(label);
     } catch (Exception e) {
       logger.error(ERR_GETTING + e.getMessage());
       throw new ServiceException(e);
@@ -209,12 +217,8 @@ public class ValueDescriptorControllerImpl implements ValueDescriptorController
   @Override
   public List<ValueDescriptor> valueDescriptorsForDeviceByName(@PathVariable String name) {
     try {
-      Device device = deviceClient.deviceForName(name);
-      Set<String> vdNames = device.getProfile().getCommands().stream()
-          .map((Command cmd) -> cmd.associatedValueDescriptors()).flatMap(l -> l.stream())
-          .collect(Collectors.toSet());
-      return vdNames.stream().map(s -> this.valDescRepos.findByName(s))
-          .collect(Collectors.toList());
+      return deviceValDescCache.forDeviceName(name,
+          n -> valueDescriptorsForDevice(deviceClient.deviceForName(n)));
     } catch (javax.ws.rs.NotFoundException nfE) {
       throw new NotFoundException(Device.class.toString(), name);
     } catch (Exception e) {
@@ -239,12 +243,8 @@ public class ValueDescriptorControllerImpl implements ValueDescriptorController
   @Override
   public List<ValueDescriptor> valueDescriptorsForDeviceById(@PathVariable String id) {
     try {
-      Device device = deviceClient.device(id);
-      Set<String> vdNames = device.getProfile().getCommands().stream()
-          .map((Command cmd) -> cmd.associatedValueDescriptors()).flatMap(l -> l.stream())
-          .collect(Collectors.toSet());
-      return vdNames.stream().map(s -> this.valDescRepos.findByName(s))
-          .collect(Collectors.toList());
+      return deviceValDescCache.forDeviceId(id,
+          i -> valueDescriptorsForDevice(deviceClient.device(i)));
     } catch (javax.ws.rs.NotFoundException nfE) {
       throw new NotFoundException(Device.class.toString(), id);
     } catch (Exception e) {
@@ -272,6 +272,8 @@ public class ValueDescriptorControllerImpl implements ValueDescriptorController
           "Value descriptor's format string doesn't fit the required pattern: " + formatSpecifier);
     try {
       valDescRepos.save(valueDescriptor);
+      valDescIndex.put(valueDescriptor);
+      deviceValDescCache.invalidate();
       return valueDescriptor.getId();
     } catch (DuplicateKeyException dE) {
       throw new DataValidationException(
@@ -389,8 +391,10 @@ public class ValueDescriptorControllerImpl implements ValueDescriptorController
   }
 
   private boolean deleteValueDescriptor(ValueDescriptor valueDescriptor) {
-    if (readingRepos.findByName(valueDescriptor.getName()).isEmpty()) {
+    if (!isReferencedByReadings(valueDescriptor.getName())) {
       valDescRepos.delete(valueDescriptor);
+      valDescIndex.remove(valueDescriptor.getName());
+      deviceValDescCache.invalidate();
       return true;
     } else {
       logger.error("Data integrity issue.  Value Descriptor with id:  " + valueDescriptor.getId()
@@ -401,6 +405,7 @@ public class ValueDescriptorControllerImpl implements ValueDescriptorController
   }
 
   private void updateValueDescriptor(ValueDescriptor from, ValueDescriptor to) {
+    String oldName = to.getName();
     if (from.getDefaultValue() != null) {
       to.setDefaultValue(from.getDefaultValue());
     }
@@ -421,7 +426,7 @@ public class ValueDescriptorControllerImpl implements ValueDescriptorController
       to.setMin(from.getMin());
     }
     if (from.getName() != null) {
-      if (readingRepos.findByName(to.getName()).isEmpty()) {
+      if (!isReferencedByReadings(to.getName())) {
         to.setName(from.getName());
       } else {
         logger.error("Data integrity issue.  Value Descriptor with name:  " + from.getName()
@@ -440,9 +445,37 @@ public class ValueDescriptorControllerImpl implements ValueDescriptorController
       to.setUomLabel(from.getUomLabel());
     }
     valDescRepos.save(to);
+    valDescIndex.remove(oldName);
+    valDescIndex.put(to);
+    deviceValDescCache.invalidate();
+  }
+
+  // one $in query for all the value descriptor names referenced by the device profile commands;
+  // as before, a name without a value descriptor yields a null entry
+  private List<ValueDescriptor> valueDescriptorsForDevice(Device device) {
+    Set<String> vdNames = device.getProfile().getCommands().stream()
+        .map((Command cmd) -> cmd.associatedValueDescriptors()).flatMap(l -> l.stream())
+        .collect(Collectors.toSet());
+    if (vdNames.isEmpty())
+      return new ArrayList<>();
+    Map<String, ValueDescriptor> found = valDescRepos.findByNameIn(vdNames).stream()
+        .collect(Collectors.toMap(ValueDescriptor::getName, Function.identity(), (a, b) -> a));
+    return vdNames.stream().map(found::get).collect(Collectors.toList());
+  }
+
+  // O(1) when readings are known to exist, otherwise a single indexed document lookup
+  private boolean isReferencedByReadings(String name) {
+    if (readingRefCounter.isReferenced(name))
+      return true;
+    if (readingRepos.findFirstByName(name) != null) {
+      readingRefCounter.seed(name);
+      return true;
+    }
+    return false;
   }
 
-  private boolean validateFormatString(ValueDescriptor valueDescriptor) {
+  // package access for benchmarks
+  boolean validateFormatString(ValueDescriptor valueDescriptor) {
     if ("".equals(valueDescriptor.getFormatting()) || (valueDescriptor.getFormatting() == null))
       return true;
     else
@@ -21,29 +21,30 @@ package org.edgexfoundry.dao;
 import java.util.List;
 
 import org.edgexfoundry.domain.core.Event;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.domain.Sort;
 
-public interface EventRepository extends MongoRepository<Event, String> {
-  List<Event> findByCreatedBetween(long start, long end);
+/**
+ * Event storage, independent of the storage backend (see Storage). Implemented by a Spring Data
+ * repository for Mongo DB and by the embedded store.
+ */
+public interface EventRepository {
 
-  Page<Event> findByCreatedBetween(long start, long end, Pageable pageable);
+  Event findOne(String id);
 
-  List<Event> findByModifiedBetween(long start, long end);
+  List<Event> findAll();
 
-  Page<Event> findByModifiedBetween(long start, long end, Pageable pageable);
+  List<Event> findAll(Sort sort);
 
-  List<Event> findByOriginBetween(long start, long end);
+  List<Event> findByDevice(String deviceId);
 
-  Page<Event> findByOriginBetween(long start, long end, Pageable pageable);
+  long count();
 
-  List<Event> findByPushedGreaterThan(long zero);
+  <S extends Event> S save(S event);
 
-  Page<Event> findByPushedGreaterThan(long zero, Pageable pageable);
+  void delete(String id);
 
-  List<Event> findByDevice(String deviceId);
+  void delete(Event event);
 
-  Page<Event> findByDevice(String deviceId, Pageable pageable);
+  void deleteAll();
 
 }
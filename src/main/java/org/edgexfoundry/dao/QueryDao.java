@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+
+/**
+ * Historical event and reading queries. Results are newest first and limited to the number of
+ * documents requested; a limit of less than one is rejected with an IllegalArgumentException
+ * (except for readingsByNames, where it means no limit). latestReadings returns one reading per
+ * device and value descriptor instead.
+ */
+public interface QueryDao {
+
+  /**
+   * Events created between two timestamps (exclusive).
+   */
+  List<Event> eventsByCreated(long start, long end, int limit);
+
+  /**
+   * Events of a device, by device id or name.
+   */
+  List<Event> eventsByDevice(String deviceId, int limit);
+
+  /**
+   * Count of the events of a device, by device id or name.
+   */
+  long eventCountByDevice(String deviceId);
+
+  /**
+   * Readings created between two timestamps (exclusive).
+   */
+  List<Reading> readingsByCreated(long start, long end, int limit);
+
+  /**
+   * Readings of a value descriptor.
+   */
+  List<Reading> readingsByName(String name, int limit);
+
+  /**
+   * Readings of a value descriptor and device.
+   */
+  List<Reading> readingsByNameAndDevice(String name, String device, int limit);
+
+  /**
+   * The newest reading of a value descriptor and device, or null if there is none. Always read
+   * from the primary (never a lagging replica), so it sees this service's own writes and deletes.
+   */
+  Reading latestReading(String name, String device);
+
+  /**
+   * Readings of any of the value descriptors named.
+   */
+  List<Reading> readingsByNames(Collection<String> names, int limit);
+
+  /**
+   * The newest reading of each device and value descriptor, in no particular order.
+   */
+  List<Reading> latestReadings();
+
+}
@@ -18,46 +18,30 @@
 
 package org.edgexfoundry.dao;
 
-import java.io.Serializable;
 import java.util.List;
 
 import org.edgexfoundry.domain.core.Reading;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface ReadingRepository extends MongoRepository<Reading, String> {
+/**
+ * Reading storage, independent of the storage backend (see Storage). Implemented by a Spring Data
+ * repository for Mongo DB and by the embedded store.
+ */
+public interface ReadingRepository {
 
-  List<Reading> findByCreatedBetween(long start, long end);
+  Reading findOne(String id);
 
-  Page<Reading> findByCreatedBetween(long start, long end, Pageable pageable);
+  List<Reading> findAll();
 
-  List<Reading> findByModifiedBetween(long start, long end);
+  Reading findFirstByName(String name);
 
-  Page<Reading> findByModifiedBetween(long start, long end, Pageable pageable);
+  long count();
 
-  List<Reading> findByOriginBetween(long start, long end);
+  <S extends Reading> S save(S reading);
 
-  Page<Reading> findByOriginBetween(long start, long end, Pageable pageable);
+  void delete(String id);
 
-  List<Reading> findByPushedGreaterThan(long zero);
+  void delete(Reading reading);
 
-  Page<Reading> findByPushedGreaterThan(long zero, Pageable pageable);
-
-  List<Reading> findByName(String name);
-
-  Page<Reading> findByName(String name, Pageable pageable);
-
-  List<Reading> findByValueIn(Serializable value);
-
-  Page<Reading> findByValue(Serializable value, Pageable pageable);
-
-  List<Reading> findByNameAndValue(String name, String value);
-
-  Page<Reading> findByNameAndValue(String name, String value, Pageable pageable);
-
-  List<Reading> findByNameAndDevice(String name, String device);
-
-  Page<Reading> findByNameAndDevice(String name, String device, Pageable pageable);
+  void deleteAll();
 
 }
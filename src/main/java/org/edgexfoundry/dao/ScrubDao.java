@@ -18,36 +18,17 @@
 
 package org.edgexfoundry.dao;
 
-import java.util.Calendar;
-
-import org.edgexfoundry.domain.core.Event;
-import org.edgexfoundry.domain.core.Reading;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.stereotype.Component;
-
-import com.mongodb.WriteResult;
-
-@Component
-public class ScrubDao {
-
-  @Autowired
-  MongoTemplate template;
+/**
+ * Bulk removal of events and their readings.
+ */
+public interface ScrubDao {
 
   /**
    * Remove all pushed events and their associated readings
+   * 
+   * @return - number of events removed
    */
-  public int scrubPushedEvents() {
-    Query scrubQuery = new Query();
-    scrubQuery.addCriteria(Criteria.where("pushed").gt(0));
-    // remove readings
-    template.remove(scrubQuery, Reading.class);
-    // now remove events
-    WriteResult result = template.remove(scrubQuery, Event.class);
-    return result.getN();
-  }
+  int scrubPushedEvents();
 
   /**
    * remove all old events (and associated reaadings) based on delimiting age.
@@ -56,15 +37,6 @@ public class ScrubDao {
    *        to be removed
    * @return - number of events removed
    */
-  public int scrubOldEvents(long age) {
-    Query scrubQuery = new Query();
-    scrubQuery
-        .addCriteria(Criteria.where("created").lt(Calendar.getInstance().getTimeInMillis() - age));
-    // remove readings
-    template.remove(scrubQuery, Reading.class);
-    // now remove events
-    WriteResult result = template.remove(scrubQuery, Event.class);
-    return result.getN();
-  }
+  int scrubOldEvents(long age);
 
 }
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+/**
+ * Names of the storage backends and of the property selecting one. Mongo DB is the default. The
+ * embedded store keeps all data in files local to the service so that small gateways need not run
+ * a database process (activate the embedded Spring profile). The time series store does the same
+ * with events and readings in memory mapped, time partitioned segment files, keeping only value
+ * descriptors in the embedded store (activate the timeseries Spring profile).
+ */
+public final class Storage {
+
+  public static final String TYPE_PROPERTY = "storage.type";
+
+  public static final String MONGO = "mongo";
+
+  public static final String EMBEDDED = "embedded";
+
+  public static final String TIMESERIES = "timeseries";
+
+  /**
+   * Condition expression for the parts of the embedded store also used by the time series store.
+   */
+  public static final String EMBEDDED_OR_TIMESERIES =
+      "'${" + TYPE_PROPERTY + ":" + MONGO + "}' matches '" + EMBEDDED + "|" + TIMESERIES + "'";
+
+  private Storage() {}
+
+}
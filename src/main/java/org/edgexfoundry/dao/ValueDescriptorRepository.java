@@ -18,27 +18,38 @@
 
 package org.edgexfoundry.dao;
 
+import java.util.Collection;
 import java.util.List;
 
-import org.edgexfoundry.domain.common.IoTType;
 import org.edgexfoundry.domain.common.ValueDescriptor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface ValueDescriptorRepository extends MongoRepository<ValueDescriptor, String> {
+/**
+ * Value descriptor storage, independent of the storage backend (see Storage). Implemented by a
+ * Spring Data repository for Mongo DB and by the embedded store. Value descriptor names are unique;
+ * saving a second value descriptor with a name in use fails with a DuplicateKeyException.
+ */
+public interface ValueDescriptorRepository {
+
+  ValueDescriptor findOne(String id);
+
+  List<ValueDescriptor> findAll();
 
   ValueDescriptor findByName(String name);
 
-  List<ValueDescriptor> findByUomLabel(String uomLabel);
+  List<ValueDescriptor> findByNameIn(Collection<String> names);
 
-  Page<ValueDescriptor> findByUomLabel(String uomLabel, Pageable pageable);
+  List<ValueDescriptor> findByUomLabel(String uomLabel);
 
   List<ValueDescriptor> findByLabelsIn(String label);
 
-  Page<ValueDescriptor> findByLabels(String label, Pageable pageable);
+  long count();
+
+  <S extends ValueDescriptor> S save(S valueDescriptor);
+
+  void delete(String id);
+
+  void delete(ValueDescriptor valueDescriptor);
 
-  List<ValueDescriptor> findByType(IoTType type);
+  void deleteAll();
 
-  Page<ValueDescriptor> findByType(IoTType type, Pageable pageable);
 }
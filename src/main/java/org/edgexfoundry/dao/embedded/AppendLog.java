@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Append only log of the changes made to an embedded collection, one line per change: "P" followed
+ * by the JSON of the document saved or "D" followed by the id of the document deleted. Replaying
+ * the log rebuilds the collection. A line torn by a crash can only be the last one and is cut off
+ * on replay. Once the log holds several times more lines than there are live documents it is
+ * compacted: a background thread writes a snapshot of the live documents to a new file, the changes
+ * logged meanwhile are added to it, and it then atomically replaces the log. Writes are only held
+ * up to take the snapshot (a copy of the document references) and to swap the files.
+ */
+class AppendLog<T> implements Closeable {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory.getEdgeXLogger(AppendLog.class);
+
+  private static final char PUT = 'P';
+
+  private static final char DELETE = 'D';
+
+  // logs shorter than this are never compacted
+  private static final long MIN_COMPACT_LINES = 1000;
+
+  private final Path file;
+
+  private final Class<T> type;
+
+  private final ObjectMapper mapper;
+
+  private final boolean sync;
+
+  private final int compactRatio;
+
+  private FileChannel channel;
+
+  private Writer writer;
+
+  private long lines;
+
+  // changes logged since the snapshot of the compaction in progress, null if there is none
+  private List<String> sinceSnapshot;
+
+  private Thread compaction;
+
+  /**
+   * @param file - log file, created if it does not exist
+   * @param type - document class
+   * @param mapper - JSON mapper for the documents
+   * @param sync - force each change to disk before returning (otherwise left to the OS)
+   * @param compactRatio - compact when the log has this many lines per live document
+   */
+  AppendLog(Path file, Class<T> type, ObjectMapper mapper, boolean sync, int compactRatio) {
+    this.file = file;
+    this.type = type;
+    this.mapper = mapper;
+    this.sync = sync;
+    this.compactRatio = compactRatio;
+  }
+
+  /**
+   * Replay the log and open it for appending.
+   * 
+   * @param onPut - called with each document saved, in log order
+   * @param onDelete - called with the id of each document deleted, in log order
+   */
+  synchronized void open(Consumer<T> onPut, Consumer<String> onDelete) throws IOException {
+    if (Files.exists(file))
+      replay(onPut, onDelete);
+    openWriter(true);
+  }
+
+  /**
+   * Log a saved document.
+   * 
+   * @return a copy of the document as logged
+   */
+  synchronized T put(T document) throws IOException {
+    String json = mapper.writeValueAsString(document);
+    append(PUT + json);
+    return mapper.readValue(json, type);
+  }
+
+  /**
+   * @return a copy of the document, as it would be replayed from the log
+   */
+  T copy(T document) {
+    try {
+      return mapper.readValue(mapper.writeValueAsBytes(document), type);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  synchronized void delete(String id) throws IOException {
+    append(DELETE + id);
+  }
+
+  /**
+   * Start compacting the log in the background if it has grown past the compaction ratio and is
+   * not being compacted already.
+   * 
+   * @param live - the live documents, as of the last change logged (the documents themselves must
+   *        not be changed afterwards, only replaced)
+   */
+  synchronized void compactIfNeeded(Collection<T> live) {
+    if (sinceSnapshot != null || writer == null || lines < MIN_COMPACT_LINES
+        || lines < (long) compactRatio * live.size())
+      return;
+    List<T> snapshot = new ArrayList<>(live);
+    List<String> changes = new ArrayList<>();
+    sinceSnapshot = changes;
+    compaction = new Thread(() -> compact(snapshot, changes), "append-log-compact");
+    compaction.setDaemon(true);
+    compaction.start();
+  }
+
+  /**
+   * Wait for the compaction in progress, if any, to finish.
+   */
+  void awaitCompaction() throws InterruptedException {
+    Thread running;
+    synchronized (this) {
+      running = compaction;
+    }
+    if (running != null)
+      running.join();
+  }
+
+  /**
+   * Discard the whole log. A compaction in progress is abandoned.
+   */
+  synchronized void clear() throws IOException {
+    sinceSnapshot = null;
+    closeWriter();
+    openWriter(false);
+    lines = 0;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    sinceSnapshot = null;
+    closeWriter();
+  }
+
+  private void compact(List<T> snapshot, List<String> changes) {
+    Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+    try {
+      try (Writer out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+        for (T document : snapshot) {
+          out.write(PUT + mapper.writeValueAsString(document));
+          out.write('\n');
+        }
+      }
+      replace(compacted, snapshot.size(), changes);
+    } catch (IOException e) {
+      logger.error("Error compacting " + file + ":  " + e.getMessage());
+      synchronized (this) {
+        if (sinceSnapshot == changes)
+          sinceSnapshot = null;
+      }
+      deleteQuietly(compacted);
+    }
+  }
+
+  // add the changes logged since the snapshot and swap the compacted file in, unless the log was
+  // cleared or closed meanwhile
+  private synchronized void replace(Path compacted, int documents, List<String> changes)
+      throws IOException {
+    if (sinceSnapshot != changes) {
+      deleteQuietly(compacted);
+      return;
+    }
+    try (Writer out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8,
+        StandardOpenOption.APPEND)) {
+      for (String line : changes) {
+        out.write(line);
+        out.write('\n');
+      }
+    }
+    sinceSnapshot = null;
+    closeWriter();
+    try {
+      Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      lines = documents + changes.size();
+    } finally {
+      openWriter(true);
+    }
+    logger.info("Compacted " + file + " to " + documents + " documents");
+  }
+
+  private void closeWriter() throws IOException {
+    if (writer != null) {
+      writer.close();
+      writer = null;
+      channel = null;
+    }
+  }
+
+  private void replay(Consumer<T> onPut, Consumer<String> onDelete) throws IOException {
+    String torn = null;
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (torn != null)
+          throw new IOException("Corrupt line in " + file + ":  " + torn);
+        if (line.isEmpty())
+          continue;
+        try {
+          if (line.charAt(0) == PUT)
+            onPut.accept(mapper.readValue(line.substring(1), type));
+          else if (line.charAt(0) == DELETE)
+            onDelete.accept(line.substring(1));
+          else
+            torn = line;
+        } catch (IOException e) {
+          torn = line;
+        }
+        lines++;
+      }
+    }
+    if (torn != null)
+      cutOff(torn);
+  }
+
+  // remove the torn last line so that the next change is not appended to it
+  private void cutOff(String torn) throws IOException {
+    try (FileChannel log = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      long size = log.size();
+      ByteBuffer last = ByteBuffer.allocate(1);
+      log.read(last, size - 1);
+      long length = torn.getBytes(StandardCharsets.UTF_8).length + (last.get(0) == '\n' ? 1 : 0);
+      log.truncate(size - length);
+    }
+    lines--;
+    logger.error("Cut off incomplete last line of " + file);
+  }
+
+  private void openWriter(boolean append) throws IOException {
+    FileOutputStream out = new FileOutputStream(file.toFile(), append);
+    channel = out.getChannel();
+    writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+  }
+
+  private void append(String line) throws IOException {
+    writer.write(line);
+    writer.write('\n');
+    writer.flush();
+    if (sync)
+      channel.force(false);
+    lines++;
+    if (sinceSnapshot != null)
+      sinceSnapshot.add(line);
+  }
+
+  private void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.error("Error deleting " + path + ":  " + e.getMessage());
+    }
+  }
+
+}
@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.bson.types.ObjectId;
+import org.edgexfoundry.domain.common.BaseObject;
+
+/**
+ * In memory collection of documents persisted to an append only log (see AppendLog). Documents are
+ * held once, in an index ordered newest first by creation time, so that time range and "most
+ * recent N" queries touch only the documents they return (plus those filtered out on the way); a
+ * map by id holds just their index keys.
+ * Saving assigns the id and the created and modified timestamps like Mongo DB auditing does. Like
+ * Mongo DB, the collection holds its own copies of the documents: saving stores a copy and reads
+ * return copies, so changing a document returned has no effect until it is saved. Reads are lock
+ * free; changes are serialized.
+ */
+class EmbeddedCollection<T extends BaseObject> implements Closeable {
+
+  private final Map<String, Key> keys = new ConcurrentHashMap<>();
+
+  private final ConcurrentSkipListMap<Key, T> byCreated = new ConcurrentSkipListMap<>();
+
+  private final AppendLog<T> log;
+
+  private volatile UnaryOperator<T> resolver = UnaryOperator.identity();
+
+  EmbeddedCollection(AppendLog<T> log) {
+    this.log = log;
+  }
+
+  /**
+   * Set a function applied to each copy read, e.g. to replace references to the documents of
+   * another collection by their current versions.
+   */
+  void resolveOnRead(UnaryOperator<T> resolver) {
+    this.resolver = resolver;
+  }
+
+  /**
+   * Load the collection from its log.
+   */
+  synchronized void open() throws IOException {
+    log.open(this::index, this::unindex);
+  }
+
+  T get(String id) {
+    return id == null ? null : copy(document(id));
+  }
+
+  long count() {
+    return keys.size();
+  }
+
+  long count(Predicate<T> filter) {
+    return byCreated.values().stream().filter(filter).count();
+  }
+
+  List<T> all() {
+    List<T> all = new ArrayList<>(keys.size());
+    for (T document : byCreated.values())
+      all.add(copy(document));
+    return all;
+  }
+
+  /**
+   * Save a new or changed document.
+   * 
+   * @param document - the document, its id and timestamps are set if new; a copy is stored
+   * @return the document saved
+   */
+  synchronized <S extends T> S save(S document) {
+    long now = Calendar.getInstance().getTimeInMillis();
+    if (document.getId() == null)
+      document.setId(new ObjectId().toHexString());
+    if (document.getCreated() == 0)
+      document.setCreated(now);
+    document.setModified(now);
+    try {
+      index(log.put(document));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    compact();
+    return document;
+  }
+
+  /**
+   * Delete a document.
+   * 
+   * @param id - id of the document
+   * @return the document deleted, null if there was none with the id
+   */
+  synchronized T delete(String id) {
+    if (id == null || !keys.containsKey(id))
+      return null;
+    try {
+      log.delete(id);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    T document = unindex(id);
+    compact();
+    return document;
+  }
+
+  /**
+   * Delete all documents matching the filter.
+   * 
+   * @return the documents deleted
+   */
+  synchronized List<T> deleteAll(Predicate<T> filter) {
+    List<T> deleted = new ArrayList<>();
+    for (T document : byCreated.values()) {
+      if (filter.test(document))
+        deleted.add(delete(document.getId()));
+    }
+    return deleted;
+  }
+
+  /**
+   * Delete all documents created before the timestamp.
+   * 
+   * @return the documents deleted
+   */
+  synchronized List<T> deleteCreatedBefore(long time) {
+    List<T> deleted = new ArrayList<>();
+    for (T document : byCreated.tailMap(new Key(time - 1, null), true).values())
+      deleted.add(delete(document.getId()));
+    return deleted;
+  }
+
+  /**
+   * Delete all documents.
+   */
+  synchronized void clear() {
+    try {
+      log.clear();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    keys.clear();
+    byCreated.clear();
+  }
+
+  /**
+   * Documents matching the filter, newest first.
+   * 
+   * @param filter - document filter
+   * @param limit - maximum number of documents, no limit if less than one
+   */
+  List<T> newest(Predicate<T> filter, int limit) {
+    return collect(byCreated, filter, limit);
+  }
+
+  /**
+   * Documents created between two timestamps (exclusive) matching the filter, newest first.
+   * 
+   * @param limit - maximum number of documents, no limit if less than one
+   */
+  List<T> createdBetween(long start, long end, Predicate<T> filter, int limit) {
+    if (end <= start + 1)
+      return new ArrayList<>();
+    return collect(byCreated.subMap(new Key(end - 1, null), true, new Key(start + 1, ""), true),
+        filter, limit);
+  }
+
+  /**
+   * All documents ordered by the comparator.
+   */
+  List<T> sorted(Comparator<T> comparator) {
+    List<T> sorted = all();
+    sorted.sort(comparator);
+    return sorted;
+  }
+
+  @Override
+  public void close() throws IOException {
+    log.close();
+  }
+
+  private List<T> collect(NavigableMap<Key, T> range, Predicate<T> filter, int limit) {
+    List<T> found = new ArrayList<>();
+    for (T document : range.values()) {
+      if (filter.test(document)) {
+        found.add(copy(document));
+        if (found.size() == limit)
+          break;
+      }
+    }
+    return found;
+  }
+
+  private T copy(T document) {
+    return document == null ? null : resolver.apply(log.copy(document));
+  }
+
+  // the two maps are not changed together, so retry if the key read was replaced meanwhile
+  private T document(String id) {
+    Key key = keys.get(id);
+    while (key != null) {
+      T document = byCreated.get(key);
+      Key current = keys.get(id);
+      if (document != null || current == null || current.equals(key))
+        return document;
+      key = current;
+    }
+    return null;
+  }
+
+  // the new version is indexed before the previous one is removed, so reads never miss it
+  private void index(T document) {
+    Key key = new Key(document.getCreated(), document.getId());
+    byCreated.put(key, document);
+    Key previous = keys.put(document.getId(), key);
+    if (previous != null && !previous.equals(key))
+      byCreated.remove(previous);
+  }
+
+  private T unindex(String id) {
+    Key key = keys.remove(id);
+    return key == null ? null : byCreated.remove(key);
+  }
+
+  private void compact() {
+    log.compactIfNeeded(byCreated.values());
+  }
+
+  // newest first, then by id descending; a null id sorts before (newer than) all ids of the same
+  // creation time and the empty id after them, for use as range bounds
+  private static final class Key implements Comparable<Key> {
+    private final long created;
+    private final String id;
+
+    Key(long created, String id) {
+      this.created = created;
+      this.id = id;
+    }
+
+    @Override
+    public int compareTo(Key other) {
+      int c = Long.compare(other.created, created);
+      if (c != 0)
+        return c;
+      if (id == null || other.id == null)
+        return id == null ? (other.id == null ? 0 : -1) : 1;
+      return other.id.compareTo(id);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Key && compareTo((Key) other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(created) * 31 + (id == null ? 0 : id.hashCode());
+    }
+  }
+
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.edgexfoundry.dao.EventRepository;
+import org.edgexfoundry.dao.Storage;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Embedded event repository. Events are logged with their readings; when an event is read, its
+ * readings are replaced by the current documents of the reading repository so that, as with the
+ * Mongo DB references, changes to a reading show in its event.
+ */
+@Component
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.EMBEDDED)
+public class EmbeddedEventRepository implements EventRepository {
+
+  private static final String COLLECTION = "event";
+
+  @Autowired
+  EmbeddedStore store;
+
+  @Autowired
+  EmbeddedReadingRepository readingRepos;
+
+  private EmbeddedCollection<Event> events;
+
+  @PostConstruct
+  public void open() {
+    events = store.open(COLLECTION, Event.class);
+    events.resolveOnRead(this::relink);
+  }
+
+  @Override
+  public Event findOne(String id) {
+    return events.get(id);
+  }
+
+  @Override
+  public List<Event> findAll() {
+    return events.all();
+  }
+
+  @Override
+  public List<Event> findAll(Sort sort) {
+    Comparator<Event> comparator = comparator(sort);
+    return comparator == null ? events.all() : events.sorted(comparator);
+  }
+
+  @Override
+  public List<Event> findByDevice(String deviceId) {
+    return events.newest(e -> deviceId.equals(e.getDevice()), 0);
+  }
+
+  @Override
+  public long count() {
+    return events.count();
+  }
+
+  @Override
+  public <S extends Event> S save(S event) {
+    return events.save(event);
+  }
+
+  @Override
+  public void delete(String id) {
+    events.delete(id);
+  }
+
+  @Override
+  public void delete(Event event) {
+    events.delete(event.getId());
+  }
+
+  @Override
+  public void deleteAll() {
+    events.clear();
+  }
+
+  EmbeddedCollection<Event> collection() {
+    return events;
+  }
+
+  private Event relink(Event event) {
+    if (event.getReadings() != null)
+      event.setReadings(
+          event.getReadings().stream().map(this::stored).collect(Collectors.toList()));
+    return event;
+  }
+
+  private Reading stored(Reading reading) {
+    Reading stored = readingRepos.findOne(reading.getId());
+    return stored != null ? stored : reading;
+  }
+
+  /**
+   * @return comparator for the sort given, null if unsorted
+   */
+  static Comparator<Event> comparator(Sort sort) {
+    if (sort == null)
+      return null;
+    Comparator<Event> comparator = null;
+    for (Sort.Order order : sort) {
+      Comparator<Event> next = comparator(order.getProperty());
+      if (order.isDescending())
+        next = next.reversed();
+      comparator = comparator == null ? next : comparator.thenComparing(next);
+    }
+    return comparator;
+  }
+
+  private static Comparator<Event> comparator(String property) {
+    switch (property) {
+      case "_id":
+      case "id":
+        return Comparator.comparing(Event::getId);
+      case "created":
+        return Comparator.comparingLong(Event::getCreated);
+      case "modified":
+        return Comparator.comparingLong(Event::getModified);
+      case "origin":
+        return Comparator.comparingLong(Event::getOrigin);
+      case "pushed":
+        return Comparator.comparingLong(Event::getPushed);
+      default:
+        throw new IllegalArgumentException("Unsupported event sort property:  " + property);
+    }
+  }
+
+}
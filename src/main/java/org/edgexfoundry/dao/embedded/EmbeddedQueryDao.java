@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.edgexfoundry.dao.QueryDao;
+import org.edgexfoundry.dao.Storage;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Embedded historical event and reading queries. Walks the collections newest first and stops as
+ * soon as the limit is reached.
+ */
+@Component
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.EMBEDDED)
+public class EmbeddedQueryDao implements QueryDao {
+
+  @Autowired
+  EmbeddedEventRepository eventRepos;
+
+  @Autowired
+  EmbeddedReadingRepository readingRepos;
+
+  @Override
+  public List<Event> eventsByCreated(long start, long end, int limit) {
+    return eventRepos.collection().createdBetween(start, end, e -> true, checkLimit(limit));
+  }
+
+  @Override
+  public List<Event> eventsByDevice(String deviceId, int limit) {
+    return eventRepos.collection().newest(e -> Objects.equals(deviceId, e.getDevice()),
+        checkLimit(limit));
+  }
+
+  @Override
+  public long eventCountByDevice(String deviceId) {
+    return eventRepos.collection().count(e -> Objects.equals(deviceId, e.getDevice()));
+  }
+
+  @Override
+  public List<Reading> readingsByCreated(long start, long end, int limit) {
+    return readingRepos.collection().createdBetween(start, end, r -> true, checkLimit(limit));
+  }
+
+  @Override
+  public List<Reading> readingsByName(String name, int limit) {
+    return readingRepos.collection().newest(r -> Objects.equals(name, r.getName()),
+        checkLimit(limit));
+  }
+
+  @Override
+  public List<Reading> readingsByNameAndDevice(String name, String device, int limit) {
+    return readingRepos.collection().newest(
+        r -> Objects.equals(name, r.getName()) && Objects.equals(device, r.getDevice()),
+        checkLimit(limit));
+  }
+
+  @Override
+  public Reading latestReading(String name, String device) {
+    List<Reading> latest = readingsByNameAndDevice(name, device, 1);
+    return latest.isEmpty() ? null : latest.get(0);
+  }
+
+  @Override
+  public List<Reading> readingsByNames(Collection<String> names, int limit) {
+    return readingRepos.collection().newest(r -> names.contains(r.getName()), limit);
+  }
+
+  @Override
+  public List<Reading> latestReadings() {
+    Map<List<String>, Reading> latest = new LinkedHashMap<>();
+    for (Reading reading : readingRepos.collection().newest(r -> true, 0))
+      latest.putIfAbsent(Arrays.asList(reading.getDevice(), reading.getName()), reading);
+    return new ArrayList<>(latest.values());
+  }
+
+  private int checkLimit(int limit) {
+    if (limit < 1)
+      throw new IllegalArgumentException("Page size must not be less than one");
+    return limit;
+  }
+
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.PostConstruct;
+
+import org.edgexfoundry.dao.ReadingRepository;
+import org.edgexfoundry.dao.Storage;
+import org.edgexfoundry.domain.core.Reading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.EMBEDDED)
+public class EmbeddedReadingRepository implements ReadingRepository {
+
+  private static final String COLLECTION = "reading";
+
+  @Autowired
+  EmbeddedStore store;
+
+  private EmbeddedCollection<Reading> readings;
+
+  @PostConstruct
+  public void open() {
+    readings = store.open(COLLECTION, Reading.class);
+  }
+
+  @Override
+  public Reading findOne(String id) {
+    return readings.get(id);
+  }
+
+  @Override
+  public List<Reading> findAll() {
+    return readings.all();
+  }
+
+  @Override
+  public Reading findFirstByName(String name) {
+    List<Reading> found = readings.newest(r -> Objects.equals(name, r.getName()), 1);
+    return found.isEmpty() ? null : found.get(0);
+  }
+
+  @Override
+  public long count() {
+    return readings.count();
+  }
+
+  @Override
+  public <S extends Reading> S save(S reading) {
+    return readings.save(reading);
+  }
+
+  @Override
+  public void delete(String id) {
+    readings.delete(id);
+  }
+
+  @Override
+  public void delete(Reading reading) {
+    readings.delete(reading.getId());
+  }
+
+  @Override
+  public void deleteAll() {
+    readings.clear();
+  }
+
+  EmbeddedCollection<Reading> collection() {
+    return readings;
+  }
+
+}
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.util.Calendar;
+
+import org.edgexfoundry.cache.ReadingReferenceCounter;
+import org.edgexfoundry.dao.ScrubDao;
+import org.edgexfoundry.dao.Storage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.EMBEDDED)
+public class EmbeddedScrubDao implements ScrubDao {
+
+  @Autowired
+  EmbeddedEventRepository eventRepos;
+
+  @Autowired
+  EmbeddedReadingRepository readingRepos;
+
+  @Autowired
+  ReadingReferenceCounter readingRefCounter;
+
+  @Override
+  public int scrubPushedEvents() {
+    readingRepos.collection().deleteAll(r -> r.getPushed() > 0);
+    readingRefCounter.clear();
+    return eventRepos.collection().deleteAll(e -> e.getPushed() > 0).size();
+  }
+
+  @Override
+  public int scrubOldEvents(long age) {
+    long time = Calendar.getInstance().getTimeInMillis() - age;
+    readingRepos.collection().deleteCreatedBefore(time);
+    readingRefCounter.clear();
+    return eventRepos.collection().deleteCreatedBefore(time).size();
+  }
+
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.PreDestroy;
+
+import org.edgexfoundry.dao.Storage;
+import org.edgexfoundry.domain.common.BaseObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Embedded storage backend: keeps each collection in memory and in an append only log file in the
+ * storage directory, so no database process is needed. Intended for small gateways whose data
+ * fits in memory. Activated by the embedded Spring profile (storage.type=embedded); the timeseries
+ * profile uses it for value descriptors only.
+ */
+@Component
+@ConditionalOnExpression(Storage.EMBEDDED_OR_TIMESERIES)
+public class EmbeddedStore {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(EmbeddedStore.class);
+
+  private static final String LOG_SUFFIX = ".log";
+
+  @Value("${storage.embedded.dir:./data}")
+  private String dir;
+
+  @Value("${storage.embedded.sync:false}")
+  private boolean sync;
+
+  @Value("${storage.embedded.compact.ratio:3}")
+  private int compactRatio;
+
+  private final ObjectMapper mapper =
+      new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private final List<EmbeddedCollection<?>> collections = new CopyOnWriteArrayList<>();
+
+  /**
+   * Open (and load) a collection.
+   * 
+   * @param name - collection name, also the name of its log file
+   * @param type - document class
+   * @return the collection
+   */
+  <T extends BaseObject> EmbeddedCollection<T> open(String name, Class<T> type) {
+    try {
+      Path directory = Files.createDirectories(Paths.get(dir));
+      EmbeddedCollection<T> collection = new EmbeddedCollection<>(
+          new AppendLog<>(directory.resolve(name + LOG_SUFFIX), type, mapper, sync, compactRatio));
+      collection.open();
+      collections.add(collection);
+      logger.info("Opened embedded collection " + name + " with " + collection.count()
+          + " documents");
+      return collection;
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to open embedded collection " + name, e);
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    for (EmbeddedCollection<?> collection : collections) {
+      try {
+        collection.close();
+      } catch (IOException e) {
+        logger.error("Error closing embedded collection:  " + e.getMessage());
+      }
+    }
+    collections.clear();
+  }
+
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.PostConstruct;
+
+import org.edgexfoundry.dao.Storage;
+import org.edgexfoundry.dao.ValueDescriptorRepository;
+import org.edgexfoundry.domain.common.ValueDescriptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnExpression(Storage.EMBEDDED_OR_TIMESERIES)
+public class EmbeddedValueDescriptorRepository implements ValueDescriptorRepository {
+
+  private static final String COLLECTION = "valueDescriptor";
+
+  @Autowired
+  EmbeddedStore store;
+
+  private EmbeddedCollection<ValueDescriptor> valueDescriptors;
+
+  @PostConstruct
+  public void open() {
+    valueDescriptors = store.open(COLLECTION, ValueDescriptor.class);
+  }
+
+  @Override
+  public ValueDescriptor findOne(String id) {
+    return valueDescriptors.get(id);
+  }
+
+  @Override
+  public List<ValueDescriptor> findAll() {
+    return valueDescriptors.all();
+  }
+
+  @Override
+  public ValueDescriptor findByName(String name) {
+    List<ValueDescriptor> found =
+        valueDescriptors.newest(v -> Objects.equals(name, v.getName()), 1);
+    return found.isEmpty() ? null : found.get(0);
+  }
+
+  @Override
+  public List<ValueDescriptor> findByNameIn(Collection<String> names) {
+    return valueDescriptors.newest(v -> names.contains(v.getName()), 0);
+  }
+
+  @Override
+  public List<ValueDescriptor> findByUomLabel(String uomLabel) {
+    return valueDescriptors.newest(v -> uomLabel.equals(v.getUomLabel()), 0);
+  }
+
+  @Override
+  public List<ValueDescriptor> findByLabelsIn(String label) {
+    return valueDescriptors
+        .newest(v -> v.getLabels() != null && Arrays.asList(v.getLabels()).contains(label), 0);
+  }
+
+  @Override
+  public long count() {
+    return valueDescriptors.count();
+  }
+
+  // names are unique, as with the unique name index in Mongo DB
+  @Override
+  public synchronized <S extends ValueDescriptor> S save(S valueDescriptor) {
+    ValueDescriptor named = findByName(valueDescriptor.getName());
+    if (named != null && !named.getId().equals(valueDescriptor.getId()))
+      throw new DuplicateKeyException(
+          "Value descriptor name already in use:  " + valueDescriptor.getName());
+    return valueDescriptors.save(valueDescriptor);
+  }
+
+  @Override
+  public void delete(String id) {
+    valueDescriptors.delete(id);
+  }
+
+  @Override
+  public void delete(ValueDescriptor valueDescriptor) {
+    valueDescriptors.delete(valueDescriptor.getId());
+  }
+
+  @Override
+  public void deleteAll() {
+    valueDescriptors.clear();
+  }
+
+}
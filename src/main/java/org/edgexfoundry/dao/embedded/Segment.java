@@ -0,0 +1,366 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * One memory mapped, fixed size, append only segment file of the time series store (see
+ * SegmentStore). Each record is an int payload length, the int CRC32 of the rest of the record, a
+ * kind byte (event or reading), an operation byte (put or delete) and the payload: the JSON
+ * document for a put, the id for a delete. The length is written last, and a zero length or a bad
+ * checksum (a record torn by a crash) ends the segment. Records are addressed by ordinal (append
+ * order) and indexed in memory by device and by device and reading name; the index is rebuilt
+ * from the file when the store is opened.
+ */
+class Segment implements Closeable {
+
+  static final byte EVENT = 'E';
+
+  static final byte READING = 'R';
+
+  static final byte PUT = 'P';
+
+  static final byte DELETE = 'D';
+
+  static final String SUFFIX = ".seg";
+
+  private static final int HEADER = 10;
+
+  private static final int INITIAL_ORDINALS = 1024;
+
+  private final Path path;
+
+  private final long partition;
+
+  private final int seq;
+
+  private final FileChannel channel;
+
+  private final MappedByteBuffer buffer;
+
+  private int writePos;
+
+  private int count;
+
+  private int[] positions = new int[INITIAL_ORDINALS];
+
+  private long[] created = new long[INITIAL_ORDINALS];
+
+  // ordinals of current versions, and of those not yet pushed
+  private final BitSet live = new BitSet();
+
+  private final BitSet pending = new BitSet();
+
+  private final Ordinals events = new Ordinals();
+
+  private final Ordinals readings = new Ordinals();
+
+  private final Map<String, Ordinals> eventsByDevice = new HashMap<>();
+
+  private final Map<String, Ordinals> readingsByName = new HashMap<>();
+
+  private final Map<String, Ordinals> readingsBySeries = new HashMap<>();
+
+  private Segment(Path path, long partition, int seq, FileChannel channel,
+      MappedByteBuffer buffer) {
+    this.path = path;
+    this.partition = partition;
+    this.seq = seq;
+    this.channel = channel;
+    this.buffer = buffer;
+  }
+
+  /**
+   * Open a segment file, creating it with the given size if it does not exist, and find its
+   * records.
+   * 
+   * @param path - segment file, named partition-seq.seg
+   * @param size - size of a new segment file in bytes
+   * @return the segment
+   */
+  static Segment open(Path path, int size) throws IOException {
+    String name = path.getFileName().toString();
+    int dash = name.lastIndexOf('-');
+    long partition = Long.parseLong(name.substring(0, dash));
+    int seq = Integer.parseInt(name.substring(dash + 1, name.length() - SUFFIX.length()));
+    boolean exists = Files.exists(path);
+    RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+    try {
+      if (!exists)
+        file.setLength(size);
+      FileChannel channel = file.getChannel();
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+      Segment segment = new Segment(path, partition, seq, channel, buffer);
+      segment.recover();
+      return segment;
+    } catch (IOException | RuntimeException e) {
+      file.close();
+      throw e;
+    }
+  }
+
+  static String fileName(long partition, int seq) {
+    return partition + "-" + seq + SUFFIX;
+  }
+
+  long partition() {
+    return partition;
+  }
+
+  int seq() {
+    return seq;
+  }
+
+  int count() {
+    return count;
+  }
+
+  /**
+   * Append a record.
+   * 
+   * @return the record's ordinal, or -1 if the segment has no room left for it
+   */
+  int append(byte kind, byte op, byte[] payload) {
+    int end = writePos + HEADER + payload.length;
+    if (end > buffer.capacity() || end < 0)
+      return -1;
+    ByteBuffer out = buffer.duplicate();
+    out.position(writePos + 2 * Integer.BYTES);
+    out.put(kind).put(op).put(payload);
+    out.putInt(writePos + Integer.BYTES, checksum(writePos, payload.length));
+    out.putInt(writePos, payload.length);
+    int ordinal = add(writePos);
+    writePos = end;
+    return ordinal;
+  }
+
+  /**
+   * @return bytes taken by a record with the payload given
+   */
+  static int recordSize(byte[] payload) {
+    return HEADER + payload.length;
+  }
+
+  byte kind(int ordinal) {
+    return buffer.get(positions[ordinal] + 2 * Integer.BYTES);
+  }
+
+  byte op(int ordinal) {
+    return buffer.get(positions[ordinal] + 2 * Integer.BYTES + 1);
+  }
+
+  byte[] payload(int ordinal) {
+    ByteBuffer in = buffer.duplicate();
+    in.position(positions[ordinal]);
+    byte[] payload = new byte[in.getInt()];
+    in.position(positions[ordinal] + HEADER);
+    in.get(payload);
+    return payload;
+  }
+
+  long created(int ordinal) {
+    return created[ordinal];
+  }
+
+  boolean isLive(int ordinal) {
+    return live.get(ordinal);
+  }
+
+  /**
+   * @return true if the segment holds current versions not yet pushed
+   */
+  boolean hasPending() {
+    return live.intersects(pending);
+  }
+
+  boolean isEmpty() {
+    return live.isEmpty();
+  }
+
+  /**
+   * Index the current version of an event.
+   */
+  void indexEvent(int ordinal, long createdAt, boolean pushed, String device) {
+    index(ordinal, createdAt, pushed);
+    events.add(ordinal);
+    eventsByDevice.computeIfAbsent(String.valueOf(device), key -> new Ordinals()).add(ordinal);
+  }
+
+  /**
+   * Index the current version of a reading.
+   */
+  void indexReading(int ordinal, long createdAt, boolean pushed, String device, String name) {
+    index(ordinal, createdAt, pushed);
+    readings.add(ordinal);
+    readingsByName.computeIfAbsent(String.valueOf(name), key -> new Ordinals()).add(ordinal);
+    readingsBySeries.computeIfAbsent(series(device, name), key -> new Ordinals()).add(ordinal);
+  }
+
+  /**
+   * Mark a version as superseded or deleted. Its record stays in the file until the segment is
+   * dropped.
+   */
+  void kill(int ordinal) {
+    live.clear(ordinal);
+  }
+
+  IntStream events() {
+    return events.stream();
+  }
+
+  IntStream eventsOf(String device) {
+    return stream(eventsByDevice.get(String.valueOf(device)));
+  }
+
+  IntStream readings() {
+    return readings.stream();
+  }
+
+  IntStream readingsNamed(String name) {
+    return stream(readingsByName.get(String.valueOf(name)));
+  }
+
+  IntStream readingsOf(String device, String name) {
+    return stream(readingsBySeries.get(series(device, name)));
+  }
+
+  /**
+   * @return the keys of the device and reading name series indexed
+   */
+  Set<String> series() {
+    return readingsBySeries.keySet();
+  }
+
+  IntStream readingsOfSeries(String series) {
+    return stream(readingsBySeries.get(series));
+  }
+
+  /**
+   * Count the current versions among the ordinals.
+   */
+  long countLive(IntStream ordinals) {
+    return ordinals.filter(live::get).count();
+  }
+
+  void force() {
+    buffer.force();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Close the segment and delete its file. The mapping itself is released when the buffer is
+   * garbage collected.
+   */
+  void drop() throws IOException {
+    close();
+    Files.deleteIfExists(path);
+  }
+
+  // find the records written, stopping at the first empty or torn one
+  private void recover() {
+    int pos = 0;
+    while (pos + HEADER <= buffer.capacity()) {
+      int length = buffer.getInt(pos);
+      if (length <= 0 || pos + HEADER + length > buffer.capacity()
+          || buffer.getInt(pos + Integer.BYTES) != checksum(pos, length))
+        break;
+      add(pos);
+      pos += HEADER + length;
+    }
+    writePos = pos;
+    // zero anything past the last whole record so a torn record is not mistaken for data later
+    if (pos + Integer.BYTES <= buffer.capacity())
+      buffer.putInt(pos, 0);
+  }
+
+  private int add(int position) {
+    if (count == positions.length) {
+      positions = Arrays.copyOf(positions, count * 2);
+      created = Arrays.copyOf(created, count * 2);
+    }
+    positions[count] = position;
+    return count++;
+  }
+
+  // CRC32 of the kind, operation and payload of the record at a position
+  private int checksum(int position, int length) {
+    ByteBuffer in = buffer.duplicate();
+    in.position(position + 2 * Integer.BYTES);
+    in.limit(position + HEADER + length);
+    CRC32 crc = new CRC32();
+    crc.update(in);
+    return (int) crc.getValue();
+  }
+
+  private void index(int ordinal, long createdAt, boolean pushed) {
+    created[ordinal] = createdAt;
+    live.set(ordinal);
+    if (!pushed)
+      pending.set(ordinal);
+  }
+
+  private static IntStream stream(Ordinals ordinals) {
+    return ordinals == null ? IntStream.empty() : ordinals.stream();
+  }
+
+  private static String series(String device, String name) {
+    return device + '\u0000' + name;
+  }
+
+  /**
+   * Growable list of ordinals in append order.
+   */
+  private static class Ordinals {
+
+    private int[] values = new int[16];
+
+    private int size;
+
+    void add(int ordinal) {
+      if (size == values.length)
+        values = Arrays.copyOf(values, size * 2);
+      values[size++] = ordinal;
+    }
+
+    IntStream stream() {
+      return Arrays.stream(values, 0, size);
+    }
+
+  }
+
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.edgexfoundry.dao.EventRepository;
+import org.edgexfoundry.dao.Storage;
+import org.edgexfoundry.domain.core.Event;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Time series event repository (see SegmentStore).
+ */
+@Component
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.TIMESERIES)
+public class SegmentEventRepository implements EventRepository {
+
+  @Autowired
+  SegmentStore store;
+
+  @Override
+  public Event findOne(String id) {
+    return store.event(id);
+  }
+
+  @Override
+  public List<Event> findAll() {
+    return store.allEvents();
+  }
+
+  @Override
+  public List<Event> findAll(Sort sort) {
+    List<Event> events = store.allEvents();
+    Comparator<Event> comparator = EmbeddedEventRepository.comparator(sort);
+    if (comparator != null)
+      events.sort(comparator);
+    return events;
+  }
+
+  @Override
+  public List<Event> findByDevice(String deviceId) {
+    return store.events(segment -> segment.eventsOf(deviceId), Long.MIN_VALUE, Long.MAX_VALUE, 0);
+  }
+
+  @Override
+  public long count() {
+    return store.eventCount();
+  }
+
+  @Override
+  public <S extends Event> S save(S event) {
+    return store.saveEvent(event);
+  }
+
+  @Override
+  public void delete(String id) {
+    store.deleteEvent(id);
+  }
+
+  @Override
+  public void delete(Event event) {
+    store.deleteEvent(event.getId());
+  }
+
+  @Override
+  public void deleteAll() {
+    store.deleteAllEvents();
+  }
+
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.edgexfoundry.dao.QueryDao;
+import org.edgexfoundry.dao.Storage;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Time series historical event and reading queries. Device and reading name criteria are answered
+ * from the segment indexes; time ranges skip the partitions outside the range.
+ */
+@Component
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.TIMESERIES)
+public class SegmentQueryDao implements QueryDao {
+
+  @Autowired
+  SegmentStore store;
+
+  @Override
+  public List<Event> eventsByCreated(long start, long end, int limit) {
+    return store.events(Segment::events, start, end, checkLimit(limit));
+  }
+
+  @Override
+  public List<Event> eventsByDevice(String deviceId, int limit) {
+    return store.events(segment -> segment.eventsOf(deviceId), Long.MIN_VALUE, Long.MAX_VALUE,
+        checkLimit(limit));
+  }
+
+  @Override
+  public long eventCountByDevice(String deviceId) {
+    return store.eventCount(deviceId);
+  }
+
+  @Override
+  public List<Reading> readingsByCreated(long start, long end, int limit) {
+    return store.readings(Segment::readings, start, end, checkLimit(limit));
+  }
+
+  @Override
+  public List<Reading> readingsByName(String name, int limit) {
+    return store.readings(segment -> segment.readingsNamed(name), Long.MIN_VALUE, Long.MAX_VALUE,
+        checkLimit(limit));
+  }
+
+  @Override
+  public List<Reading> readingsByNameAndDevice(String name, String device, int limit) {
+    return store.readings(segment -> segment.readingsOf(device, name), Long.MIN_VALUE,
+        Long.MAX_VALUE, checkLimit(limit));
+  }
+
+  @Override
+  public Reading latestReading(String name, String device) {
+    List<Reading> latest = readingsByNameAndDevice(name, device, 1);
+    return latest.isEmpty() ? null : latest.get(0);
+  }
+
+  @Override
+  public List<Reading> readingsByNames(Collection<String> names, int limit) {
+    return store.readings(
+        segment -> names.stream().distinct().flatMapToInt(segment::readingsNamed),
+        Long.MIN_VALUE, Long.MAX_VALUE, limit);
+  }
+
+  @Override
+  public List<Reading> latestReadings() {
+    return store.latestReadings();
+  }
+
+  private int checkLimit(int limit) {
+    if (limit < 1)
+      throw new IllegalArgumentException("Page size must not be less than one");
+    return limit;
+  }
+
+}
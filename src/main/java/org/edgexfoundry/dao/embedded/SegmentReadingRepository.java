@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.util.List;
+
+import org.edgexfoundry.dao.ReadingRepository;
+import org.edgexfoundry.dao.Storage;
+import org.edgexfoundry.domain.core.Reading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Time series reading repository (see SegmentStore).
+ */
+@Component
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.TIMESERIES)
+public class SegmentReadingRepository implements ReadingRepository {
+
+  @Autowired
+  SegmentStore store;
+
+  @Override
+  public Reading findOne(String id) {
+    return store.reading(id);
+  }
+
+  @Override
+  public List<Reading> findAll() {
+    return store.allReadings();
+  }
+
+  @Override
+  public Reading findFirstByName(String name) {
+    List<Reading> found =
+        store.readings(segment -> segment.readingsNamed(name), Long.MIN_VALUE, Long.MAX_VALUE, 1);
+    return found.isEmpty() ? null : found.get(0);
+  }
+
+  @Override
+  public long count() {
+    return store.readingCount();
+  }
+
+  @Override
+  public <S extends Reading> S save(S reading) {
+    return store.saveReading(reading);
+  }
+
+  @Override
+  public void delete(String id) {
+    store.deleteReading(id);
+  }
+
+  @Override
+  public void delete(Reading reading) {
+    store.deleteReading(reading.getId());
+  }
+
+  @Override
+  public void deleteAll() {
+    store.deleteAllReadings();
+  }
+
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.util.Calendar;
+
+import org.edgexfoundry.cache.ReadingReferenceCounter;
+import org.edgexfoundry.dao.ScrubDao;
+import org.edgexfoundry.dao.Storage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Time series scrubbing. Removes whole partitions (with their readings) rather than individual
+ * documents: a partition goes once all its events and readings are pushed, or once all of them are
+ * older than the age given. Unlike the Mongo DB scrubbing, events older than the age that share a
+ * partition with newer ones are kept until the whole partition is old enough (at most one
+ * partition length, storage.timeseries.partition, longer). Counts returned are of the events
+ * removed.
+ */
+@Component
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.TIMESERIES)
+public class SegmentScrubDao implements ScrubDao {
+
+  @Autowired
+  SegmentStore store;
+
+  @Autowired
+  ReadingReferenceCounter readingRefCounter;
+
+  @Override
+  public int scrubPushedEvents() {
+    int dropped = store.dropPushed();
+    readingRefCounter.clear();
+    return dropped;
+  }
+
+  @Override
+  public int scrubOldEvents(long age) {
+    int dropped = store.dropBefore(Calendar.getInstance().getTimeInMillis() - age);
+    readingRefCounter.clear();
+    return dropped;
+  }
+
+}
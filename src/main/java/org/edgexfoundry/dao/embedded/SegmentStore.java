@@ -0,0 +1,587 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.bson.types.ObjectId;
+import org.edgexfoundry.dao.Storage;
+import org.edgexfoundry.domain.common.BaseObject;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Time series storage backend for events and readings: append only, memory mapped segment files
+ * (see Segment) partitioned by creation time. Every version of a document is appended to the
+ * partition it was first created in; changes and deletes append a new record rather than
+ * rewriting one, so each write is a single sequential copy into mapped memory. The index is held
+ * in heap and is dense, not sparse: the location of the current version of every document by id,
+ * and for every record of a segment its position, creation time and place in the lists by device
+ * and by device and reading name (in the order of 150 bytes per document, most of it the id map).
+ * Queries walk the partitions newest first, decoding only the documents they return. Space is
+ * reclaimed by dropping whole partitions (see dropBefore and dropPushed) - there are no per
+ * document removals on disk, so retention is only as fine grained as the partition length.
+ * Activated by the timeseries Spring profile (storage.type=timeseries).
+ */
+@Component
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.TIMESERIES)
+public class SegmentStore {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(SegmentStore.class);
+
+  private static final Comparator<Location> NEWEST_FIRST =
+      Comparator.comparingLong(Location::created).thenComparingInt(Location::seq)
+          .thenComparingInt(Location::ordinal).reversed();
+
+  @Value("${storage.timeseries.dir:./data/timeseries}")
+  private String dir;
+
+  @Value("${storage.timeseries.partition:3600000}")
+  private long partitionMillis;
+
+  @Value("${storage.timeseries.segment.size:16777216}")
+  private int segmentSize;
+
+  @Value("${storage.timeseries.sync:false}")
+  private boolean sync;
+
+  private final ObjectMapper mapper =
+      new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // partitions by start time, each with its segments in write order
+  private final NavigableMap<Long, List<Segment>> partitions = new TreeMap<>();
+
+  // current version of each document
+  private final Map<String, Location> events = new HashMap<>();
+
+  private final Map<String, Location> readings = new HashMap<>();
+
+  private Path directory;
+
+  /**
+   * Open the segment files and rebuild the in memory index from them.
+   */
+  @PostConstruct
+  public void open() {
+    lock.writeLock().lock();
+    try {
+      directory = Files.createDirectories(Paths.get(dir));
+      List<Segment> found = new ArrayList<>();
+      try (DirectoryStream<Path> files =
+          Files.newDirectoryStream(directory, "*" + Segment.SUFFIX)) {
+        for (Path file : files)
+          found.add(Segment.open(file, segmentSize));
+      }
+      found.sort(Comparator.comparingLong(Segment::partition).thenComparingInt(Segment::seq));
+      for (Segment segment : found) {
+        partitions.computeIfAbsent(segment.partition(), key -> new ArrayList<>()).add(segment);
+        replay(segment);
+      }
+      logger.info("Opened time series store with " + found.size() + " segments, "
+          + events.size() + " events and " + readings.size() + " readings");
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to open time series store in " + dir, e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    lock.writeLock().lock();
+    try {
+      for (List<Segment> segments : partitions.values()) {
+        for (Segment segment : segments) {
+          try {
+            segment.force();
+            segment.close();
+          } catch (IOException e) {
+            logger.error("Error closing time series segment:  " + e.getMessage());
+          }
+        }
+      }
+      partitions.clear();
+      events.clear();
+      readings.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  Event event(String id) {
+    return get(Segment.EVENT, Event.class, id);
+  }
+
+  Reading reading(String id) {
+    return get(Segment.READING, Reading.class, id);
+  }
+
+  List<Event> allEvents() {
+    return all(Segment.EVENT, Event.class);
+  }
+
+  List<Reading> allReadings() {
+    return all(Segment.READING, Reading.class);
+  }
+
+  long eventCount() {
+    return count(Segment.EVENT);
+  }
+
+  long readingCount() {
+    return count(Segment.READING);
+  }
+
+  /**
+   * Events newest first.
+   * 
+   * @param select - the indexed events of a segment to consider (e.g. Segment::events)
+   * @param start - created after (exclusive)
+   * @param end - created before (exclusive)
+   * @param limit - maximum number of events, less than one for no limit
+   */
+  List<Event> events(Function<Segment, IntStream> select, long start, long end, int limit) {
+    return newest(Event.class, select, start, end, limit);
+  }
+
+  /**
+   * Readings newest first.
+   * 
+   * @param select - the indexed readings of a segment to consider (e.g. Segment::readings)
+   * @param start - created after (exclusive)
+   * @param end - created before (exclusive)
+   * @param limit - maximum number of readings, less than one for no limit
+   */
+  List<Reading> readings(Function<Segment, IntStream> select, long start, long end, int limit) {
+    return newest(Reading.class, select, start, end, limit);
+  }
+
+  /**
+   * The newest reading of each device and reading name. Partitions are walked newest first, so a
+   * series is settled by the newest partition holding any of its readings.
+   */
+  List<Reading> latestReadings() {
+    lock.readLock().lock();
+    try {
+      Map<String, Location> latest = new HashMap<>();
+      for (List<Segment> segments : partitions.descendingMap().values()) {
+        Map<String, Location> found = new HashMap<>();
+        for (Segment segment : segments) {
+          for (String series : segment.series()) {
+            if (latest.containsKey(series))
+              continue;
+            segment.readingsOfSeries(series).filter(segment::isLive)
+                .forEach(ordinal -> found.merge(series, new Location(segment, ordinal),
+                    (a, b) -> NEWEST_FIRST.compare(a, b) <= 0 ? a : b));
+          }
+        }
+        latest.putAll(found);
+      }
+      return latest.values().stream().map(location -> decode(Reading.class, location))
+          .collect(Collectors.toList());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Count the events of a device from the index, without reading any.
+   */
+  long eventCount(String device) {
+    lock.readLock().lock();
+    try {
+      long count = 0;
+      for (List<Segment> segments : partitions.values()) {
+        for (Segment segment : segments)
+          count += segment.countLive(segment.eventsOf(device));
+      }
+      return count;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  <S extends Event> S saveEvent(S event) {
+    return save(Segment.EVENT, event);
+  }
+
+  <S extends Reading> S saveReading(S reading) {
+    return save(Segment.READING, reading);
+  }
+
+  boolean deleteEvent(String id) {
+    return delete(Segment.EVENT, id);
+  }
+
+  boolean deleteReading(String id) {
+    return delete(Segment.READING, id);
+  }
+
+  void deleteAllEvents() {
+    deleteAll(Segment.EVENT);
+  }
+
+  void deleteAllReadings() {
+    deleteAll(Segment.READING);
+  }
+
+  /**
+   * Drop the partitions holding only documents created before a time. Documents created before
+   * the time in the partition holding the time are kept, so up to one partition length of older
+   * documents remains.
+   * 
+   * @return the number of events dropped
+   */
+  int dropBefore(long time) {
+    return drop((start, segments) -> start + partitionMillis <= time);
+  }
+
+  /**
+   * Drop the partitions whose events and readings have all been pushed.
+   * 
+   * @return the number of events dropped
+   */
+  int dropPushed() {
+    return drop((start, segments) -> segments.stream().noneMatch(Segment::hasPending));
+  }
+
+  private <T extends BaseObject> T get(byte kind, Class<T> type, String id) {
+    if (id == null)
+      return null;
+    lock.readLock().lock();
+    try {
+      Location location = locations(kind).get(id);
+      return location == null ? null : decode(type, location);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private <T extends BaseObject> List<T> all(byte kind, Class<T> type) {
+    lock.readLock().lock();
+    try {
+      return locations(kind).values().stream().map(location -> decode(type, location))
+          .collect(Collectors.toList());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private long count(byte kind) {
+    lock.readLock().lock();
+    try {
+      return locations(kind).size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // partitions are disjoint in time, so only the candidates of one partition need sorting
+  private <T extends BaseObject> List<T> newest(Class<T> type, Function<Segment, IntStream> select,
+      long start, long end, int limit) {
+    lock.readLock().lock();
+    try {
+      List<T> found = new ArrayList<>();
+      for (Map.Entry<Long, List<Segment>> partition : partitions.headMap(end, false)
+          .descendingMap().entrySet()) {
+        if (partition.getKey() + partitionMillis <= start + 1)
+          break;
+        List<Location> candidates = new ArrayList<>();
+        for (Segment segment : partition.getValue()) {
+          select.apply(segment).filter(segment::isLive).forEach(ordinal -> {
+            long created = segment.created(ordinal);
+            if (created > start && created < end)
+              candidates.add(new Location(segment, ordinal));
+          });
+        }
+        candidates.sort(NEWEST_FIRST);
+        for (Location candidate : candidates) {
+          if (limit > 0 && found.size() >= limit)
+            return found;
+          found.add(decode(type, candidate));
+        }
+      }
+      return found;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private <S extends BaseObject> S save(byte kind, S document) {
+    long now = Calendar.getInstance().getTimeInMillis();
+    lock.writeLock().lock();
+    try {
+      if (document.getId() == null)
+        document.setId(new ObjectId().toHexString());
+      if (document.getCreated() == 0)
+        document.setCreated(now);
+      document.setModified(now);
+      byte[] payload = mapper.writeValueAsBytes(document);
+      Location previous = locations(kind).get(document.getId());
+      // all versions of a document go to one partition so that they replay in order
+      long partition =
+          previous != null ? previous.segment.partition() : partitionOf(document.getCreated());
+      Location location = append(partition, kind, Segment.PUT, payload);
+      index(kind, location, document.getId(), header(document));
+      return document;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private boolean delete(byte kind, String id) {
+    if (id == null)
+      return false;
+    lock.writeLock().lock();
+    try {
+      Location location = locations(kind).get(id);
+      if (location == null)
+        return false;
+      append(location.segment.partition(), kind, Segment.DELETE,
+          id.getBytes(StandardCharsets.UTF_8));
+      locations(kind).remove(id);
+      location.kill();
+      return true;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void deleteAll(byte kind) {
+    lock.writeLock().lock();
+    try {
+      for (String id : new ArrayList<>(locations(kind).keySet()))
+        delete(kind, id);
+      drop((start, segments) -> segments.stream().allMatch(Segment::isEmpty));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private int drop(PartitionFilter filter) {
+    lock.writeLock().lock();
+    try {
+      int dropped = 0;
+      Set<Segment> removed = new HashSet<>();
+      Iterator<Map.Entry<Long, List<Segment>>> iterator = partitions.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<Long, List<Segment>> partition = iterator.next();
+        if (!filter.test(partition.getKey(), partition.getValue()))
+          continue;
+        for (Segment segment : partition.getValue()) {
+          dropped += segment.countLive(segment.events());
+          removed.add(segment);
+          try {
+            segment.drop();
+          } catch (IOException e) {
+            logger.error("Error deleting time series segment:  " + e.getMessage());
+          }
+        }
+        iterator.remove();
+      }
+      if (!removed.isEmpty()) {
+        Predicate<Location> inRemoved = location -> removed.contains(location.segment);
+        events.values().removeIf(inRemoved);
+        readings.values().removeIf(inRemoved);
+        logger.debug("Dropped " + removed.size() + " time series segments");
+      }
+      return dropped;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private Location append(long partition, byte kind, byte op, byte[] payload) throws IOException {
+    if (Segment.recordSize(payload) > segmentSize)
+      throw new IllegalArgumentException(
+          "Document of " + payload.length + " bytes does not fit in a time series segment");
+    List<Segment> segments = partitions.computeIfAbsent(partition, key -> new ArrayList<>());
+    Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    int ordinal = segment == null ? -1 : segment.append(kind, op, payload);
+    if (ordinal < 0) {
+      int seq = segment == null ? 0 : segment.seq() + 1;
+      segment = Segment.open(directory.resolve(Segment.fileName(partition, seq)), segmentSize);
+      segments.add(segment);
+      ordinal = segment.append(kind, op, payload);
+    }
+    if (sync)
+      segment.force();
+    return new Location(segment, ordinal);
+  }
+
+  private void replay(Segment segment) throws IOException {
+    for (int ordinal = 0; ordinal < segment.count(); ordinal++) {
+      byte kind = segment.kind(ordinal);
+      if (segment.op(ordinal) == Segment.DELETE) {
+        Location location =
+            locations(kind).remove(new String(segment.payload(ordinal), StandardCharsets.UTF_8));
+        if (location != null)
+          location.kill();
+      } else {
+        Header header = mapper.readValue(segment.payload(ordinal), Header.class);
+        index(kind, new Location(segment, ordinal), header.id, header);
+      }
+    }
+  }
+
+  private void index(byte kind, Location location, String id, Header header) {
+    Location previous = locations(kind).put(id, location);
+    if (previous != null)
+      previous.kill();
+    if (kind == Segment.EVENT)
+      location.segment.indexEvent(location.ordinal, header.created, header.pushed > 0,
+          header.device);
+    else
+      location.segment.indexReading(location.ordinal, header.created, header.pushed > 0,
+          header.device, header.name);
+  }
+
+  private <T extends BaseObject> T decode(Class<T> type, Location location) {
+    try {
+      T document = mapper.readValue(location.segment.payload(location.ordinal), type);
+      if (document instanceof Event)
+        relink((Event) document);
+      return document;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // as with the Mongo DB references, an event shows the current version of its readings
+  private void relink(Event event) {
+    if (event.getReadings() == null)
+      return;
+    event.setReadings(event.getReadings().stream().map(reading -> {
+      Reading stored = reading(reading.getId());
+      return stored != null ? stored : reading;
+    }).collect(Collectors.toList()));
+  }
+
+  private Map<String, Location> locations(byte kind) {
+    return kind == Segment.EVENT ? events : readings;
+  }
+
+  private long partitionOf(long created) {
+    return Math.floorDiv(created, partitionMillis) * partitionMillis;
+  }
+
+  private static Header header(BaseObject document) {
+    Header header = new Header();
+    header.id = document.getId();
+    header.created = document.getCreated();
+    if (document instanceof Event) {
+      header.device = ((Event) document).getDevice();
+      header.pushed = ((Event) document).getPushed();
+    } else {
+      header.device = ((Reading) document).getDevice();
+      header.name = ((Reading) document).getName();
+      header.pushed = ((Reading) document).getPushed();
+    }
+    return header;
+  }
+
+  @FunctionalInterface
+  private interface PartitionFilter {
+    boolean test(long start, List<Segment> segments);
+  }
+
+  /**
+   * The indexed fields of a document, read when replaying a segment.
+   */
+  static class Header {
+    public String id;
+    public long created;
+    public long pushed;
+    public String device;
+    public String name;
+  }
+
+  /**
+   * A version of a document: segment and record ordinal.
+   */
+  private static class Location {
+
+    private final Segment segment;
+
+    private final int ordinal;
+
+    Location(Segment segment, int ordinal) {
+      this.segment = segment;
+      this.ordinal = ordinal;
+    }
+
+    long created() {
+      return segment.created(ordinal);
+    }
+
+    int seq() {
+      return segment.seq();
+    }
+
+    int ordinal() {
+      return ordinal;
+    }
+
+    void kill() {
+      segment.kill(ordinal);
+    }
+
+  }
+
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.mongo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.mongodb.core.MongoAction;
+import org.springframework.data.mongodb.core.WriteConcernResolver;
+
+import com.mongodb.WriteConcern;
+
+/**
+ * Resolves the write concern of each Mongo DB write by the type of entity written, falling back to
+ * the default write concern for entities without their own. Applies to writes through the
+ * MongoTemplate and the repositories alike. Lets high frequency telemetry (events and readings)
+ * trade durability for ingest throughput while value descriptors stay safe.
+ */
+public class EntityWriteConcernResolver implements WriteConcernResolver {
+
+  private final Map<Class<?>, WriteConcern> writeConcerns = new HashMap<>();
+
+  /**
+   * Use the write concern for writes of the entity type.
+   * 
+   * @param entityType - entity (document) class
+   * @param writeConcern - write concern, null for the default
+   * @return this resolver
+   */
+  public EntityWriteConcernResolver with(Class<?> entityType, WriteConcern writeConcern) {
+    if (writeConcern != null)
+      writeConcerns.put(entityType, writeConcern);
+    return this;
+  }
+
+  @Override
+  public WriteConcern resolve(MongoAction action) {
+    WriteConcern writeConcern = null;
+    if (action.getEntityType() != null)
+      writeConcern = writeConcerns.get(action.getEntityType());
+    return writeConcern != null ? writeConcern : action.getDefaultWriteConcern();
+  }
+
+  /**
+   * Parse a write concern name (e.g. ACKNOWLEDGED, UNACKNOWLEDGED, W1, JOURNALED, MAJORITY).
+   * 
+   * @param name - write concern name, case insensitive
+   * @return the write concern or null if name is null or empty
+   * @throws IllegalArgumentException if the name is not a known write concern
+   */
+  public static WriteConcern parse(String name) {
+    if (name == null || name.trim().isEmpty())
+      return null;
+    WriteConcern writeConcern = WriteConcern.valueOf(name.trim());
+    if (writeConcern == null)
+      throw new IllegalArgumentException("Unknown Mongo DB write concern:  " + name);
+    return writeConcern;
+  }
+
+}
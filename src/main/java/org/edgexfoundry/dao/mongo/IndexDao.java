@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.mongo;
+
+import javax.annotation.PostConstruct;
+
+import org.edgexfoundry.dao.Storage;
+import org.edgexfoundry.domain.core.Reading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes sure the secondary indexes used by the reading and event queries exist. Index creation is
+ * idempotent, so this runs on every start.
+ */
+@Component
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.MONGO,
+    matchIfMissing = true)
+public class IndexDao {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory.getEdgeXLogger(IndexDao.class);
+
+  private static final String NAME = "name";
+
+  private static final String CREATED = "created";
+
+  @Autowired
+  MongoTemplate template;
+
+  /**
+   * Create the reading index on name and created (newest first). Serves the reading by name, label,
+   * UoM label and type queries sorted by creation date.
+   */
+  @PostConstruct
+  public void ensureIndexes() {
+    try {
+      template.indexOps(Reading.class).ensureIndex(new Index().on(NAME, Sort.Direction.ASC)
+          .on(CREATED, Sort.Direction.DESC).named("name_created"));
+    } catch (Exception e) {
+      logger.error("Unable to create reading indexes:  " + e.getMessage());
+    }
+  }
+
+}
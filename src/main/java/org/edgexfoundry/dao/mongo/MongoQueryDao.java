@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.mongo;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregationOptions;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.edgexfoundry.AppConfig;
+import org.edgexfoundry.dao.QueryDao;
+import org.edgexfoundry.dao.Storage;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.DBObject;
+
+/**
+ * Mongo DB historical event and reading queries. Runs against the query template so that, depending
+ * on the configured query read preference, these reads can be served by replica set secondaries
+ * rather than the primary handling ingest. latestReading is read from the primary through the
+ * primary template instead.
+ */
+@Component
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.MONGO,
+    matchIfMissing = true)
+public class MongoQueryDao implements QueryDao {
+
+  private static final String ID = "_id";
+
+  private static final String CREATED = "created";
+
+  private static final String DEVICE = "device";
+
+  private static final String NAME = "name";
+
+  private static final String LATEST = "latest";
+
+  @Autowired
+  @Qualifier(AppConfig.QUERY_TEMPLATE)
+  MongoTemplate template;
+
+  @Autowired
+  MongoTemplate primaryTemplate;
+
+  @Override
+  public List<Event> eventsByCreated(long start, long end, int limit) {
+    return template.find(newest(Criteria.where(CREATED).gt(start).lt(end), limit), Event.class);
+  }
+
+  @Override
+  public List<Event> eventsByDevice(String deviceId, int limit) {
+    return template.find(newest(Criteria.where(DEVICE).is(deviceId), limit), Event.class);
+  }
+
+  @Override
+  public long eventCountByDevice(String deviceId) {
+    return template.count(new Query(Criteria.where(DEVICE).is(deviceId)), Event.class);
+  }
+
+  @Override
+  public List<Reading> readingsByCreated(long start, long end, int limit) {
+    return template.find(newest(Criteria.where(CREATED).gt(start).lt(end), limit), Reading.class);
+  }
+
+  @Override
+  public List<Reading> readingsByName(String name, int limit) {
+    return template.find(newest(Criteria.where(NAME).is(name), limit), Reading.class);
+  }
+
+  @Override
+  public List<Reading> readingsByNameAndDevice(String name, String device, int limit) {
+    return template.find(newest(Criteria.where(NAME).is(name).and(DEVICE).is(device), limit),
+        Reading.class);
+  }
+
+  @Override
+  public Reading latestReading(String name, String device) {
+    return primaryTemplate.findOne(newest(Criteria.where(NAME).is(name).and(DEVICE).is(device), 1),
+        Reading.class);
+  }
+
+  @Override
+  public List<Reading> readingsByNames(Collection<String> names, int limit) {
+    Query query = new Query(Criteria.where(NAME).in(names)).limit(limit);
+    query.with(new Sort(Sort.Direction.DESC, CREATED));
+    return template.find(query, Reading.class);
+  }
+
+  // group the readings newest first by device and name, then fetch the first reading of each group
+  @Override
+  public List<Reading> latestReadings() {
+    Aggregation aggregation =
+        newAggregation(sort(Sort.Direction.DESC, CREATED), group(DEVICE, NAME).first(ID).as(LATEST))
+            .withOptions(newAggregationOptions().allowDiskUse(true).build());
+    List<Object> ids = template
+        .aggregate(aggregation, template.getCollectionName(Reading.class), DBObject.class)
+        .getMappedResults().stream().map(result -> result.get(LATEST))
+        .collect(Collectors.toList());
+    return template.find(new Query(Criteria.where(ID).in(ids)), Reading.class);
+  }
+
+  // a limit of 0 means no limit to Mongo, so reject it as the paged repository queries did
+  private Query newest(Criteria criteria, int limit) {
+    if (limit < 1)
+      throw new IllegalArgumentException("Page size must not be less than one");
+    Query query = new Query(criteria).limit(limit);
+    query.with(new Sort(Sort.Direction.DESC, CREATED));
+    return query;
+  }
+
+}
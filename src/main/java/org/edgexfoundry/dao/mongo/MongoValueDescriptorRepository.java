@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.mongo;
+
+import java.util.List;
+
+import org.edgexfoundry.dao.ValueDescriptorRepository;
+import org.edgexfoundry.domain.common.IoTType;
+import org.edgexfoundry.domain.common.ValueDescriptor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Mongo DB value descriptor repository. Adds the derived queries used against the value
+ * descriptors collection directly (for example by the integration tests) to the store agnostic
+ * ValueDescriptorRepository.
+ */
+public interface MongoValueDescriptorRepository
+    extends ValueDescriptorRepository, MongoRepository<ValueDescriptor, String> {
+
+  Page<ValueDescriptor> findByUomLabel(String uomLabel, Pageable pageable);
+
+  Page<ValueDescriptor> findByLabels(String label, Pageable pageable);
+
+  List<ValueDescriptor> findByType(IoTType type);
+
+  Page<ValueDescriptor> findByType(IoTType type, Pageable pageable);
+}
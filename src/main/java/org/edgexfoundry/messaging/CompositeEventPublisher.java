@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.metrics.Counter;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.edgexfoundry.metrics.Timer;
+import org.edgexfoundry.metrics.Tracer;
+
+/**
+ * Publishes each event on several transports (e.g. ZeroMQ for the rules engine and MQTT for cloud
+ * export). Each transport has its own bounded queue and worker thread, so a slow or unreachable
+ * transport neither slows ingest nor the other transports; when a transport's queue is full, its
+ * new events are dropped (and counted). Events are published on each transport in order.
+ * 
+ * Metrics, labeled by transport - publish time, errors, dropped events and queue depth.
+ */
+public class CompositeEventPublisher implements EventPublisher, Closeable {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(CompositeEventPublisher.class);
+
+  public static final String PUBLISH_METRIC = "core_data_transport_publish_seconds";
+
+  public static final String ERROR_METRIC = "core_data_transport_publish_errors_total";
+
+  public static final String DROPPED_METRIC = "core_data_transport_dropped_total";
+
+  public static final String QUEUE_METRIC = "core_data_transport_queue_depth";
+
+  private static final String TRANSPORT_LABEL = "transport";
+
+  private static final long CLOSE_WAIT = 5000;
+
+  private final MetricsRegistry metrics;
+
+  private final int queueCapacity;
+
+  private final Map<String, Transport> transports = new LinkedHashMap<>();
+
+  /**
+   * @param metrics - registry of the transport metrics
+   * @param queueCapacity - events queued per transport
+   */
+  public CompositeEventPublisher(MetricsRegistry metrics, int queueCapacity) {
+    this.metrics = metrics;
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Add a transport, starting its worker.
+   * 
+   * @param name - transport name, used as the transport metric label
+   * @param publisher - publisher of the transport
+   */
+  public synchronized void addTransport(String name, EventPublisher publisher) {
+    if (transports.containsKey(name))
+      throw new IllegalArgumentException("Duplicate transport:  " + name);
+    transports.put(name, new Transport(name, publisher));
+  }
+
+  @Override
+  public void sendEventMessage(Event event) {
+    for (Transport transport : transports.values())
+      transport.executor.execute(Tracer.inCurrentScope(() -> transport.publish(event)));
+  }
+
+  /**
+   * Stop the workers, waiting a while for queued events to be published, then close the
+   * transports that can be closed.
+   */
+  @Override
+  public void close() {
+    for (Transport transport : transports.values())
+      transport.executor.shutdown();
+    for (Transport transport : transports.values()) {
+      try {
+        if (!transport.executor.awaitTermination(CLOSE_WAIT, TimeUnit.MILLISECONDS))
+          logger.error("Events still queued for " + transport.name + " at shutdown");
+        if (transport.publisher instanceof Closeable)
+          ((Closeable) transport.publisher).close();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (IOException e) {
+        logger.error("Unable to close " + transport.name + ":  " + e.getMessage());
+      }
+    }
+  }
+
+  private class Transport {
+
+    private final String name;
+
+    private final EventPublisher publisher;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer timer;
+
+    private final Counter errors;
+
+    private final Counter dropped;
+
+    Transport(String name, EventPublisher publisher) {
+      this.name = name;
+      this.publisher = publisher;
+      timer = metrics.timer(PUBLISH_METRIC, TRANSPORT_LABEL, name);
+      errors = metrics.counter(ERROR_METRIC, TRANSPORT_LABEL, name);
+      dropped = metrics.counter(DROPPED_METRIC, TRANSPORT_LABEL, name);
+      executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "publish-" + name);
+            thread.setDaemon(true);
+            return thread;
+          }, (runnable, pool) -> dropped.increment());
+      metrics.gauge(QUEUE_METRIC, () -> executor.getQueue().size(), TRANSPORT_LABEL, name);
+    }
+
+    void publish(Event event) {
+      long start = System.nanoTime();
+      try {
+        publisher.sendEventMessage(event);
+      } catch (Exception e) {
+        errors.increment();
+        logger.error("Event not published on " + name + ":  " + e.getMessage());
+      } finally {
+        timer.stop(start);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.edgexfoundry.domain.core.Event;
+
+/**
+ * Events published together in one message. The batch frame is a header followed by the encoded
+ * events, each prefixed with its length:
+ * 
+ * <pre>
+ * magic 'E' 'B' | version (1 byte) | flags (1 byte) | event count (int) | length (int) | event ...
+ * </pre>
+ * 
+ * Integers are big endian. With the COMPRESSED flag set, everything after the header (the lengths
+ * and events) is Deflate (zlib) compressed. Events not batched are published as their JSON alone,
+ * or, when compressed, as a batch frame of one event, so subscribers tell them apart with isBatch.
+ */
+public class EventBatch {
+
+  public static final int VERSION = 1;
+
+  public static final int HEADER_SIZE = 8;
+
+  /**
+   * Flag of frames with compressed events.
+   */
+  public static final int COMPRESSED = 0x01;
+
+  /**
+   * Compression threshold that never compresses.
+   */
+  public static final int NEVER = -1;
+
+  private static final byte MAGIC_0 = 'E';
+
+  private static final byte MAGIC_1 = 'B';
+
+  private final List<Event> events = new ArrayList<>();
+
+  private final List<String> traceIds = new ArrayList<>();
+
+  /**
+   * @param event - event to add
+   * @param traceId - trace id of the event, or null
+   */
+  public void add(Event event, String traceId) {
+    events.add(event);
+    traceIds.add(traceId);
+  }
+
+  public int size() {
+    return events.size();
+  }
+
+  public boolean isEmpty() {
+    return events.isEmpty();
+  }
+
+  public Event event(int index) {
+    return events.get(index);
+  }
+
+  public String traceId(int index) {
+    return traceIds.get(index);
+  }
+
+  /**
+   * @param codec - codec of the events
+   * @return the batch frame of the events
+   * @throws IOException
+   */
+  public byte[] toFrame(EventCodec codec) throws IOException {
+    return toFrame(codec, NEVER);
+  }
+
+  /**
+   * @param codec - codec of the events
+   * @param compressThreshold - size of encoded events from which they are compressed, or NEVER
+   * @return the batch frame of the events
+   * @throws IOException
+   */
+  public byte[] toFrame(EventCodec codec, int compressThreshold) throws IOException {
+    List<byte[]> payloads = new ArrayList<>(events.size());
+    for (int i = 0; i < events.size(); i++)
+      payloads.add(codec.encode(events.get(i), traceIds.get(i)));
+    return frame(payloads, compressThreshold);
+  }
+
+  /**
+   * An event frame as published - the event alone, or a compressed frame of one event when the
+   * event is at least the compression threshold in size.
+   * 
+   * @param payload - an encoded event
+   * @param compressThreshold - size from which the event is compressed, or NEVER
+   * @return the frame to publish
+   * @throws IOException
+   */
+  public static byte[] eventFrame(byte[] payload, int compressThreshold) throws IOException {
+    if (compressThreshold == NEVER || payload.length < compressThreshold)
+      return payload;
+    return frame(Collections.singletonList(payload), compressThreshold);
+  }
+
+  private static byte[] frame(List<byte[]> payloads, int compressThreshold) throws IOException {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(body)) {
+      for (byte[] payload : payloads) {
+        out.writeInt(payload.length);
+        out.write(payload);
+      }
+    }
+    boolean compress = compressThreshold != NEVER && body.size() >= compressThreshold;
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bos)) {
+      out.writeByte(MAGIC_0);
+      out.writeByte(MAGIC_1);
+      out.writeByte(VERSION);
+      out.writeByte(compress ? COMPRESSED : 0);
+      out.writeInt(payloads.size());
+      if (compress) {
+        // fastest level - the JSON of events compresses well anyway, and publishing is hot
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+          body.writeTo(deflate);
+        } finally {
+          deflater.end();
+        }
+      } else
+        body.writeTo(out);
+    }
+    return bos.toByteArray();
+  }
+
+  /**
+   * @param frame - a batch frame
+   * @return true if the events of the frame are compressed
+   */
+  public static boolean isCompressed(byte[] frame) {
+    return isBatch(frame) && (frame[3] & COMPRESSED) != 0;
+  }
+
+  /**
+   * @param frame - a published message
+   * @return true if the message is a batch frame
+   */
+  public static boolean isBatch(byte[] frame) {
+    return frame.length >= HEADER_SIZE && frame[0] == MAGIC_0 && frame[1] == MAGIC_1;
+  }
+
+  /**
+   * Unpack a batch frame.
+   * 
+   * @param frame - a batch frame
+   * @return the encoded events of the batch, in order
+   * @throws IllegalArgumentException if the frame is not a batch frame of a known version
+   */
+  public static List<byte[]> payloads(byte[] frame) {
+    if (!isBatch(frame))
+      throw new IllegalArgumentException("Not an event batch frame");
+    if (frame[2] != VERSION)
+      throw new IllegalArgumentException("Unknown event batch version:  " + frame[2]);
+    ByteBuffer buffer = ByteBuffer.wrap(frame);
+    try {
+      buffer.position(HEADER_SIZE - 4);
+      int count = buffer.getInt();
+      if (isCompressed(frame))
+        buffer = ByteBuffer.wrap(inflate(frame));
+      List<byte[]> payloads = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        byte[] payload = new byte[buffer.getInt()];
+        buffer.get(payload);
+        payloads.add(payload);
+      }
+      return payloads;
+    } catch (BufferUnderflowException | NegativeArraySizeException e) {
+      throw new IllegalArgumentException("Truncated event batch frame");
+    }
+  }
+
+  private static byte[] inflate(byte[] frame) {
+    ByteArrayOutputStream body = new ByteArrayOutputStream(frame.length * 4);
+    try (InputStream in = new InflaterInputStream(
+        new ByteArrayInputStream(frame, HEADER_SIZE, frame.length - HEADER_SIZE))) {
+      byte[] buffer = new byte[4096];
+      for (int read = in.read(buffer); read >= 0; read = in.read(buffer))
+        body.write(buffer, 0, read);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Corrupt compressed event batch frame");
+    }
+    return body.toByteArray();
+  }
+
+}
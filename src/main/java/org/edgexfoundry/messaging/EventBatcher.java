@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.metrics.Tracer;
+
+/**
+ * Collects events into batches for a publisher. A batch is sent when it holds the batch size of
+ * events, or when the linger time has passed since its first event, whichever comes first. A
+ * longer linger makes larger batches (fewer, bigger messages) at the cost of latency.
+ * 
+ * Batches are sent in order, one at a time, by the thread that fills them or by the linger timer.
+ */
+public class EventBatcher {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory.getEdgeXLogger(EventBatcher.class);
+
+  private final int size;
+
+  private final long lingerMillis;
+
+  private final Consumer<EventBatch> sender;
+
+  private final ScheduledExecutorService timer;
+
+  private EventBatch batch = new EventBatch();
+
+  /**
+   * @param size - events per batch
+   * @param lingerMillis - longest time an event waits for its batch to fill
+   * @param sender - sends a batch
+   */
+  public EventBatcher(int size, long lingerMillis, Consumer<EventBatch> sender) {
+    this.size = size;
+    this.lingerMillis = lingerMillis;
+    this.sender = sender;
+    timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "event-batch-linger");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Add an event, with the current trace id, to the batch being filled.
+   * 
+   * @param event - the event to publish
+   */
+  public synchronized void add(Event event) {
+    if (batch.isEmpty()) {
+      EventBatch lingering = batch;
+      timer.schedule(() -> flush(lingering), lingerMillis, TimeUnit.MILLISECONDS);
+    }
+    batch.add(event, Tracer.currentTraceId());
+    if (batch.size() >= size)
+      flush();
+  }
+
+  /**
+   * Send the batch being filled now.
+   */
+  public synchronized void flush() {
+    if (batch.isEmpty())
+      return;
+    EventBatch full = batch;
+    batch = new EventBatch();
+    try {
+      sender.accept(full);
+    } catch (Exception e) {
+      logger.error("Unable to send batch of " + full.size() + " events:  " + e.getMessage());
+    }
+  }
+
+  // flush on linger, unless the batch was already sent
+  private synchronized void flush(EventBatch lingering) {
+    if (batch == lingering)
+      flush();
+  }
+
+  /**
+   * Send the batch being filled and stop the linger timer.
+   */
+  public void close() {
+    flush();
+    timer.shutdown();
+  }
+
+}
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import org.edgexfoundry.domain.core.Event;
+
+/**
+ * Encodes events into the payload of published messages (and back, for subscribers).
+ */
+public interface EventCodec {
+
+  /**
+   * @param event - event (with embedded readings) to encode
+   * @param traceId - trace id of the event, or null
+   * @return the encoded event
+   */
+  byte[] encode(Event event, String traceId);
+
+  /**
+   * @param payload - an encoded event
+   * @return the event
+   */
+  Event decode(byte[] payload);
+
+  /**
+   * @return MIME type of the encoded events, e.g. application/json
+   */
+  String contentType();
+
+}
@@ -25,4 +25,27 @@ public interface EventPublisher {
 
   void sendEventMessage(final Event event);
 
+  /**
+   * Whether sendEventMessage confirms delivery: it returns only once the message bus has accepted
+   * the event, and throws if it has not. Publishers that queue, buffer or batch events to send
+   * later, or that log and drop send failures, do not (the default). Only publishers that confirm
+   * delivery can be put behind the outbound journal (see JournaledEventPublisher).
+   * 
+   * @return true if sendEventMessage confirms delivery
+   */
+  default boolean confirmsDelivery() {
+    return false;
+  }
+
+  /**
+   * Whether sendEventMessage makes the event durable (e.g. journals it on disk) and returns
+   * quickly, so that it is called on the ingest thread rather than through the in-memory publish
+   * queue, where queued events are lost on a crash. False by default.
+   * 
+   * @return true if sendEventMessage makes the event durable
+   */
+  default boolean isDurable() {
+    return false;
+  }
+
 }
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.edgexfoundry.TaskExecutorConfig;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.edgexfoundry.metrics.Counter;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams newly added events to Server-Sent Events subscribers, optionally filtered by device and
+ * reading name. Each subscriber has a bounded buffer drained by the stream executor, so publishing
+ * never blocks ingest: a subscriber whose buffer is full (a client that cannot keep up) is
+ * disconnected and can reconnect.
+ */
+@Component
+public class EventStream {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory.getEdgeXLogger(EventStream.class);
+
+  public static final String DROPPED_METRIC = "core_data_event_stream_dropped_total";
+
+  @Value("${stream.buffer.size:100}")
+  private int bufferSize;
+
+  @Value("${stream.max.subscribers:100}")
+  private int maxSubscribers;
+
+  @Value("${stream.timeout:1800000}")
+  private long timeout;
+
+  @Autowired
+  @Qualifier(TaskExecutorConfig.EVENT_STREAM_EXECUTOR)
+  TaskExecutor streamExecutor;
+
+  @Autowired
+  MetricsRegistry metrics;
+
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+  private Counter sent;
+
+  private Counter dropped;
+
+  @PostConstruct
+  public void registerMetrics() {
+    sent = metrics.counter("core_data_event_stream_sent_total");
+    dropped = metrics.counter(DROPPED_METRIC);
+    metrics.gauge("core_data_event_stream_subscribers", subscribers::size);
+  }
+
+  /**
+   * Subscribe to newly added events.
+   * 
+   * @param device - only events of this device (id or name as sent), or null for all devices
+   * @param name - only readings of this value descriptor (and only events with such readings), or
+   *        null for all readings
+   * @return the emitter the events are sent through
+   * @throws IllegalStateException if the maximum number of subscribers is reached
+   */
+  public SseEmitter subscribe(String device, String name) {
+    if (subscribers.size() >= maxSubscribers)
+      throw new IllegalStateException("Maximum number of event stream subscribers reached");
+    Subscriber subscriber = new Subscriber(newEmitter(), device, name);
+    subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+    subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+    subscribers.add(subscriber);
+    logger.debug("Event stream subscriber added for device " + device + " and reading " + name);
+    return subscriber.emitter;
+  }
+
+  /**
+   * Offer a newly added event to the matching subscribers. Does not block.
+   */
+  public void publish(Event event) {
+    for (Subscriber subscriber : subscribers) {
+      Event filtered = subscriber.filter(event);
+      if (filtered != null)
+        subscriber.offer(filtered);
+    }
+  }
+
+  public boolean hasSubscribers() {
+    return !subscribers.isEmpty();
+  }
+
+  // package access so that tests can stand in for the servlet response
+  SseEmitter newEmitter() {
+    return new SseEmitter(timeout);
+  }
+
+  private class Subscriber {
+
+    private final SseEmitter emitter;
+
+    private final String device;
+
+    private final String name;
+
+    private final BlockingQueue<Event> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+    // at most one drain task per subscriber keeps its events in order
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    Subscriber(SseEmitter emitter, String device, String name) {
+      this.emitter = emitter;
+      this.device = device;
+      this.name = name;
+    }
+
+    // the event (with only the matching readings) or null if it does not match
+    Event filter(Event event) {
+      if (device != null && !device.equals(event.getDevice()))
+        return null;
+      if (name == null)
+        return event;
+      if (event.getReadings() == null)
+        return null;
+      List<Reading> readings = event.getReadings().stream()
+          .filter(reading -> Objects.equals(name, reading.getName())).collect(Collectors.toList());
+      if (readings.isEmpty())
+        return null;
+      return Events.withReadings(event, readings);
+    }
+
+    void offer(Event event) {
+      if (!buffer.offer(event)) {
+        drop("buffer full");
+        return;
+      }
+      schedule();
+    }
+
+    private void schedule() {
+      if (!draining.compareAndSet(false, true))
+        return;
+      try {
+        streamExecutor.execute(this::drain);
+      } catch (RuntimeException e) {
+        draining.set(false);
+        drop("stream executor saturated");
+      }
+    }
+
+    private void drain() {
+      try {
+        Event event;
+        while ((event = buffer.poll()) != null) {
+          emitter.send(event, MediaType.APPLICATION_JSON);
+          sent.increment();
+        }
+      } catch (Exception e) {
+        draining.set(false);
+        drop(e.getMessage());
+        return;
+      }
+      draining.set(false);
+      // an event offered after the buffer was found empty but before draining was reset
+      if (!buffer.isEmpty())
+        schedule();
+    }
+
+    private void drop(String reason) {
+      if (!subscribers.remove(this))
+        return;
+      dropped.increment();
+      buffer.clear();
+      logger.info("Event stream subscriber disconnected:  " + reason);
+      try {
+        emitter.complete();
+      } catch (Exception e) {
+        logger.debug("Error completing event stream:  " + e.getMessage());
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import java.util.List;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+
+/**
+ * Event helpers shared by the publishers.
+ */
+final class Events {
+
+  private Events() {}
+
+  /**
+   * @return a copy of the event with only the readings given
+   */
+  static Event withReadings(Event event, List<Reading> readings) {
+    Event copy = new Event(event.getDevice(), readings);
+    copy.setId(event.getId());
+    copy.setCreated(event.getCreated());
+    copy.setModified(event.getModified());
+    copy.setOrigin(event.getOrigin());
+    copy.setPushed(event.getPushed());
+    return copy;
+  }
+
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.metrics.Counter;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.edgexfoundry.metrics.Tracer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Puts a disk backed outbound journal (see OutboundJournal) between ingest and an event publisher,
+ * so that events survive publisher outages and restarts. Events are appended to the journal as
+ * their message bus JSON (with their trace id) and delivered in order by a drain thread; when the
+ * publisher throws, the same event is retried with exponential backoff until it is published, and
+ * only then acknowledged. The publisher must confirm delivery (see
+ * EventPublisher.confirmsDelivery), otherwise events it accepts but loses would be acknowledged.
+ * Delivery is at least once: an event published just before a crash may be published again on
+ * restart. Durability starts once sendEventMessage returns, which is why the publisher reports
+ * itself durable (see EventPublisher.isDurable) and ingest appends to the journal on the request
+ * thread rather than through the in-memory publish queue.
+ * 
+ * Metrics - events delivered (drain throughput), retries, events rejected by a full journal, and
+ * the backlog in events and in bytes.
+ */
+public class JournaledEventPublisher implements EventPublisher, Closeable {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(JournaledEventPublisher.class);
+
+  public static final String DELIVERED_METRIC = "core_data_outbound_delivered_total";
+
+  public static final String RETRY_METRIC = "core_data_outbound_retries_total";
+
+  public static final String REJECTED_METRIC = "core_data_outbound_rejected_total";
+
+  public static final String BACKLOG_METRIC = "core_data_outbound_backlog";
+
+  public static final String BACKLOG_BYTES_METRIC = "core_data_outbound_backlog_bytes";
+
+  private static final long IDLE_WAIT = 100;
+
+  private static final long CLOSE_WAIT = 5000;
+
+  private final OutboundJournal journal;
+
+  private final EventPublisher delegate;
+
+  private final long minBackoff;
+
+  private final long maxBackoff;
+
+  private final JsonEventCodec codec = new JsonEventCodec();
+
+  private final Gson gson = new Gson();
+
+  private final Counter delivered;
+
+  private final Counter retries;
+
+  private final Counter rejected;
+
+  private final Thread drainer;
+
+  private volatile boolean running = true;
+
+  /**
+   * @param journal - the outbound journal, closed with this publisher
+   * @param delegate - publisher of the journaled events, closed with this publisher if closeable
+   * @param metrics - registry of the outbound metrics
+   * @param minBackoff - milliseconds before the first retry of a failed event
+   * @param maxBackoff - longest wait between retries in milliseconds
+   * @throws IllegalArgumentException if the publisher does not confirm delivery
+   */
+  public JournaledEventPublisher(OutboundJournal journal, EventPublisher delegate,
+      MetricsRegistry metrics, long minBackoff, long maxBackoff) {
+    if (!delegate.confirmsDelivery())
+      throw new IllegalArgumentException(
+          "Publisher does not confirm delivery:  " + delegate.getClass().getName());
+    this.journal = journal;
+    this.delegate = delegate;
+    this.minBackoff = minBackoff;
+    this.maxBackoff = Math.max(minBackoff, maxBackoff);
+    delivered = metrics.counter(DELIVERED_METRIC);
+    retries = metrics.counter(RETRY_METRIC);
+    rejected = metrics.counter(REJECTED_METRIC);
+    metrics.gauge(BACKLOG_METRIC, journal::backlog);
+    metrics.gauge(BACKLOG_BYTES_METRIC, journal::backlogBytes);
+    drainer = new Thread(this::drain, "outbound-journal-drain");
+    drainer.setDaemon(true);
+    drainer.start();
+  }
+
+  /**
+   * Append the event to the journal for delivery.
+   * 
+   * @throws IllegalStateException if the journal is full or can not be written
+   */
+  @Override
+  public void sendEventMessage(Event event) {
+    try {
+      journal.append(codec.encode(event, Tracer.currentTraceId()));
+    } catch (IOException | RuntimeException e) {
+      rejected.increment();
+      throw new IllegalStateException("Event not journaled:  " + e.getMessage(), e);
+    }
+    LockSupport.unpark(drainer);
+  }
+
+  @Override
+  public boolean isDurable() {
+    return true;
+  }
+
+  /**
+   * Stop the drain thread, leaving undelivered events in the journal for the next start, then
+   * close the journal and the publisher. A drain thread still blocked in the publisher after the
+   * close wait finds the journal closed and can not acknowledge, so its event is published again
+   * on the next start.
+   */
+  @Override
+  public void close() throws IOException {
+    running = false;
+    drainer.interrupt();
+    try {
+      drainer.join(CLOSE_WAIT);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (drainer.isAlive())
+      logger.error("Outbound journal drain still publishing after " + CLOSE_WAIT
+          + "ms, closing the journal; the event in flight is published again on restart");
+    journal.close();
+    if (delegate instanceof Closeable)
+      ((Closeable) delegate).close();
+  }
+
+  private void drain() {
+    long backoff = minBackoff;
+    while (running) {
+      byte[] payload = journal.peek();
+      if (payload == null && !running)
+        return;
+      if (payload == null) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(IDLE_WAIT));
+        continue;
+      }
+      Runnable delivery;
+      try {
+        delivery = delivery(payload);
+      } catch (RuntimeException e) {
+        logger.error("Skipping unreadable journaled event:  " + e.getMessage());
+        journal.ack();
+        continue;
+      }
+      try {
+        delivery.run();
+        journal.ack();
+        delivered.increment();
+        backoff = minBackoff;
+      } catch (Exception e) {
+        retries.increment();
+        logger.error("Journaled event not published, retrying in " + backoff + "ms:  "
+            + e.getMessage());
+        try {
+          Thread.sleep(backoff);
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+        backoff = Math.min(backoff * 2, maxBackoff);
+      }
+    }
+  }
+
+  // publication of a journaled event, on behalf of its trace
+  private Runnable delivery(byte[] payload) {
+    JsonObject tree =
+        new JsonParser().parse(new String(payload, StandardCharsets.UTF_8)).getAsJsonObject();
+    JsonElement traceId = tree.remove(Tracer.TRACE_ID_PROPERTY);
+    Event event = gson.fromJson(tree, Event.class);
+    String id = traceId == null ? null : traceId.getAsString();
+    return () -> Tracer.runWithTraceId(id, () -> delegate.sendEventMessage(event));
+  }
+
+}
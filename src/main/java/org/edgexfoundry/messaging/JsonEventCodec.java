@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import java.nio.charset.StandardCharsets;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.metrics.Tracer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * Encodes events as the JSON published on the message bus, with the trace id of the event as the
+ * traceId property when there is one.
+ */
+public class JsonEventCodec implements EventCodec {
+
+  public static final String CONTENT_TYPE = "application/json";
+
+  private final Gson gson = new Gson();
+
+  @Override
+  public byte[] encode(Event event, String traceId) {
+    String json;
+    if (traceId == null) {
+      json = gson.toJson(event);
+    } else {
+      JsonObject tree = gson.toJsonTree(event).getAsJsonObject();
+      tree.addProperty(Tracer.TRACE_ID_PROPERTY, traceId);
+      json = gson.toJson(tree);
+    }
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public Event decode(byte[] payload) {
+    return gson.fromJson(new String(payload, StandardCharsets.UTF_8), Event.class);
+  }
+
+  @Override
+  public String contentType() {
+    return CONTENT_TYPE;
+  }
+
+}
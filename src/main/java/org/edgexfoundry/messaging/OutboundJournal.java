@@ -0,0 +1,341 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Disk backed FIFO of outbound messages, for one appending and one consuming thread. Messages are
+ * appended to memory mapped, fixed size segment files; each record is an int payload length, the
+ * int CRC32 of the payload and the payload. A length of -1 (or too little room for a record
+ * header) moves on to the next segment, and a zero length or a bad checksum (a record torn by a
+ * crash) ends the journal. Positions are longs across all segments (segment number times segment
+ * size plus offset). The position of the oldest unacknowledged record is kept in a small mapped
+ * ack file, so that on reopening the journal delivers the messages not yet acknowledged (at least
+ * once: a message delivered but not yet acknowledged is delivered again). Segments whose records
+ * are all acknowledged are deleted.
+ */
+public class OutboundJournal implements Closeable {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(OutboundJournal.class);
+
+  static final String SUFFIX = ".journal";
+
+  static final String ACK_FILE = "ack";
+
+  private static final int HEADER = 8;
+
+  private static final int NEXT_SEGMENT = -1;
+
+  private final Path dir;
+
+  private final int segmentSize;
+
+  private final long maxSize;
+
+  private final boolean sync;
+
+  private final Map<Long, MappedByteBuffer> segments = new TreeMap<>();
+
+  private final Map<Long, FileChannel> channels = new TreeMap<>();
+
+  private final AtomicLong backlog = new AtomicLong();
+
+  private FileChannel ackChannel;
+
+  private MappedByteBuffer ack;
+
+  // position after the last appended record, written by the appending thread only
+  private volatile long writePos;
+
+  // position of the oldest unacknowledged record, and of the record after it once read
+  private volatile long readPos;
+
+  private long nextPos = -1;
+
+  private boolean closed;
+
+  private OutboundJournal(Path dir, int segmentSize, long maxSize, boolean sync) {
+    this.dir = dir;
+    this.segmentSize = segmentSize;
+    this.maxSize = maxSize;
+    this.sync = sync;
+  }
+
+  /**
+   * Open the journal in a directory, creating the directory if needed, and find the records not
+   * yet acknowledged.
+   * 
+   * @param dir - directory of the segment files
+   * @param segmentSize - size of a segment file in bytes, which bounds the size of a message
+   * @param maxSize - bytes of segment files the journal may use, no limit if zero or less
+   * @param sync - force each record to disk as it is appended
+   * @return the journal
+   */
+  public static OutboundJournal open(Path dir, int segmentSize, long maxSize, boolean sync)
+      throws IOException {
+    Files.createDirectories(dir);
+    OutboundJournal journal = new OutboundJournal(dir, segmentSize, maxSize, sync);
+    try {
+      journal.recover();
+    } catch (IOException | RuntimeException e) {
+      journal.close();
+      throw e;
+    }
+    logger.info("Outbound journal opened in " + dir + " with " + journal.backlog()
+        + " messages not yet delivered");
+    return journal;
+  }
+
+  /**
+   * Append a message.
+   * 
+   * @param payload - the message
+   * @throws IOException if the journal is full or the segment file can not be created
+   * @throws IllegalArgumentException if the message does not fit in a segment
+   */
+  public synchronized void append(byte[] payload) throws IOException {
+    if (closed)
+      throw new IOException("Outbound journal closed");
+    int length = HEADER + payload.length;
+    if (length > segmentSize)
+      throw new IllegalArgumentException(
+          "Message of " + payload.length + " bytes too large for journal segment size");
+    long pos = writePos;
+    int offset = offset(pos);
+    if (offset + length > segmentSize) {
+      if (segmentSize - offset >= HEADER)
+        segment(segment(pos), false).putInt(offset, NEXT_SEGMENT);
+      pos += segmentSize - offset;
+      offset = 0;
+    }
+    if (maxSize > 0 && pos + length - segment(readPos) * segmentSize > maxSize)
+      throw new IOException("Outbound journal full at " + backlog() + " messages");
+    MappedByteBuffer buffer = segment(segment(pos), true);
+    ByteBuffer record = buffer.duplicate();
+    record.position(offset + 4);
+    record.putInt(checksum(payload));
+    record.put(payload);
+    // length last, so that a torn record reads as the end of the journal
+    buffer.putInt(offset, payload.length);
+    if (sync)
+      buffer.force();
+    backlog.incrementAndGet();
+    writePos = pos + length;
+  }
+
+  /**
+   * The oldest message not yet acknowledged, which stays the oldest until acknowledged.
+   * 
+   * @return the message, or null if all messages are acknowledged or the journal is closed
+   */
+  public synchronized byte[] peek() {
+    if (closed)
+      return null;
+    long pos = readPos;
+    while (pos < writePos) {
+      int offset = offset(pos);
+      MappedByteBuffer buffer = segment(segment(pos), false);
+      int length = segmentSize - offset < HEADER ? NEXT_SEGMENT : buffer.getInt(offset);
+      if (length == NEXT_SEGMENT) {
+        pos += segmentSize - offset;
+        continue;
+      }
+      byte[] payload = new byte[length];
+      ByteBuffer record = buffer.duplicate();
+      record.position(offset + HEADER);
+      record.get(payload);
+      nextPos = pos + HEADER + length;
+      return payload;
+    }
+    return null;
+  }
+
+  /**
+   * Acknowledge the message returned by peek, deleting segments no longer needed.
+   * 
+   * @throws IllegalStateException if there is no message to acknowledge or the journal is closed
+   */
+  public synchronized void ack() {
+    if (closed)
+      throw new IllegalStateException("Outbound journal closed");
+    if (nextPos < 0)
+      throw new IllegalStateException("No message to acknowledge");
+    ack.putLong(0, nextPos);
+    if (sync)
+      ack.force();
+    long released = segment(readPos);
+    readPos = nextPos;
+    nextPos = -1;
+    backlog.decrementAndGet();
+    for (long number = released; number < segment(readPos); number++)
+      delete(number);
+  }
+
+  /**
+   * @return the number of messages not yet acknowledged
+   */
+  public long backlog() {
+    return backlog.get();
+  }
+
+  /**
+   * @return the bytes of the records not yet acknowledged
+   */
+  public long backlogBytes() {
+    return writePos - readPos;
+  }
+
+  /**
+   * Flush and close the segment files. Appends, peeks and acknowledgements after closing are
+   * rejected.
+   */
+  @Override
+  public synchronized void close() {
+    if (closed)
+      return;
+    closed = true;
+    for (MappedByteBuffer buffer : segments.values())
+      buffer.force();
+    if (ack != null)
+      ack.force();
+    for (FileChannel channel : channels.values())
+      if (channel != null)
+        closeQuietly(channel);
+    if (ackChannel != null)
+      closeQuietly(ackChannel);
+    segments.clear();
+    channels.clear();
+  }
+
+  // read the ack position and scan the records after it for the write position
+  private void recover() throws IOException {
+    RandomAccessFile file = new RandomAccessFile(dir.resolve(ACK_FILE).toFile(), "rw");
+    ackChannel = file.getChannel();
+    ack = ackChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+    long pos = ack.getLong(0);
+    readPos = pos;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+      for (Path path : files) {
+        String name = path.getFileName().toString();
+        long number = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        if (number < segment(pos))
+          Files.delete(path);
+        else
+          channels.put(number, null);
+      }
+    }
+    while (channels.containsKey(segment(pos))) {
+      int offset = offset(pos);
+      MappedByteBuffer buffer = segment(segment(pos), false);
+      int length = segmentSize - offset < HEADER ? NEXT_SEGMENT : buffer.getInt(offset);
+      if (length == NEXT_SEGMENT) {
+        pos += segmentSize - offset;
+        continue;
+      }
+      if (length <= 0 || offset + HEADER + length > segmentSize)
+        break;
+      byte[] payload = new byte[length];
+      ByteBuffer record = buffer.duplicate();
+      record.position(offset + HEADER);
+      record.get(payload);
+      if (buffer.getInt(offset + 4) != checksum(payload))
+        break;
+      backlog.incrementAndGet();
+      pos += HEADER + length;
+    }
+    writePos = pos;
+    // segments after a torn record hold nothing to deliver
+    for (Long number : channels.keySet().toArray(new Long[0]))
+      if (number > segment(pos))
+        delete(number);
+  }
+
+  // the mapped segment file of a segment number, opened or created on first use
+  private synchronized MappedByteBuffer segment(long number, boolean create) {
+    MappedByteBuffer buffer = segments.get(number);
+    if (buffer != null)
+      return buffer;
+    Path path = dir.resolve(number + SUFFIX);
+    if (!create && !channels.containsKey(number))
+      throw new IllegalStateException("Missing outbound journal segment " + path);
+    try {
+      boolean exists = Files.exists(path);
+      RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+      if (!exists)
+        file.setLength(segmentSize);
+      FileChannel channel = file.getChannel();
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+      channels.put(number, channel);
+      segments.put(number, buffer);
+      return buffer;
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to open outbound journal segment " + path, e);
+    }
+  }
+
+  private synchronized void delete(long number) {
+    segments.remove(number);
+    FileChannel channel = channels.remove(number);
+    if (channel != null)
+      closeQuietly(channel);
+    try {
+      Files.deleteIfExists(dir.resolve(number + SUFFIX));
+    } catch (IOException e) {
+      logger.error("Unable to delete outbound journal segment " + number + ":  " + e.getMessage());
+    }
+  }
+
+  private long segment(long pos) {
+    return pos / segmentSize;
+  }
+
+  private int offset(long pos) {
+    return (int) (pos % segmentSize);
+  }
+
+  private static int checksum(byte[] payload) {
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    return (int) crc.getValue();
+  }
+
+  private static void closeQuietly(FileChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      logger.error("Error closing outbound journal file:  " + e.getMessage());
+    }
+  }
+
+}
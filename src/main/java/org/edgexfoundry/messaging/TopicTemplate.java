@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+
+/**
+ * Topic of a published event, built from a template with {device} and {name} placeholders (e.g.
+ * device/{device}/{name}). Message brokers and ZeroMQ subscriptions filter on topics, so
+ * subscribers only receive (and parse) the events they are interested in. A template with {name}
+ * splits an event into one message per reading name, each carrying only that name's readings.
+ */
+public class TopicTemplate {
+
+  public static final String DEVICE = "{device}";
+
+  public static final String NAME = "{name}";
+
+  private final String template;
+
+  public TopicTemplate(String template) {
+    this.template = template;
+  }
+
+  /**
+   * @return true if the topic depends on the reading name
+   */
+  public boolean isPerReadingName() {
+    return template.contains(NAME);
+  }
+
+  public String topic(String device, String name) {
+    return template.replace(DEVICE, String.valueOf(device)).replace(NAME, String.valueOf(name));
+  }
+
+  /**
+   * Split an event into the messages to publish.
+   * 
+   * @return the event, or the event's parts, by topic (in reading order)
+   */
+  public Map<String, Event> split(Event event) {
+    if (!isPerReadingName() || event.getReadings() == null || event.getReadings().isEmpty())
+      return Collections.singletonMap(topic(event.getDevice(), ""), event);
+    Map<String, List<Reading>> byName = new LinkedHashMap<>();
+    for (Reading reading : event.getReadings())
+      byName.computeIfAbsent(reading.getName(), name -> new ArrayList<>()).add(reading);
+    Map<String, Event> messages = new LinkedHashMap<>();
+    for (Map.Entry<String, List<Reading>> readings : byName.entrySet())
+      messages.put(topic(event.getDevice(), readings.getKey()),
+          Events.withReadings(event, readings.getValue()));
+    return messages;
+  }
+
+  @Override
+  public String toString() {
+    return template;
+  }
+
+}
@@ -18,40 +18,166 @@
 
 package org.edgexfoundry.messaging.impl;
 
+import java.io.Closeable;
+import java.io.IOException;
+
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.ObjectMessage;
 import javax.jms.Session;
 
 import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.messaging.EventBatch;
+import org.edgexfoundry.messaging.EventBatcher;
+import org.edgexfoundry.messaging.EventCodec;
 import org.edgexfoundry.messaging.EventPublisher;
+import org.edgexfoundry.messaging.JsonEventCodec;
+import org.edgexfoundry.metrics.Tracer;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.core.MessageCreator;
 
 /**
  * Note - this message publisher is not used by default configuration. To use this publisher, you
- * need to change the spring-config.xml file to use this publisher versus the ZeroMQ publisher.
+ * need to uncomment the ActiveMQ JMS template in the spring-config.xml file and set msgpub.type to
+ * activemq (see MessagingConfig).
+ * 
+ * Events are sent as a BytesMessage holding the event encoded by the codec (JSON by default), with
+ * the codec's MIME type as the contentType property. Set objectMessage for consumers that still
+ * expect the serialized Event of an ObjectMessage. Connection caching, async send and delivery mode
+ * are settings of the connection factory and JmsTemplate given (see spring-config.xml).
+ * 
+ * With a batch size above 1, events are collected (see EventBatcher) and sent as a BytesMessage
+ * holding a batch frame (see EventBatch), with the number of events as the eventCount property.
  * 
+ * With compression on, batch frames of at least the compression threshold in size are sent Deflate
+ * compressed, flagged in the batch frame header. So are events on their own that are at least the
+ * threshold in size encoded, as a compressed batch frame of one.
+ * 
+ * Delivery is confirmed (see EventPublisher.confirmsDelivery) only for events sent on their own by
+ * a template that sends synchronously - async send off and persistent delivery, so that the send
+ * returns once the broker has the message and throws if it does not.
+ * 
+ * Closing sends the batch being filled. The JMS template and its connection factory are Spring
+ * beans of spring-config.xml and are closed with the application context.
  */
-public class ActiveMQEventPublisherImpl implements EventPublisher {
+public class ActiveMQEventPublisherImpl implements EventPublisher, Closeable {
 
   private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
       org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
           .getEdgeXLogger(ActiveMQEventPublisherImpl.class);
 
+  public static final String EVENT_COUNT_PROPERTY = "eventCount";
+
+  public static final String CONTENT_TYPE_PROPERTY = "contentType";
+
   private JmsTemplate template;
 
+  private EventCodec codec = new JsonEventCodec();
+
+  private boolean objectMessage;
+
+  private int batchSize = 1;
+
+  private long batchLinger = 10;
+
+  private boolean compression;
+
+  private int compressionThreshold = 1024;
+
+  private EventBatcher batcher;
+
+  private volatile boolean closed;
+
+  private boolean synchronousSend;
+
   /**
-   * Send a message containing the serialized Event (and Readings) into an Active MQ queue to allow
-   * a rules engine or other service to act on new sensor/device readings.
+   * Send a message containing the encoded Event (and Readings) into an Active MQ queue to allow a
+   * rules engine or other service to act on new sensor/device readings. When trace propagation is
+   * enabled, the event's trace id is set as the traceId message property.
    * 
    * @param event - the Event object (with embedded Readings) to be placed in the queue.
    */
   public void sendEventMessage(final Event event) {
+    if (batchSize > 1 && !closed) {
+      batcher().add(event);
+      return;
+    }
+    String traceId = Tracer.currentTraceId();
+    if (objectMessage) {
+      sendObject(event, traceId);
+      return;
+    }
+    template.send(new MessageCreator() {
+      public Message createMessage(Session session) throws JMSException {
+        byte[] payload = codec.encode(event, traceId);
+        BytesMessage message = session.createBytesMessage();
+        try {
+          message.writeBytes(
+              compression ? EventBatch.eventFrame(payload, compressionThreshold) : payload);
+        } catch (IOException e) {
+          throw new JMSException("Unable to compress event:  " + e.getMessage());
+        }
+        message.setStringProperty(CONTENT_TYPE_PROPERTY, codec.contentType());
+        if (traceId != null)
+          message.setStringProperty(Tracer.TRACE_ID_PROPERTY, traceId);
+        logger.debug("Sent event/readings with id:  " + event.getId());
+        return message;
+      }
+    });
+  }
+
+  @Override
+  public boolean confirmsDelivery() {
+    return synchronousSend && batchSize <= 1;
+  }
+
+  private void sendObject(Event event, String traceId) {
     template.send(new MessageCreator() {
       public Message createMessage(Session session) throws JMSException {
         ObjectMessage message = session.createObjectMessage(event);
-        logger.info("Sent event/readings with id:  " + event.getId());
+        if (traceId != null)
+          message.setStringProperty(Tracer.TRACE_ID_PROPERTY, traceId);
+        logger.debug("Sent event/readings with id:  " + event.getId());
+        return message;
+      }
+    });
+  }
+
+  /**
+   * Send the batch being filled and stop batching; events sent afterwards are sent on their own.
+   */
+  @Override
+  public void close() {
+    EventBatcher closing;
+    synchronized (this) {
+      closed = true;
+      closing = batcher;
+      batcher = null;
+    }
+    if (closing != null)
+      closing.close();
+  }
+
+  private synchronized EventBatcher batcher() {
+    if (batcher == null)
+      batcher = new EventBatcher(batchSize, batchLinger, this::sendBatch);
+    return batcher;
+  }
+
+  private void sendBatch(EventBatch batch) {
+    template.send(new MessageCreator() {
+      public Message createMessage(Session session) throws JMSException {
+        BytesMessage message = session.createBytesMessage();
+        try {
+          message.writeBytes(batch.toFrame(codec,
+              compression ? compressionThreshold : EventBatch.NEVER));
+        } catch (IOException e) {
+          throw new JMSException("Unable to encode event batch:  " + e.getMessage());
+        }
+        message.setStringProperty(CONTENT_TYPE_PROPERTY, codec.contentType());
+        message.setIntProperty(EVENT_COUNT_PROPERTY, batch.size());
+        logger.debug("Sent batch of " + batch.size() + " events");
         return message;
       }
     });
@@ -76,4 +202,97 @@ public class ActiveMQEventPublisherImpl implements EventPublisher {
     this.template = template;
   }
 
+  public boolean isSynchronousSend() {
+    return synchronousSend;
+  }
+
+  /**
+   * Set whether the JMS template sends synchronously (its connection factory has async send off
+   * and it sends persistent messages), so that events sent on their own are confirmed.
+   * 
+   * @param synchronousSend - true if the template sends synchronously
+   */
+  public void setSynchronousSend(boolean synchronousSend) {
+    this.synchronousSend = synchronousSend;
+  }
+
+  public EventCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Set the codec of the events sent in BytesMessages (JSON by default).
+   * 
+   * @param codec - event codec
+   */
+  public void setCodec(EventCodec codec) {
+    this.codec = codec;
+  }
+
+  public boolean isObjectMessage() {
+    return objectMessage;
+  }
+
+  /**
+   * Set whether events not batched are sent as an ObjectMessage of the serialized Event, as in
+   * earlier releases, in place of a BytesMessage. Compression does not apply to these.
+   * 
+   * @param objectMessage - true to send ObjectMessages
+   */
+  public void setObjectMessage(boolean objectMessage) {
+    this.objectMessage = objectMessage;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Set the number of events per batch message. 1 (the default) sends each event on its own.
+   * 
+   * @param batchSize - events per batch
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public long getBatchLinger() {
+    return batchLinger;
+  }
+
+  /**
+   * Set the longest time, in milliseconds, an event waits for its batch to fill.
+   * 
+   * @param batchLinger - linger time in milliseconds
+   */
+  public void setBatchLinger(long batchLinger) {
+    this.batchLinger = batchLinger;
+  }
+
+  public boolean isCompression() {
+    return compression;
+  }
+
+  /**
+   * Set whether messages of at least the compression threshold in size are compressed.
+   * 
+   * @param compression - true to compress
+   */
+  public void setCompression(boolean compression) {
+    this.compression = compression;
+  }
+
+  public int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+  /**
+   * Set the size in bytes of encoded events from which they are compressed.
+   * 
+   * @param compressionThreshold - size in bytes
+   */
+  public void setCompressionThreshold(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+  }
+
 }
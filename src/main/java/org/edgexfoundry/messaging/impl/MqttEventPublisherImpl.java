@@ -0,0 +1,531 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttCallback;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.messaging.EventBatch;
+import org.edgexfoundry.messaging.EventCodec;
+import org.edgexfoundry.messaging.EventPublisher;
+import org.edgexfoundry.messaging.JsonEventCodec;
+import org.edgexfoundry.messaging.TopicTemplate;
+import org.edgexfoundry.metrics.Tracer;
+
+/**
+ * Publishes events to an MQTT broker, on topics from a topic template (see TopicTemplate) such as
+ * edgex/events/{device}, with the configured QoS. Events are encoded by the codec (JSON by default)
+ * and, with compression on, sent as compressed batch frames of one when large (see EventBatch).
+ * 
+ * Publishing is asynchronous: at most maxInflight messages are sent and not yet acknowledged (for
+ * QoS 0, not yet written) at any time, and publishing waits up to the publish timeout for room in
+ * that window. While the broker is unreachable, messages are kept in a bounded offline buffer
+ * (dropping the oldest when full) and sent once reconnected. Reconnection is retried with
+ * exponential backoff.
+ * 
+ * With confirmDelivery on, each event is instead published on the calling thread, which waits up
+ * to the publish timeout for the broker's acknowledgement and gets an IllegalStateException if the
+ * broker is unreachable or does not acknowledge. Nothing is buffered, so the caller (e.g. the
+ * outbound journal) retries. Only QoS 1 and 2 are acknowledged by the broker; at QoS 0 the wait
+ * ends once the message is written to the socket, so delivery is confirmed only at QoS 1 or 2.
+ */
+public class MqttEventPublisherImpl implements EventPublisher, MqttCallback, Closeable {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(MqttEventPublisherImpl.class);
+
+  private static final long MIN_RECONNECT_DELAY = 1000;
+
+  private static final long MAX_RECONNECT_DELAY = 60000;
+
+  private static final long DRAIN_RETRY_DELAY = 100;
+
+  private String brokerUrl;
+
+  private String clientId;
+
+  private String username;
+
+  private String password;
+
+  private TopicTemplate topic = new TopicTemplate("edgex/events/{device}");
+
+  private int qos;
+
+  private int maxInflight = 100;
+
+  private long publishTimeout = 1000;
+
+  private int offlineBufferSize = 10000;
+
+  private boolean compression;
+
+  private int compressionThreshold = 1024;
+
+  private boolean confirmDelivery;
+
+  private EventCodec codec = new JsonEventCodec();
+
+  private IMqttAsyncClient client;
+
+  private Semaphore window;
+
+  private ScheduledExecutorService executor;
+
+  private final Deque<Message> offline = new ArrayDeque<>();
+
+  private boolean connected;
+
+  private boolean connecting;
+
+  private boolean draining;
+
+  private long reconnectDelay = MIN_RECONNECT_DELAY;
+
+  private final IMqttActionListener windowListener = new IMqttActionListener() {
+    @Override
+    public void onSuccess(IMqttToken token) {
+      window.release();
+    }
+
+    @Override
+    public void onFailure(IMqttToken token, Throwable cause) {
+      window.release();
+      logger.error("Unable to publish event via MQTT:  " + cause.getMessage());
+    }
+  };
+
+  /**
+   * Create the MQTT client and connect to the broker (in the background).
+   * 
+   * @throws MqttException if the client cannot be created, e.g. for a malformed broker URL
+   */
+  public synchronized void start() throws MqttException {
+    window = new Semaphore(maxInflight);
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "mqtt-publish");
+      thread.setDaemon(true);
+      return thread;
+    });
+    client = newClient();
+    client.setCallback(this);
+    connect();
+  }
+
+  /**
+   * Disconnect from the broker. Messages still in the offline buffer are not sent.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      connected = false;
+      if (executor != null)
+        executor.shutdownNow();
+    }
+    if (client == null)
+      return;
+    try {
+      if (client.isConnected())
+        client.disconnect().waitForCompletion(publishTimeout);
+      client.close();
+    } catch (MqttException e) {
+      logger.error("Unable to disconnect MQTT client:  " + e.getMessage());
+    }
+  }
+
+  /**
+   * @return a new client for the broker (protected for tests)
+   * @throws MqttException
+   */
+  protected IMqttAsyncClient newClient() throws MqttException {
+    return new MqttAsyncClient(brokerUrl, clientId, new MemoryPersistence());
+  }
+
+  @Override
+  public void sendEventMessage(Event event) {
+    String traceId = Tracer.currentTraceId();
+    for (Map.Entry<String, Event> message : topic.split(event).entrySet()) {
+      Message encoded;
+      try {
+        encoded = new Message(message.getKey(), payload(message.getValue(), traceId));
+      } catch (IOException e) {
+        if (confirmDelivery)
+          throw new IllegalStateException("Unable to encode event with id:  " + event.getId(), e);
+        logger.error("Unable to encode event with id:  " + event.getId());
+        continue;
+      }
+      if (confirmDelivery)
+        publishConfirmed(encoded);
+      else
+        send(encoded);
+    }
+  }
+
+  @Override
+  public boolean confirmsDelivery() {
+    return confirmDelivery && qos >= 1;
+  }
+
+  private byte[] payload(Event event, String traceId) throws IOException {
+    byte[] payload = codec.encode(event, traceId);
+    return compression ? EventBatch.eventFrame(payload, compressionThreshold) : payload;
+  }
+
+  private void send(Message message) {
+    synchronized (this) {
+      // messages waiting to be sent go first
+      if (!connected || !offline.isEmpty()) {
+        buffer(message);
+        return;
+      }
+    }
+    if (!publish(message)) {
+      synchronized (this) {
+        buffer(message);
+      }
+    }
+  }
+
+  // publish within the in-flight window; false if not published
+  private boolean publish(Message message) {
+    try {
+      if (!window.tryAcquire(publishTimeout, TimeUnit.MILLISECONDS)) {
+        logger.debug("MQTT in-flight window full, buffering message for " + message.topic);
+        return false;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    try {
+      client.publish(message.topic, message.payload, qos, false, null, windowListener);
+      logger.debug("Sent event to export on topic:  " + message.topic);
+      return true;
+    } catch (MqttException e) {
+      window.release();
+      logger.error("Unable to publish event via MQTT:  " + e.getMessage());
+      return false;
+    }
+  }
+
+  // publish and wait for the broker's acknowledgement, throwing if there is none
+  private void publishConfirmed(Message message) {
+    synchronized (this) {
+      if (!connected)
+        throw new IllegalStateException("Not connected to MQTT broker at " + brokerUrl);
+    }
+    try {
+      client.publish(message.topic, message.payload, qos, false, null, null)
+          .waitForCompletion(publishTimeout);
+      logger.debug("Sent event to export on topic:  " + message.topic);
+    } catch (MqttException e) {
+      throw new IllegalStateException("Unable to publish event via MQTT:  " + e.getMessage(), e);
+    }
+  }
+
+  // caller holds the lock
+  private void buffer(Message message) {
+    if (offline.size() >= offlineBufferSize) {
+      offline.pollFirst();
+      logger.error("MQTT offline buffer full, oldest message dropped");
+    }
+    offline.addLast(message);
+    if (connected && !draining) {
+      draining = true;
+      executor.execute(this::drain);
+    }
+  }
+
+  // sends the offline buffer, oldest first, while connected
+  private void drain() {
+    while (true) {
+      Message message;
+      synchronized (this) {
+        if (!connected || offline.isEmpty()) {
+          draining = false;
+          return;
+        }
+        message = offline.peekFirst();
+      }
+      if (!publish(message)) {
+        synchronized (this) {
+          if (connected)
+            executor.schedule(this::drain, DRAIN_RETRY_DELAY, TimeUnit.MILLISECONDS);
+          else
+            draining = false;
+        }
+        return;
+      }
+      synchronized (this) {
+        offline.removeFirstOccurrence(message);
+      }
+    }
+  }
+
+  private void connect() {
+    synchronized (this) {
+      if (connected || connecting || executor.isShutdown())
+        return;
+      connecting = true;
+    }
+    try {
+      client.connect(connectOptions(), null, new IMqttActionListener() {
+        @Override
+        public void onSuccess(IMqttToken token) {
+          connected();
+        }
+
+        @Override
+        public void onFailure(IMqttToken token, Throwable cause) {
+          connectFailed(cause);
+        }
+      });
+    } catch (MqttException e) {
+      connectFailed(e);
+    }
+  }
+
+  private MqttConnectOptions connectOptions() {
+    MqttConnectOptions options = new MqttConnectOptions();
+    options.setCleanSession(true);
+    options.setMaxInflight(maxInflight);
+    if (username != null && !username.isEmpty()) {
+      options.setUserName(username);
+      options.setPassword(password == null ? new char[0] : password.toCharArray());
+    }
+    return options;
+  }
+
+  private synchronized void connected() {
+    logger.info("Connected to MQTT broker at " + brokerUrl);
+    connecting = false;
+    connected = true;
+    reconnectDelay = MIN_RECONNECT_DELAY;
+    if (!offline.isEmpty() && !draining) {
+      draining = true;
+      executor.execute(this::drain);
+    }
+  }
+
+  private synchronized void connectFailed(Throwable cause) {
+    logger.error("Unable to connect to MQTT broker at " + brokerUrl + ":  " + cause.getMessage());
+    connecting = false;
+    scheduleReconnect();
+  }
+
+  // caller holds the lock
+  private void scheduleReconnect() {
+    if (executor.isShutdown())
+      return;
+    executor.schedule(this::connect, reconnectDelay, TimeUnit.MILLISECONDS);
+    reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY);
+  }
+
+  @Override
+  public synchronized void connectionLost(Throwable cause) {
+    logger.error("Connection to MQTT broker lost:  " + cause.getMessage());
+    connected = false;
+    scheduleReconnect();
+  }
+
+  @Override
+  public void messageArrived(String topic, MqttMessage message) {
+    // publish only
+  }
+
+  @Override
+  public void deliveryComplete(IMqttDeliveryToken token) {
+    // the in-flight window is released by the publish listener
+  }
+
+  /**
+   * @return number of messages in the offline buffer
+   */
+  public synchronized int getBuffered() {
+    return offline.size();
+  }
+
+  public String getBrokerUrl() {
+    return brokerUrl;
+  }
+
+  public void setBrokerUrl(String brokerUrl) {
+    this.brokerUrl = brokerUrl;
+  }
+
+  public String getClientId() {
+    return clientId;
+  }
+
+  public void setClientId(String clientId) {
+    this.clientId = clientId;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public void setUsername(String username) {
+    this.username = username;
+  }
+
+  public void setPassword(String password) {
+    this.password = password;
+  }
+
+  public String getTopic() {
+    return topic.toString();
+  }
+
+  /**
+   * Set the topic template (see TopicTemplate).
+   * 
+   * @param topic - topic template, e.g. edgex/events/{device} or edgex/events/{device}/{name}
+   */
+  public void setTopic(String topic) {
+    this.topic = new TopicTemplate(topic);
+  }
+
+  public int getQos() {
+    return qos;
+  }
+
+  /**
+   * Set the MQTT quality of service of published events - 0 (at most once), 1 (at least once) or
+   * 2 (exactly once).
+   * 
+   * @param qos - 0, 1 or 2
+   */
+  public void setQos(int qos) {
+    if (qos < 0 || qos > 2)
+      throw new IllegalArgumentException("MQTT QoS must be 0, 1 or 2:  " + qos);
+    this.qos = qos;
+  }
+
+  public int getMaxInflight() {
+    return maxInflight;
+  }
+
+  /**
+   * Set the most messages sent and not yet acknowledged at any time.
+   * 
+   * @param maxInflight - in-flight window size
+   */
+  public void setMaxInflight(int maxInflight) {
+    this.maxInflight = maxInflight;
+  }
+
+  public long getPublishTimeout() {
+    return publishTimeout;
+  }
+
+  /**
+   * Set the longest time, in milliseconds, publishing waits for room in the in-flight window
+   * before buffering the message.
+   * 
+   * @param publishTimeout - timeout in milliseconds
+   */
+  public void setPublishTimeout(long publishTimeout) {
+    this.publishTimeout = publishTimeout;
+  }
+
+  public int getOfflineBufferSize() {
+    return offlineBufferSize;
+  }
+
+  /**
+   * Set the most messages kept while the broker is unreachable.
+   * 
+   * @param offlineBufferSize - offline buffer size in messages
+   */
+  public void setOfflineBufferSize(int offlineBufferSize) {
+    this.offlineBufferSize = offlineBufferSize;
+  }
+
+  public boolean isConfirmDelivery() {
+    return confirmDelivery;
+  }
+
+  /**
+   * Set whether publishing waits for the broker's acknowledgement of each event and throws if
+   * there is none, in place of the in-flight window and offline buffer.
+   * 
+   * @param confirmDelivery - true to confirm delivery
+   */
+  public void setConfirmDelivery(boolean confirmDelivery) {
+    this.confirmDelivery = confirmDelivery;
+  }
+
+  public EventCodec getCodec() {
+    return codec;
+  }
+
+  public void setCodec(EventCodec codec) {
+    this.codec = codec;
+  }
+
+  public boolean isCompression() {
+    return compression;
+  }
+
+  public void setCompression(boolean compression) {
+    this.compression = compression;
+  }
+
+  public int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+  public void setCompressionThreshold(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  private static class Message {
+
+    private final String topic;
+
+    private final byte[] payload;
+
+    Message(String topic, byte[] payload) {
+      this.topic = topic;
+      this.payload = payload;
+    }
+
+  }
+
+}
@@ -18,16 +18,45 @@
 
 package org.edgexfoundry.messaging.impl;
 
-import com.google.gson.Gson;
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.DataOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.messaging.EventBatch;
+import org.edgexfoundry.messaging.EventBatcher;
+import org.edgexfoundry.messaging.EventCodec;
 import org.edgexfoundry.messaging.EventPublisher;
+import org.edgexfoundry.messaging.JsonEventCodec;
+import org.edgexfoundry.messaging.TopicTemplate;
+import org.edgexfoundry.metrics.Tracer;
 import org.zeromq.ZMQ;
 
-public class ZeroMQEventPublisherImpl implements EventPublisher {
+/**
+ * Publishes events as JSON (or with another EventCodec) on a ZeroMQ PUB socket. By default each
+ * event is a single frame. With a topic template set, each message is a topic frame (e.g.
+ * device/thermostat) followed by the event frame, so subscribers can subscribe to topic prefixes
+ * and have ZeroMQ drop everything else before it reaches them.
+ * 
+ * With more than one shard, events are published on that many sockets, bound to consecutive ports
+ * starting at the configured one. Each shard has its own thread that encodes and sends its events,
+ * so publishing runs on as many cores. Events are assigned to shards by device, which keeps the
+ * events of a device in order; subscribers connect to all the shard ports.
+ * 
+ * With a batch size above 1, events are collected (see EventBatcher) and published as batch frames
+ * (see EventBatch) in place of event frames, one per topic when there are topics.
+ * 
+ * With compression on, frames of at least the compression threshold in size are sent Deflate
+ * compressed, flagged in the batch frame header; an event on its own is then sent as a compressed
+ * batch frame of one.
+ * 
+ * Closing sends the batch being filled and the events queued for the shards, then closes the
+ * sockets and the context; events sent after closing are dropped.
+ */
+public class ZeroMQEventPublisherImpl implements EventPublisher, Closeable {
 
   private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
       org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
@@ -35,68 +64,441 @@ public class ZeroMQEventPublisherImpl implements EventPublisher {
 
   private static final long PUB_UP_SLEEP = 1000;
 
+  // longest wait on close for a shard to send its queued events, and for a socket to send its
+  // last messages
+  private static final long CLOSE_WAIT = 5000;
+
+  private EventCodec codec = new JsonEventCodec();
+
   private String zeromqAddressPort;
 
+  private TopicTemplate topic;
+
+  private int shards = 1;
+
+  private int ioThreads = 1;
+
+  private int shardQueueCapacity = 10000;
+
+  private int batchSize = 1;
+
+  private long batchLinger = 10;
+
+  private boolean compression;
+
+  private int compressionThreshold = 1024;
+
   private ZMQ.Socket publisher;
   private ZMQ.Context context;
 
-  {
-    context = ZMQ.context(1);
+  private Shard[] shardWorkers;
+
+  private EventBatcher batcher;
+
+  private volatile boolean closed;
+
+  // set once the sockets and context are closed, so that they are not created again
+  private boolean terminated;
+
+  @Override
+  public void sendEventMessage(Event event) {
+    if (closed) {
+      logger.error("Event not sent to export, publisher closed, id:" + event.getId());
+      return;
+    }
+    if (batchSize > 1) {
+      batcher().add(event);
+      return;
+    }
+    EventBatch single = new EventBatch();
+    single.add(event, Tracer.currentTraceId());
+    if (shards > 1)
+      shard(event).enqueue(single, false);
+    else
+      sendOnPublisher(single, false);
   }
 
-  // synchronized because zeroMQ sockets are not thread-safe
+  public String getZeromqAddressPort() {
+    return zeromqAddressPort;
+  }
+
+  public void setZeromqAddressPort(String zeromqAddressPort) {
+    this.zeromqAddressPort = zeromqAddressPort;
+  }
+
+  public String getTopic() {
+    return topic == null ? null : topic.toString();
+  }
+
+  /**
+   * Set the topic template (see TopicTemplate). Null or empty publishes single frame messages
+   * without a topic.
+   * 
+   * @param topic - topic template, e.g. device/{device} or device/{device}/{name}
+   */
+  public void setTopic(String topic) {
+    this.topic = topic == null || topic.isEmpty() ? null : new TopicTemplate(topic);
+  }
+
+  public int getShards() {
+    return shards;
+  }
+
+  /**
+   * Set the number of sockets (and ports) events are published on. 1 (the default) publishes on
+   * the caller's thread.
+   */
+  public void setShards(int shards) {
+    this.shards = Math.max(1, shards);
+  }
+
+  public int getIoThreads() {
+    return ioThreads;
+  }
+
+  /**
+   * Set the number of ZeroMQ I/O threads of the context shared by the sockets.
+   */
+  public void setIoThreads(int ioThreads) {
+    this.ioThreads = Math.max(1, ioThreads);
+  }
+
+  public int getShardQueueCapacity() {
+    return shardQueueCapacity;
+  }
+
+  /**
+   * Set the number of messages (events, or batches when batching) queued per shard. When a
+   * shard's queue is full, the caller waits.
+   */
+  public void setShardQueueCapacity(int shardQueueCapacity) {
+    this.shardQueueCapacity = shardQueueCapacity;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Set the number of events per batch frame. 1 (the default) publishes each event on its own.
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public long getBatchLinger() {
+    return batchLinger;
+  }
+
+  /**
+   * Set the longest time, in milliseconds, an event waits for its batch to fill.
+   */
+  public void setBatchLinger(long batchLinger) {
+    this.batchLinger = batchLinger;
+  }
+
+  public EventCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Set the codec of published events (JSON by default).
+   */
+  public void setCodec(EventCodec codec) {
+    this.codec = codec;
+  }
+
+  public boolean isCompression() {
+    return compression;
+  }
+
+  /**
+   * Set whether frames of at least the compression threshold in size are compressed.
+   */
+  public void setCompression(boolean compression) {
+    this.compression = compression;
+  }
+
+  public int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+  /**
+   * Set the size in bytes of encoded events from which they are compressed. Smaller frames gain
+   * little and are sent as they are.
+   */
+  public void setCompressionThreshold(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  /**
+   * Send the batch being filled and the events queued for the shards, then close the sockets and
+   * the context.
+   */
   @Override
-  public synchronized void sendEventMessage(Event event) {
+  public void close() {
+    closed = true;
+    EventBatcher closing;
+    synchronized (this) {
+      closing = batcher;
+    }
+    // outside the lock, as the batcher sends through it
+    if (closing != null)
+      closing.close();
+    Shard[] stopping;
+    synchronized (this) {
+      stopping = shardWorkers;
+    }
+    if (stopping != null) {
+      for (Shard shard : stopping)
+        shard.stop();
+    }
+    synchronized (this) {
+      terminated = true;
+      if (publisher != null) {
+        publisher.setLinger(CLOSE_WAIT);
+        publisher.close();
+        publisher = null;
+      }
+      if (context != null) {
+        context.term();
+        context = null;
+      }
+    }
+  }
+
+  private int compressThreshold() {
+    return compression ? compressionThreshold : EventBatch.NEVER;
+  }
+
+  private synchronized EventBatcher batcher() {
+    if (batcher == null)
+      batcher = new EventBatcher(batchSize, batchLinger, this::sendBatch);
+    return batcher;
+  }
+
+  // sends a full batch, split up by shard when sharded
+  private void sendBatch(EventBatch batch) {
+    if (shards == 1) {
+      sendOnPublisher(batch, true);
+      return;
+    }
+    Map<Shard, EventBatch> byShard = new LinkedHashMap<>();
+    for (int i = 0; i < batch.size(); i++)
+      byShard.computeIfAbsent(shard(batch.event(i)), s -> new EventBatch()).add(batch.event(i),
+          batch.traceId(i));
+    byShard.forEach((shard, shardBatch) -> shard.enqueue(shardBatch, true));
+  }
+
+  // synchronized because zeroMQ sockets are not thread-safe
+  private synchronized void sendOnPublisher(EventBatch batch, boolean batched) {
+    if (terminated) {
+      logger.error("Event(s) not sent to export, publisher closed, first with id:"
+          + batch.event(0).getId());
+      return;
+    }
     try {
       if (publisher == null)
-        getPublisher();
+        publisher = getPublisher(zeromqAddressPort);
       if (publisher != null) {
-        publisher.send(toByteArray(event));
-        logger.debug("Sent event to export with device id:  " + event.getDevice());
+        send(publisher, batch, batched);
+        logger.debug("Sent " + batch.size() + " event(s) to export, first with device id:  "
+            + batch.event(0).getDevice());
       } else
-        logger.error("Event not sent to export with id:" + event.getId());
+        logger.error("Event(s) not sent to export, first with id:" + batch.event(0).getId());
     } catch (Exception e) {
       logger.error("Unable to send message via ZMQ");
     }
   }
 
-  public String getZeromqAddressPort() {
-    return zeromqAddressPort;
+  private ZMQ.Socket getPublisher(String address) {
+    ZMQ.Socket socket = null;
+    try {
+      if (context == null)
+        context = ZMQ.context(ioThreads);
+      socket = context.socket(ZMQ.PUB);
+      socket.bind(address);
+      // TODO someday change this to make a call to check subscribers and only then release
+      Thread.sleep(PUB_UP_SLEEP); // allow subscribers to connect
+      return socket;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return socket;
+    } catch (Exception e) {
+      logger.error("Unable to get a publisher.  Error:  " + e);
+      if (socket != null)
+        socket.close();
+      return null;
+    }
   }
 
-  public void setZeromqAddressPort(String zeromqAddressPort) {
-    this.zeromqAddressPort = zeromqAddressPort;
+  // the shard of the event's device, starting the shards on first use
+  private synchronized Shard shard(Event event) {
+    if (terminated && shardWorkers == null)
+      throw new IllegalStateException("Publisher closed");
+    if (shardWorkers == null) {
+      context = ZMQ.context(ioThreads);
+      shardWorkers = new Shard[shards];
+      for (int i = 0; i < shards; i++)
+        shardWorkers[i] = new Shard(i);
+    }
+    return shardWorkers[Math.floorMod(String.valueOf(event.getDevice()).hashCode(), shards)];
   }
 
-  private void getPublisher() {
-    try {
-      if (publisher == null) {
-        publisher = context.socket(ZMQ.PUB);
-        publisher.bind(zeromqAddressPort);
-        // TODO someday change this to make a call to check subscribers and only then release
-        Thread.sleep(PUB_UP_SLEEP); // allow subscribers to connect
+  // sends the events as event frames, or as batch frames when batched
+  private void send(ZMQ.Socket socket, EventBatch batch, boolean batched) throws IOException {
+    if (!batched) {
+      for (int i = 0; i < batch.size(); i++)
+        sendEvent(socket, batch.event(i), batch.traceId(i));
+    } else if (topic == null) {
+      socket.send(batch.toFrame(codec, compressThreshold()));
+    } else {
+      Map<String, EventBatch> byTopic = new LinkedHashMap<>();
+      for (int i = 0; i < batch.size(); i++)
+        for (Map.Entry<String, Event> message : topic.split(batch.event(i)).entrySet())
+          byTopic.computeIfAbsent(message.getKey(), t -> new EventBatch())
+              .add(message.getValue(), batch.traceId(i));
+      for (Map.Entry<String, EventBatch> message : byTopic.entrySet()) {
+        socket.sendMore(message.getKey());
+        socket.send(message.getValue().toFrame(codec, compressThreshold()));
       }
-    } catch (Exception e) {
-      logger.error("Unable to get a publisher.  Error:  " + e);
-      publisher = null;
     }
   }
 
+  private void sendEvent(ZMQ.Socket socket, Event event, String traceId) throws IOException {
+    if (topic == null) {
+      socket.send(EventBatch.eventFrame(codec.encode(event, traceId), compressThreshold()));
+      return;
+    }
+    for (Map.Entry<String, Event> message : topic.split(event).entrySet()) {
+      socket.sendMore(message.getKey());
+      socket.send(
+          EventBatch.eventFrame(codec.encode(message.getValue(), traceId), compressThreshold()));
+    }
+  }
+
+  /**
+   * Address of a shard - the configured address with the port incremented by the shard number.
+   * 
+   * @param address - ZeroMQ address ending in a port, e.g. tcp://*:5563
+   * @param shard - shard number, from 0
+   */
+  static String shardAddress(String address, int shard) {
+    int colon = address.lastIndexOf(':');
+    if (colon < 0)
+      throw new IllegalArgumentException("ZeroMQ address without a port:  " + address);
+    int port = Integer.parseInt(address.substring(colon + 1));
+    return address.substring(0, colon + 1) + (port + shard);
+  }
+
   /**
-   * Encode the event as JSON and send to a byte array
+   * Encode the event with the codec (JSON by default) to a byte array (package access for
+   * benchmarks). Includes the trace id of the event (traceId property) when trace propagation is
+   * enabled.
    * 
    * @param Event
    * @return JSON encoded byte array
    * @throws IOException
    */
-  private byte[] toByteArray(Event event) throws IOException {
-    ByteArrayOutputStream bos = new ByteArrayOutputStream();
-    try (DataOutputStream out = new DataOutputStream(bos)) {
-      Gson gson = new Gson();
-      String eventString = gson.toJson(event);
-      out.write(eventString.getBytes());
-      return bos.toByteArray();
+  byte[] toByteArray(Event event) throws IOException {
+    return codec.encode(event, Tracer.currentTraceId());
+  }
+
+  /**
+   * One socket with the thread that owns it (zeroMQ sockets must stay on one thread).
+   */
+  private class Shard implements Runnable {
+
+    private final String address;
+
+    private final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(shardQueueCapacity);
+
+    private final Thread thread;
+
+    Shard(int number) {
+      address = shardAddress(zeromqAddressPort, number);
+      thread = new Thread(this, "zeromq-shard-" + number);
+      thread.setDaemon(true);
+      thread.start();
     }
+
+    // send what is queued, then close the socket and end the thread
+    void stop() {
+      try {
+        queue.put(Message.STOP);
+        thread.join(CLOSE_WAIT);
+        if (thread.isAlive()) {
+          logger.error("Events still queued for " + address + " at shutdown");
+          thread.interrupt();
+          thread.join(CLOSE_WAIT);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    void enqueue(EventBatch batch, boolean batched) {
+      if (!thread.isAlive()) {
+        logger.error("Event(s) not sent to export, publisher closed, first with id:"
+            + batch.event(0).getId());
+        return;
+      }
+      try {
+        queue.put(new Message(batch, batched));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        logger.error("Event(s) not sent to export, first with id:" + batch.event(0).getId());
+      }
+    }
+
+    @Override
+    public void run() {
+      ZMQ.Socket socket = null;
+      while (!Thread.currentThread().isInterrupted()) {
+        Message message;
+        try {
+          message = queue.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        if (message == Message.STOP)
+          break;
+        try {
+          if (socket == null)
+            socket = getPublisher(address);
+          if (socket != null) {
+            send(socket, message.batch, message.batched);
+            logger.debug("Sent " + message.batch.size() + " event(s) to export on " + address);
+          } else
+            logger.error("Event(s) not sent to export, first with id:"
+                + message.batch.event(0).getId());
+        } catch (Exception e) {
+          logger.error("Unable to send message via ZMQ on " + address);
+        }
+      }
+      if (socket != null) {
+        socket.setLinger(CLOSE_WAIT);
+        socket.close();
+      }
+    }
+
+  }
+
+  private static class Message {
+
+    // ends a shard's thread
+    static final Message STOP = new Message(null, false);
+
+    private final EventBatch batch;
+
+    private final boolean batched;
+
+    Message(EventBatch batch, boolean batched) {
+      this.batch = batch;
+      this.batched = batched;
+    }
+
   }
 
 }
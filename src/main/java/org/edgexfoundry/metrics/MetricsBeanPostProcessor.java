@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.edgexfoundry.controller.DeviceClient;
+import org.edgexfoundry.controller.ReadingController;
+import org.edgexfoundry.dao.ScrubDao;
+import org.edgexfoundry.messaging.EventPublisher;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the metadata device client, the event publisher, the scrub DAO and the reading controller
+ * in proxies that time each of their operations (only the queries of the reading controller) and
+ * count the ones that fail in the metrics registry, labelled by method name. Can be turned off
+ * with metrics.enabled=false. Code reaching into these beans by reflection (e.g. tests) must
+ * resolve the proxy target first.
+ */
+@Component
+public class MetricsBeanPostProcessor implements BeanPostProcessor {
+
+  public static final String DEVICE_CLIENT_METRIC = "core_data_device_client_seconds";
+
+  public static final String EVENT_PUBLISH_METRIC = "core_data_event_publish_seconds";
+
+  public static final String SCRUB_METRIC = "core_data_scrub_seconds";
+
+  public static final String READING_QUERY_METRIC = "core_data_reading_query_seconds";
+
+  private static final Instrumented[] INSTRUMENTED = {
+      new Instrumented(DeviceClient.class, DEVICE_CLIENT_METRIC, false),
+      new Instrumented(EventPublisher.class, EVENT_PUBLISH_METRIC, false),
+      new Instrumented(ScrubDao.class, SCRUB_METRIC, false),
+      // controllers must keep their class (and request mappings) so are proxied by subclassing
+      new Instrumented(ReadingController.class, READING_QUERY_METRIC, true, "reading", "readings",
+          "latestReadings", "readingCount", "readingsByName", "readingsByNameAndDevice",
+          "readingsByUomLabel", "readingsByLabel", "readingsByType")};
+
+  @Autowired
+  MetricsRegistry metrics;
+
+  @Value("${metrics.enabled:true}")
+  private boolean enabled;
+
+  @Override
+  public Object postProcessBeforeInitialization(Object bean, String beanName) {
+    return bean;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (!enabled)
+      return bean;
+    for (Instrumented instrumented : INSTRUMENTED) {
+      if (instrumented.type.isInstance(bean)) {
+        ProxyFactory factory = new ProxyFactory(bean);
+        factory.setProxyTargetClass(instrumented.proxyTargetClass);
+        factory.addAdvice(new TimingInterceptor(instrumented));
+        return factory.getProxy();
+      }
+    }
+    return bean;
+  }
+
+  private static class Instrumented {
+    private final Class<?> type;
+    private final String metric;
+    private final String errorMetric;
+    private final boolean proxyTargetClass;
+    private final Set<String> methods;
+
+    // times the given methods, or all methods declared by the type if none are given
+    Instrumented(Class<?> type, String metric, boolean proxyTargetClass, String... methods) {
+      this.type = type;
+      this.metric = metric;
+      this.errorMetric = metric.replace("_seconds", "_errors_total");
+      this.proxyTargetClass = proxyTargetClass;
+      this.methods = methods.length > 0 ? new HashSet<>(Arrays.asList(methods))
+          : Arrays.stream(type.getDeclaredMethods()).map(Method::getName)
+              .collect(Collectors.toSet());
+    }
+  }
+
+  private class TimingInterceptor implements MethodInterceptor {
+
+    private final Instrumented instrumented;
+
+    TimingInterceptor(Instrumented instrumented) {
+      this.instrumented = instrumented;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+      String method = invocation.getMethod().getName();
+      if (!instrumented.methods.contains(method))
+        return invocation.proceed();
+      long start = System.nanoTime();
+      try {
+        return invocation.proceed();
+      } catch (Throwable t) {
+        metrics.counter(instrumented.errorMetric, "method", method).increment();
+        throw t;
+      } finally {
+        metrics.timer(instrumented.metric, "method", method).stop(start);
+      }
+    }
+  }
+
+}
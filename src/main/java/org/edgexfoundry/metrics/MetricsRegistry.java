@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry of the service's timers, counters and gauges. Meters are identified by a metric name
+ * and an optional list of label name/value pairs and are created on first use. The registry is
+ * rendered in the Prometheus text exposition format by scrape(). Timers are exposed as summaries in
+ * seconds (_count and _sum) plus a _max gauge holding the longest duration of the last one to two
+ * minutes (see Timer), the same for every scraper.
+ */
+@Component
+public class MetricsRegistry {
+
+  private static final double NANOS_PER_SECOND = 1e9;
+
+  private final ConcurrentMap<String, Family<Timer>> timers = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, Family<Counter>> counters = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, Family<Supplier<Number>>> gauges =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Return the timer for the metric name and labels, creating it on first use.
+   * 
+   * @param name - metric name (e.g. core_data_event_add_seconds)
+   * @param labels - label name/value pairs (e.g. "stage", "persistence")
+   * @return timer
+   */
+  public Timer timer(String name, String... labels) {
+    return family(timers, name).meter(labels, k -> new Timer());
+  }
+
+  /**
+   * Return the counter for the metric name and labels, creating it on first use.
+   * 
+   * @param name - metric name (e.g. core_data_event_publish_errors_total)
+   * @param labels - label name/value pairs
+   * @return counter
+   */
+  public Counter counter(String name, String... labels) {
+    return family(counters, name).meter(labels, k -> new Counter());
+  }
+
+  /**
+   * Register a gauge sampled on every scrape. Registering the same name and labels again replaces
+   * the previous gauge.
+   * 
+   * @param name - metric name
+   * @param value - supplies the current value
+   * @param labels - label name/value pairs
+   */
+  public void gauge(String name, Supplier<Number> value, String... labels) {
+    family(gauges, name).meters.put(Family.labelString(labels), value);
+  }
+
+  /**
+   * Render all meters in the Prometheus text exposition format (version 0.0.4).
+   * 
+   * @return metrics text
+   */
+  public String scrape() {
+    StringBuilder out = new StringBuilder();
+    for (Map.Entry<String, Family<Timer>> family : new TreeMap<>(timers).entrySet()) {
+      String name = family.getKey();
+      Map<String, Timer> meters = family.getValue().sorted();
+      out.append("# TYPE ").append(name).append(" summary\n");
+      meters.forEach((labels, timer) -> {
+        sample(out, name + "_count", labels, timer.getCount());
+        sample(out, name + "_sum", labels, timer.getTotalNanos() / NANOS_PER_SECOND);
+      });
+      out.append("# TYPE ").append(name).append("_max gauge\n");
+      meters.forEach((labels, timer) -> sample(out, name + "_max", labels,
+          timer.getMaxNanos() / NANOS_PER_SECOND));
+    }
+    for (Map.Entry<String, Family<Counter>> family : new TreeMap<>(counters).entrySet()) {
+      out.append("# TYPE ").append(family.getKey()).append(" counter\n");
+      family.getValue().sorted()
+          .forEach((labels, counter) -> sample(out, family.getKey(), labels, counter.getCount()));
+    }
+    for (Map.Entry<String, Family<Supplier<Number>>> family : new TreeMap<>(gauges).entrySet()) {
+      out.append("# TYPE ").append(family.getKey()).append(" gauge\n");
+      family.getValue().sorted()
+          .forEach((labels, gauge) -> sample(out, family.getKey(), labels, gauge.get()));
+    }
+    return out.toString();
+  }
+
+  private static void sample(StringBuilder out, String name, String labels, Number value) {
+    out.append(name).append(labels).append(' ').append(value).append('\n');
+  }
+
+  private static <M> Family<M> family(ConcurrentMap<String, Family<M>> families, String name) {
+    Family<M> family = families.get(name);
+    if (family == null)
+      family = families.computeIfAbsent(name, k -> new Family<>());
+    return family;
+  }
+
+  private static class Family<M> {
+
+    private final ConcurrentMap<String, M> meters = new ConcurrentHashMap<>();
+
+    M meter(String[] labels, Function<String, M> factory) {
+      String key = labelString(labels);
+      M meter = meters.get(key);
+      if (meter == null)
+        meter = meters.computeIfAbsent(key, factory);
+      return meter;
+    }
+
+    Map<String, M> sorted() {
+      return new TreeMap<>(meters);
+    }
+
+    static String labelString(String[] labels) {
+      if (labels.length == 0)
+        return "";
+      if (labels.length % 2 != 0)
+        throw new IllegalArgumentException("Labels must be name/value pairs");
+      StringBuilder key = new StringBuilder("{");
+      for (int i = 0; i < labels.length; i += 2) {
+        if (i > 0)
+          key.append(',');
+        key.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+      }
+      return key.append('}').toString();
+    }
+
+    private static String escape(String value) {
+      if (value == null)
+        return "";
+      return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+  }
+
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.annotation.PostConstruct;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.edgexfoundry.dao.Storage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mongo DB connection pool metrics publishing pool size, connections in use, pool utilization and
+ * wait queue length as gauges. The values are read on every scrape from the connection pool MBeans
+ * the Java driver registers (one per server, summed over all servers), as the 2.x driver managed
+ * by Spring Boot has no connection pool listener API. Gauges read zero until the driver has opened
+ * a pool.
+ */
+@Component
+@ConditionalOnProperty(name = Storage.TYPE_PROPERTY, havingValue = Storage.MONGO,
+    matchIfMissing = true)
+public class MongoPoolMetrics {
+
+  public static final String POOL_MBEANS = "org.mongodb.driver:type=ConnectionPool,*";
+
+  private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+  private final ObjectName pools;
+
+  @Autowired
+  MetricsRegistry metrics;
+
+  public MongoPoolMetrics() {
+    try {
+      pools = new ObjectName(POOL_MBEANS);
+    } catch (MalformedObjectNameException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @PostConstruct
+  public void registerMetrics() {
+    metrics.gauge("core_data_mongo_pool_size", this::getSize);
+    metrics.gauge("core_data_mongo_pool_max_size", this::getMaxSize);
+    metrics.gauge("core_data_mongo_pool_checked_out", this::getCheckedOut);
+    metrics.gauge("core_data_mongo_pool_utilization", this::getUtilization);
+    metrics.gauge("core_data_mongo_pool_wait_queue_size", this::getWaitQueueSize);
+  }
+
+  public int getSize() {
+    return sum("Size");
+  }
+
+  public int getMaxSize() {
+    return sum("MaxSize");
+  }
+
+  public int getCheckedOut() {
+    return sum("CheckedOutCount");
+  }
+
+  public int getWaitQueueSize() {
+    return sum("WaitQueueSize");
+  }
+
+  public double getUtilization() {
+    int maxSize = getMaxSize();
+    return maxSize == 0 ? 0 : (double) getCheckedOut() / maxSize;
+  }
+
+  private int sum(String attribute) {
+    int sum = 0;
+    for (ObjectName pool : server.queryNames(pools, null)) {
+      try {
+        sum += ((Number) server.getAttribute(pool, attribute)).intValue();
+      } catch (JMException e) {
+        // pool closed since the query
+      }
+    }
+    return sum;
+  }
+
+}
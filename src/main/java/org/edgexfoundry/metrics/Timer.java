@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Accumulates the count, total and maximum duration of a timed operation. The maximum is over a
+ * sliding window of the current and the previous minute, so it does not depend on who reads it or
+ * how often.
+ */
+public class Timer {
+
+  static final long MAX_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final LongAdder count = new LongAdder();
+
+  private final LongAdder totalNanos = new LongAdder();
+
+  private final LongSupplier clock;
+
+  private final long window;
+
+  // longest duration of the current window, and of the one before it
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  private volatile long previousMaxNanos;
+
+  private volatile long windowEnd;
+
+  public Timer() {
+    this(System::nanoTime, MAX_WINDOW_NANOS);
+  }
+
+  Timer(LongSupplier clock, long window) {
+    this.clock = clock;
+    this.window = window;
+    windowEnd = clock.getAsLong() + window;
+  }
+
+  /**
+   * Record one timed operation.
+   * 
+   * @param nanos - duration of the operation in nanoseconds
+   */
+  public void record(long nanos) {
+    count.increment();
+    totalNanos.add(nanos);
+    rotate();
+    maxNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  /**
+   * Record one timed operation started at the given System.nanoTime().
+   * 
+   * @param startNanos - System.nanoTime() at the start of the operation
+   * @return System.nanoTime() at the end of the operation
+   */
+  public long stop(long startNanos) {
+    long now = System.nanoTime();
+    record(now - startNanos);
+    return now;
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getTotalNanos() {
+    return totalNanos.sum();
+  }
+
+  /**
+   * @return the longest duration recorded in the current and the previous window
+   */
+  public long getMaxNanos() {
+    rotate();
+    return Math.max(maxNanos.get(), previousMaxNanos);
+  }
+
+  // start a new window once the current one has ended
+  private void rotate() {
+    long now = clock.getAsLong();
+    if (now - windowEnd < 0)
+      return;
+    synchronized (this) {
+      long late = now - windowEnd;
+      if (late < 0)
+        return;
+      long current = maxNanos.getAndSet(0);
+      // more than a window late means nothing was recorded in the previous window
+      previousMaxNanos = late < window ? current : 0;
+      windowEnd += (late / window + 1) * window;
+    }
+  }
+
+}
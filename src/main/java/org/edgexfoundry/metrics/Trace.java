@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timeline of one traced operation (e.g. adding an event), split into named stages. Each call to
+ * mark() ends the current stage and starts the next, so stages are contiguous and add up to the
+ * total. A trace is not thread-safe: it may be handed from one thread to another (e.g. through an
+ * executor) but must only be marked by one thread at a time.
+ */
+public class Trace {
+
+  /**
+   * Trace that records nothing, used when tracing is disabled.
+   */
+  public static final Trace NONE = new Trace(null, null);
+
+  private final String name;
+
+  private final String id;
+
+  private final long start;
+
+  private long last;
+
+  private final List<String> stages = new ArrayList<>();
+
+  private final List<Long> durations = new ArrayList<>();
+
+  Trace(String name, String id) {
+    this.name = name;
+    this.id = id;
+    this.start = System.nanoTime();
+    this.last = start;
+  }
+
+  /**
+   * End the current stage.
+   * 
+   * @param stage - name of the stage that just completed
+   */
+  public void mark(String stage) {
+    if (!isRecording())
+      return;
+    long now = System.nanoTime();
+    stages.add(stage);
+    durations.add(now - last);
+    last = now;
+  }
+
+  public boolean isRecording() {
+    return this != NONE;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  List<String> getStages() {
+    return stages;
+  }
+
+  List<Long> getDurations() {
+    return durations;
+  }
+
+  long getElapsedNanos() {
+    return last - start;
+  }
+
+}
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts and completes traces. Completed traces feed a per stage timer in the metrics registry, and
+ * traces taking longer than trace.slow.threshold milliseconds are counted and (sampled at
+ * trace.slow.sample.rate) logged with their stage breakdown. When trace.propagate is set, the trace
+ * id of the event being published is made available to the event publishers (see currentTraceId)
+ * so it can be carried in the published message.
+ */
+@Component
+public class Tracer {
+
+  public static final String STAGE_METRIC = "core_data_trace_stage_seconds";
+
+  public static final String SLOW_METRIC = "core_data_trace_slow_total";
+
+  public static final String TRACE_ID_PROPERTY = "traceId";
+
+  private static final String TOTAL_STAGE = "total";
+
+  private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory.getEdgeXLogger(Tracer.class);
+
+  @Value("${trace.enabled:true}")
+  private boolean enabled;
+
+  @Value("${trace.slow.threshold:500}")
+  private long slowThreshold;
+
+  @Value("${trace.slow.sample.rate:0.1}")
+  private double slowSampleRate;
+
+  @Value("${trace.propagate:false}")
+  private boolean propagate;
+
+  @Autowired
+  MetricsRegistry metrics;
+
+  /**
+   * Start a new trace.
+   * 
+   * @param name - name of the traced operation (used as a metric label)
+   * @return the new trace, or Trace.NONE when tracing is disabled
+   */
+  public Trace start(String name) {
+    if (!enabled)
+      return Trace.NONE;
+    return new Trace(name, Long.toHexString(ThreadLocalRandom.current().nextLong()));
+  }
+
+  /**
+   * Complete the trace, recording its stages and logging it if slow.
+   * 
+   * @param trace - trace whose last stage has been marked
+   */
+  public void finish(Trace trace) {
+    if (!trace.isRecording())
+      return;
+    long elapsed = trace.getElapsedNanos();
+    StringBuilder breakdown = new StringBuilder();
+    for (int i = 0; i < trace.getStages().size(); i++) {
+      String stage = trace.getStages().get(i);
+      long duration = trace.getDurations().get(i);
+      metrics.timer(STAGE_METRIC, "trace", trace.getName(), "stage", stage).record(duration);
+      breakdown.append(' ').append(stage).append('=').append(toMillis(duration)).append("ms");
+    }
+    metrics.timer(STAGE_METRIC, "trace", trace.getName(), "stage", TOTAL_STAGE).record(elapsed);
+    if (elapsed >= slowThreshold * 1000000L) {
+      metrics.counter(SLOW_METRIC, "trace", trace.getName()).increment();
+      if (ThreadLocalRandom.current().nextDouble() < slowSampleRate)
+        logger.info("Slow " + trace.getName() + " (trace " + trace.getId() + "): total="
+            + toMillis(elapsed) + "ms" + breakdown);
+    }
+  }
+
+  /**
+   * Run work (e.g. publishing an event) on behalf of the trace. When trace propagation is enabled,
+   * the trace id is available to the work through currentTraceId().
+   * 
+   * @param trace - trace the work belongs to
+   * @param work - work to run on the calling thread
+   */
+  public void runInScope(Trace trace, Runnable work) {
+    if (!propagate || !trace.isRecording()) {
+      work.run();
+      return;
+    }
+    CURRENT.set(trace);
+    try {
+      work.run();
+    } finally {
+      CURRENT.remove();
+    }
+  }
+
+  /**
+   * @return the id of the trace whose work is running on this thread, or null if none (or trace
+   *         propagation is disabled)
+   */
+  public static String currentTraceId() {
+    Trace trace = CURRENT.get();
+    return trace == null ? null : trace.getId();
+  }
+
+  /**
+   * Wrap work to be run on another thread so that it runs on behalf of the trace of the calling
+   * thread, if any (see runInScope).
+   * 
+   * @param work - work to hand off
+   * @return work that runs in the calling thread's trace scope
+   */
+  public static Runnable inCurrentScope(Runnable work) {
+    Trace trace = CURRENT.get();
+    if (trace == null)
+      return work;
+    return () -> {
+      CURRENT.set(trace);
+      try {
+        work.run();
+      } finally {
+        CURRENT.remove();
+      }
+    };
+  }
+
+  /**
+   * Run work on behalf of a trace known only by its id (e.g. read back with a persisted event), so
+   * that the id is available to the work through currentTraceId().
+   * 
+   * @param traceId - id of the trace, or null to run the work outside any trace
+   * @param work - work to run on the calling thread
+   */
+  public static void runWithTraceId(String traceId, Runnable work) {
+    if (traceId == null) {
+      work.run();
+      return;
+    }
+    CURRENT.set(new Trace(null, traceId));
+    try {
+      work.run();
+    } finally {
+      CURRENT.remove();
+    }
+  }
+
+  private static double toMillis(long nanos) {
+    return Math.round(nanos / 1e4) / 100.0;
+  }
+
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.cache;
+
+import static org.edgexfoundry.test.data.DeviceData.TEST_NAME;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.edgexfoundry.domain.common.ValueDescriptor;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.ValueDescriptorData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class DeviceValueDescriptorCacheTest {
+
+  private static final String TEST_ID = "123";
+
+  private DeviceValueDescriptorCache cache;
+
+  private AtomicInteger loads;
+
+  private Function<String, List<ValueDescriptor>> loader;
+
+  @Before
+  public void setup() throws Exception {
+    cache = new DeviceValueDescriptorCache();
+    setField("ttl", 60000L);
+    setField("maxEntries", 10);
+    loads = new AtomicInteger();
+    loader = key -> {
+      loads.incrementAndGet();
+      List<ValueDescriptor> valDescs = new ArrayList<>();
+      valDescs.add(ValueDescriptorData.newTestInstance());
+      return valDescs;
+    };
+  }
+
+  @Test
+  public void testCachedByName() {
+    cache.forDeviceName(TEST_NAME, loader);
+    assertEquals("Value descriptors not cached", 1, cache.forDeviceName(TEST_NAME, loader).size());
+    assertEquals("Loader should only be called once", 1, loads.get());
+  }
+
+  @Test
+  public void testNameAndIdCachedSeparately() {
+    cache.forDeviceName(TEST_ID, loader);
+    cache.forDeviceId(TEST_ID, loader);
+    assertEquals("Device name and id entries should not collide", 2, loads.get());
+  }
+
+  @Test
+  public void testInvalidate() {
+    cache.forDeviceId(TEST_ID, loader);
+    cache.invalidate();
+    cache.forDeviceId(TEST_ID, loader);
+    assertEquals("Invalidated entry should be reloaded", 2, loads.get());
+  }
+
+  @Test
+  public void testLoadRacingInvalidationNotCached() {
+    cache.forDeviceId(TEST_ID, id -> {
+      cache.invalidate();
+      return loader.apply(id);
+    });
+    cache.forDeviceId(TEST_ID, loader);
+    assertEquals("Load racing an invalidation should not be cached", 2, loads.get());
+  }
+
+  @Test
+  public void testNoCachingWithZeroTtl() throws Exception {
+    setField("ttl", 0L);
+    cache.forDeviceName(TEST_NAME, loader);
+    cache.forDeviceName(TEST_NAME, loader);
+    assertEquals("Entries should not be cached without a time to live", 2, loads.get());
+  }
+
+  @Test
+  public void testMaxEntries() throws Exception {
+    setField("maxEntries", 1);
+    cache.forDeviceName(TEST_NAME, loader);
+    cache.forDeviceName(TEST_ID, loader);
+    cache.forDeviceName(TEST_ID, loader);
+    assertEquals("Entries beyond the maximum should not be cached", 3, loads.get());
+  }
+
+  private void setField(String name, Object value) throws Exception {
+    Field field = cache.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(cache, value);
+  }
+
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.cache;
+
+import static org.edgexfoundry.test.data.SampleData.TEST_DEVICE;
+import static org.edgexfoundry.test.data.SampleData.TEST_NAME;
+import static org.edgexfoundry.test.data.SampleData.TEST_OTHER_NAME;
+import static org.edgexfoundry.test.data.SampleData.savedEvent;
+import static org.edgexfoundry.test.data.SampleData.savedReading;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+
+import org.edgexfoundry.dao.QueryDao;
+import org.edgexfoundry.domain.core.Reading;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+@Category(RequiresNone.class)
+public class LatestReadingCacheTest {
+
+  @InjectMocks
+  private LatestReadingCache cache;
+
+  @Mock
+  private QueryDao queryDao;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+  }
+
+  @Test
+  public void testNewestKept() {
+    Reading newest = savedReading(TEST_DEVICE, TEST_NAME, 2);
+    cache.add(newest);
+    cache.add(savedReading(TEST_DEVICE, TEST_NAME, 1));
+    assertEquals("Older reading replaced newer one", newest.getId(),
+        cache.readings(TEST_DEVICE).get(0).getId());
+    Reading newer = savedReading(TEST_DEVICE, TEST_NAME, 3);
+    cache.add(newer);
+    assertEquals("Newer reading not kept", newer.getId(),
+        cache.readings(TEST_DEVICE).get(0).getId());
+  }
+
+  @Test
+  public void testReadingsOfEvent() {
+    cache.add(savedEvent(TEST_DEVICE, 1, TEST_NAME, TEST_OTHER_NAME));
+    List<Reading> latest = cache.readings(TEST_DEVICE);
+    assertEquals("Not one reading per name", 2, latest.size());
+    assertEquals("Readings not sorted by name", TEST_OTHER_NAME, latest.get(0).getName());
+    assertNull("Readings held for unknown device", cache.readings(TEST_OTHER_NAME));
+  }
+
+  @Test
+  public void testRemoveLooksUpNextNewest() {
+    Reading older = savedReading(TEST_DEVICE, TEST_NAME, 1);
+    Reading newest = savedReading(TEST_DEVICE, TEST_NAME, 2);
+    cache.add(newest);
+    when(queryDao.latestReading(TEST_NAME, TEST_DEVICE)).thenReturn(older);
+    cache.remove(newest);
+    assertEquals("Next newest reading not looked up", older.getId(),
+        cache.readings(TEST_DEVICE).get(0).getId());
+  }
+
+  @Test
+  public void testRemoveOlder() {
+    Reading newest = savedReading(TEST_DEVICE, TEST_NAME, 2);
+    cache.add(newest);
+    cache.remove(savedReading(TEST_DEVICE, TEST_NAME, 1));
+    verify(queryDao, never()).latestReading(anyObject(), anyObject());
+    assertEquals("Newest reading removed", newest.getId(),
+        cache.readings(TEST_DEVICE).get(0).getId());
+  }
+
+  @Test
+  public void testUpdateRenamed() {
+    Reading reading = savedReading(TEST_DEVICE, TEST_NAME, 1);
+    cache.add(reading);
+    Reading renamed = savedReading(TEST_DEVICE, TEST_OTHER_NAME, 1);
+    renamed.setId(reading.getId());
+    cache.update(renamed, TEST_NAME);
+    List<Reading> latest = cache.readings(TEST_DEVICE);
+    assertEquals("Reading held under old name", 1, latest.size());
+    assertEquals("Reading not held under new name", TEST_OTHER_NAME, latest.get(0).getName());
+  }
+
+  @Test
+  public void testPushed() {
+    Reading reading = savedReading(TEST_DEVICE, TEST_NAME, 1);
+    cache.add(reading);
+    Reading pushed = savedReading(TEST_DEVICE, TEST_NAME, 1);
+    pushed.setId(reading.getId());
+    pushed.setPushed(10);
+    cache.pushed(Arrays.asList(pushed));
+    assertEquals("Pushed reading not held", 10, cache.readings(TEST_DEVICE).get(0).getPushed());
+  }
+
+  @Test
+  public void testRemoveIf() {
+    cache.add(savedReading(TEST_DEVICE, TEST_NAME, 1));
+    cache.add(savedReading(TEST_DEVICE, TEST_OTHER_NAME, 5));
+    cache.removeIf(reading -> reading.getCreated() < 3);
+    List<Reading> latest = cache.readings(TEST_DEVICE);
+    assertEquals("Matching reading not removed", 1, latest.size());
+    assertEquals("Other reading removed", TEST_OTHER_NAME, latest.get(0).getName());
+  }
+
+  @Test
+  public void testRemoveDevice() {
+    cache.add(savedReading(TEST_DEVICE, TEST_NAME, 1));
+    cache.removeDevice(TEST_DEVICE);
+    assertNull("Readings of removed device held", cache.readings(TEST_DEVICE));
+  }
+
+  @Test
+  public void testLoad() throws Exception {
+    when(queryDao.latestReadings())
+        .thenReturn(Arrays.asList(savedReading(TEST_DEVICE, TEST_NAME, 1)));
+    setField("load", true);
+    cache.init();
+    assertEquals("Latest readings not loaded", 1, cache.readings(TEST_DEVICE).size());
+  }
+
+  @Test
+  public void testLoadDisabled() throws Exception {
+    setField("load", false);
+    cache.init();
+    verify(queryDao, never()).latestReadings();
+  }
+
+  private void setField(String name, Object value) throws Exception {
+    Field field = cache.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(cache, value);
+  }
+
+}
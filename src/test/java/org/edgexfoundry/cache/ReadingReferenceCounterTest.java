@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.cache;
+
+import static org.edgexfoundry.test.data.ReadingData.TEST_NAME;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class ReadingReferenceCounterTest {
+
+  private ReadingReferenceCounter counter;
+
+  @Before
+  public void setup() {
+    counter = new ReadingReferenceCounter();
+  }
+
+  @Test
+  public void testUnknownNameNotReferenced() {
+    assertFalse("Unknown name should not be referenced", counter.isReferenced(TEST_NAME));
+    assertFalse("Null name should not be referenced", counter.isReferenced(null));
+  }
+
+  @Test
+  public void testIncrementDecrement() {
+    counter.increment(TEST_NAME);
+    counter.increment(TEST_NAME);
+    counter.decrement(TEST_NAME);
+    assertTrue("Name with one remaining reading should be referenced",
+        counter.isReferenced(TEST_NAME));
+    counter.decrement(TEST_NAME);
+    assertFalse("Name with no readings counted should be unknown",
+        counter.isReferenced(TEST_NAME));
+  }
+
+  @Test
+  public void testSeedDoesNotLowerCount() {
+    counter.increment(TEST_NAME);
+    counter.increment(TEST_NAME);
+    counter.seed(TEST_NAME);
+    counter.decrement(TEST_NAME);
+    assertTrue("Seed should not have lowered the count", counter.isReferenced(TEST_NAME));
+  }
+
+  @Test
+  public void testClear() {
+    counter.increment(TEST_NAME);
+    counter.clear();
+    assertFalse("Cleared counter should not reference the name", counter.isReferenced(TEST_NAME));
+  }
+
+}
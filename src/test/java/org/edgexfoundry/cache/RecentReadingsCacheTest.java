@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.cache;
+
+import static org.edgexfoundry.test.data.SampleData.TEST_DEVICE;
+import static org.edgexfoundry.test.data.SampleData.TEST_NAME;
+import static org.edgexfoundry.test.data.SampleData.TEST_OTHER_DEVICE;
+import static org.edgexfoundry.test.data.SampleData.TEST_OTHER_NAME;
+import static org.edgexfoundry.test.data.SampleData.savedEvent;
+import static org.edgexfoundry.test.data.SampleData.savedReading;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+
+import org.edgexfoundry.domain.core.Reading;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class RecentReadingsCacheTest {
+
+  private RecentReadingsCache cache;
+
+  private MetricsRegistry metrics;
+
+  @Before
+  public void setup() throws Exception {
+    cache = new RecentReadingsCache();
+    metrics = new MetricsRegistry();
+    cache.metrics = metrics;
+    setField("enabled", true);
+    setField("size", 4);
+    setField("max", 1000L);
+    cache.registerMetrics();
+  }
+
+  @Test
+  public void testReadingsByNameAndDevice() {
+    for (int i = 1; i <= 6; i++)
+      cache.add(savedReading(TEST_DEVICE, TEST_NAME, i));
+    cache.add(savedReading(TEST_OTHER_DEVICE, TEST_NAME, 7));
+    List<Reading> readings = cache.readingsByNameAndDevice(TEST_NAME, TEST_DEVICE, 3);
+    assertEquals("Limit not applied", 3, readings.size());
+    assertEquals("Readings not newest first", 6, readings.get(0).getCreated());
+    assertEquals("Readings not newest first", 4, readings.get(2).getCreated());
+    assertNull("Served more than buffered",
+        cache.readingsByNameAndDevice(TEST_NAME, TEST_DEVICE, 5));
+  }
+
+  @Test
+  public void testReadingsByName() {
+    cache.add(savedReading(TEST_DEVICE, TEST_NAME, 1));
+    cache.add(savedReading(TEST_OTHER_DEVICE, TEST_NAME, 3));
+    cache.add(savedReading(TEST_DEVICE, TEST_NAME, 2));
+    List<Reading> readings = cache.readingsByName(TEST_NAME, 3);
+    assertEquals("Readings of all devices not buffered", 3, readings.size());
+    assertEquals("Late reading not ordered by creation", 2, readings.get(1).getCreated());
+    assertNull("Unknown name served", cache.readingsByName(TEST_OTHER_NAME, 1));
+  }
+
+  @Test
+  public void testReadingsByDevice() {
+    for (int i = 1; i <= 3; i++)
+      cache.add(savedEvent(TEST_DEVICE, i, TEST_NAME, TEST_OTHER_NAME));
+    // capacity of four readings holds the two newest events
+    List<Reading> readings = cache.readingsByDevice(TEST_DEVICE, 3);
+    assertEquals("Limit not applied", 3, readings.size());
+    assertEquals("Readings of newest event not first", 3, readings.get(0).getCreated());
+    assertEquals("Readings of older event not next", 2, readings.get(2).getCreated());
+    assertEquals("Limit not applied to readings of one event", 1,
+        cache.readingsByDevice(TEST_DEVICE, 1).size());
+    assertNull("Served more than buffered", cache.readingsByDevice(TEST_DEVICE, 5));
+  }
+
+  @Test
+  public void testGlobalCap() throws Exception {
+    setField("max", 4L);
+    cache.add(savedReading(TEST_DEVICE, TEST_NAME, 1));
+    cache.add(savedReading(TEST_DEVICE, TEST_OTHER_NAME, 2));
+    assertEquals("Buffer beyond the maximum created", 1,
+        cache.readingsByNameAndDevice(TEST_NAME, TEST_DEVICE, 1).size());
+    assertNull("Buffer beyond the maximum created",
+        cache.readingsByNameAndDevice(TEST_OTHER_NAME, TEST_DEVICE, 1));
+    cache.invalidate();
+    cache.add(savedReading(TEST_DEVICE, TEST_OTHER_NAME, 3));
+    assertEquals("Capacity not released on invalidation", 1,
+        cache.readingsByNameAndDevice(TEST_OTHER_NAME, TEST_DEVICE, 1).size());
+  }
+
+  @Test
+  public void testGlobalCapEvictsStaleBuffers() throws Exception {
+    setField("max", 12L);
+    // fills the cap with the device and name, name and device buffers
+    cache.add(savedEvent(TEST_DEVICE, 1, TEST_NAME));
+    cache.add(savedReading(TEST_OTHER_DEVICE, TEST_NAME, 2));
+    assertNull("Stale name buffer served", cache.readingsByName(TEST_NAME, 1));
+    cache.add(savedReading(TEST_OTHER_DEVICE, TEST_OTHER_NAME, 3));
+    cache.add(savedEvent(TEST_DEVICE, 4, TEST_OTHER_NAME));
+    assertNull("Stale device buffer served", cache.readingsByDevice(TEST_DEVICE, 1));
+    // the evicted buffers released their capacity
+    cache.add(savedReading(TEST_OTHER_DEVICE, TEST_OTHER_NAME, 5));
+    cache.add(savedReading(TEST_OTHER_DEVICE, TEST_OTHER_NAME, 6));
+    assertEquals("Newest reading not served", 6,
+        cache.readingsByNameAndDevice(TEST_OTHER_NAME, TEST_OTHER_DEVICE, 1).get(0).getCreated());
+    assertEquals("Newest reading not served", 6,
+        cache.readingsByName(TEST_OTHER_NAME, 1).get(0).getCreated());
+  }
+
+  @Test
+  public void testPushed() {
+    Reading reading = savedReading(TEST_DEVICE, TEST_NAME, 1);
+    cache.add(reading);
+    Reading stored = savedReading(TEST_DEVICE, TEST_NAME, 1);
+    stored.setId(reading.getId());
+    stored.setPushed(10);
+    cache.pushed(Arrays.asList(stored));
+    assertEquals("Pushed time not updated", 10,
+        cache.readingsByName(TEST_NAME, 1).get(0).getPushed());
+  }
+
+  @Test
+  public void testInvalidate() {
+    cache.add(savedReading(TEST_DEVICE, TEST_NAME, 1));
+    cache.invalidate();
+    assertNull("Invalidated readings served", cache.readingsByName(TEST_NAME, 1));
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    setField("enabled", false);
+    cache.add(savedReading(TEST_DEVICE, TEST_NAME, 1));
+    assertNull("Readings buffered while disabled", cache.readingsByName(TEST_NAME, 1));
+  }
+
+  @Test
+  public void testMetrics() {
+    cache.add(savedReading(TEST_DEVICE, TEST_NAME, 1));
+    cache.readingsByName(TEST_NAME, 1);
+    cache.readingsByName(TEST_NAME, 2);
+    String scrape = metrics.scrape();
+    assertTrue("Hit not counted", scrape.contains(
+        RecentReadingsCache.REQUESTS_METRIC + "{query=\"name\",result=\"hit\"} 1\n"));
+    assertTrue("Miss not counted", scrape.contains(
+        RecentReadingsCache.REQUESTS_METRIC + "{query=\"name\",result=\"miss\"} 1\n"));
+  }
+
+  private void setField(String name, Object value) throws Exception {
+    Field field = cache.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(cache, value);
+  }
+
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.cache;
+
+import static org.edgexfoundry.test.data.ValueDescriptorData.TEST_LABELS;
+import static org.edgexfoundry.test.data.ValueDescriptorData.TEST_NAME;
+import static org.edgexfoundry.test.data.ValueDescriptorData.TEST_TYPE;
+import static org.edgexfoundry.test.data.ValueDescriptorData.TEST_UOMLABEL;
+import static org.edgexfoundry.test.data.ValueDescriptorData.newTestInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.edgexfoundry.dao.ValueDescriptorRepository;
+import org.edgexfoundry.domain.common.ValueDescriptor;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+@Category(RequiresNone.class)
+public class ValueDescriptorIndexTest {
+
+  private static final String NEW_NAME = "newname";
+
+  private static final String NEW_UOMLABEL = "newuom";
+
+  @InjectMocks
+  private ValueDescriptorIndex index;
+
+  @Mock
+  ValueDescriptorRepository valDescRepos;
+
+  private ValueDescriptor valueDescriptor;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    valueDescriptor = newTestInstance();
+    List<ValueDescriptor> valDescs = new ArrayList<>();
+    valDescs.add(valueDescriptor);
+    when(valDescRepos.findAll()).thenReturn(valDescs);
+  }
+
+  @Test
+  public void testLazyLoad() {
+    assertTrue("Index not loaded with label",
+        index.namesForLabel(TEST_LABELS[0]).contains(TEST_NAME));
+    assertTrue("Index not loaded with UoM label",
+        index.namesForUomLabel(TEST_UOMLABEL).contains(TEST_NAME));
+    assertTrue("Index not loaded with type", index.namesForType(TEST_TYPE).contains(TEST_NAME));
+    verify(valDescRepos, times(1)).findAll();
+  }
+
+  @Test
+  public void testUnknownKeys() {
+    assertTrue("Unknown label should return no names", index.namesForLabel("unknown").isEmpty());
+    assertTrue("Null UoM label should return no names", index.namesForUomLabel(null).isEmpty());
+  }
+
+  @Test
+  public void testPut() {
+    index.namesForLabel(TEST_LABELS[0]);
+    ValueDescriptor other = newTestInstance();
+    other.setName(NEW_NAME);
+    other.setUomLabel(NEW_UOMLABEL);
+    index.put(other);
+    assertEquals("Both value descriptors should share the label", 2,
+        index.namesForLabel(TEST_LABELS[0]).size());
+    assertTrue("New UoM label not indexed",
+        index.namesForUomLabel(NEW_UOMLABEL).contains(NEW_NAME));
+  }
+
+  @Test
+  public void testPutReindexes() {
+    index.namesForLabel(TEST_LABELS[0]);
+    valueDescriptor.setUomLabel(NEW_UOMLABEL);
+    index.put(valueDescriptor);
+    assertTrue("Old UoM label still indexed", index.namesForUomLabel(TEST_UOMLABEL).isEmpty());
+    assertTrue("Changed UoM label not indexed",
+        index.namesForUomLabel(NEW_UOMLABEL).contains(TEST_NAME));
+  }
+
+  @Test
+  public void testRemove() {
+    index.namesForLabel(TEST_LABELS[0]);
+    index.remove(TEST_NAME);
+    assertTrue("Removed value descriptor still indexed by label",
+        index.namesForLabel(TEST_LABELS[0]).isEmpty());
+    assertTrue("Removed value descriptor still indexed by type",
+        index.namesForType(TEST_TYPE).isEmpty());
+  }
+
+  @Test
+  public void testQueriesServedDuringReload() {
+    index.namesForLabel(TEST_LABELS[0]);
+    List<Set<String>> duringReload = new ArrayList<>();
+    when(valDescRepos.findAll()).thenAnswer(invocation -> {
+      duringReload.add(index.namesForLabel(TEST_LABELS[0]));
+      return new ArrayList<>();
+    });
+    index.reload();
+    assertTrue("Label query empty while reloading", duringReload.get(0).contains(TEST_NAME));
+    assertTrue("Reloaded index not published", index.namesForLabel(TEST_LABELS[0]).isEmpty());
+  }
+
+}
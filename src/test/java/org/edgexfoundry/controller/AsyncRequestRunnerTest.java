@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+import org.edgexfoundry.controller.impl.AsyncRequestRunner;
+import org.edgexfoundry.exception.controller.NotFoundException;
+import org.edgexfoundry.exception.controller.ServiceException;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.web.context.request.async.DeferredResult;
+
+@Category(RequiresNone.class)
+public class AsyncRequestRunnerTest {
+
+  private static final String TEST_ID = "123";
+
+  @InjectMocks
+  private AsyncRequestRunner runner;
+
+  @Spy
+  TaskExecutor requestExecutor = new SyncTaskExecutor();
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+  }
+
+  @Test
+  public void testRunOnExecutor() {
+    DeferredResult<String> result = runner.run(() -> TEST_ID);
+    assertEquals("Result does not match expected", TEST_ID, result.getResult());
+    verify(requestExecutor).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void testRunException() {
+    DeferredResult<String> result = runner.run(() -> {
+      throw new NotFoundException(String.class.toString(), TEST_ID);
+    });
+    assertTrue("Exception not set as the error result",
+        result.getResult() instanceof NotFoundException);
+  }
+
+  @Test
+  public void testRunRejected() {
+    doThrow(new TaskRejectedException("full")).when(requestExecutor).execute(any(Runnable.class));
+    DeferredResult<String> result = runner.run(() -> TEST_ID);
+    assertTrue("Rejected request should result in a service exception",
+        result.getResult() instanceof ServiceException);
+  }
+
+}
@@ -22,18 +22,25 @@ import static org.edgexfoundry.test.data.EventData.TEST_DEVICE_ID;
 import static org.edgexfoundry.test.data.EventData.newTestInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.edgexfoundry.cache.LatestReadingCache;
+import org.edgexfoundry.cache.ReadingReferenceCounter;
+import org.edgexfoundry.cache.RecentReadingsCache;
 import org.edgexfoundry.controller.impl.EventControllerImpl;
 import org.edgexfoundry.controller.impl.ThreadTasks;
 import org.edgexfoundry.dao.EventRepository;
+import org.edgexfoundry.dao.QueryDao;
 import org.edgexfoundry.dao.ReadingRepository;
 import org.edgexfoundry.dao.ScrubDao;
 import org.edgexfoundry.dao.ValueDescriptorRepository;
@@ -44,6 +51,10 @@ import org.edgexfoundry.exception.controller.DataValidationException;
 import org.edgexfoundry.exception.controller.LimitExceededException;
 import org.edgexfoundry.exception.controller.NotFoundException;
 import org.edgexfoundry.exception.controller.ServiceException;
+import org.edgexfoundry.messaging.EventStream;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.edgexfoundry.metrics.Trace;
+import org.edgexfoundry.metrics.Tracer;
 import org.edgexfoundry.test.category.RequiresNone;
 import org.edgexfoundry.test.data.EventData;
 import org.edgexfoundry.test.data.ReadingData;
@@ -54,7 +65,9 @@ import org.junit.experimental.categories.Category;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.data.domain.Sort;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Category(RequiresNone.class)
 public class EventControllerTest {
@@ -86,12 +99,33 @@ public class EventControllerTest {
   @Mock
   private ScrubDao scrubDao;
 
+  @Mock
+  private QueryDao queryDao;
+
   @Mock
   private ThreadTasks tasker;
 
   @Mock
   private DeviceClient deviceClient;
 
+  @Mock
+  private ReadingReferenceCounter readingRefCounter;
+
+  @Mock
+  private RecentReadingsCache recentReadings;
+
+  @Mock
+  private LatestReadingCache latestReadingCache;
+
+  @Mock
+  private EventStream eventStream;
+
+  @Spy
+  private MetricsRegistry metrics = new MetricsRegistry();
+
+  @Spy
+  private Tracer tracer = new Tracer();
+
   private Event event;
 
   @Before
@@ -144,24 +178,22 @@ public class EventControllerTest {
 
   @Test
   public void testEventCountForDevice() {
-    List<Event> evts = new ArrayList<>();
-    evts.add(event);
-    when(eventRepos.findByDevice(TEST_DEVICE_ID)).thenReturn(evts);
+    when(queryDao.eventCountByDevice(TEST_DEVICE_ID)).thenReturn(1L);
     assertEquals("Count of events does not match what is in the repository", 1L,
         controller.eventCountForDevice(TEST_DEVICE_ID));
   }
 
   @Test
   public void testEventCountForDeviceNotFound() {
-    List<Event> evts = new ArrayList<>();
-    when(eventRepos.findByDevice("baddeviceid")).thenReturn(evts);
+    when(queryDao.eventCountByDevice("baddeviceid")).thenReturn(0L);
     assertEquals("Count of events should be zero for unknown device", 0L,
         controller.eventCountForDevice("baddeviceid"));
   }
 
   @Test(expected = ServiceException.class)
   public void testEventCountForDeviceException() {
-    when(eventRepos.findByDevice(TEST_DEVICE_ID)).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    when(queryDao.eventCountByDevice(TEST_DEVICE_ID))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.eventCountForDevice(TEST_DEVICE_ID);
   }
 
@@ -178,14 +210,29 @@ public class EventControllerTest {
     controller.eventCount();
   }
 
-  /**
-   * The Page<Event> object makes coverage testing of the eventsForX methods impossible. There is no
-   * easy way to get back a PageRequest object from the mock object.
-   */
+  @Test
+  public void testEventsForDevice() {
+    List<Event> evts = new ArrayList<>();
+    evts.add(event);
+    when(queryDao.eventsByDevice(TEST_DEVICE_ID, MAX_LIMIT)).thenReturn(evts);
+    List<Event> events = controller.eventsForDevice(TEST_DEVICE_ID, MAX_LIMIT);
+    assertEquals("Find for device not returning a list with one event", 1, events.size());
+    EventData.checkTestDataWithoutReadings(events.get(0), TEST_ID);
+  }
+
+  @Test
+  public void testEventsForTime() {
+    List<Event> evts = new ArrayList<>();
+    evts.add(event);
+    when(queryDao.eventsByCreated(0, Long.MAX_VALUE, MAX_LIMIT)).thenReturn(evts);
+    List<Event> events = controller.events(0, Long.MAX_VALUE, MAX_LIMIT);
+    assertEquals("Find by time not returning a list with one event", 1, events.size());
+    EventData.checkTestDataWithoutReadings(events.get(0), TEST_ID);
+  }
 
   @Test(expected = ServiceException.class)
   public void testEventsForDeviceException() {
-    when(eventRepos.findByDevice(anyObject(), anyObject()))
+    when(queryDao.eventsByDevice(anyObject(), anyInt()))
         .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.eventsForDevice(TEST_DEVICE_ID, MAX_LIMIT);
   }
@@ -197,7 +244,7 @@ public class EventControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testReadingsForDeviceAndValueDescriptorException() {
-    when(eventRepos.findByDevice(anyObject(), anyObject()))
+    when(queryDao.eventsByDevice(anyObject(), anyInt()))
         .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.readingsForDeviceAndValueDescriptor(TEST_DEVICE_ID, TEST_ID, MAX_LIMIT);
   }
@@ -209,7 +256,7 @@ public class EventControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testEventsForTimeException() {
-    when(eventRepos.findByCreatedBetween(anyLong(), anyLong(), anyObject()))
+    when(queryDao.eventsByCreated(anyLong(), anyLong(), anyInt()))
         .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.events(0, Long.MAX_VALUE, MAX_LIMIT);
   }
@@ -245,6 +292,16 @@ public class EventControllerTest {
     assertEquals("Event id returned does not match expected", TEST_ID, controller.add(event));
   }
 
+  @Test
+  public void testAddRecordsStages() {
+    when(eventRepos.save(event)).thenReturn(event);
+    controller.add(event);
+    for (String stage : new String[] {"validation", "persistence", "enqueue", "total"}) {
+      assertEquals("Stage " + stage + " not timed", 1,
+          metrics.timer(EventControllerImpl.ADD_METRIC, "stage", stage).getCount());
+    }
+  }
+
   @Test
   public void testAddWithReadings() {
     List<Reading> readings = new ArrayList<>();
@@ -268,6 +325,17 @@ public class EventControllerTest {
     controller.add(event);
   }
 
+  @Test
+  public void testAddFailureTraced() {
+    event.setDevice(null);
+    try {
+      controller.add(event);
+      fail("Event without a device added");
+    } catch (DataValidationException e) {
+      verify(tracer).finish(any(Trace.class));
+    }
+  }
+
   @Test(expected = ServiceException.class)
   public void testAddNoReadingsException() {
     when(eventRepos.save(event)).thenThrow(new RuntimeException(TEST_ERR_MSG));
@@ -280,6 +348,21 @@ public class EventControllerTest {
     assertEquals("Event id returned does not match expected", "unsaved", controller.add(event));
   }
 
+  @Test
+  public void testStream() {
+    SseEmitter emitter = new SseEmitter();
+    when(eventStream.subscribe(TEST_DEVICE_ID, ReadingData.TEST_NAME)).thenReturn(emitter);
+    assertEquals("Event stream not returned", emitter,
+        controller.stream(TEST_DEVICE_ID, ReadingData.TEST_NAME));
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testStreamMaxSubscribers() {
+    when(eventStream.subscribe(null, null))
+        .thenThrow(new IllegalStateException(TEST_ERR_MSG));
+    controller.stream(null, null);
+  }
+
   @Test
   public void testDelete() {
     when(eventRepos.findOne(TEST_ID)).thenReturn(event);
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+
+import org.edgexfoundry.controller.impl.AsyncIngestController;
+import org.edgexfoundry.controller.impl.AsyncRequestRunner;
+import org.edgexfoundry.controller.impl.IngestController;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+@Category(RequiresNone.class)
+public class IngestControllerTest {
+
+  private static final String TEST_ID = "123";
+
+  @InjectMocks
+  private IngestController controller;
+
+  @InjectMocks
+  private AsyncIngestController asyncController;
+
+  @InjectMocks
+  private AsyncRequestRunner requestRunner;
+
+  @Mock
+  private EventController eventController;
+
+  @Mock
+  private ReadingController readingController;
+
+  @Spy
+  private TaskExecutor requestExecutor = new SyncTaskExecutor();
+
+  private Event event;
+
+  private Reading reading;
+
+  @Before
+  public void setup() throws Exception {
+    MockitoAnnotations.initMocks(this);
+    Field field = AsyncIngestController.class.getDeclaredField("requestRunner");
+    field.setAccessible(true);
+    field.set(asyncController, requestRunner);
+    event = new Event("thermostat", null);
+    reading = new Reading();
+    when(eventController.add(event)).thenReturn(TEST_ID);
+    when(readingController.add(reading)).thenReturn(TEST_ID);
+  }
+
+  @Test
+  public void testAddEvent() {
+    assertEquals("Event id returned does not match expected", TEST_ID, controller.addEvent(event));
+  }
+
+  @Test
+  public void testAddReading() {
+    assertEquals("Reading id returned does not match expected", TEST_ID,
+        controller.addReading(reading));
+  }
+
+  @Test
+  public void testAddEventAsync() {
+    assertEquals("Event id returned does not match expected", TEST_ID,
+        asyncController.addEvent(event).getResult());
+    verify(requestExecutor).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void testAddReadingAsync() {
+    assertEquals("Reading id returned does not match expected", TEST_ID,
+        asyncController.addReading(reading).getResult());
+    verify(requestExecutor).execute(any(Runnable.class));
+  }
+
+}
@@ -25,20 +25,27 @@ import static org.edgexfoundry.test.data.ReadingData.newTestInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import org.edgexfoundry.cache.LatestReadingCache;
+import org.edgexfoundry.cache.ReadingReferenceCounter;
+import org.edgexfoundry.cache.RecentReadingsCache;
+import org.edgexfoundry.cache.ValueDescriptorIndex;
 import org.edgexfoundry.controller.impl.ReadingControllerImpl;
-import org.edgexfoundry.dao.EventRepository;
+import org.edgexfoundry.dao.QueryDao;
 import org.edgexfoundry.dao.ReadingRepository;
 import org.edgexfoundry.dao.ValueDescriptorRepository;
 import org.edgexfoundry.domain.common.ValueDescriptor;
 import org.edgexfoundry.domain.core.Reading;
+import org.edgexfoundry.domain.meta.Device;
 import org.edgexfoundry.exception.controller.DataValidationException;
 import org.edgexfoundry.exception.controller.LimitExceededException;
 import org.edgexfoundry.exception.controller.NotFoundException;
@@ -52,7 +59,6 @@ import org.junit.experimental.categories.Category;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.mongodb.core.MongoTemplate;
 
 @Category(RequiresNone.class)
 public class ReadingControllerTest {
@@ -69,6 +75,8 @@ public class ReadingControllerTest {
 
   private static final String TEST_ERR_MSG = "test message";
 
+  private static final String TEST_DEVICE_NAME = "test device name";
+
   @InjectMocks
   private ReadingControllerImpl controller;
 
@@ -76,17 +84,26 @@ public class ReadingControllerTest {
   ReadingRepository readingRepos;
 
   @Mock
-  EventRepository eventRepos;
+  ValueDescriptorRepository valDescRepos;
 
   @Mock
-  ValueDescriptorRepository valDescRepos;
+  ValueDescriptorIndex valDescIndex;
 
   @Mock
-  MongoTemplate template;
+  QueryDao queryDao;
 
   @Mock
   DeviceClient deviceClient;
 
+  @Mock
+  ReadingReferenceCounter readingRefCounter;
+
+  @Mock
+  RecentReadingsCache recentReadings;
+
+  @Mock
+  LatestReadingCache latestReadingCache;
+
   private Reading reading;
 
   @Before
@@ -95,6 +112,11 @@ public class ReadingControllerTest {
     reading = newTestInstance();
     reading.setId(TEST_ID);
     setControllerMAXLIMIT(MAX_LIMIT);
+    // recent readings miss unless a test says otherwise
+    when(recentReadings.readingsByName(anyObject(), anyInt())).thenReturn(null);
+    when(recentReadings.readingsByNameAndDevice(anyObject(), anyObject(), anyInt()))
+        .thenReturn(null);
+    when(recentReadings.readingsByDevice(anyObject(), anyInt())).thenReturn(null);
   }
 
   @Test
@@ -152,14 +174,52 @@ public class ReadingControllerTest {
     controller.readingCount();
   }
 
-  /**
-   * The Page<Event> object makes coverage testing of the readingsByX methods impossible. There is
-   * no easy way to get back a PageRequest object from the mock object.
-   */
+  @Test
+  public void testReadingsByTime() {
+    List<Reading> rdgs = new ArrayList<>();
+    rdgs.add(reading);
+    when(queryDao.readingsByCreated(0, Long.MAX_VALUE, MAX_LIMIT)).thenReturn(rdgs);
+    List<Reading> readings = controller.readings(0, Long.MAX_VALUE, MAX_LIMIT);
+    assertEquals("Find by time not returning a list with one reading", 1, readings.size());
+    checkTestData(readings.get(0), TEST_ID);
+  }
+
+  @Test
+  public void testReadingsByName() {
+    List<Reading> rdgs = new ArrayList<>();
+    rdgs.add(reading);
+    when(queryDao.readingsByName(TEST_NAME, MAX_LIMIT)).thenReturn(rdgs);
+    List<Reading> readings = controller.readingsByName(TEST_NAME, MAX_LIMIT);
+    assertEquals("Find by name not returning a list with one reading", 1, readings.size());
+    checkTestData(readings.get(0), TEST_ID);
+  }
+
+  @Test
+  public void testReadingsByNameFromRecentReadings() {
+    List<Reading> rdgs = new ArrayList<>();
+    rdgs.add(reading);
+    when(recentReadings.readingsByName(TEST_NAME, MAX_LIMIT)).thenReturn(rdgs);
+    when(queryDao.readingsByName(anyObject(), anyInt()))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
+    List<Reading> readings = controller.readingsByName(TEST_NAME, MAX_LIMIT);
+    assertEquals("Find by name not served from recent readings", 1, readings.size());
+    checkTestData(readings.get(0), TEST_ID);
+  }
+
+  @Test
+  public void testReadingsByDeviceFromRecentReadings() {
+    List<Reading> rdgs = new ArrayList<>();
+    rdgs.add(reading);
+    when(recentReadings.readingsByDevice(TEST_DEVICE_ID, MAX_LIMIT)).thenReturn(rdgs);
+    when(queryDao.eventsByDevice(anyObject(), anyInt()))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
+    List<Reading> readings = controller.readings(TEST_DEVICE_ID, MAX_LIMIT);
+    assertEquals("Find by device not served from recent readings", 1, readings.size());
+  }
 
   @Test(expected = ServiceException.class)
   public void testReadingsByDeviceException() {
-    when(eventRepos.findByDevice(anyObject(), anyObject()))
+    when(queryDao.eventsByDevice(anyObject(), anyInt()))
         .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.readings(TEST_DEVICE_ID, MAX_LIMIT);
   }
@@ -177,8 +237,51 @@ public class ReadingControllerTest {
     controller.readings(TEST_DEVICE_ID, MAX_LIMIT);
   }
 
+  @Test
+  public void testLatestReadings() {
+    List<Reading> rdgs = new ArrayList<>();
+    rdgs.add(reading);
+    when(latestReadingCache.readings(TEST_DEVICE_ID)).thenReturn(rdgs);
+    List<Reading> readings = controller.latestReadings(TEST_DEVICE_ID);
+    assertEquals("Latest readings not returned", 1, readings.size());
+    checkTestData(readings.get(0), TEST_ID);
+  }
+
+  @Test
+  public void testLatestReadingsByOtherIdentifier() throws Exception {
+    setMetaCheck(true);
+    Device device = new Device();
+    device.setId(TEST_DEVICE_ID);
+    device.setName(TEST_DEVICE_NAME);
+    List<Reading> rdgs = new ArrayList<>();
+    rdgs.add(reading);
+    when(latestReadingCache.readings(TEST_DEVICE_ID)).thenReturn(null);
+    when(latestReadingCache.readings(TEST_DEVICE_NAME)).thenReturn(rdgs);
+    when(deviceClient.device(TEST_DEVICE_ID)).thenReturn(device);
+    List<Reading> readings = controller.latestReadings(TEST_DEVICE_ID);
+    assertEquals("Latest readings sent with device name not returned", 1, readings.size());
+  }
+
+  @Test
+  public void testLatestReadingsNone() {
+    when(latestReadingCache.readings(TEST_DEVICE_ID)).thenReturn(null);
+    assertTrue("Latest readings returned for device without readings",
+        controller.latestReadings(TEST_DEVICE_ID).isEmpty());
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testLatestReadingsDeviceNotFound() throws Exception {
+    setMetaCheck(true);
+    when(latestReadingCache.readings(TEST_DEVICE_ID)).thenReturn(null);
+    when(deviceClient.deviceForName(TEST_DEVICE_ID)).thenReturn(null);
+    when(deviceClient.device(TEST_DEVICE_ID)).thenReturn(null);
+    controller.latestReadings(TEST_DEVICE_ID);
+  }
+
   @Test(expected = ServiceException.class)
   public void testReadingsByNameException() {
+    when(queryDao.readingsByName(anyObject(), anyInt()))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.readingsByName(TEST_NAME, MAX_LIMIT);
   }
 
@@ -189,6 +292,8 @@ public class ReadingControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testReadingsByNameAndDeviceException() {
+    when(queryDao.readingsByNameAndDevice(anyObject(), anyObject(), anyInt()))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.readingsByNameAndDevice(TEST_NAME, TEST_DEVICE_ID, MAX_LIMIT);
   }
 
@@ -199,12 +304,11 @@ public class ReadingControllerTest {
 
   @Test
   public void testReadingsByUoMLabel() {
-    List<ValueDescriptor> valueDesps = new ArrayList<>();
-    valueDesps.add(ValueDescriptorData.newTestInstance());
-    List<Object> rdgs = new ArrayList<>();
+    List<Reading> rdgs = new ArrayList<>();
     rdgs.add(reading);
-    when(valDescRepos.findByUomLabel(ValueDescriptorData.TEST_UOMLABEL)).thenReturn(valueDesps);
-    when(template.find(any(), any())).thenReturn(rdgs);
+    when(valDescIndex.namesForUomLabel(ValueDescriptorData.TEST_UOMLABEL))
+        .thenReturn(Collections.singleton(ValueDescriptorData.TEST_NAME));
+    when(queryDao.readingsByNames(any(), anyInt())).thenReturn(rdgs);
     List<Reading> readings =
         controller.readingsByUomLabel(ValueDescriptorData.TEST_UOMLABEL, MAX_LIMIT);
     assertEquals("Find by UoM label not returning a list with one reading", 1, readings.size());
@@ -213,10 +317,8 @@ public class ReadingControllerTest {
 
   @Test
   public void testReadingsByUoMLabelNoMatchingVD() {
-    List<ValueDescriptor> valueDesps = new ArrayList<>();
-    List<Object> rdgs = new ArrayList<>();
-    rdgs.add(reading);
-    when(valDescRepos.findByUomLabel(ValueDescriptorData.TEST_UOMLABEL)).thenReturn(valueDesps);
+    when(valDescIndex.namesForUomLabel(ValueDescriptorData.TEST_UOMLABEL))
+        .thenReturn(Collections.emptySet());
     List<Reading> readings =
         controller.readingsByUomLabel(ValueDescriptorData.TEST_UOMLABEL, MAX_LIMIT);
     assertEquals("Find by UoM label not returning a list with one reading", 0, readings.size());
@@ -224,7 +326,7 @@ public class ReadingControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testReadingsByUoMLabelException() {
-    when(valDescRepos.findByUomLabel(ValueDescriptorData.TEST_UOMLABEL))
+    when(valDescIndex.namesForUomLabel(ValueDescriptorData.TEST_UOMLABEL))
         .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.readingsByUomLabel(ValueDescriptorData.TEST_UOMLABEL, MAX_LIMIT);
   }
@@ -236,12 +338,11 @@ public class ReadingControllerTest {
 
   @Test
   public void testReadingsByLabel() {
-    List<ValueDescriptor> valueDesps = new ArrayList<>();
-    valueDesps.add(ValueDescriptorData.newTestInstance());
-    List<Object> rdgs = new ArrayList<>();
+    List<Reading> rdgs = new ArrayList<>();
     rdgs.add(reading);
-    when(valDescRepos.findByLabelsIn(ValueDescriptorData.TEST_LABELS[0])).thenReturn(valueDesps);
-    when(template.find(any(), any())).thenReturn(rdgs);
+    when(valDescIndex.namesForLabel(ValueDescriptorData.TEST_LABELS[0]))
+        .thenReturn(Collections.singleton(ValueDescriptorData.TEST_NAME));
+    when(queryDao.readingsByNames(any(), anyInt())).thenReturn(rdgs);
     List<Reading> readings =
         controller.readingsByLabel(ValueDescriptorData.TEST_LABELS[0], MAX_LIMIT);
     assertEquals("Find by label not returning a list with one reading", 1, readings.size());
@@ -250,10 +351,8 @@ public class ReadingControllerTest {
 
   @Test
   public void testReadingsByLabelNoMatchingVD() {
-    List<ValueDescriptor> valueDesps = new ArrayList<>();
-    List<Object> rdgs = new ArrayList<>();
-    rdgs.add(reading);
-    when(valDescRepos.findByLabelsIn(ValueDescriptorData.TEST_LABELS[0])).thenReturn(valueDesps);
+    when(valDescIndex.namesForLabel(ValueDescriptorData.TEST_LABELS[0]))
+        .thenReturn(Collections.emptySet());
     List<Reading> readings =
         controller.readingsByLabel(ValueDescriptorData.TEST_LABELS[0], MAX_LIMIT);
     assertEquals("Find by label not returning a list with one reading", 0, readings.size());
@@ -261,7 +360,7 @@ public class ReadingControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testReadingsByLabelException() {
-    when(valDescRepos.findByLabelsIn(ValueDescriptorData.TEST_LABELS[0]))
+    when(valDescIndex.namesForLabel(ValueDescriptorData.TEST_LABELS[0]))
         .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.readingsByLabel(ValueDescriptorData.TEST_LABELS[0], MAX_LIMIT);
   }
@@ -273,12 +372,11 @@ public class ReadingControllerTest {
 
   @Test
   public void testReadingsByType() {
-    List<ValueDescriptor> valueDesps = new ArrayList<>();
-    valueDesps.add(ValueDescriptorData.newTestInstance());
-    List<Object> rdgs = new ArrayList<>();
+    List<Reading> rdgs = new ArrayList<>();
     rdgs.add(reading);
-    when(valDescRepos.findByType(ValueDescriptorData.TEST_TYPE)).thenReturn(valueDesps);
-    when(template.find(any(), any())).thenReturn(rdgs);
+    when(valDescIndex.namesForType(ValueDescriptorData.TEST_TYPE))
+        .thenReturn(Collections.singleton(ValueDescriptorData.TEST_NAME));
+    when(queryDao.readingsByNames(any(), anyInt())).thenReturn(rdgs);
     List<Reading> readings =
         controller.readingsByType(ValueDescriptorData.TEST_TYPE.toString(), MAX_LIMIT);
     assertEquals("Find by type not returning a list with one reading", 1, readings.size());
@@ -287,10 +385,8 @@ public class ReadingControllerTest {
 
   @Test
   public void testReadingsByTypeNoMatchingVD() {
-    List<ValueDescriptor> valueDesps = new ArrayList<>();
-    List<Object> rdgs = new ArrayList<>();
-    rdgs.add(reading);
-    when(valDescRepos.findByType(ValueDescriptorData.TEST_TYPE)).thenReturn(valueDesps);
+    when(valDescIndex.namesForType(ValueDescriptorData.TEST_TYPE))
+        .thenReturn(Collections.emptySet());
     List<Reading> readings =
         controller.readingsByType(ValueDescriptorData.TEST_TYPE.toString(), MAX_LIMIT);
     assertEquals("Find by type not returning a list with one reading", 0, readings.size());
@@ -298,7 +394,7 @@ public class ReadingControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testReadingsByTypeException() {
-    when(valDescRepos.findByType(ValueDescriptorData.TEST_TYPE))
+    when(valDescIndex.namesForType(ValueDescriptorData.TEST_TYPE))
         .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.readingsByType(ValueDescriptorData.TEST_TYPE.toString(), MAX_LIMIT);
   }
@@ -310,7 +406,7 @@ public class ReadingControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testReadingsByTimeException() {
-    when(readingRepos.findByCreatedBetween(anyLong(), anyLong(), anyObject()))
+    when(queryDao.readingsByCreated(anyLong(), anyLong(), anyInt()))
         .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.readings(0, Long.MAX_VALUE, MAX_LIMIT);
   }
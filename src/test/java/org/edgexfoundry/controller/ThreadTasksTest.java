@@ -18,15 +18,31 @@
 
 package org.edgexfoundry.controller;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.edgexfoundry.controller.impl.ThreadTasks;
 import org.edgexfoundry.domain.core.Event;
 import org.edgexfoundry.domain.meta.Device;
 import org.edgexfoundry.domain.meta.DeviceService;
 import org.edgexfoundry.messaging.EventPublisher;
+import org.edgexfoundry.messaging.EventStream;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.edgexfoundry.metrics.Trace;
+import org.edgexfoundry.metrics.Tracer;
 import org.edgexfoundry.test.category.RequiresNone;
 import org.edgexfoundry.test.data.DeviceData;
 import org.edgexfoundry.test.data.EventData;
@@ -37,6 +53,9 @@ import org.junit.experimental.categories.Category;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 
 @Category(RequiresNone.class)
 public class ThreadTasksTest {
@@ -49,12 +68,27 @@ public class ThreadTasksTest {
   @Mock
   EventPublisher eventProducer;
 
+  @Mock
+  EventStream eventStream;
+
   @Mock
   DeviceClient deviceClient;
 
   @Mock
   DeviceServiceClient serviceClient;
 
+  @Spy
+  TaskExecutor eventPublishExecutor = new SyncTaskExecutor();
+
+  @Spy
+  TaskExecutor metadataUpdateExecutor = new SyncTaskExecutor();
+
+  @Spy
+  Tracer tracer = new Tracer();
+
+  @Spy
+  MetricsRegistry metrics = new MetricsRegistry();
+
   private Device device;
   private DeviceService service;
 
@@ -132,6 +166,110 @@ public class ThreadTasksTest {
     tasks.putEventOnQueue(event);
   }
 
+  @Test
+  public void testPostProcess() throws Exception {
+    setAddToEventQ(true);
+    Event event = EventData.newTestInstance();
+    when(deviceClient.deviceForName(event.getDevice())).thenReturn(device);
+    tasks.postProcess(event, null);
+    verify(eventProducer).sendEventMessage(event);
+    verify(deviceClient, times(1)).deviceForName(event.getDevice());
+    verify(deviceClient).updateLastReported(anyString(), anyLong());
+    verify(serviceClient).updateLastReported(anyString(), anyLong());
+  }
+
+  @Test
+  public void testPostProcessDurablePublisher() throws Exception {
+    setAddToEventQ(true);
+    Event event = EventData.newTestInstance();
+    when(eventProducer.isDurable()).thenReturn(true);
+    tasks.postProcess(event, device);
+    verify(eventProducer).sendEventMessage(event);
+    verify(eventPublishExecutor, never()).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void testPostProcessWithResolvedDevice() throws Exception {
+    setAddToEventQ(true);
+    Event event = EventData.newTestInstance();
+    tasks.postProcess(event, device);
+    verify(deviceClient, never()).deviceForName(anyString());
+    verify(deviceClient, never()).device(anyString());
+    verify(deviceClient).updateLastConnected(anyString(), anyLong());
+    verify(serviceClient).updateLastConnected(anyString(), anyLong());
+  }
+
+  @Test
+  public void testPostProcessStreamsEvent() throws Exception {
+    setAddToEventQ(false);
+    Event event = EventData.newTestInstance();
+    when(eventStream.hasSubscribers()).thenReturn(true);
+    tasks.postProcess(event, device);
+    verify(eventStream).publish(event);
+  }
+
+  @Test
+  public void testPostProcessStagesDisabled() throws Exception {
+    setAddToEventQ(false);
+    setUpdateDeviceLastReported(false);
+    setUpdateServiceLastReported(false);
+    Event event = EventData.newTestInstance();
+    tasks.postProcess(event, device);
+    verify(eventPublishExecutor, never()).execute(any(Runnable.class));
+    verify(metadataUpdateExecutor, never()).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void testPostProcessCompletesTrace() throws Exception {
+    setAddToEventQ(true);
+    Event event = EventData.newTestInstance();
+    Trace trace = mock(Trace.class);
+    tasks.postProcess(event, device, trace);
+    verify(trace).mark("queueWait");
+    verify(trace).mark("publish");
+    verify(tracer).finish(trace);
+  }
+
+  @Test
+  public void testPostProcessCompletesTraceWithoutQueue() throws Exception {
+    setAddToEventQ(false);
+    Event event = EventData.newTestInstance();
+    Trace trace = mock(Trace.class);
+    tasks.postProcess(event, device, trace);
+    verify(trace, never()).mark(anyString());
+    verify(tracer).finish(trace);
+  }
+
+  @Test
+  public void testMetadataUpdatesMergedPerDevice() throws Exception {
+    List<Runnable> queued = new ArrayList<>();
+    setMetadataUpdateExecutor(queued::add);
+    Event event = EventData.newTestInstance();
+    tasks.postProcess(event, device);
+    tasks.postProcess(event, device);
+    assertEquals("Updates for a device not merged", 1, queued.size());
+    queued.remove(0).run();
+    verify(deviceClient).updateLastConnected(anyString(), anyLong());
+    tasks.postProcess(event, device);
+    assertEquals("Update after the merged one not queued", 1, queued.size());
+  }
+
+  @Test
+  public void testMetadataUpdateDroppedWhenFull() throws Exception {
+    setMetadataUpdateExecutor(task -> {
+      throw new RejectedExecutionException("test");
+    });
+    tasks.postProcess(EventData.newTestInstance(), device);
+    assertTrue("Dropped update not counted",
+        metrics.scrape().contains(ThreadTasks.METADATA_DROPPED_METRIC + " 1\n"));
+  }
+
+  private void setMetadataUpdateExecutor(TaskExecutor executor) throws Exception {
+    Field temp = tasks.getClass().getDeclaredField("metadataUpdateExecutor");
+    temp.setAccessible(true);
+    temp.set(tasks, executor);
+  }
+
   private void setUpdateDeviceLastReported(boolean newUpdDevLastRpt) throws Exception {
     Class<?> clazz = tasks.getClass();
     Field temp = clazz.getDeclaredField("updateDeviceLastReported");
@@ -25,12 +25,19 @@ import static org.edgexfoundry.test.data.ValueDescriptorData.newTestInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import org.edgexfoundry.cache.DeviceValueDescriptorCache;
+import org.edgexfoundry.cache.ReadingReferenceCounter;
+import org.edgexfoundry.cache.ValueDescriptorIndex;
 import org.edgexfoundry.controller.impl.ValueDescriptorControllerImpl;
 import org.edgexfoundry.dao.ReadingRepository;
 import org.edgexfoundry.dao.ValueDescriptorRepository;
@@ -44,9 +51,7 @@ import org.edgexfoundry.exception.controller.LimitExceededException;
 import org.edgexfoundry.exception.controller.NotFoundException;
 import org.edgexfoundry.exception.controller.ServiceException;
 import org.edgexfoundry.test.category.RequiresNone;
-import org.edgexfoundry.test.data.CommandData;
 import org.edgexfoundry.test.data.DeviceData;
-import org.edgexfoundry.test.data.ProfileData;
 import org.edgexfoundry.test.data.ReadingData;
 import org.edgexfoundry.test.data.ValueDescriptorData;
 import org.junit.Before;
@@ -55,8 +60,8 @@ import org.junit.experimental.categories.Category;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.dao.DuplicateKeyException;
-import org.springframework.data.mongodb.core.MongoTemplate;
 
 @Category(RequiresNone.class)
 public class ValueDescriptorTest {
@@ -83,7 +88,13 @@ public class ValueDescriptorTest {
   DeviceClient deviceClient;
 
   @Mock
-  MongoTemplate template;
+  ValueDescriptorIndex valDescIndex;
+
+  @Mock
+  ReadingReferenceCounter readingRefCounter;
+
+  @Spy
+  DeviceValueDescriptorCache deviceValDescCache = new DeviceValueDescriptorCache();
 
   private ValueDescriptor valueDescriptor;
 
@@ -185,9 +196,9 @@ public class ValueDescriptorTest {
 
   @Test
   public void testValueDescriptorByLabel() {
-    List<Object> valDes = new ArrayList<>();
+    List<ValueDescriptor> valDes = new ArrayList<>();
     valDes.add(valueDescriptor);
-    when(template.find(anyObject(), anyObject())).thenReturn(valDes);
+    when(valDescRepos.findByLabelsIn(TEST_LABELS[0])).thenReturn(valDes);
     List<ValueDescriptor> valueDescriptors = controller.valueDescriptorByLabel(TEST_LABELS[0]);
     assertEquals("Find by label not returning a list with one value descriptor", 1,
         valueDescriptors.size());
@@ -196,26 +207,37 @@ public class ValueDescriptorTest {
 
   @Test(expected = ServiceException.class)
   public void testValueDescriptorByLabelException() {
-    when(template.find(anyObject(), anyObject())).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    when(valDescRepos.findByLabelsIn(ValueDescriptorData.TEST_LABELS[0]))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.valueDescriptorByLabel(ValueDescriptorData.TEST_LABELS[0]);
   }
 
   @Test
   public void testValueDescriptorsForDeviceByName() {
-    Device device = DeviceData.newTestInstance();
-    DeviceProfile profile = ProfileData.newTestInstance();
-    Command command = CommandData.newTestInstance();
-    profile.addCommand(command);
-    device.setProfile(profile);
+    Device device = deviceReferencing(valueDescriptor.getName());
     List<ValueDescriptor> valDes = new ArrayList<>();
     valDes.add(valueDescriptor);
     when(deviceClient.deviceForName(DeviceData.TEST_NAME)).thenReturn(device);
-    when(valDescRepos.findByName(TEST_NAME)).thenReturn(valueDescriptor);
+    when(valDescRepos.findByNameIn(anyObject())).thenReturn(valDes);
     List<ValueDescriptor> valueDescriptors =
         controller.valueDescriptorsForDeviceByName(DeviceData.TEST_NAME);
     checkTestData(valueDescriptors.get(0), TEST_ID);
   }
 
+  @Test
+  public void testValueDescriptorsForDeviceMissingDescriptor() {
+    Device device = deviceReferencing(valueDescriptor.getName(), "missing");
+    List<ValueDescriptor> valDes = new ArrayList<>();
+    valDes.add(valueDescriptor);
+    when(deviceClient.deviceForName(DeviceData.TEST_NAME)).thenReturn(device);
+    when(valDescRepos.findByNameIn(anyObject())).thenReturn(valDes);
+    List<ValueDescriptor> valueDescriptors =
+        controller.valueDescriptorsForDeviceByName(DeviceData.TEST_NAME);
+    assertEquals("Not one entry per name", 2, valueDescriptors.size());
+    assertTrue("Found value descriptor not returned", valueDescriptors.contains(valueDescriptor));
+    assertTrue("Missing value descriptor not returned as null", valueDescriptors.contains(null));
+  }
+
   @Test(expected = NotFoundException.class)
   public void testValueDescriptorsForDeviceByNameNotFound() {
     when(deviceClient.deviceForName(DeviceData.TEST_NAME))
@@ -232,15 +254,11 @@ public class ValueDescriptorTest {
 
   @Test
   public void testValueDescriptorsForDeviceById() {
-    Device device = DeviceData.newTestInstance();
-    DeviceProfile profile = ProfileData.newTestInstance();
-    Command command = CommandData.newTestInstance();
-    profile.addCommand(command);
-    device.setProfile(profile);
+    Device device = deviceReferencing(valueDescriptor.getName());
     List<ValueDescriptor> valDes = new ArrayList<>();
     valDes.add(valueDescriptor);
     when(deviceClient.device(TEST_ID)).thenReturn(device);
-    when(valDescRepos.findByName(TEST_NAME)).thenReturn(valueDescriptor);
+    when(valDescRepos.findByNameIn(anyObject())).thenReturn(valDes);
     List<ValueDescriptor> valueDescriptors = controller.valueDescriptorsForDeviceById(TEST_ID);
     checkTestData(valueDescriptors.get(0), TEST_ID);
   }
@@ -331,10 +349,8 @@ public class ValueDescriptorTest {
   @Test(expected = DataValidationException.class)
   public void testUpdateByIdChangeNameReferencedByReadings() throws Exception {
     setControllerFormatSpecifier(ValueDescriptorData.TEST_FORMATTING);
-    List<Reading> readings = new ArrayList<>();
     Reading reading = ReadingData.newTestInstance();
-    readings.add(reading);
-    when(readingRepos.findByName(valueDescriptor.getName())).thenReturn(readings);
+    when(readingRepos.findFirstByName(valueDescriptor.getName())).thenReturn(reading);
     when(valDescRepos.findOne(TEST_ID)).thenReturn(valueDescriptor);
     controller.update(valueDescriptor);
   }
@@ -353,10 +369,15 @@ public class ValueDescriptorTest {
 
   @Test(expected = DataValidationException.class)
   public void testDeleteWithAssociatedReadings() {
-    List<Reading> readings = new ArrayList<>();
     Reading reading = ReadingData.newTestInstance();
-    readings.add(reading);
-    when(readingRepos.findByName(valueDescriptor.getName())).thenReturn(readings);
+    when(readingRepos.findFirstByName(valueDescriptor.getName())).thenReturn(reading);
+    when(valDescRepos.findOne(TEST_ID)).thenReturn(valueDescriptor);
+    controller.delete(TEST_ID);
+  }
+
+  @Test(expected = DataValidationException.class)
+  public void testDeleteWithCountedReadings() {
+    when(readingRefCounter.isReferenced(valueDescriptor.getName())).thenReturn(true);
     when(valDescRepos.findOne(TEST_ID)).thenReturn(valueDescriptor);
     controller.delete(TEST_ID);
   }
@@ -382,10 +403,8 @@ public class ValueDescriptorTest {
 
   @Test(expected = DataValidationException.class)
   public void testDeleteByNameWithAssociatedReadings() {
-    List<Reading> readings = new ArrayList<>();
     Reading reading = ReadingData.newTestInstance();
-    readings.add(reading);
-    when(readingRepos.findByName(valueDescriptor.getName())).thenReturn(readings);
+    when(readingRepos.findFirstByName(valueDescriptor.getName())).thenReturn(reading);
     when(valDescRepos.findByName(TEST_NAME)).thenReturn(valueDescriptor);
     controller.deleteByName(TEST_NAME);
   }
@@ -396,6 +415,17 @@ public class ValueDescriptorTest {
     controller.deleteByName(TEST_NAME);
   }
 
+  // a device whose profile has one command referencing the value descriptor names given
+  private Device deviceReferencing(String... names) {
+    Command command = mock(Command.class);
+    doReturn(Arrays.asList(names)).when(command).associatedValueDescriptors();
+    DeviceProfile profile = mock(DeviceProfile.class);
+    when(profile.getCommands()).thenReturn(Collections.singletonList(command));
+    Device device = DeviceData.newTestInstance();
+    device.setProfile(profile);
+    return device;
+  }
+
   private void setControllerMAXLIMIT(int newLimit) throws Exception {
     Class<?> controllerClass = controller.getClass();
     Field temp = controllerClass.getDeclaredField(LIMIT_PROPERTY);
@@ -33,6 +33,7 @@ import java.util.List;
 import org.edgexfoundry.Application;
 import org.edgexfoundry.controller.impl.EventControllerImpl;
 import org.edgexfoundry.dao.EventRepository;
+import org.edgexfoundry.dao.QueryDao;
 import org.edgexfoundry.dao.ReadingRepository;
 import org.edgexfoundry.dao.ScrubDao;
 import org.edgexfoundry.dao.ValueDescriptorRepository;
@@ -58,7 +59,6 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.SpringApplicationConfiguration;
-import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 
@@ -84,7 +84,7 @@ public class EventControllerTest {
   ValueDescriptorRepository valDescRepos;
 
   @Autowired
-  MongoTemplate template;
+  QueryDao queryDao;
 
   @Autowired
   ScrubDao scrubDao;
@@ -118,6 +118,7 @@ public class EventControllerTest {
   public void cleanup() throws Exception {
     resetControllerScrubberDao();
     resetControllerRepos();
+    resetControllerQueryDao();
     resetControllerMAXLIMIT();
     repos.deleteAll();
     readingRepos.deleteAll();
@@ -191,7 +192,7 @@ public class EventControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testEventsByDeviceException() throws Exception {
-    unsetControllerRepos();
+    unsetControllerQueryDao();
     controller.eventsForDevice(TEST_DEVICE_ID, 10);
   }
 
@@ -224,7 +225,7 @@ public class EventControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testEventsByTimeException() throws Exception {
-    unsetControllerRepos();
+    unsetControllerQueryDao();
     long now = new Date().getTime();
     // between yesterday and tomorrow
     controller.events(now - 86400000, now + 86400000, 10);
@@ -434,6 +435,22 @@ public class EventControllerTest {
     temp.set(controller, repos);
   }
 
+  // use Java reflection to unset controller's query dao
+  private void unsetControllerQueryDao() throws Exception {
+    Class<?> controllerClass = controller.getClass();
+    Field temp = controllerClass.getDeclaredField("queryDao");
+    temp.setAccessible(true);
+    temp.set(controller, null);
+  }
+
+  // use Java reflection to reset controller's query dao
+  private void resetControllerQueryDao() throws Exception {
+    Class<?> controllerClass = controller.getClass();
+    Field temp = controllerClass.getDeclaredField("queryDao");
+    temp.setAccessible(true);
+    temp.set(controller, queryDao);
+  }
+
   // use Java reflection to unset controller's tempalte
   private void unsetControllerMaxLimit() throws Exception {
     Class<?> controllerClass = controller.getClass();
@@ -37,6 +37,7 @@ import java.util.List;
 import org.edgexfoundry.Application;
 import org.edgexfoundry.controller.impl.ReadingControllerImpl;
 import org.edgexfoundry.dao.EventRepository;
+import org.edgexfoundry.dao.QueryDao;
 import org.edgexfoundry.dao.ReadingRepository;
 import org.edgexfoundry.dao.ValueDescriptorRepository;
 import org.edgexfoundry.domain.common.ValueDescriptor;
@@ -59,9 +60,9 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.SpringApplicationConfiguration;
-import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.AopTestUtils;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @SpringApplicationConfiguration(classes = Application.class)
@@ -84,7 +85,7 @@ public class ReadingControllerTest {
   EventRepository eventRepos;
 
   @Autowired
-  MongoTemplate template;
+  QueryDao queryDao;
 
   private String testReadingId;
 
@@ -104,9 +105,8 @@ public class ReadingControllerTest {
 
   @After
   public void cleanup() throws Exception {
-    resetControllerEventRepos();
     resetControllerRepos();
-    resetControllerMongoTemplate();
+    resetControllerQueryDao();
     resetControllerMaxLimit();
     repos.deleteAll();
     valDescRepos.deleteAll();
@@ -174,7 +174,7 @@ public class ReadingControllerTest {
     event.setReadings(repos.findAll());
     eventRepos.save(event);
 
-    unsetControllerEventRepos();
+    unsetControllerQueryDao();
     controller.readings(EventData.TEST_DEVICE_ID, 10);
 
   }
@@ -197,7 +197,7 @@ public class ReadingControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testReadingsByNameException() throws Exception {
-    unsetControllerRepos();
+    unsetControllerQueryDao();
     controller.readingsByName(ReadingData.TEST_NAME, 10);
   }
 
@@ -218,7 +218,7 @@ public class ReadingControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testReadingsByNameAndDeviceException() throws Exception {
-    unsetControllerRepos();
+    unsetControllerQueryDao();
     controller.readingsByNameAndDevice(ReadingData.TEST_NAME, EventData.TEST_DEVICE_ID, 10);
   }
 
@@ -244,7 +244,7 @@ public class ReadingControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testReadingsByUomLabelException() throws Exception {
-    unsetControllerMongoTemplate();
+    unsetControllerQueryDao();
     controller.readingsByUomLabel(TEST_UOMLABEL, 10);
   }
 
@@ -270,7 +270,7 @@ public class ReadingControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testReadingsByLabelException() throws Exception {
-    unsetControllerMongoTemplate();
+    unsetControllerQueryDao();
     controller.readingsByLabel(TEST_LABELS[0], 10);
   }
 
@@ -296,7 +296,7 @@ public class ReadingControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testReadingsByTypeException() throws Exception {
-    unsetControllerMongoTemplate();
+    unsetControllerQueryDao();
     controller.readingsByType(TEST_TYPE.toString(), 10);
   }
 
@@ -328,7 +328,7 @@ public class ReadingControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testReadingsByTimeException() throws Exception {
-    unsetControllerRepos();
+    unsetControllerQueryDao();
     long now = new Date().getTime();
     controller.readings(now - 86400000, now + 86400000, 10);
   }
@@ -421,66 +421,56 @@ public class ReadingControllerTest {
 
   // use Java reflection to unset controller's repos
   private void unsetControllerRepos() throws Exception {
-    Class<?> controllerClass = controller.getClass();
+    Object target = AopTestUtils.getTargetObject(controller);
+    Class<?> controllerClass = target.getClass();
     Field temp = controllerClass.getDeclaredField("readingRepos");
     temp.setAccessible(true);
-    temp.set(controller, null);
+    temp.set(target, null);
   }
 
   // use Java reflection to reset controller's repos
   private void resetControllerRepos() throws Exception {
-    Class<?> controllerClass = controller.getClass();
+    Object target = AopTestUtils.getTargetObject(controller);
+    Class<?> controllerClass = target.getClass();
     Field temp = controllerClass.getDeclaredField("readingRepos");
     temp.setAccessible(true);
-    temp.set(controller, repos);
+    temp.set(target, repos);
   }
 
-  // use Java reflection to unset controller's repos
-  private void unsetControllerEventRepos() throws Exception {
-    Class<?> controllerClass = controller.getClass();
-    Field temp = controllerClass.getDeclaredField("eventRepos");
+  // use Java reflection to unset controller's query dao
+  private void unsetControllerQueryDao() throws Exception {
+    Object target = AopTestUtils.getTargetObject(controller);
+    Class<?> controllerClass = target.getClass();
+    Field temp = controllerClass.getDeclaredField("queryDao");
     temp.setAccessible(true);
-    temp.set(controller, null);
+    temp.set(target, null);
   }
 
-  // use Java reflection to reset controller's repos
-  private void resetControllerEventRepos() throws Exception {
-    Class<?> controllerClass = controller.getClass();
-    Field temp = controllerClass.getDeclaredField("eventRepos");
-    temp.setAccessible(true);
-    temp.set(controller, eventRepos);
-  }
-
-  // use Java reflection to unset controller's tempalte
-  private void unsetControllerMongoTemplate() throws Exception {
-    Class<?> controllerClass = controller.getClass();
-    Field temp = controllerClass.getDeclaredField("template");
-    temp.setAccessible(true);
-    temp.set(controller, null);
-  }
-
-  // use Java reflection to reset controller's template
-  private void resetControllerMongoTemplate() throws Exception {
-    Class<?> controllerClass = controller.getClass();
-    Field temp = controllerClass.getDeclaredField("template");
+  // use Java reflection to reset controller's query dao
+  private void resetControllerQueryDao() throws Exception {
+    Object target = AopTestUtils.getTargetObject(controller);
+    Class<?> controllerClass = target.getClass();
+    Field temp = controllerClass.getDeclaredField("queryDao");
     temp.setAccessible(true);
-    temp.set(controller, template);
+    temp.set(target, queryDao);
   }
 
   // use Java reflection to unset controller's tempalte
   private void unsetControllerMaxLimit() throws Exception {
-    Class<?> controllerClass = controller.getClass();
+    Object target = AopTestUtils.getTargetObject(controller);
+    Class<?> controllerClass = target.getClass();
     Field temp = controllerClass.getDeclaredField(MAX_LIMIT);
     temp.setAccessible(true);
-    temp.set(controller, 0);
+    temp.set(target, 0);
   }
 
   // use Java reflection to reset controller's template
   private void resetControllerMaxLimit() throws Exception {
-    Class<?> controllerClass = controller.getClass();
+    Object target = AopTestUtils.getTargetObject(controller);
+    Class<?> controllerClass = target.getClass();
     Field temp = controllerClass.getDeclaredField(MAX_LIMIT);
     temp.setAccessible(true);
-    temp.set(controller, 1000);
+    temp.set(target, 1000);
   }
 
 }
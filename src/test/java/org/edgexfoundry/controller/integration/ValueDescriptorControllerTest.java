@@ -61,7 +61,6 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.SpringApplicationConfiguration;
-import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 
@@ -86,9 +85,6 @@ public class ValueDescriptorControllerTest {
   @Autowired
   ReadingRepository readingRepos;
 
-  @Autowired
-  MongoTemplate template;
-
   private String testValDescId;
 
   @Before
@@ -103,7 +99,6 @@ public class ValueDescriptorControllerTest {
   @After
   public void cleanup() throws Exception {
     resetControllerRepos();
-    resetControllerMongoTemplate();
     resetControllerMaxLimit();
     repos.deleteAll();
     readingRepos.deleteAll();
@@ -201,7 +196,7 @@ public class ValueDescriptorControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testValueDescriptorByLabelException() throws Exception {
-    unsetControllerMongoTemplate();
+    unsetControllerRepos();
     controller.valueDescriptorByLabel(TEST_LABELS[0]);
   }
 
@@ -420,22 +415,6 @@ public class ValueDescriptorControllerTest {
     temp.set(controller, repos);
   }
 
-  // use Java reflection to unset controller's tempalte
-  private void unsetControllerMongoTemplate() throws Exception {
-    Class<?> controllerClass = controller.getClass();
-    Field temp = controllerClass.getDeclaredField("template");
-    temp.setAccessible(true);
-    temp.set(controller, null);
-  }
-
-  // use Java reflection to reset controller's template
-  private void resetControllerMongoTemplate() throws Exception {
-    Class<?> controllerClass = controller.getClass();
-    Field temp = controllerClass.getDeclaredField("template");
-    temp.setAccessible(true);
-    temp.set(controller, template);
-  }
-
   // use Java reflection to unset controller's tempalte
   private void unsetControllerMaxLimit() throws Exception {
     Class<?> controllerClass = controller.getClass();
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import static org.edgexfoundry.test.data.SampleData.TEST_DEVICE;
+import static org.edgexfoundry.test.data.SampleData.TEST_NAME;
+import static org.edgexfoundry.test.data.SampleData.TEST_VALUE;
+import static org.edgexfoundry.test.data.SampleData.newReading;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.edgexfoundry.domain.core.Reading;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Category(RequiresNone.class)
+public class EmbeddedCollectionTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final ObjectMapper mapper =
+      new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private Path file;
+
+  private AppendLog<Reading> log;
+
+  private EmbeddedCollection<Reading> readings;
+
+  @Before
+  public void setup() throws IOException {
+    file = folder.getRoot().toPath().resolve("reading.log");
+    readings = open();
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    readings.close();
+  }
+
+  @Test
+  public void testSave() {
+    Reading reading = readings.save(newReading(TEST_DEVICE, TEST_NAME, 0));
+    assertNotNull("Saved reading has no id", reading.getId());
+    assertEquals("Created timestamp not set", reading.getModified(), reading.getCreated());
+    assertEquals("Saved reading not found", reading.getId(),
+        readings.get(reading.getId()).getId());
+    assertEquals("Count not as expected", 1, readings.count());
+  }
+
+  @Test
+  public void testCopiesHeld() {
+    Reading reading = readings.save(newReading(TEST_DEVICE, TEST_NAME, 1));
+    reading.setValue("80");
+    assertEquals("Saved reading changed without saving", TEST_VALUE,
+        readings.get(reading.getId()).getValue());
+    readings.get(reading.getId()).setValue("80");
+    assertEquals("Read reading changed without saving", "72",
+        readings.newest(r -> true, 1).get(0).getValue());
+  }
+
+  @Test
+  public void testNewest() {
+    for (int i = 1; i <= 5; i++)
+      readings.save(newReading(TEST_DEVICE, TEST_NAME, i));
+    List<Reading> newest = readings.newest(r -> TEST_NAME.equals(r.getName()), 3);
+    assertEquals("Limit not applied", 3, newest.size());
+    assertEquals("Readings not newest first", 5, newest.get(0).getCreated());
+    assertEquals("Readings not newest first", 3, newest.get(2).getCreated());
+  }
+
+  @Test
+  public void testCreatedBetween() {
+    for (int i = 1; i <= 5; i++)
+      readings.save(newReading(TEST_DEVICE, TEST_NAME, i));
+    List<Reading> between = readings.createdBetween(1, 5, r -> true, 10);
+    assertEquals("Range not exclusive", 3, between.size());
+    assertEquals("Readings not newest first", 4, between.get(0).getCreated());
+    assertEquals("Empty range not empty", 0, readings.createdBetween(3, 4, r -> true, 10).size());
+  }
+
+  @Test
+  public void testDeleteCreatedBefore() {
+    for (int i = 1; i <= 5; i++)
+      readings.save(newReading(TEST_DEVICE, TEST_NAME, i));
+    assertEquals("Deleted count not as expected", 2, readings.deleteCreatedBefore(3).size());
+    assertEquals("Count not as expected", 3, readings.count());
+  }
+
+  @Test
+  public void testReopen() throws IOException {
+    Reading kept = readings.save(newReading(TEST_DEVICE, TEST_NAME, 1));
+    Reading deleted = readings.save(newReading(TEST_DEVICE, TEST_NAME, 2));
+    readings.delete(deleted.getId());
+    readings.close();
+    readings = open();
+    assertEquals("Count not as expected after reopening", 1, readings.count());
+    assertEquals("Reading not replayed", TEST_DEVICE, readings.get(kept.getId()).getDevice());
+    assertNull("Deleted reading replayed", readings.get(deleted.getId()));
+  }
+
+  @Test
+  public void testReopenCutsOffTornLine() throws IOException {
+    Reading kept = readings.save(newReading(TEST_DEVICE, TEST_NAME, 1));
+    readings.close();
+    Files.write(file, "P{\"name\":\"tem".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+    readings = open();
+    assertEquals("Torn line not dropped", 1, readings.count());
+    Reading added = readings.save(newReading(TEST_DEVICE, TEST_NAME, 2));
+    readings.close();
+    readings = open();
+    assertNotNull("Reading lost after reopening", readings.get(kept.getId()));
+    assertNotNull("Reading appended after torn line lost", readings.get(added.getId()));
+  }
+
+  @Test
+  public void testCompaction() throws Exception {
+    Reading reading = readings.save(newReading(TEST_DEVICE, TEST_NAME, 1));
+    Reading deleted = readings.save(newReading(TEST_DEVICE, TEST_NAME, 2));
+    readings.delete(deleted.getId());
+    // enough changes to pass the minimum length and the ratio of lines per document
+    for (int i = 0; i < 1000; i++) {
+      reading.setValue(String.valueOf(i));
+      readings.save(reading);
+    }
+    log.awaitCompaction();
+    assertTrue("Log not compacted", Files.readAllLines(file).size() < 1000);
+    readings.close();
+    readings = open();
+    assertEquals("Count not as expected after compaction", 1, readings.count());
+    assertEquals("Latest change lost by compaction", "999",
+        readings.get(reading.getId()).getValue());
+  }
+
+  private EmbeddedCollection<Reading> open() throws IOException {
+    log = new AppendLog<>(file, Reading.class, mapper, false, 3);
+    EmbeddedCollection<Reading> collection = new EmbeddedCollection<>(log);
+    collection.open();
+    return collection;
+  }
+
+}
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.embedded;
+
+import static org.edgexfoundry.test.data.SampleData.TEST_DEVICE;
+import static org.edgexfoundry.test.data.SampleData.TEST_NAME;
+import static org.edgexfoundry.test.data.SampleData.TEST_OTHER_DEVICE;
+import static org.edgexfoundry.test.data.SampleData.newEvent;
+import static org.edgexfoundry.test.data.SampleData.newReading;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+@Category(RequiresNone.class)
+public class SegmentStoreTest {
+
+  private static final long PARTITION = 1000;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private SegmentStore store;
+
+  @Before
+  public void setup() throws Exception {
+    store = open(4096);
+  }
+
+  @After
+  public void cleanup() {
+    store.close();
+  }
+
+  @Test
+  public void testSave() {
+    Reading reading = store.saveReading(newReading(TEST_DEVICE, TEST_NAME, 0));
+    assertNotNull("Saved reading has no id", reading.getId());
+    assertEquals("Created timestamp not set", reading.getModified(), reading.getCreated());
+    assertEquals("Saved reading not found", TEST_DEVICE,
+        store.reading(reading.getId()).getDevice());
+    assertEquals("Count not as expected", 1, store.readingCount());
+  }
+
+  @Test
+  public void testUpdate() {
+    Reading reading = store.saveReading(newReading(TEST_DEVICE, TEST_NAME, 1500));
+    reading.setValue("80");
+    store.saveReading(reading);
+    assertEquals("Count not as expected", 1, store.readingCount());
+    assertEquals("Update not found", "80", store.reading(reading.getId()).getValue());
+    List<Reading> found = store.readings(Segment::readings, Long.MIN_VALUE, Long.MAX_VALUE, 0);
+    assertEquals("Superseded version returned", 1, found.size());
+  }
+
+  @Test
+  public void testReadingsOf() {
+    for (int i = 1; i <= 5; i++) {
+      store.saveReading(newReading(TEST_DEVICE, TEST_NAME, i * 700));
+      store.saveReading(newReading(TEST_OTHER_DEVICE, TEST_NAME, i * 700 + 1));
+    }
+    List<Reading> newest = store.readings(segment -> segment.readingsOf(TEST_DEVICE, TEST_NAME),
+        Long.MIN_VALUE, Long.MAX_VALUE, 3);
+    assertEquals("Limit not applied", 3, newest.size());
+    assertEquals("Readings not newest first", 3500, newest.get(0).getCreated());
+    assertEquals("Readings not newest first", 2100, newest.get(2).getCreated());
+    assertEquals("Readings of other device returned", TEST_DEVICE, newest.get(1).getDevice());
+  }
+
+  @Test
+  public void testLatestReadings() {
+    for (int i = 1; i <= 5; i++)
+      store.saveReading(newReading(TEST_DEVICE, TEST_NAME, i * 700));
+    Reading deleted = store.saveReading(newReading(TEST_OTHER_DEVICE, TEST_NAME, 3000));
+    store.saveReading(newReading(TEST_OTHER_DEVICE, TEST_NAME, 1200));
+    store.deleteReading(deleted.getId());
+    List<Reading> latest = store.latestReadings();
+    latest.sort(Comparator.comparing(Reading::getDevice));
+    assertEquals("Not one reading per device and name", 2, latest.size());
+    assertEquals("Deleted reading returned", 1200, latest.get(0).getCreated());
+    assertEquals("Newest reading not returned", 3500, latest.get(1).getCreated());
+  }
+
+  @Test
+  public void testCreatedBetween() {
+    for (int i = 1; i <= 5; i++)
+      store.saveReading(newReading(TEST_DEVICE, TEST_NAME, i * 700));
+    List<Reading> between = store.readings(Segment::readings, 700, 3500, 10);
+    assertEquals("Range not exclusive", 3, between.size());
+    assertEquals("Readings not newest first", 2800, between.get(0).getCreated());
+  }
+
+  @Test
+  public void testEventCount() {
+    store.saveEvent(newEvent(TEST_DEVICE, 500));
+    store.saveEvent(newEvent(TEST_DEVICE, 1500));
+    Event other = store.saveEvent(newEvent(TEST_OTHER_DEVICE, 1500));
+    store.deleteEvent(other.getId());
+    assertEquals("Device count not as expected", 2, store.eventCount(TEST_DEVICE));
+    assertEquals("Deleted event counted", 0, store.eventCount(TEST_OTHER_DEVICE));
+  }
+
+  @Test
+  public void testEventReadingsRelinked() {
+    Reading reading = store.saveReading(newReading(TEST_DEVICE, TEST_NAME, 1500));
+    Event event = newEvent(TEST_DEVICE, 1500);
+    event.setReadings(Arrays.asList(reading));
+    store.saveEvent(event);
+    reading.setValue("80");
+    store.saveReading(reading);
+    assertEquals("Event does not show current reading", "80",
+        store.event(event.getId()).getReadings().get(0).getValue());
+  }
+
+  @Test
+  public void testSegmentRollover() throws Exception {
+    store.close();
+    store = open(512);
+    for (int i = 0; i < 50; i++)
+      store.saveReading(newReading(TEST_DEVICE, TEST_NAME, 1500 + i));
+    assertEquals("Readings lost across segments", 50, store
+        .readings(segment -> segment.readingsNamed(TEST_NAME), 0, Long.MAX_VALUE, 0).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDocumentTooLarge() throws Exception {
+    store.close();
+    store = open(64);
+    store.saveReading(newReading(TEST_DEVICE, TEST_NAME, 1500));
+  }
+
+  @Test
+  public void testReopen() throws Exception {
+    Reading kept = store.saveReading(newReading(TEST_DEVICE, TEST_NAME, 1500));
+    Reading deleted = store.saveReading(newReading(TEST_DEVICE, TEST_NAME, 1600));
+    store.deleteReading(deleted.getId());
+    kept.setValue("80");
+    store.saveReading(kept);
+    store.close();
+    store = open(4096);
+    assertEquals("Count not as expected after reopening", 1, store.readingCount());
+    assertEquals("Latest version not replayed", "80", store.reading(kept.getId()).getValue());
+    assertNull("Deleted reading replayed", store.reading(deleted.getId()));
+    assertEquals("Index not rebuilt", 1,
+        store.readings(segment -> segment.readingsOf(TEST_DEVICE, TEST_NAME), Long.MIN_VALUE,
+            Long.MAX_VALUE, 0).size());
+  }
+
+  @Test
+  public void testTornRecordIgnored() throws Exception {
+    Reading kept = store.saveReading(newReading(TEST_DEVICE, TEST_NAME, 1500));
+    Reading torn = store.saveReading(newReading(TEST_DEVICE, TEST_NAME, 1600));
+    store.close();
+    // corrupt the payload of the second record, as if torn by a crash
+    try (RandomAccessFile file = new RandomAccessFile(
+        folder.getRoot().toPath().resolve(Segment.fileName(PARTITION, 0)).toFile(), "rw")) {
+      file.seek(10 + file.readInt() + 10 + 1);
+      file.write('x');
+    }
+    store = open(4096);
+    assertEquals("Torn record replayed", 1, store.readingCount());
+    assertNull("Torn record replayed", store.reading(torn.getId()));
+    Reading appended = store.saveReading(newReading(TEST_DEVICE, TEST_NAME, 1700));
+    store.close();
+    store = open(4096);
+    assertNotNull("Record before torn record lost", store.reading(kept.getId()));
+    assertNotNull("Append after torn record lost", store.reading(appended.getId()));
+  }
+
+  @Test
+  public void testDropBefore() {
+    store.saveEvent(newEvent(TEST_DEVICE, 500));
+    store.saveReading(newReading(TEST_DEVICE, TEST_NAME, 900));
+    store.saveEvent(newEvent(TEST_DEVICE, 1500));
+    assertEquals("Partially old partition dropped", 1, store.dropBefore(1500));
+    assertEquals("Event count not as expected", 1, store.eventCount());
+    assertEquals("Readings of dropped partition kept", 0, store.readingCount());
+  }
+
+  @Test
+  public void testDropBeforeKeepsPartitionOfTime() {
+    Event old = store.saveEvent(newEvent(TEST_DEVICE, 1100));
+    store.saveEvent(newEvent(TEST_DEVICE, 1900));
+    // retention is by whole partition, so the older event stays with the newer one
+    assertEquals("Partition holding the time dropped", 0, store.dropBefore(1500));
+    assertNotNull("Older event of partition holding the time dropped", store.event(old.getId()));
+    assertEquals("Partition past the time kept", 2, store.dropBefore(2000));
+    assertEquals("Event count not as expected", 0, store.eventCount());
+  }
+
+  @Test
+  public void testDropPushed() throws Exception {
+    Event pushed = newEvent(TEST_DEVICE, 500);
+    pushed.markPushed(600);
+    store.saveEvent(pushed);
+    store.saveEvent(newEvent(TEST_DEVICE, 1500));
+    assertEquals("Pushed partition not dropped", 1, store.dropPushed());
+    assertNull("Pushed event kept", store.event(pushed.getId()));
+    store.close();
+    store = open(4096);
+    assertEquals("Dropped partition replayed", 1, store.eventCount());
+  }
+
+  private SegmentStore open(int segmentSize) throws Exception {
+    SegmentStore segmentStore = new SegmentStore();
+    setField(segmentStore, "dir", folder.getRoot().getPath());
+    setField(segmentStore, "partitionMillis", PARTITION);
+    setField(segmentStore, "segmentSize", segmentSize);
+    segmentStore.open();
+    return segmentStore;
+  }
+
+  private void setField(SegmentStore segmentStore, String name, Object value) throws Exception {
+    Field field = SegmentStore.class.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(segmentStore, value);
+  }
+
+}
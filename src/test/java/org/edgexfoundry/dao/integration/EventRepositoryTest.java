@@ -30,7 +30,7 @@ import java.util.Date;
 import java.util.List;
 
 import org.edgexfoundry.Application;
-import org.edgexfoundry.dao.EventRepository;
+import org.edgexfoundry.dao.mongo.MongoEventRepository;
 import org.edgexfoundry.domain.core.Event;
 import org.edgexfoundry.test.category.RequiresMongoDB;
 import org.edgexfoundry.test.category.RequiresSpring;
@@ -52,7 +52,7 @@ import org.springframework.test.context.web.WebAppConfiguration;
 public class EventRepositoryTest {
 
   @Autowired
-  private EventRepository eventRepos;
+  private MongoEventRepository eventRepos;
   private String testEventId;
 
   /**
@@ -32,7 +32,7 @@ import java.util.Date;
 import java.util.List;
 
 import org.edgexfoundry.Application;
-import org.edgexfoundry.dao.ReadingRepository;
+import org.edgexfoundry.dao.mongo.MongoReadingRepository;
 import org.edgexfoundry.domain.core.Reading;
 import org.edgexfoundry.test.category.RequiresMongoDB;
 import org.edgexfoundry.test.category.RequiresSpring;
@@ -55,7 +55,7 @@ import org.springframework.test.context.web.WebAppConfiguration;
 public class ReadingRepositoryTest {
 
   @Autowired
-  private ReadingRepository readingRepos;
+  private MongoReadingRepository readingRepos;
   private String testReadingId;
 
   /**
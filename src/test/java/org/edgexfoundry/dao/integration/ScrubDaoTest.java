@@ -50,6 +50,7 @@ import org.springframework.boot.test.SpringApplicationConfiguration;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.AopTestUtils;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @SpringApplicationConfiguration(classes = Application.class)
@@ -96,10 +97,11 @@ public class ScrubDaoTest {
   // use Java reflection to inject the template into the dao since Autowiring
   // isn't handled by Spring in the test
   private void injectDAOwithTemplate() throws Exception {
-    Class<?> daoClass = dao.getClass();
+    Object target = AopTestUtils.getTargetObject(dao);
+    Class<?> daoClass = target.getClass();
     Field temp = daoClass.getDeclaredField("template");
     temp.setAccessible(true);
-    temp.set(dao, template);
+    temp.set(target, template);
   }
 
   @After
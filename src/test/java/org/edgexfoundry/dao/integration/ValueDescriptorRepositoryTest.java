@@ -38,7 +38,7 @@ import static org.junit.Assert.assertTrue;
 import java.util.List;
 
 import org.edgexfoundry.Application;
-import org.edgexfoundry.dao.ValueDescriptorRepository;
+import org.edgexfoundry.dao.mongo.MongoValueDescriptorRepository;
 import org.edgexfoundry.domain.common.IoTType;
 import org.edgexfoundry.domain.common.ValueDescriptor;
 import org.edgexfoundry.test.category.RequiresMongoDB;
@@ -62,7 +62,7 @@ import org.springframework.test.context.web.WebAppConfiguration;
 public class ValueDescriptorRepositoryTest {
 
   @Autowired
-  private ValueDescriptorRepository valDescRepos;
+  private MongoValueDescriptorRepository valDescRepos;
   private String testValDescId;
 
   /**
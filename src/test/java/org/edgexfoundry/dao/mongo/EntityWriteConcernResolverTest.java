@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao.mongo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.edgexfoundry.domain.common.ValueDescriptor;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.data.mongodb.core.MongoAction;
+import org.springframework.data.mongodb.core.MongoActionOperation;
+
+import com.mongodb.WriteConcern;
+
+@Category(RequiresNone.class)
+public class EntityWriteConcernResolverTest {
+
+  private EntityWriteConcernResolver resolver;
+
+  @Before
+  public void setup() {
+    resolver = new EntityWriteConcernResolver().with(Reading.class, WriteConcern.UNACKNOWLEDGED)
+        .with(ValueDescriptor.class, WriteConcern.JOURNALED).with(Event.class, null);
+  }
+
+  @Test
+  public void testResolveByEntity() {
+    assertEquals("Reading write concern not as configured", WriteConcern.UNACKNOWLEDGED,
+        resolver.resolve(action(Reading.class)));
+    assertEquals("Value descriptor write concern not as configured", WriteConcern.JOURNALED,
+        resolver.resolve(action(ValueDescriptor.class)));
+  }
+
+  @Test
+  public void testResolveDefault() {
+    assertEquals("Unconfigured entity should use the default", WriteConcern.ACKNOWLEDGED,
+        resolver.resolve(action(Event.class)));
+    assertEquals("Unknown entity should use the default", WriteConcern.ACKNOWLEDGED,
+        resolver.resolve(action(null)));
+  }
+
+  @Test
+  public void testParse() {
+    assertEquals("Write concern not parsed", WriteConcern.MAJORITY,
+        EntityWriteConcernResolver.parse("majority"));
+    assertNull("Empty write concern should be null", EntityWriteConcernResolver.parse(""));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseUnknown() {
+    EntityWriteConcernResolver.parse("unknown");
+  }
+
+  private MongoAction action(Class<?> entityType) {
+    return new MongoAction(WriteConcern.ACKNOWLEDGED, MongoActionOperation.SAVE, "test",
+        entityType, null, null);
+  }
+
+}
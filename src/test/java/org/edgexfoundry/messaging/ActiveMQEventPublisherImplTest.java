@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.jms.BytesMessage;
+import javax.jms.ObjectMessage;
+import javax.jms.Session;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.messaging.impl.ActiveMQEventPublisherImpl;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessageCreator;
+
+@Category(RequiresNone.class)
+public class ActiveMQEventPublisherImplTest {
+
+  private static final String TEST_DEVICE = "thermostat";
+
+  private static final String TEST_ID = "123";
+
+  private ActiveMQEventPublisherImpl publisher;
+
+  private JmsTemplate template;
+
+  private Session session;
+
+  private BytesMessage bytesMessage;
+
+  private Event event;
+
+  @Before
+  public void setup() throws Exception {
+    template = mock(JmsTemplate.class);
+    session = mock(Session.class);
+    bytesMessage = mock(BytesMessage.class);
+    when(session.createBytesMessage()).thenReturn(bytesMessage);
+    publisher = new ActiveMQEventPublisherImpl();
+    publisher.setTemplate(template);
+    event = new Event(TEST_DEVICE, null);
+    event.setId(TEST_ID);
+  }
+
+  @Test
+  public void testConfirmsDelivery() {
+    assertFalse("Async template confirms delivery", publisher.confirmsDelivery());
+    publisher.setSynchronousSend(true);
+    assertTrue("Synchronous template does not confirm delivery", publisher.confirmsDelivery());
+    publisher.setBatchSize(10);
+    assertFalse("Batched events confirmed", publisher.confirmsDelivery());
+  }
+
+  @Test
+  public void testSendBytesMessage() throws Exception {
+    publisher.sendEventMessage(event);
+    createSentMessage();
+    ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+    verify(bytesMessage).writeBytes(payload.capture());
+    assertEquals("Event not sent encoded", TEST_ID,
+        new JsonEventCodec().decode(payload.getValue()).getId());
+    verify(bytesMessage).setStringProperty(ActiveMQEventPublisherImpl.CONTENT_TYPE_PROPERTY,
+        JsonEventCodec.CONTENT_TYPE);
+    verify(session, never()).createObjectMessage(anyObject());
+  }
+
+  @Test
+  public void testSendCompressed() throws Exception {
+    publisher.setCompression(true);
+    publisher.setCompressionThreshold(1);
+    publisher.sendEventMessage(event);
+    createSentMessage();
+    ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+    verify(bytesMessage).writeBytes(payload.capture());
+    assertTrue("Event not compressed", EventBatch.isCompressed(payload.getValue()));
+  }
+
+  @Test
+  public void testSendObjectMessage() throws Exception {
+    when(session.createObjectMessage(event)).thenReturn(mock(ObjectMessage.class));
+    publisher.setObjectMessage(true);
+    publisher.sendEventMessage(event);
+    createSentMessage();
+    verify(session).createObjectMessage(event);
+    verify(session, never()).createBytesMessage();
+  }
+
+  @Test
+  public void testCloseSendsBatch() throws Exception {
+    publisher.setBatchSize(10);
+    publisher.setBatchLinger(60000);
+    publisher.sendEventMessage(event);
+    verify(template, never()).send(anyObject(MessageCreator.class));
+    publisher.close();
+    createSentMessage();
+    verify(bytesMessage).setIntProperty(ActiveMQEventPublisherImpl.EVENT_COUNT_PROPERTY, 1);
+  }
+
+  private void createSentMessage() throws Exception {
+    ArgumentCaptor<MessageCreator> creator = ArgumentCaptor.forClass(MessageCreator.class);
+    verify(template).send(creator.capture());
+    creator.getValue().createMessage(session);
+  }
+
+}
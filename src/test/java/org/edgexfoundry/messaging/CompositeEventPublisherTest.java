@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class CompositeEventPublisherTest {
+
+  private static final String TEST_DEVICE = "thermostat";
+
+  private static final String FAST = "fast";
+
+  private static final String SLOW = "slow";
+
+  private MetricsRegistry metrics;
+
+  private CompositeEventPublisher publisher;
+
+  private CountDownLatch release;
+
+  private CountDownLatch slowStarted;
+
+  private List<Event> published;
+
+  @Before
+  public void setup() {
+    metrics = new MetricsRegistry();
+    publisher = new CompositeEventPublisher(metrics, 1);
+    release = new CountDownLatch(1);
+    slowStarted = new CountDownLatch(1);
+    published = new CopyOnWriteArrayList<>();
+    publisher.addTransport(FAST, published::add);
+    publisher.addTransport(SLOW, event -> {
+      slowStarted.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+  }
+
+  @After
+  public void cleanup() {
+    release.countDown();
+    publisher.close();
+  }
+
+  @Test
+  public void testSlowTransportDoesNotBlock() throws InterruptedException {
+    publisher.sendEventMessage(new Event(TEST_DEVICE, null));
+    assertTrue("Slow transport not publishing", slowStarted.await(5, TimeUnit.SECONDS));
+    // one event being published and one queued, so the third is dropped by the slow transport
+    for (int i = 2; i <= 3; i++) {
+      publisher.sendEventMessage(new Event(TEST_DEVICE, null));
+      awaitPublished(i);
+    }
+    assertEquals("Fast transport held up", 3, published.size());
+    assertEquals("Dropped event not counted", 1,
+        metrics.counter(CompositeEventPublisher.DROPPED_METRIC, "transport", SLOW).getCount());
+    assertEquals("Fast transport dropped events", 0,
+        metrics.counter(CompositeEventPublisher.DROPPED_METRIC, "transport", FAST).getCount());
+  }
+
+  @Test
+  public void testErrorsCounted() throws InterruptedException {
+    CountDownLatch failed = new CountDownLatch(1);
+    publisher.addTransport("failing", event -> {
+      failed.countDown();
+      throw new IllegalStateException("test");
+    });
+    publisher.sendEventMessage(new Event(TEST_DEVICE, null));
+    assertTrue("Failing transport not called", failed.await(5, TimeUnit.SECONDS));
+    publisher.close();
+    assertEquals("Error not counted", 1, metrics
+        .counter(CompositeEventPublisher.ERROR_METRIC, "transport", "failing").getCount());
+  }
+
+  @Test
+  public void testCloseClosesTransports() {
+    ClosingPublisher closing = new ClosingPublisher();
+    publisher.addTransport("closing", closing);
+    publisher.sendEventMessage(new Event(TEST_DEVICE, null));
+    release.countDown();
+    publisher.close();
+    assertEquals("Queued event not published before closing", 1, closing.published.size());
+    assertTrue("Transport not closed", closing.closed);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDuplicateTransport() {
+    publisher.addTransport(FAST, published::add);
+  }
+
+  private void awaitPublished(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (published.size() < count && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+  }
+
+  private static class ClosingPublisher implements EventPublisher, Closeable {
+
+    private final List<Event> published = new CopyOnWriteArrayList<>();
+
+    private volatile boolean closed;
+
+    @Override
+    public void sendEventMessage(Event event) {
+      published.add(event);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+  }
+
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import static org.edgexfoundry.test.data.SampleData.TEST_DEVICE;
+import static org.edgexfoundry.test.data.SampleData.TEST_NAME;
+import static org.edgexfoundry.test.data.SampleData.savedEvent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.metrics.Tracer;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.google.gson.JsonParser;
+
+@Category(RequiresNone.class)
+public class EventBatchTest {
+
+  private static final String TEST_TRACE_ID = "trace1";
+
+  private JsonEventCodec codec = new JsonEventCodec();
+
+  @Test
+  public void testFrameRoundTrip() throws Exception {
+    EventBatch batch = new EventBatch();
+    Event first = savedEvent(TEST_DEVICE, 0);
+    batch.add(first, null);
+    batch.add(savedEvent(TEST_DEVICE, 0), TEST_TRACE_ID);
+    byte[] frame = batch.toFrame(codec);
+    assertTrue("Not a batch frame", EventBatch.isBatch(frame));
+    List<byte[]> payloads = EventBatch.payloads(frame);
+    assertEquals("Events not all packed", 2, payloads.size());
+    assertEquals("Events not in order", first.getId(), codec.decode(payloads.get(0)).getId());
+    assertEquals("Trace id not kept", TEST_TRACE_ID, new JsonParser()
+        .parse(new String(payloads.get(1))).getAsJsonObject().get(Tracer.TRACE_ID_PROPERTY)
+        .getAsString());
+  }
+
+  @Test
+  public void testEventFrameNotBatch() {
+    assertFalse("Event JSON taken for a batch",
+        EventBatch.isBatch(codec.encode(savedEvent(TEST_DEVICE, 0), null)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncatedFrame() throws Exception {
+    EventBatch batch = new EventBatch();
+    batch.add(savedEvent(TEST_DEVICE, 0), null);
+    byte[] frame = batch.toFrame(codec);
+    EventBatch.payloads(Arrays.copyOf(frame, frame.length - 1));
+  }
+
+  @Test
+  public void testCompressedFrame() throws Exception {
+    EventBatch batch = new EventBatch();
+    String[] names = Collections.nCopies(50, TEST_NAME).toArray(new String[0]);
+    batch.add(savedEvent(TEST_DEVICE, 0, names), null);
+    batch.add(savedEvent(TEST_DEVICE, 0, names), null);
+    byte[] plain = batch.toFrame(codec);
+    byte[] frame = batch.toFrame(codec, 1024);
+    assertTrue("Frame not flagged compressed", EventBatch.isCompressed(frame));
+    assertTrue("Frame not smaller", frame.length < plain.length);
+    List<byte[]> payloads = EventBatch.payloads(frame);
+    assertEquals("Events not all packed", 2, payloads.size());
+    assertEquals("Readings not decompressed", 50,
+        codec.decode(payloads.get(1)).getReadings().size());
+  }
+
+  @Test
+  public void testEventFrameBelowThreshold() throws Exception {
+    Event event = savedEvent(TEST_DEVICE, 0);
+    byte[] payload = codec.encode(event, null);
+    assertEquals("Small event not sent as is", payload,
+        EventBatch.eventFrame(payload, payload.length + 1));
+    byte[] frame = EventBatch.eventFrame(payload, payload.length);
+    assertTrue("Event at threshold not compressed", EventBatch.isCompressed(frame));
+    assertEquals("Compressed event not as sent", event.getId(),
+        codec.decode(EventBatch.payloads(frame).get(0)).getId());
+  }
+
+}
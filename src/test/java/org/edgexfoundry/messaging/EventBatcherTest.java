@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class EventBatcherTest {
+
+  private static final String TEST_DEVICE = "thermostat";
+
+  private List<EventBatch> sent;
+
+  @Before
+  public void setup() {
+    sent = new CopyOnWriteArrayList<>();
+  }
+
+  @Test
+  public void testFlushWhenFull() {
+    EventBatcher batcher = new EventBatcher(2, 60000, sent::add);
+    try {
+      for (int i = 0; i < 5; i++)
+        batcher.add(new Event(TEST_DEVICE, null));
+      assertEquals("Full batches not sent", 2, sent.size());
+      assertEquals("Batch size not as expected", 2, sent.get(0).size());
+    } finally {
+      batcher.close();
+    }
+    assertEquals("Partial batch not sent on close", 3, sent.size());
+    assertEquals("Partial batch size not as expected", 1, sent.get(2).size());
+  }
+
+  @Test
+  public void testFlushOnLinger() throws InterruptedException {
+    CountDownLatch flushed = new CountDownLatch(1);
+    EventBatcher batcher = new EventBatcher(100, 10, batch -> {
+      sent.add(batch);
+      flushed.countDown();
+    });
+    try {
+      batcher.add(new Event(TEST_DEVICE, null));
+      batcher.add(new Event(TEST_DEVICE, null));
+      assertTrue("Batch not sent after linger", flushed.await(5, TimeUnit.SECONDS));
+      assertEquals("Lingering events not sent together", 2, sent.get(0).size());
+    } finally {
+      batcher.close();
+    }
+  }
+
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import static org.edgexfoundry.test.data.SampleData.TEST_DEVICE;
+import static org.edgexfoundry.test.data.SampleData.TEST_NAME;
+import static org.edgexfoundry.test.data.SampleData.TEST_OTHER_DEVICE;
+import static org.edgexfoundry.test.data.SampleData.TEST_OTHER_NAME;
+import static org.edgexfoundry.test.data.SampleData.savedEvent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Category(RequiresNone.class)
+public class EventStreamTest {
+
+  private EventStream stream;
+
+  private MetricsRegistry metrics;
+
+  private List<Runnable> tasks;
+
+  private SseEmitter emitter;
+
+  @Before
+  public void setup() throws Exception {
+    emitter = mock(SseEmitter.class);
+    stream = new EventStream() {
+      @Override
+      SseEmitter newEmitter() {
+        return emitter;
+      }
+    };
+    metrics = new MetricsRegistry();
+    stream.metrics = metrics;
+    tasks = new ArrayList<>();
+    stream.streamExecutor = tasks::add;
+    setField("bufferSize", 2);
+    setField("maxSubscribers", 1);
+    stream.registerMetrics();
+  }
+
+  @Test
+  public void testPublish() throws Exception {
+    stream.subscribe(null, null);
+    Event event = savedEvent(TEST_DEVICE, 0, TEST_NAME, TEST_OTHER_NAME);
+    stream.publish(event);
+    runTasks();
+    verify(emitter).send(event, MediaType.APPLICATION_JSON);
+  }
+
+  @Test
+  public void testDeviceFilter() throws Exception {
+    stream.subscribe(TEST_DEVICE, null);
+    stream.publish(savedEvent(TEST_OTHER_DEVICE, 0, TEST_NAME, TEST_OTHER_NAME));
+    runTasks();
+    verify(emitter, never()).send(anyObject(), any(MediaType.class));
+  }
+
+  @Test
+  public void testReadingFilter() throws Exception {
+    stream.subscribe(null, TEST_NAME);
+    Event event = savedEvent(TEST_DEVICE, 0, TEST_NAME, TEST_OTHER_NAME);
+    stream.publish(event);
+    runTasks();
+    ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+    verify(emitter).send(sent.capture(), any(MediaType.class));
+    Event filtered = (Event) sent.getValue();
+    assertEquals("Event id not kept", event.getId(), filtered.getId());
+    assertEquals("Readings not filtered", 1, filtered.getReadings().size());
+    assertEquals("Readings not filtered", TEST_NAME, filtered.getReadings().get(0).getName());
+  }
+
+  @Test
+  public void testOneDrainAtATime() throws Exception {
+    stream.subscribe(null, null);
+    stream.publish(savedEvent(TEST_DEVICE, 0, TEST_NAME, TEST_OTHER_NAME));
+    stream.publish(savedEvent(TEST_DEVICE, 0, TEST_NAME, TEST_OTHER_NAME));
+    assertEquals("More than one drain scheduled", 1, tasks.size());
+    runTasks();
+    verify(emitter, times(2)).send(anyObject(), any(MediaType.class));
+  }
+
+  @Test
+  public void testSlowSubscriberDropped() throws Exception {
+    stream.subscribe(null, null);
+    for (int i = 0; i < 3; i++)
+      stream.publish(savedEvent(TEST_DEVICE, 0, TEST_NAME, TEST_OTHER_NAME));
+    assertFalse("Slow subscriber kept", stream.hasSubscribers());
+    verify(emitter).complete();
+    assertTrue("Drop not counted",
+        metrics.scrape().contains(EventStream.DROPPED_METRIC + " 1\n"));
+  }
+
+  @Test
+  public void testDisconnectedSubscriberDropped() throws Exception {
+    doThrow(new IOException()).when(emitter).send(anyObject(), any(MediaType.class));
+    stream.subscribe(null, null);
+    stream.publish(savedEvent(TEST_DEVICE, 0, TEST_NAME, TEST_OTHER_NAME));
+    runTasks();
+    assertFalse("Disconnected subscriber kept", stream.hasSubscribers());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMaxSubscribers() {
+    stream.subscribe(null, null);
+    stream.subscribe(null, null);
+  }
+
+  private void runTasks() {
+    while (!tasks.isEmpty())
+      tasks.remove(0).run();
+  }
+
+  private void setField(String name, Object value) throws Exception {
+    Field field = EventStream.class.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(stream, value);
+  }
+
+}
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.metrics.MetricsRegistry;
+import org.edgexfoundry.metrics.Tracer;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+@Category(RequiresNone.class)
+public class JournaledEventPublisherTest {
+
+  private static final String TEST_DEVICE = "thermostat";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private MetricsRegistry metrics;
+
+  private List<Event> published;
+
+  private List<String> traceIds;
+
+  private AtomicInteger failures;
+
+  private JournaledEventPublisher publisher;
+
+  @Before
+  public void setup() throws IOException {
+    metrics = new MetricsRegistry();
+    published = new CopyOnWriteArrayList<>();
+    traceIds = new CopyOnWriteArrayList<>();
+    failures = new AtomicInteger();
+    publisher = open();
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    publisher.close();
+  }
+
+  @Test
+  public void testDelivered() throws Exception {
+    publisher.sendEventMessage(new Event(TEST_DEVICE, null));
+    awaitPublished(1);
+    assertEquals("Event not delivered", TEST_DEVICE, published.get(0).getDevice());
+    assertEquals("Delivery not counted", 1,
+        metrics.counter(JournaledEventPublisher.DELIVERED_METRIC).getCount());
+  }
+
+  @Test
+  public void testRetriedUntilPublished() throws Exception {
+    failures.set(3);
+    publisher.sendEventMessage(new Event(TEST_DEVICE, null));
+    publisher.sendEventMessage(new Event("furnace", null));
+    awaitPublished(2);
+    assertEquals("Event lost or duplicated", 2, published.size());
+    assertEquals("Events out of order", TEST_DEVICE, published.get(0).getDevice());
+    assertEquals("Retries not counted", 3,
+        metrics.counter(JournaledEventPublisher.RETRY_METRIC).getCount());
+  }
+
+  @Test
+  public void testUndeliveredKeptAcrossRestart() throws Exception {
+    failures.set(Integer.MAX_VALUE);
+    publisher.sendEventMessage(new Event(TEST_DEVICE, null));
+    publisher.close();
+    failures.set(0);
+    publisher = open();
+    awaitPublished(1);
+    assertEquals("Journaled event not delivered after restart", 1, published.size());
+  }
+
+  @Test
+  public void testTraceIdKept() throws Exception {
+    Tracer.runWithTraceId("trace-1",
+        () -> publisher.sendEventMessage(new Event(TEST_DEVICE, null)));
+    awaitPublished(1);
+    assertEquals("Trace id not restored for publishing", "trace-1", traceIds.get(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnconfirmedPublisherRejected() throws IOException {
+    OutboundJournal journal = OutboundJournal.open(folder.newFolder().toPath(), 4096, 0, false);
+    try {
+      new JournaledEventPublisher(journal, published::add, metrics, 1, 10);
+    } finally {
+      journal.close();
+    }
+  }
+
+  private JournaledEventPublisher open() throws IOException {
+    OutboundJournal journal = OutboundJournal.open(folder.getRoot().toPath(), 4096, 0, false);
+    return new JournaledEventPublisher(journal, new ConfirmingPublisher(), metrics, 1, 10);
+  }
+
+  private void awaitPublished(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (published.size() < count && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    assertTrue("Events not published", published.size() >= count);
+  }
+
+  private class ConfirmingPublisher implements EventPublisher {
+
+    @Override
+    public void sendEventMessage(Event event) {
+      if (failures.getAndDecrement() > 0)
+        throw new IllegalStateException("test");
+      traceIds.add(String.valueOf(Tracer.currentTraceId()));
+      published.add(event);
+    }
+
+    @Override
+    public boolean confirmsDelivery() {
+      return true;
+    }
+
+  }
+
+}
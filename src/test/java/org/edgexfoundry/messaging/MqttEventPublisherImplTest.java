@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.messaging.impl.MqttEventPublisherImpl;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+
+@Category(RequiresNone.class)
+public class MqttEventPublisherImplTest {
+
+  private static final String TEST_DEVICE = "thermostat";
+
+  private static final String TEST_TOPIC = "edgex/events/thermostat";
+
+  private static final long TIMEOUT = 5000;
+
+  private MqttEventPublisherImpl publisher;
+
+  private IMqttAsyncClient client;
+
+  @Before
+  public void setup() throws Exception {
+    client = mock(IMqttAsyncClient.class);
+    publisher = new MqttEventPublisherImpl() {
+      @Override
+      protected IMqttAsyncClient newClient() {
+        return client;
+      }
+    };
+    publisher.setQos(1);
+    publisher.setOfflineBufferSize(2);
+    publisher.start();
+  }
+
+  @After
+  public void cleanup() {
+    publisher.close();
+  }
+
+  @Test
+  public void testPublishWhenConnected() throws Exception {
+    connected();
+    publisher.sendEventMessage(new Event(TEST_DEVICE, null));
+    verify(client).publish(eq(TEST_TOPIC), any(byte[].class), eq(1), eq(false), isNull(),
+        any(IMqttActionListener.class));
+    assertEquals("Published event buffered", 0, publisher.getBuffered());
+  }
+
+  @Test
+  public void testBufferUntilConnected() throws Exception {
+    for (int i = 0; i < 3; i++)
+      publisher.sendEventMessage(new Event(TEST_DEVICE, null));
+    assertEquals("Offline buffer not bounded", 2, publisher.getBuffered());
+    verify(client, never()).publish(eq(TEST_TOPIC), any(byte[].class), eq(1), eq(false),
+        isNull(), any(IMqttActionListener.class));
+    connected();
+    verify(client, timeout(TIMEOUT).times(2)).publish(eq(TEST_TOPIC), any(byte[].class), eq(1),
+        eq(false), isNull(), any(IMqttActionListener.class));
+  }
+
+  @Test
+  public void testBufferAfterConnectionLost() throws Exception {
+    connected();
+    publisher.connectionLost(new Exception("test"));
+    publisher.sendEventMessage(new Event(TEST_DEVICE, null));
+    assertEquals("Event not buffered", 1, publisher.getBuffered());
+    verify(client, times(0)).publish(eq(TEST_TOPIC), any(byte[].class), eq(1), eq(false),
+        isNull(), any(IMqttActionListener.class));
+  }
+
+  @Test
+  public void testConfirmedDelivery() throws Exception {
+    IMqttDeliveryToken token = mock(IMqttDeliveryToken.class);
+    when(client.publish(eq(TEST_TOPIC), any(byte[].class), eq(1), eq(false), isNull(),
+        any(IMqttActionListener.class))).thenReturn(token);
+    publisher.setConfirmDelivery(true);
+    assertTrue("Delivery not confirmed", publisher.confirmsDelivery());
+    connected();
+    publisher.sendEventMessage(new Event(TEST_DEVICE, null));
+    verify(token).waitForCompletion(anyLong());
+    assertEquals("Confirmed event buffered", 0, publisher.getBuffered());
+  }
+
+  @Test
+  public void testQos0NotConfirmed() {
+    publisher.setConfirmDelivery(true);
+    publisher.setQos(0);
+    assertFalse("QoS 0 taken as confirmed", publisher.confirmsDelivery());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testConfirmedDeliveryFailsWhenDisconnected() {
+    publisher.setConfirmDelivery(true);
+    publisher.sendEventMessage(new Event(TEST_DEVICE, null));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidQos() {
+    publisher.setQos(3);
+  }
+
+  private void connected() throws Exception {
+    ArgumentCaptor<IMqttActionListener> listener =
+        ArgumentCaptor.forClass(IMqttActionListener.class);
+    verify(client).connect(any(MqttConnectOptions.class), isNull(), listener.capture());
+    listener.getValue().onSuccess(null);
+  }
+
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+@Category(RequiresNone.class)
+public class OutboundJournalTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private OutboundJournal journal;
+
+  @Before
+  public void setup() throws IOException {
+    journal = open(4096, 0);
+  }
+
+  @After
+  public void cleanup() {
+    journal.close();
+  }
+
+  @Test
+  public void testAppendPeekAck() throws IOException {
+    journal.append(bytes("one"));
+    journal.append(bytes("two"));
+    assertEquals("Backlog not as expected", 2, journal.backlog());
+    assertArrayEquals("Oldest message not first", bytes("one"), journal.peek());
+    assertArrayEquals("Peek moved on without ack", bytes("one"), journal.peek());
+    journal.ack();
+    assertArrayEquals("Next message not returned", bytes("two"), journal.peek());
+    journal.ack();
+    assertNull("Acknowledged message returned", journal.peek());
+    assertEquals("Backlog not empty", 0, journal.backlog());
+    assertEquals("Backlog bytes not empty", 0, journal.backlogBytes());
+  }
+
+  @Test
+  public void testReopen() throws IOException {
+    journal.append(bytes("one"));
+    journal.append(bytes("two"));
+    journal.peek();
+    journal.ack();
+    journal.close();
+    journal = open(4096, 0);
+    assertEquals("Backlog not recovered", 1, journal.backlog());
+    assertArrayEquals("Unacknowledged message not recovered", bytes("two"), journal.peek());
+    journal.append(bytes("three"));
+    journal.ack();
+    assertArrayEquals("Message appended after reopening lost", bytes("three"), journal.peek());
+  }
+
+  @Test
+  public void testTornRecordIgnored() throws IOException {
+    journal.append(bytes("one"));
+    journal.append(bytes("two"));
+    journal.close();
+    // corrupt the payload of the second record, as if torn by a crash
+    Path segment = folder.getRoot().toPath().resolve(0 + OutboundJournal.SUFFIX);
+    try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+      file.seek(8 + 3 + 8);
+      file.write('x');
+    }
+    journal = open(4096, 0);
+    assertEquals("Torn record recovered", 1, journal.backlog());
+    journal.peek();
+    journal.ack();
+    journal.append(bytes("three"));
+    assertArrayEquals("Append after torn record lost", bytes("three"), journal.peek());
+  }
+
+  @Test
+  public void testClosedJournalRejectsCalls() throws IOException {
+    journal.append(bytes("one"));
+    journal.peek();
+    journal.close();
+    assertNull("Message read after close", journal.peek());
+    try {
+      journal.ack();
+      fail("Message acknowledged after close");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    try {
+      journal.append(bytes("two"));
+      fail("Message appended after close");
+    } catch (IOException e) {
+      // expected
+    }
+    journal = open(4096, 0);
+    assertArrayEquals("Unacknowledged message lost on close", bytes("one"), journal.peek());
+  }
+
+  @Test
+  public void testSegmentRollover() throws IOException {
+    journal.close();
+    journal = open(64, 0);
+    for (int i = 0; i < 20; i++)
+      journal.append(bytes("message " + i));
+    journal.close();
+    journal = open(64, 0);
+    assertEquals("Messages lost across segments", 20, journal.backlog());
+    for (int i = 0; i < 20; i++) {
+      assertArrayEquals("Messages out of order", bytes("message " + i), journal.peek());
+      journal.ack();
+    }
+    assertEquals("Delivered segments not deleted", 1, segmentFiles());
+  }
+
+  @Test(expected = IOException.class)
+  public void testFull() throws IOException {
+    journal.close();
+    journal = open(64, 128);
+    for (int i = 0; i < 20; i++)
+      journal.append(bytes("message " + i));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMessageTooLarge() throws IOException {
+    journal.close();
+    journal = open(64, 0);
+    journal.append(new byte[64]);
+  }
+
+  private OutboundJournal open(int segmentSize, long maxSize) throws IOException {
+    return OutboundJournal.open(folder.getRoot().toPath(), segmentSize, maxSize, false);
+  }
+
+  private long segmentFiles() throws IOException {
+    return Files.list(folder.getRoot().toPath())
+        .filter(path -> path.toString().endsWith(OutboundJournal.SUFFIX)).count();
+  }
+
+  private static byte[] bytes(String message) {
+    return message.getBytes(StandardCharsets.UTF_8);
+  }
+
+}
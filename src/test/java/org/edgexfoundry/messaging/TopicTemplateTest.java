@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.messaging;
+
+import static org.edgexfoundry.test.data.SampleData.TEST_DEVICE;
+import static org.edgexfoundry.test.data.SampleData.TEST_NAME;
+import static org.edgexfoundry.test.data.SampleData.TEST_OTHER_NAME;
+import static org.edgexfoundry.test.data.SampleData.savedEvent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class TopicTemplateTest {
+
+  @Test
+  public void testTopic() {
+    TopicTemplate template = new TopicTemplate("edgex/{device}/{name}");
+    assertEquals("Placeholders not replaced", "edgex/thermostat/temperature",
+        template.topic(TEST_DEVICE, TEST_NAME));
+    assertTrue("Template not per reading name", template.isPerReadingName());
+  }
+
+  @Test
+  public void testSplitByDevice() {
+    TopicTemplate template = new TopicTemplate("device/{device}");
+    Event event = savedEvent(TEST_DEVICE, 0, TEST_NAME, TEST_OTHER_NAME, TEST_NAME);
+    Map<String, Event> messages = template.split(event);
+    assertFalse("Template per reading name", template.isPerReadingName());
+    assertEquals("Event split", 1, messages.size());
+    assertEquals("Event not sent whole", event, messages.get("device/thermostat"));
+  }
+
+  @Test
+  public void testSplitByReadingName() {
+    Event event = savedEvent(TEST_DEVICE, 0, TEST_NAME, TEST_OTHER_NAME, TEST_NAME);
+    Map<String, Event> messages = new TopicTemplate("device/{device}/{name}").split(event);
+    assertEquals("Event not split by reading name", 2, messages.size());
+    Iterator<Map.Entry<String, Event>> iterator = messages.entrySet().iterator();
+    Map.Entry<String, Event> first = iterator.next();
+    assertEquals("Topics not in reading order", "device/thermostat/temperature", first.getKey());
+    assertEquals("Readings of name not grouped", 2, first.getValue().getReadings().size());
+    assertEquals("Event id not kept", event.getId(), first.getValue().getId());
+    Map.Entry<String, Event> second = iterator.next();
+    assertEquals("Topics not in reading order", "device/thermostat/humidity", second.getKey());
+    assertEquals("Readings of other names included", 1, second.getValue().getReadings().size());
+  }
+
+  @Test
+  public void testSplitWithoutReadings() {
+    Event event = new Event(TEST_DEVICE, null);
+    Map<String, Event> messages = new TopicTemplate("device/{device}/{name}").split(event);
+    assertEquals("Event without readings not sent", event, messages.get("device/thermostat/"));
+  }
+
+}
@@ -18,6 +18,9 @@
 
 package org.edgexfoundry.messaging;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import java.io.IOException;
 
 import org.edgexfoundry.domain.core.Event;
@@ -27,6 +30,7 @@ import org.edgexfoundry.test.data.EventData;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.zeromq.ZMQ;
 
 @Category(RequiresNone.class)
 public class ZeroMQEventPublishingImplTest {
@@ -47,4 +51,94 @@ public class ZeroMQEventPublishingImplTest {
     publisher.sendEventMessage(event);
   }
 
+  @Test
+  public void testSendEventWithTopic() {
+    ZeroMQEventPublisherImpl topicPublisher = new ZeroMQEventPublisherImpl();
+    topicPublisher.setZeromqAddressPort("tcp://*:5564");
+    topicPublisher.setTopic("device/{device}");
+    ZMQ.Context context = ZMQ.context(1);
+    ZMQ.Socket subscriber = context.socket(ZMQ.SUB);
+    try {
+      subscriber.setReceiveTimeOut(5000);
+      subscriber.connect("tcp://localhost:5564");
+      subscriber.subscribe(("device/" + EventData.TEST_DEVICE_ID).getBytes());
+      // the publisher waits for subscribers to connect before its first send
+      topicPublisher.sendEventMessage(event);
+      assertEquals("Topic frame not sent", "device/" + EventData.TEST_DEVICE_ID,
+          new String(subscriber.recv()));
+      assertTrue("Event frame not sent", subscriber.hasReceiveMore());
+      assertTrue("Event not sent as JSON", new String(subscriber.recv()).startsWith("{"));
+    } finally {
+      subscriber.close();
+      context.term();
+    }
+  }
+
+  @Test
+  public void testSendEventSharded() {
+    ZeroMQEventPublisherImpl shardedPublisher = new ZeroMQEventPublisherImpl();
+    shardedPublisher.setZeromqAddressPort("tcp://*:5565");
+    shardedPublisher.setShards(2);
+    ZMQ.Context context = ZMQ.context(1);
+    ZMQ.Socket subscriber = context.socket(ZMQ.SUB);
+    try {
+      subscriber.setReceiveTimeOut(5000);
+      subscriber.connect("tcp://localhost:5565");
+      subscriber.connect("tcp://localhost:5566");
+      subscriber.subscribe("".getBytes());
+      shardedPublisher.sendEventMessage(event);
+      byte[] received = subscriber.recv();
+      assertTrue("Event not sent on a shard", received != null);
+      assertTrue("Event not sent as JSON", new String(received).startsWith("{"));
+    } finally {
+      subscriber.close();
+      context.term();
+    }
+  }
+
+  @Test
+  public void testSendEventsBatched() {
+    ZeroMQEventPublisherImpl batchPublisher = new ZeroMQEventPublisherImpl();
+    batchPublisher.setZeromqAddressPort("tcp://*:5567");
+    batchPublisher.setBatchSize(2);
+    ZMQ.Context context = ZMQ.context(1);
+    ZMQ.Socket subscriber = context.socket(ZMQ.SUB);
+    try {
+      subscriber.setReceiveTimeOut(5000);
+      subscriber.connect("tcp://localhost:5567");
+      subscriber.subscribe("".getBytes());
+      batchPublisher.sendEventMessage(event);
+      batchPublisher.sendEventMessage(new Event(EventData.TEST_DEVICE_ID));
+      byte[] received = subscriber.recv();
+      assertTrue("Batch not sent", received != null && EventBatch.isBatch(received));
+      assertEquals("Events not sent in one batch", 2, EventBatch.payloads(received).size());
+    } finally {
+      subscriber.close();
+      context.term();
+    }
+  }
+
+  @Test
+  public void testCloseSendsBatch() {
+    ZeroMQEventPublisherImpl batchPublisher = new ZeroMQEventPublisherImpl();
+    batchPublisher.setZeromqAddressPort("tcp://*:5568");
+    batchPublisher.setBatchSize(10);
+    batchPublisher.setBatchLinger(60000);
+    ZMQ.Context context = ZMQ.context(1);
+    ZMQ.Socket subscriber = context.socket(ZMQ.SUB);
+    try {
+      subscriber.setReceiveTimeOut(5000);
+      subscriber.connect("tcp://localhost:5568");
+      subscriber.subscribe("".getBytes());
+      batchPublisher.sendEventMessage(event);
+      batchPublisher.close();
+      byte[] received = subscriber.recv();
+      assertTrue("Batch not sent on close", received != null && EventBatch.isBatch(received));
+      assertEquals("Batch not as filled", 1, EventBatch.payloads(received).size());
+    } finally {
+      subscriber.close();
+      context.term();
+    }
+  }
+
 }
@@ -18,41 +18,46 @@
 
 package org.edgexfoundry.messaging.integration;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.ObjectInput;
-import java.io.ObjectInputStream;
-
 import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.messaging.EventBatch;
+import org.edgexfoundry.messaging.JsonEventCodec;
 import org.zeromq.ZMQ;
 
 /**
  * This is not a test class!!
  * 
  * Use this class to hook up to and see events coming through the ZeroMQ topic(s) during development
- * or test.
+ * or test. Pass a topic prefix (e.g. device/thermostat) as the argument to only watch those events
+ * when core data publishes with topics (zeromq.topic). Batch frames (msgpub.batch.size) are
+ * unpacked into their events.
  * 
  */
 public class MessageTestClient {
 
-  private static Event toEvent(byte[] eventBytes) throws IOException, ClassNotFoundException {
-    ByteArrayInputStream bis = new ByteArrayInputStream(eventBytes);
-    ObjectInput in = new ObjectInputStream(bis);
-    Event event = (Event) in.readObject();
-    return event;
-  }
-
-  public static void main(String[] args)
-      throws ClassNotFoundException, IOException, InterruptedException {
+  public static void main(String[] args) {
+    String prefix = args.length > 0 ? args[0] : "";
+    JsonEventCodec codec = new JsonEventCodec();
     ZMQ.Context context = ZMQ.context(1);
-    System.out.println("Watching for events from event topic");
+    System.out.println("Watching for events from event topic " + prefix);
     ZMQ.Socket subscriber = context.socket(ZMQ.SUB);
     subscriber.connect("tcp://localhost:5563");
-    subscriber.subscribe("".getBytes());
-    Event event = null;
+    subscriber.subscribe(prefix.getBytes());
     while (!Thread.currentThread().isInterrupted()) {
-      event = toEvent(subscriber.recv());
-      System.out.println("Event is: " + event);
+      String topic = null;
+      byte[] message = subscriber.recv();
+      // a topic frame, if any, comes ahead of the event
+      while (subscriber.hasReceiveMore()) {
+        topic = new String(message);
+        message = subscriber.recv();
+      }
+      String label = topic == null ? "" : topic + ":  ";
+      if (EventBatch.isBatch(message)) {
+        for (byte[] payload : EventBatch.payloads(message))
+          System.out.println(label + "Batched event is: " + codec.decode(payload));
+      } else {
+        Event event = codec.decode(message);
+        System.out.println(label + "Event is: " + event);
+      }
     }
   }
 
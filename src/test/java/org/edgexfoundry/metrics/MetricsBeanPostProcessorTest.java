@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.lang.reflect.Field;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.messaging.EventPublisher;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.EventData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+@Category(RequiresNone.class)
+public class MetricsBeanPostProcessorTest {
+
+  private static final String BEAN_NAME = "test";
+
+  @InjectMocks
+  private MetricsBeanPostProcessor processor;
+
+  @Spy
+  MetricsRegistry metrics = new MetricsRegistry();
+
+  private EventPublisher publisher;
+
+  @Before
+  public void setup() throws Exception {
+    MockitoAnnotations.initMocks(this);
+    setEnabled(true);
+    publisher = mock(EventPublisher.class);
+  }
+
+  @Test
+  public void testPublisherTimed() {
+    EventPublisher proxy =
+        (EventPublisher) processor.postProcessAfterInitialization(publisher, BEAN_NAME);
+    proxy.sendEventMessage(EventData.newTestInstance());
+    assertEquals("Publish not timed", 1,
+        metrics.timer(MetricsBeanPostProcessor.EVENT_PUBLISH_METRIC, "method", "sendEventMessage")
+            .getCount());
+  }
+
+  @Test
+  public void testPublisherErrorCounted() {
+    doThrow(new RuntimeException()).when(publisher).sendEventMessage(any(Event.class));
+    EventPublisher proxy =
+        (EventPublisher) processor.postProcessAfterInitialization(publisher, BEAN_NAME);
+    try {
+      proxy.sendEventMessage(EventData.newTestInstance());
+    } catch (RuntimeException e) {
+      // expected
+    }
+    assertEquals("Publish error not counted", 1,
+        metrics.counter("core_data_event_publish_errors_total", "method", "sendEventMessage")
+            .getCount());
+  }
+
+  @Test
+  public void testOtherBeansNotProxied() {
+    Object bean = new Object();
+    assertSame("Uninstrumented bean should not be proxied", bean,
+        processor.postProcessAfterInitialization(bean, BEAN_NAME));
+    assertNotSame("Instrumented bean should be proxied", publisher,
+        processor.postProcessAfterInitialization(publisher, BEAN_NAME));
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    setEnabled(false);
+    assertSame("Bean should not be proxied when metrics are disabled", publisher,
+        processor.postProcessAfterInitialization(publisher, BEAN_NAME));
+  }
+
+  private void setEnabled(boolean enabled) throws Exception {
+    Class<?> processorClass = processor.getClass();
+    Field temp = processorClass.getDeclaredField("enabled");
+    temp.setAccessible(true);
+    temp.set(processor, enabled);
+  }
+
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class MetricsRegistryTest {
+
+  private static final String TIMER_NAME = "test_seconds";
+
+  private static final String COUNTER_NAME = "test_total";
+
+  private static final String GAUGE_NAME = "test_gauge";
+
+  private MetricsRegistry registry;
+
+  @Before
+  public void setup() {
+    registry = new MetricsRegistry();
+  }
+
+  @Test
+  public void testSameMeterForSameLabels() {
+    assertSame("Timer should be reused for the same labels", registry.timer(TIMER_NAME, "a", "b"),
+        registry.timer(TIMER_NAME, "a", "b"));
+  }
+
+  @Test
+  public void testTimer() {
+    Timer timer = registry.timer(TIMER_NAME);
+    timer.record(2000000000L);
+    timer.record(1000000000L);
+    assertEquals("Timer count not as expected", 2, timer.getCount());
+    assertEquals("Timer max not as expected", 2000000000L, timer.getMaxNanos());
+    String scrape = registry.scrape();
+    assertTrue("Timer count not rendered", scrape.contains(TIMER_NAME + "_count 2\n"));
+    assertTrue("Timer sum not rendered", scrape.contains(TIMER_NAME + "_sum 3.0\n"));
+    assertTrue("Timer max not rendered", scrape.contains(TIMER_NAME + "_max 2.0\n"));
+    assertTrue("Timer max should not reset on scrape",
+        registry.scrape().contains(TIMER_NAME + "_max 2.0\n"));
+  }
+
+  @Test
+  public void testTimerMaxWindow() {
+    AtomicLong now = new AtomicLong();
+    Timer timer = new Timer(now::get, 100);
+    timer.record(20);
+    now.set(150);
+    timer.record(10);
+    assertEquals("Max of previous window not kept", 20, timer.getMaxNanos());
+    now.set(200);
+    assertEquals("Max of expired window kept", 10, timer.getMaxNanos());
+    now.set(450);
+    assertEquals("Max kept after idle windows", 0, timer.getMaxNanos());
+  }
+
+  @Test
+  public void testCounterWithLabels() {
+    registry.counter(COUNTER_NAME, "method", "add").increment(3);
+    assertTrue("Counter not rendered",
+        registry.scrape().contains("# TYPE " + COUNTER_NAME + " counter\n" + COUNTER_NAME
+            + "{method=\"add\"} 3\n"));
+  }
+
+  @Test
+  public void testGauge() {
+    registry.gauge(GAUGE_NAME, () -> 5);
+    assertTrue("Gauge not rendered", registry.scrape().contains(GAUGE_NAME + " 5\n"));
+  }
+
+  @Test
+  public void testLabelEscaping() {
+    registry.counter(COUNTER_NAME, "name", "a\"b").increment();
+    assertTrue("Label value not escaped",
+        registry.scrape().contains(COUNTER_NAME + "{name=\"a\\\"b\"} 1\n"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnpairedLabels() {
+    registry.counter(COUNTER_NAME, "method");
+  }
+
+}
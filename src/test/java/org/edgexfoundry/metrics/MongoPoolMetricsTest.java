@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class MongoPoolMetricsTest {
+
+  private static final int MAX_SIZE = 10;
+
+  private static final String TEST_POOL =
+      "org.mongodb.driver:type=ConnectionPool,clusterId=test,host=localhost,port=27017";
+
+  private MongoPoolMetrics poolMetrics;
+
+  private ObjectName pool;
+
+  @Before
+  public void setup() throws Exception {
+    poolMetrics = new MongoPoolMetrics();
+    poolMetrics.metrics = new MetricsRegistry();
+    poolMetrics.registerMetrics();
+    pool = new ObjectName(TEST_POOL);
+    ManagementFactory.getPlatformMBeanServer()
+        .registerMBean(new StandardMBean(new TestPool(), PoolStatistics.class), pool);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    if (ManagementFactory.getPlatformMBeanServer().isRegistered(pool))
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(pool);
+  }
+
+  @Test
+  public void testUtilization() {
+    assertEquals("Size not as expected", 3, poolMetrics.getSize());
+    assertEquals("Max size not as expected", MAX_SIZE, poolMetrics.getMaxSize());
+    assertEquals("Checked out not as expected", 1, poolMetrics.getCheckedOut());
+    assertEquals("Utilization not as expected", 0.1, poolMetrics.getUtilization(), 0.0001);
+  }
+
+  @Test
+  public void testGauges() {
+    String scrape = poolMetrics.metrics.scrape();
+    assertEquals("Wait queue not as expected", 2, poolMetrics.getWaitQueueSize());
+    assertTrue("Wait queue gauge not published",
+        scrape.contains("core_data_mongo_pool_wait_queue_size 2"));
+  }
+
+  @Test
+  public void testNoPool() throws Exception {
+    ManagementFactory.getPlatformMBeanServer().unregisterMBean(pool);
+    assertEquals("Max size without pool", 0, poolMetrics.getMaxSize());
+    assertEquals("Utilization without pool", 0, poolMetrics.getUtilization(), 0);
+  }
+
+  public interface PoolStatistics {
+
+    int getSize();
+
+    int getMaxSize();
+
+    int getCheckedOutCount();
+
+    int getWaitQueueSize();
+
+  }
+
+  private static class TestPool implements PoolStatistics {
+
+    @Override
+    public int getSize() {
+      return 3;
+    }
+
+    @Override
+    public int getMaxSize() {
+      return MAX_SIZE;
+    }
+
+    @Override
+    public int getCheckedOutCount() {
+      return 1;
+    }
+
+    @Override
+    public int getWaitQueueSize() {
+      return 2;
+    }
+
+  }
+
+}
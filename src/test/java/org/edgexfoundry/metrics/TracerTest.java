@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Field;
+
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+@Category(RequiresNone.class)
+public class TracerTest {
+
+  private static final String TRACE_NAME = "test";
+
+  private static final String STAGE = "stage1";
+
+  @InjectMocks
+  private Tracer tracer;
+
+  @Spy
+  MetricsRegistry metrics = new MetricsRegistry();
+
+  @Before
+  public void setup() throws Exception {
+    MockitoAnnotations.initMocks(this);
+    setField("enabled", true);
+    setField("slowThreshold", 0L);
+    setField("slowSampleRate", 0.0);
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    setField("enabled", false);
+    Trace trace = tracer.start(TRACE_NAME);
+    assertSame("Disabled tracer should not record", Trace.NONE, trace);
+    assertFalse("Disabled trace should not be recording", trace.isRecording());
+  }
+
+  @Test
+  public void testFinishRecordsStages() {
+    Trace trace = tracer.start(TRACE_NAME);
+    trace.mark(STAGE);
+    tracer.finish(trace);
+    assertEquals("Stage not timed", 1,
+        metrics.timer(Tracer.STAGE_METRIC, "trace", TRACE_NAME, "stage", STAGE).getCount());
+    assertEquals("Total not timed", 1,
+        metrics.timer(Tracer.STAGE_METRIC, "trace", TRACE_NAME, "stage", "total").getCount());
+    assertEquals("Slow trace not counted", 1,
+        metrics.counter(Tracer.SLOW_METRIC, "trace", TRACE_NAME).getCount());
+  }
+
+  @Test
+  public void testRunInScope() throws Exception {
+    Trace trace = tracer.start(TRACE_NAME);
+    String[] seen = new String[1];
+    tracer.runInScope(trace, () -> seen[0] = Tracer.currentTraceId());
+    assertNull("Trace id should not propagate unless enabled", seen[0]);
+    setField("propagate", true);
+    tracer.runInScope(trace, () -> seen[0] = Tracer.currentTraceId());
+    assertEquals("Trace id not propagated", trace.getId(), seen[0]);
+    assertNull("Trace id should not outlive its scope", Tracer.currentTraceId());
+  }
+
+  @Test
+  public void testInCurrentScope() throws Exception {
+    setField("propagate", true);
+    Trace trace = tracer.start(TRACE_NAME);
+    String[] seen = new String[1];
+    Runnable[] handedOff = new Runnable[1];
+    tracer.runInScope(trace,
+        () -> handedOff[0] = Tracer.inCurrentScope(() -> seen[0] = Tracer.currentTraceId()));
+    Thread thread = new Thread(handedOff[0]);
+    thread.start();
+    thread.join();
+    assertEquals("Trace id not handed off", trace.getId(), seen[0]);
+  }
+
+  private void setField(String name, Object value) throws Exception {
+    Field field = tracer.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(tracer, value);
+  }
+
+}
@@ -18,12 +18,35 @@
 
 package org.edgexfoundry.suites;
 
+import org.edgexfoundry.cache.DeviceValueDescriptorCacheTest;
+import org.edgexfoundry.cache.LatestReadingCacheTest;
+import org.edgexfoundry.cache.ReadingReferenceCounterTest;
+import org.edgexfoundry.cache.RecentReadingsCacheTest;
+import org.edgexfoundry.cache.ValueDescriptorIndexTest;
+import org.edgexfoundry.controller.AsyncRequestRunnerTest;
 import org.edgexfoundry.controller.EventControllerTest;
+import org.edgexfoundry.controller.IngestControllerTest;
 import org.edgexfoundry.controller.PingControllerTest;
 import org.edgexfoundry.controller.ReadingControllerTest;
 import org.edgexfoundry.controller.ThreadTasksTest;
 import org.edgexfoundry.controller.ValueDescriptorTest;
+import org.edgexfoundry.dao.embedded.EmbeddedCollectionTest;
+import org.edgexfoundry.dao.embedded.SegmentStoreTest;
+import org.edgexfoundry.dao.mongo.EntityWriteConcernResolverTest;
+import org.edgexfoundry.messaging.ActiveMQEventPublisherImplTest;
+import org.edgexfoundry.messaging.CompositeEventPublisherTest;
+import org.edgexfoundry.messaging.EventBatchTest;
+import org.edgexfoundry.messaging.EventBatcherTest;
+import org.edgexfoundry.messaging.EventStreamTest;
+import org.edgexfoundry.messaging.JournaledEventPublisherTest;
+import org.edgexfoundry.messaging.MqttEventPublisherImplTest;
+import org.edgexfoundry.messaging.OutboundJournalTest;
+import org.edgexfoundry.messaging.TopicTemplateTest;
 import org.edgexfoundry.messaging.ZeroMQEventPublishingImplTest;
+import org.edgexfoundry.metrics.MetricsBeanPostProcessorTest;
+import org.edgexfoundry.metrics.MetricsRegistryTest;
+import org.edgexfoundry.metrics.MongoPoolMetricsTest;
+import org.edgexfoundry.metrics.TracerTest;
 import org.junit.Ignore;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -39,7 +62,17 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({EventControllerTest.class, PingControllerTest.class,
     ReadingControllerTest.class, ThreadTasksTest.class, ValueDescriptorTest.class,
-    ZeroMQEventPublishingImplTest.class})
+    ZeroMQEventPublishingImplTest.class, ValueDescriptorIndexTest.class,
+    ReadingReferenceCounterTest.class, DeviceValueDescriptorCacheTest.class,
+    AsyncRequestRunnerTest.class, IngestControllerTest.class, MetricsRegistryTest.class,
+    MetricsBeanPostProcessorTest.class, TracerTest.class, MongoPoolMetricsTest.class,
+    EntityWriteConcernResolverTest.class,
+    EmbeddedCollectionTest.class, SegmentStoreTest.class,
+    RecentReadingsCacheTest.class, LatestReadingCacheTest.class, EventStreamTest.class,
+    TopicTemplateTest.class, EventBatchTest.class, EventBatcherTest.class,
+    ActiveMQEventPublisherImplTest.class, MqttEventPublisherImplTest.class,
+    CompositeEventPublisherTest.class, OutboundJournalTest.class,
+    JournaledEventPublisherTest.class})
 public class UnitTestSuite {
 
 }
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-data
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.test.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.bson.types.ObjectId;
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+
+/**
+ * Readings and events for the unit tests of the caches, stores and publishers.
+ */
+public interface SampleData {
+
+  static final String TEST_DEVICE = "thermostat";
+
+  static final String TEST_OTHER_DEVICE = "furnace";
+
+  static final String TEST_NAME = "temperature";
+
+  static final String TEST_OTHER_NAME = "humidity";
+
+  static final String TEST_VALUE = "72";
+
+  /**
+   * @return a reading not yet saved, so without an id
+   */
+  static Reading newReading(String device, String name, long created) {
+    Reading reading = new Reading();
+    reading.setName(name);
+    reading.setValue(TEST_VALUE);
+    reading.setDevice(device);
+    reading.setCreated(created);
+    return reading;
+  }
+
+  /**
+   * @return a reading as the database returns it, with an id of its own
+   */
+  static Reading savedReading(String device, String name, long created) {
+    Reading reading = newReading(device, name, created);
+    reading.setId(new ObjectId().toHexString());
+    return reading;
+  }
+
+  /**
+   * @return an event not yet saved holding the readings given, or none if there are none
+   */
+  static Event newEvent(String device, long created, Reading... readings) {
+    Event event =
+        new Event(device, readings.length == 0 ? null : new ArrayList<>(Arrays.asList(readings)));
+    event.setCreated(created);
+    return event;
+  }
+
+  /**
+   * @return an event as the database returns it, with an id of its own and a saved reading of
+   *         each name given, or no readings if there are no names
+   */
+  static Event savedEvent(String device, long created, String... names) {
+    Event event = newEvent(device, created, Arrays.stream(names)
+        .map(name -> savedReading(device, name, created)).toArray(Reading[]::new));
+    event.setId(new ObjectId().toHexString());
+    return event;
+  }
+
+}